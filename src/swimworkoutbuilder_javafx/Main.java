@@ -2,28 +2,52 @@ package swimworkoutbuilder_javafx;
 
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import javafx.application.Application;
-import javafx.collections.FXCollections;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonBar;
+import javafx.scene.control.ButtonType;
+import javafx.geometry.Rectangle2D;
+import javafx.stage.Screen;
 import javafx.stage.Stage;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
 import swimworkoutbuilder_javafx.state.AppState;
+import swimworkoutbuilder_javafx.store.AppPreferences;
 import swimworkoutbuilder_javafx.store.LocalStore;
+import swimworkoutbuilder_javafx.store.PersistenceService;
+import swimworkoutbuilder_javafx.store.RecoveryReport;
+import swimworkoutbuilder_javafx.store.SessionSnapshot;
+import swimworkoutbuilder_javafx.store.StoreChange;
+import swimworkoutbuilder_javafx.store.StoreConflictException;
+import swimworkoutbuilder_javafx.store.StoreWatcher;
+import swimworkoutbuilder_javafx.store.Stores;
+import swimworkoutbuilder_javafx.store.SwimmerLoader;
+import swimworkoutbuilder_javafx.ui.ImageCache;
 import swimworkoutbuilder_javafx.ui.MainView;
 import swimworkoutbuilder_javafx.ui.Theme;
 
 /**
  * Entry point for the SwimWorkoutBuilder JavaFX application.
  *
- * <p>This class initializes global state ({@link AppState}), loads saved swimmers
- * from disk, restores the last selected swimmer if available, and sets up
- * the main UI layout via {@link MainView}.</p>
+ * <p>This class initializes global state ({@link AppState}), shows the main UI
+ * layout via {@link MainView}, then streams saved swimmers in from disk in the
+ * background, restoring the last selected swimmer first when available. The previous
+ * session's swimmer and workout are shown immediately from a {@link SessionSnapshot}
+ * written at exit. Window bounds and the last selection are kept in {@link AppPreferences}.</p>
  *
  * <h2>Responsibilities</h2>
  * <ul>
  *   <li>Initialize JavaFX application stage and scene.</li>
- *   <li>Load swimmers from {@link LocalStore} and populate {@link AppState}.</li>
+ *   <li>Load swimmers via {@link SwimmerLoader} and populate {@link AppState}.</li>
  *   <li>Ensure graceful recovery if no swimmers can be loaded.</li>
+ *   <li>Follow changes other instances make to a shared data directory, and resolve
+ *       save conflicts with them.</li>
  *   <li>Apply CSS stylesheet and show the main window.</li>
  * </ul>
  *
@@ -32,39 +56,298 @@ import swimworkoutbuilder_javafx.ui.Theme;
  */
 public class Main extends Application {
 
+    private Stage stage;
+    private static StoreWatcher watcher;   // null until swimmers have loaded, or with the db backend
+    private static boolean resolvingConflict; // FX thread; queued saves may conflict again meanwhile
+
     @Override
     public void start(Stage stage) {
+        this.stage = stage;
         // Access shared application state
         var app = AppState.get();
 
-        // Build root UI layout
-        MainView root = new MainView();
+        // Surface background save/delete failures (write-behind persistence)
+        PersistenceService.get().addFailureListener((what, err) -> Platform.runLater(() -> {
+            if (err instanceof StoreConflictException) {
+                onSaveConflict(app, (StoreConflictException) err);
+                return;
+            }
+            new Alert(Alert.AlertType.ERROR,
+                    "Could not " + what + ".\n\nDetails: " + err.getMessage()).show();
+        }));
 
-        // --- Load swimmers from disk into AppState ---
-        try {
-            app.setSwimmers(FXCollections.observableArrayList(LocalStore.listAllSwimmers()));
-        } catch (IOException ex) {
-            ex.printStackTrace(); // log for developer visibility
-            new Alert(
-                    Alert.AlertType.WARNING,
-                    "Could not load saved swimmers. You can still create a new swimmer.\n\nDetails: " + ex.getMessage()
-            ).showAndWait();
-            app.setSwimmers(FXCollections.observableArrayList());
-        }
+        // --- Fast path: show the previous session's swimmer/workout before anything else loads ---
+        SessionSnapshot session = SessionSnapshot.load();   // null if none, stale or damaged
+        if (session != null) restoreSession(app, session);
 
-        // --- Select first swimmer if none currently active ---
-        if (app.getCurrentSwimmer() == null && !app.getSwimmers().isEmpty()) {
-            app.setCurrentSwimmer(app.getSwimmers().get(0));
-        }
+        // Build root UI layout
+        MainView root = new MainView();
 
         // --- Scene setup ---
-        Scene scene = new Scene(root, 1180, 720);
+        var prefs = AppPreferences.get();
+        double width = prefs.get(AppPreferences.WINDOW_WIDTH);
+        double height = prefs.get(AppPreferences.WINDOW_HEIGHT);
+        Scene scene = (width > 0 && height > 0) ? new Scene(root, width, height) : new Scene(root, 1180, 720);
         Theme.apply(scene);         // Global helper to apply CSS theme
 
         // --- Stage setup ---
         stage.setTitle("SwimWorkoutBuilder (JavaFX-only)");
         stage.setScene(scene);
+        restoreWindowPosition(stage);
         stage.show();
+
+        // --- After the window is visible: crash recovery, then stream swimmers in
+        //     (last selected swimmer first) ---
+        loadSwimmersInBackground(app, session != null ? session.swimmer().getId() : LocalStore.lastSwimmer().orElse(null));
+
+        // Remember the selection so the next launch can load that swimmer first
+        app.currentSwimmerProperty().addListener((obs, o, s) -> rememberSelection(app));
+        app.currentWorkoutProperty().addListener((obs, o, w) -> rememberSelection(app));
+    }
+
+    /**
+     * Selects the swimmer and workout recorded at the last exit. The swimmer is added to
+     * the (still empty) swimmer list; the background load later skips it as a duplicate.
+     */
+    private static void restoreSession(AppState app, SessionSnapshot session) {
+        app.getSwimmers().add(session.swimmer());
+        app.setCurrentSwimmer(session.swimmer());
+        Workout w = session.workout();
+        if (w != null) {
+            if (session.totals() != null) {
+                app.getWorkoutBuilderPresenter().primeTotals(w.getId(), session.totals());
+            }
+            app.setCurrentWorkout(w);
+        }
+    }
+
+    /** Records the on-screen swimmer/workout for the next launch; unsaved edits are left out. */
+    private static void saveSession(AppState app) {
+        var presenter = app.getWorkoutBuilderPresenter();
+        Workout w = presenter.dirtyProperty().get() ? null : app.getCurrentWorkout();
+        try {
+            SessionSnapshot.save(app.getCurrentSwimmer(), w, (w == null) ? null : presenter.currentTotals());
+        } catch (IOException ex) {
+            ex.printStackTrace(); // next launch just takes the normal path
+        }
+    }
+
+    /**
+     * Loads saved swimmers on background threads and merges them into
+     * {@link AppState#getSwimmers()} batch by batch on the FX thread. The last selected
+     * swimmer arrives in the first batch and is selected straight away; otherwise the
+     * first swimmer in name order is selected once loading finishes.
+     */
+    private static void loadSwimmersInBackground(AppState app, UUID lastId) {
+        CompletableFuture.runAsync(Main::recoverStore)
+                .thenCompose(v -> SwimmerLoader.loadAll(lastId, SwimmerLoader.DEFAULT_BATCH,
+                        batch -> Platform.runLater(() -> onSwimmerBatch(app, batch, lastId))))
+                .whenComplete((count, err) -> Platform.runLater(() -> {
+                    if (err != null) {
+                        Throwable cause = (err instanceof CompletionException && err.getCause() != null) ? err.getCause() : err;
+                        cause.printStackTrace(); // log for developer visibility
+                        new Alert(
+                                Alert.AlertType.WARNING,
+                                "Could not load saved swimmers. You can still create a new swimmer.\n\nDetails: " + cause.getMessage()
+                        ).show();
+                    }
+                    // --- Select first swimmer if none currently active ---
+                    if (app.getCurrentSwimmer() == null && !app.getSwimmers().isEmpty()) {
+                        app.setCurrentSwimmer(app.getSwimmers().get(0));
+                    }
+                    watchStore(app);
+                }));
+    }
+
+    private static void onSwimmerBatch(AppState app, List<Swimmer> batch, UUID lastId) {
+        mergeSwimmers(app.getSwimmers(), batch);
+        if (app.getCurrentSwimmer() == null && lastId != null) {
+            batch.stream().filter(s -> s.getId().equals(lastId)).findFirst().ifPresent(app::setCurrentSwimmer);
+        }
+    }
+
+    /** Repairs anything an earlier crash left behind (temp files, corrupt files); non-fatal. */
+    private static void recoverStore() {
+        try {
+            RecoveryReport recovery = LocalStore.recover();
+            if (!recovery.quarantined().isEmpty()) {
+                Platform.runLater(() -> new Alert(Alert.AlertType.WARNING,
+                        recovery.quarantined().size() + " damaged file(s) were moved to the quarantine folder "
+                                + "and will not be shown:\n\n" + String.join("\n", recovery.quarantined())
+                ).show());
+            }
+        } catch (IOException ex) {
+            ex.printStackTrace(); // loading reports real problems
+        }
+    }
+
+    /**
+     * Follows changes other instances make to a shared data directory, so the swimmer
+     * list and the open workout stay current without a restart.
+     */
+    private static void watchStore(AppState app) {
+        try {
+            watcher = Stores.watch(change -> Platform.runLater(() -> applyExternalChange(app, change)));
+        } catch (IOException ex) {
+            ex.printStackTrace(); // the version check on save still prevents lost updates
+        }
+    }
+
+    /** Applies one external change: only the swimmer or workout it names is reloaded. */
+    private static void applyExternalChange(AppState app, StoreChange change) {
+        var presenter = app.getWorkoutBuilderPresenter();
+        Workout open = app.getCurrentWorkout();
+        boolean isOpen = open != null && open.getId().equals(change.workoutId());
+        try {
+            switch (change.kind()) {
+                case SWIMMER_SAVED -> {
+                    Swimmer s = Stores.swimmers().loadSwimmer(change.swimmerId());
+                    app.getSwimmers().removeIf(x -> x.getId().equals(s.getId()));
+                    mergeSwimmers(app.getSwimmers(), List.of(s));
+                    Swimmer cur = app.getCurrentSwimmer();
+                    if (cur != null && cur.getId().equals(s.getId())) app.setCurrentSwimmer(s);
+                }
+                case SWIMMER_DELETED -> {
+                    app.getSwimmers().removeIf(x -> x.getId().equals(change.swimmerId()));
+                    Swimmer cur = app.getCurrentSwimmer();
+                    if (cur != null && cur.getId().equals(change.swimmerId())) {
+                        app.setCurrentSwimmer(app.getSwimmers().isEmpty() ? null : app.getSwimmers().get(0));
+                    }
+                }
+                case WORKOUT_SAVED -> {
+                    if (!isOpen) return;
+                    if (presenter.dirtyProperty().get()) {
+                        new Alert(Alert.AlertType.WARNING, "\"" + open.getName() + "\" was changed on another computer. "
+                                + "Your unsaved edits are kept; saving them will ask which version to keep.").show();
+                        return;
+                    }
+                    Workout w = Stores.workouts().loadWorkout(change.swimmerId(), change.workoutId());
+                    Swimmer cur = app.getCurrentSwimmer();
+                    app.setCurrentWorkout(cur != null && cur.getId().equals(w.getSwimmerId()) ? w : null);
+                }
+                case WORKOUT_DELETED -> {
+                    if (!isOpen) return;
+                    if (presenter.dirtyProperty().get()) {
+                        new Alert(Alert.AlertType.WARNING, "\"" + open.getName() + "\" was deleted on another computer. "
+                                + "Saving your edits will restore it.").show();
+                        return;
+                    }
+                    app.setCurrentWorkout(null);
+                    new Alert(Alert.AlertType.INFORMATION,
+                            "\"" + open.getName() + "\" was deleted on another computer.").show();
+                }
+            }
+        } catch (IOException ex) {
+            ex.printStackTrace(); // e.g. deleted again meanwhile; the next change catches up
+        }
+    }
+
+    /**
+     * A save found a newer version from another instance. For the open workout the user
+     * either takes that version or keeps both (theirs, plus their own edits as a copy).
+     */
+    private static void onSaveConflict(AppState app, StoreConflictException conflict) {
+        Workout open = app.getCurrentWorkout();
+        if (open == null || !open.getId().equals(conflict.id())) {
+            new Alert(Alert.AlertType.WARNING,
+                    "A change was not saved because it was changed on another computer in the meantime.\n\n"
+                            + "Details: " + conflict.getMessage()).show();
+            return;
+        }
+        if (resolvingConflict) return;
+        var RELOAD = new ButtonType("Reload Theirs", ButtonBar.ButtonData.NO);
+        var KEEP_BOTH = new ButtonType("Keep Both", ButtonBar.ButtonData.OK_DONE);
+        Alert a = new Alert(Alert.AlertType.CONFIRMATION,
+                "\"" + open.getName() + "\" was changed on another computer since you opened it, so your "
+                        + "edits were not saved.\n\n\"Keep Both\" saves your version as a copy.",
+                KEEP_BOTH, RELOAD, ButtonType.CANCEL);
+        a.setHeaderText("Workout changed elsewhere");
+        a.setTitle("Save conflict");
+        resolvingConflict = true;
+        ButtonType choice;
+        try {
+            choice = a.showAndWait().orElse(ButtonType.CANCEL);
+        } finally {
+            resolvingConflict = false;
+        }
+        if (choice == KEEP_BOTH) {
+            Workout mine = Workout.duplicateWithNewId(open);
+            mine.setName(open.getName() + " (my copy)");
+            PersistenceService.get().saveWorkout(mine);
+            app.setCurrentWorkout(mine);
+        } else if (choice == RELOAD) {
+            try {
+                app.setCurrentWorkout(Stores.workouts().loadWorkout(open.getSwimmerId(), open.getId()));
+            } catch (IOException ex) {
+                new Alert(Alert.AlertType.ERROR, "Unable to load workout: " + ex.getMessage()).show();
+            }
+        }
+    }
+
+    /** Inserts a batch into the name-sorted swimmer list, skipping swimmers already present. */
+    private static void mergeSwimmers(List<Swimmer> list, List<Swimmer> batch) {
+        Set<UUID> present = new HashSet<>();
+        for (Swimmer s : list) present.add(s.getId());
+        List<Swimmer> sorted = new ArrayList<>(batch);
+        sorted.sort(LocalStore.SWIMMER_ORDER);
+        for (Swimmer s : sorted) {
+            if (!present.add(s.getId())) continue;  // e.g. created in the UI while loading
+            int i = Collections.binarySearch(list, s, LocalStore.SWIMMER_ORDER);
+            list.add(i < 0 ? -i - 1 : i, s);
+        }
+    }
+
+    /** Puts the window back where it was, unless that spot is no longer on any screen. */
+    private static void restoreWindowPosition(Stage stage) {
+        var prefs = AppPreferences.get();
+        double x = prefs.get(AppPreferences.WINDOW_X);
+        double y = prefs.get(AppPreferences.WINDOW_Y);
+        if (!Double.isNaN(x) && !Double.isNaN(y)
+                && !Screen.getScreensForRectangle(new Rectangle2D(x, y, 100, 100)).isEmpty()) {
+            stage.setX(x);
+            stage.setY(y);
+        }
+        stage.setMaximized(prefs.get(AppPreferences.WINDOW_MAXIMIZED));
+    }
+
+    /** Records the window bounds for the next launch; a maximized window keeps its normal bounds. */
+    private static void rememberWindow(Stage stage) {
+        var prefs = AppPreferences.get();
+        prefs.set(AppPreferences.WINDOW_MAXIMIZED, stage.isMaximized());
+        if (stage.isMaximized() || stage.isIconified() || stage.getScene() == null) return;
+        prefs.set(AppPreferences.WINDOW_X, stage.getX());
+        prefs.set(AppPreferences.WINDOW_Y, stage.getY());
+        prefs.set(AppPreferences.WINDOW_WIDTH, stage.getScene().getWidth());
+        prefs.set(AppPreferences.WINDOW_HEIGHT, stage.getScene().getHeight());
+    }
+
+    private static void rememberSelection(AppState app) {
+        Swimmer s = app.getCurrentSwimmer();
+        Workout w = app.getCurrentWorkout();
+        LocalStore.saveLast(s == null ? null : s.getId(), w == null ? null : w.getId());
+    }
+
+    @Override
+    public void stop() {
+        // Let queued saves land before the JVM exits
+        if (!PersistenceService.get().flush(Duration.ofSeconds(10))) {
+            System.err.println("WARNING: some saves were still pending at exit");
+        }
+        saveSession(AppState.get());
+        if (watcher != null) {
+            try { watcher.close(); } catch (IOException ignored) {}
+        }
+        if (stage != null) rememberWindow(stage);
+        AppPreferences.get().flush();
+
+        // -Dswb.imageStats=true prints how many icon decodes the shared cache saved
+        if (Boolean.getBoolean("swb.imageStats")) {
+            System.out.println(ImageCache.stats());
+        }
+        // -Dswb.workoutCacheStats=true does the same for loaded workouts
+        if (Boolean.getBoolean("swb.workoutCacheStats")) {
+            System.out.println(Stores.workoutCacheStats());
+        }
     }
 
     /** Launches the JavaFX application. */
@@ -0,0 +1,232 @@
+package swimworkoutbuilder_javafx.dev;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import swimworkoutbuilder_javafx.model.SwimSet;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.model.enums.Course;
+import swimworkoutbuilder_javafx.model.enums.Effort;
+import swimworkoutbuilder_javafx.model.enums.Equipment;
+import swimworkoutbuilder_javafx.model.enums.StrokeType;
+import swimworkoutbuilder_javafx.model.pacing.SeedPace;
+import swimworkoutbuilder_javafx.model.units.Distance;
+import swimworkoutbuilder_javafx.model.units.TimeSpan;
+import swimworkoutbuilder_javafx.store.Stores;
+import swimworkoutbuilder_javafx.store.WorkoutAttributes;
+import swimworkoutbuilder_javafx.store.WorkoutQuery;
+import swimworkoutbuilder_javafx.store.WorkoutStore;
+import swimworkoutbuilder_javafx.store.WorkoutSummary;
+
+/**
+ * Measures {@link WorkoutStore#query} with attribute filters, the coach's "which LCM
+ * workouts have at least 2000 of threshold freestyle with paddles", against loading every
+ * workout and checking it. Every index answer is checked against that brute-force scan.
+ *
+ * <p>Runs each backend ({@code files}, {@code db}) in two child JVMs sharing a throwaway
+ * home directory: {@code build} saves the library, opens the attribute index from
+ * nothing, queries, then edits, deletes, changes a swimmer's seed times and removes a
+ * swimmer and checks the answers follow; {@code reopen} opens the index from its snapshot and log and checks it again.</p>
+ *
+ * <p><b>Usage:</b> {@code java swimworkoutbuilder_javafx.dev.AttributeQueryBenchmark [swimmers] [workoutsPerSwimmer]}</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class AttributeQueryBenchmark {
+
+    private static final WorkoutQuery COACH = WorkoutQuery.all()
+            .course(Course.LCM)
+            .setDistanceAtLeast(StrokeType.FREESTYLE, Effort.THRESHOLD, Distance.ofMeters(2000))
+            .withEquipment(Equipment.PADDLES);
+
+    private static final List<WorkoutQuery> QUERIES = List.of(
+            COACH,
+            WorkoutQuery.all().setDistanceAtLeast(StrokeType.BUTTERFLY, null, Distance.ofYards(1000)),
+            WorkoutQuery.all().setDistanceBetween(null, Effort.SPRINT, Distance.ofYards(200), Distance.ofYards(800))
+                    .withoutEquipment(Equipment.FINS),
+            WorkoutQuery.all().withEquipment(Equipment.SNORKEL, Equipment.PULL_BUOY).course(Course.SCY),
+            WorkoutQuery.all().durationBetween(TimeSpan.ofSeconds(2 * 3600), TimeSpan.ofSeconds(3 * 3600))
+                    .distanceBetween(Distance.ofYards(4000).rawMicroUnits(), Long.MAX_VALUE),
+            WorkoutQuery.all().setDistanceAtLeast(StrokeType.FREESTYLE, Effort.EASY, Distance.ofYards(1))
+                    .setDistanceAtLeast(StrokeType.BACKSTROKE, Effort.VO2_MAX, Distance.ofYards(300))
+                    .limit(20));
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--phase")) {
+            runPhase(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+            return;
+        }
+        int swimmers = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int perSwimmer = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        System.out.printf("%d swimmers x %d workouts%n", swimmers, perSwimmer);
+
+        for (String backend : List.of("files", "db")) {
+            Path home = Files.createTempDirectory("swb-attr-bench");
+            System.out.println();
+            System.out.println("== " + backend + " ==");
+            for (String phase : List.of("build", "reopen")) {
+                Process p = new ProcessBuilder(
+                        Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                        "-cp", System.getProperty("java.class.path"),
+                        "-Duser.home=" + home,
+                        "-Dswb.store.backend=" + backend,
+                        "-Dswb.store.fsync=false",
+                        AttributeQueryBenchmark.class.getName(),
+                        "--phase", phase, String.valueOf(swimmers), String.valueOf(perSwimmer))
+                        .inheritIO()
+                        .start();
+                if (p.waitFor() != 0) {
+                    System.err.println(backend + " " + phase + " failed");
+                    System.exit(1);
+                }
+            }
+        }
+    }
+
+    private static void runPhase(String phase, int swimmers, int perSwimmer) throws Exception {
+        WorkoutStore store = Stores.workouts();
+        switch (phase) {
+            case "build" -> {
+                Random rnd = new Random(29);
+                Course[] courses = Course.values();
+                for (int i = 0; i < swimmers; i++) {
+                    Swimmer s = SampleData.swimmer("First" + i, "Last" + i);
+                    Stores.swimmers().saveSwimmer(s);
+                    List<Workout> batch = new ArrayList<>(perSwimmer);
+                    for (int j = 0; j < perSwimmer; j++) {
+                        Workout w = SampleData.workout(s.getId(), "W" + j, 10, rnd);
+                        w.setCourse(courses[rnd.nextInt(courses.length)]);
+                        batch.add(w);
+                    }
+                    store.saveWorkouts(batch);
+                }
+
+                long t0 = System.nanoTime();
+                store.query(COACH);
+                report("open attribute index (from nothing)", t0);
+                queryAndCheck(store);
+
+                // An edit that makes a workout match is indexed as it is saved
+                List<UUID> ids = Stores.swimmers().listSwimmerIds();
+                Workout edited = store.loadWorkout(ids.get(1), store.listWorkoutSummariesFor(ids.get(1)).get(0).getId());
+                edited.setCourse(Course.LCM);
+                SwimSet paddles = new SwimSet(StrokeType.FREESTYLE, 5, Distance.ofMeters(400), Effort.THRESHOLD, Course.LCM, "");
+                paddles.addEquipment(Equipment.PADDLES);
+                edited.getGroups().get(1).addSet(paddles);
+                store.saveWorkout(edited);
+                check(ids(store.query(COACH)).contains(edited.getId()), "edited workout not found");
+                checkAgainstScan(store, COACH);
+
+                WorkoutSummary gone = store.query(COACH).stream()
+                        .filter(s -> !s.getId().equals(edited.getId())).findFirst().orElseThrow();
+                store.deleteWorkout(gone.getId());
+                check(!ids(store.query(COACH)).contains(gone.getId()), "deleted workout still found");
+
+                // Slower seeds re-estimate the swimmer's durations without saving a workout
+                Swimmer slower = Stores.swimmers().loadSwimmer(ids.get(3));
+                for (StrokeType st : StrokeType.values()) {
+                    SeedPace seed = slower.getSeedTime(st);
+                    if (seed != null) {
+                        slower.updateSeedTime(st, new SeedPace(seed.getOriginalDistance(),
+                                TimeSpan.ofMillis(seed.getTime().toMillis() * 3)));
+                    }
+                }
+                Stores.swimmers().saveSwimmer(slower);
+                for (WorkoutQuery q : QUERIES) checkAgainstScan(store, q.forSwimmer(ids.get(3)));
+
+                Stores.swimmers().deleteSwimmer(ids.get(2), false);
+                check(store.query(COACH.forSwimmer(ids.get(2))).isEmpty(), "deleted swimmer's workouts");
+
+                // Text search narrows the attribute matches
+                List<WorkoutSummary> both = store.search("broken", COACH);
+                Set<UUID> text = ids(store.search("broken", WorkoutQuery.all()));
+                Set<UUID> expected = ids(store.query(COACH));
+                expected.retainAll(text);
+                check(ids(both).equals(expected), "search with attribute filters: " + both.size() + " vs " + expected.size());
+                for (WorkoutQuery q : QUERIES) checkAgainstScan(store, q);
+            }
+            case "reopen" -> {
+                long t0 = System.nanoTime();
+                store.query(COACH);
+                report("open attribute index (snapshot + log)", t0);
+                queryAndCheck(store);
+            }
+            default -> throw new IllegalArgumentException(phase);
+        }
+    }
+
+    // Every query timed against the brute-force scan, then checked against it
+    private static void queryAndCheck(WorkoutStore store) throws Exception {
+        for (int round = 0; round < 3; round++) {
+            long t0 = System.nanoTime();
+            List<Integer> hits = new ArrayList<>();
+            for (WorkoutQuery q : QUERIES) hits.add(store.query(q).size());
+            report("index: " + QUERIES.size() + " queries " + hits, t0);
+        }
+        Stores.clearWorkoutCache();
+        long t0 = System.nanoTime();
+        Map<UUID, Scanned> library = scan(store);
+        report("scan: load + summarize " + library.size(), t0);
+        for (WorkoutQuery q : QUERIES) checkAgainstScan(store, q, library);
+    }
+
+    private static final class Scanned {
+        final WorkoutSummary header;
+        final WorkoutAttributes attributes;
+
+        Scanned(WorkoutSummary header, WorkoutAttributes attributes) {
+            this.header = header;
+            this.attributes = attributes;
+        }
+    }
+
+    // Every workout loaded and summarized from scratch, with its owner's seeds
+    private static Map<UUID, Scanned> scan(WorkoutStore store) throws Exception {
+        Map<UUID, Scanned> out = new HashMap<>();
+        for (Swimmer s : Stores.swimmers().listAllSwimmers()) {
+            for (Workout w : store.listWorkoutsFor(s.getId())) {
+                out.put(w.getId(), new Scanned(WorkoutSummary.of(w), WorkoutAttributes.of(w, s)));
+            }
+        }
+        return out;
+    }
+
+    private static void checkAgainstScan(WorkoutStore store, WorkoutQuery q) throws Exception {
+        checkAgainstScan(store, q, scan(store));
+    }
+
+    private static void checkAgainstScan(WorkoutStore store, WorkoutQuery q, Map<UUID, Scanned> library) throws Exception {
+        List<WorkoutSummary> candidates = new ArrayList<>();
+        for (Scanned s : library.values()) {
+            if (q.matches(s.attributes)) candidates.add(s.header);
+        }
+        candidates.removeIf(s -> !q.matches(s));
+        candidates.sort(WorkoutQuery.ORDER);
+        if (q.limit() > 0 && candidates.size() > q.limit()) candidates = candidates.subList(0, q.limit());
+        List<UUID> expected = new ArrayList<>();
+        for (WorkoutSummary s : candidates) expected.add(s.getId());
+        List<UUID> actual = new ArrayList<>();
+        for (WorkoutSummary s : store.query(q)) actual.add(s.getId());
+        check(actual.equals(expected), q + ": " + actual.size() + " hits, scan found " + expected.size());
+    }
+
+    private static Set<UUID> ids(List<WorkoutSummary> rows) {
+        Set<UUID> ids = new HashSet<>();
+        for (WorkoutSummary s : rows) ids.add(s.getId());
+        return ids;
+    }
+
+    private static void report(String what, long t0) {
+        System.out.printf("  %-38s %9.1f ms%n", what, (System.nanoTime() - t0) / 1e6);
+    }
+
+    private static void check(boolean ok, String message) {
+        if (!ok) {
+            System.err.println("  FAIL: " + message);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package swimworkoutbuilder_javafx.dev;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.*;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.store.Stores;
+import swimworkoutbuilder_javafx.store.WorkoutStore;
+
+/**
+ * Times {@link BackupSnapshots} on a generated library: a full snapshot, an incremental
+ * one after a few edits, one with no changes, and restores of a whole snapshot and of
+ * single workouts. Checks that:
+ * <ul>
+ *   <li>the incremental snapshots read only changed files and store only new contents</li>
+ *   <li>a restored snapshot matches its manifest byte for byte</li>
+ *   <li>{@link RepositoryManager#restoreWorkout} brings back a deleted workout, and an
+ *       older version of an edited one</li>
+ * </ul>
+ *
+ * <p><b>Usage:</b> {@code java -Duser.home=<temp dir> swimworkoutbuilder_javafx.dev.BackupBenchmark [swimmers] [workoutsPerSwimmer]}
+ * (default 20 × 100). Files backend only.</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class BackupBenchmark {
+
+    private static final int EDITS = 10;
+
+    public static void main(String[] args) throws Exception {
+        int swimmers   = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int perSwimmer = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        Path home = Path.of(System.getProperty("user.home"));
+        Path dataDir = home.resolve(".swimworkoutbuilder");
+        BackupSnapshots snapshots = new BackupSnapshots(dataDir, home.resolve(".swimworkoutbuilder_backups"));
+        WorkoutStore store = Stores.workouts();
+        Random rnd = new Random(42);
+
+        List<Workout> library = new ArrayList<>();
+        for (int i = 0; i < swimmers; i++) {
+            Swimmer s = SampleData.swimmer("Swimmer" + i, "Bench");
+            Stores.swimmers().saveSwimmer(s);
+            for (int j = 0; j < perSwimmer; j++) {
+                Workout w = SampleData.workout(s.getId(), "Workout " + i + "-" + j, 12, rnd);
+                store.saveWorkout(w);
+                library.add(w);
+            }
+        }
+        System.out.printf("%d swimmers, %d workouts, %d cores%n%n", swimmers, library.size(),
+                Runtime.getRuntime().availableProcessors());
+
+        BackupSnapshots.Result full = snapshots.backup();
+        report("full snapshot", full);
+        check(full.unchanged == 0 && full.newBlobs > 0, "first snapshot reused blobs");
+
+        // A few edits: only those files (and the indexes they touch) are read again
+        Map<UUID, String> before = new HashMap<>();
+        for (int i = 0; i < EDITS; i++) {
+            Workout w = store.loadWorkout(library.get(i * 37 % library.size()).getId());
+            before.put(w.getId(), w.getName());
+            w.setName(w.getName() + " (edited)");
+            store.saveWorkout(w);
+        }
+        BackupSnapshots.Result incremental = snapshots.backup();
+        report("incremental, " + EDITS + " edits", incremental);
+        check(incremental.files - incremental.unchanged >= EDITS, "edited files not read");
+        check(incremental.unchanged >= library.size() - EDITS, "unchanged files read again");
+
+        BackupSnapshots.Result idle = snapshots.backup();
+        report("no changes", idle);
+        check(idle.newBlobs == 0 && idle.unchanged == idle.files, "unchanged library stored again");
+        System.out.println("incremental snapshots                         PASS");
+
+        // Whole snapshot into a fresh folder, checked against the manifest
+        Path target = Files.createTempDirectory(home, "restore").resolve("data");
+        BackupSnapshots.Result restored = snapshots.restore(full.snapshot, target);
+        report("restore full snapshot", restored);
+        MessageDigest sha = MessageDigest.getInstance("SHA-256");
+        for (BackupSnapshots.Entry e : snapshots.manifest(full.snapshot)) {
+            Path f = target.resolve(e.path);
+            String hash = HexFormat.of().formatHex(sha.digest(Files.readAllBytes(f)));
+            check(hash.equals(e.hash), "restored file differs: " + e.path);
+            check(Files.getLastModifiedTime(f).toMillis() == e.modified, "modified time not restored: " + e.path);
+        }
+        System.out.println("restored snapshot matches manifest            PASS");
+
+        // Single workouts: a deleted one, and the pre-edit version of an edited one
+        Workout gone = store.loadWorkout(library.get(library.size() - 1).getId());
+        store.deleteWorkout(gone.getId());
+        check(RepositoryManager.restoreWorkout(gone.getId(), "latest"), "deleted workout not restored");
+        check(store.loadWorkout(gone.getSwimmerId(), gone.getId()).getName().equals(gone.getName()), "wrong workout restored");
+
+        UUID edited = before.keySet().iterator().next();
+        long t0 = System.nanoTime();
+        check(RepositoryManager.restoreWorkout(edited, full.snapshot), "edited workout not restored");
+        long single = System.nanoTime() - t0;
+        check(store.loadWorkout(edited).getName().equals(before.get(edited)), "older version not restored");
+        System.out.printf("  %-38s %9.1f ms%n", "restore one workout", single / 1e6);
+        System.out.println("single-workout restore                        PASS");
+        System.out.println("All backup scenarios passed.");
+    }
+
+    private static void report(String what, BackupSnapshots.Result r) {
+        System.out.printf("  %-38s %9.1f ms   %5d files, %5d unchanged, %5d new blobs, %7.1f KB written%n",
+                what, r.nanos / 1e6, r.files, r.unchanged, r.newBlobs, r.blobBytes / 1024.0);
+    }
+
+    private static void check(boolean ok, String message) {
+        if (!ok) {
+            System.err.println("  FAIL: " + message);
+            System.exit(1);
+        }
+    }
+}
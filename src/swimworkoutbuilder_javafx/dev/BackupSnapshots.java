@@ -0,0 +1,363 @@
+package swimworkoutbuilder_javafx.dev;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Incremental, deduplicated backups of the data directory, used by
+ * {@link RepositoryManager}.
+ *
+ * <p>A backup is a snapshot: a manifest listing every file with its size, modified time and
+ * SHA-256. File contents are stored once per distinct hash as gzip blobs, so unchanged
+ * workouts cost nothing after the first backup, however many snapshots refer to them.</p>
+ *
+ * <pre>
+ *   ~/.swimworkoutbuilder_backups/
+ *   ├─ blobs/&lt;first 2 hex&gt;/&lt;sha256&gt;.gz
+ *   └─ snapshots/&lt;yyyy-MM-dd_HHmmss&gt;.manifest
+ * </pre>
+ *
+ * <p><b>Design Notes:</b>
+ * <ul>
+ *   <li>A file whose size and modified time match the previous snapshot is taken as
+ *       unchanged and not read. Other files are read once, hashed and compressed in the
+ *       same pass, on one thread per core. A blob that is already stored is kept.</li>
+ *   <li>Blobs and manifests are written to a temp file and renamed into place, and the
+ *       manifest is written last, so an interrupted backup leaves no snapshot behind.</li>
+ *   <li>Restores check each blob's hash while decompressing, and set each file's
+ *       modified time back, so the next backup still treats the file as unchanged.</li>
+ *   <li>Temp files, the lock file and {@code trash/} are not backed up. Deduplication is
+ *       per file, so a segment file of the segments or db backend is stored whole
+ *       whenever it changes.</li>
+ *   <li>Blobs that no snapshot refers to any more are not deleted.</li>
+ * </ul>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+final class BackupSnapshots {
+
+    private static final String MANIFEST_HEADER = "# swb-snapshot 1";
+    private static final String MANIFEST_EXT = ".manifest";
+    private static final DateTimeFormatter ID_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HHmmss");
+
+    /** One backed-up file. */
+    static final class Entry {
+        final String path;      // relative to the data directory, '/'-separated
+        final long size;
+        final long modified;    // epoch millis
+        final String hash;      // SHA-256, lower-case hex
+
+        Entry(String path, long size, long modified, String hash) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+    }
+
+    /** What a backup or restore did (printed by {@link RepositoryManager}). */
+    static final class Result {
+        final String snapshot;
+        final int files;
+        final long bytes;
+        final int unchanged;     // backup: not read, same size and time as last snapshot
+        final int newBlobs;      // backup: distinct contents stored for the first time
+        final long blobBytes;    // compressed bytes written
+        final long nanos;
+
+        Result(String snapshot, int files, long bytes, int unchanged, int newBlobs, long blobBytes, long nanos) {
+            this.snapshot = snapshot;
+            this.files = files;
+            this.bytes = bytes;
+            this.unchanged = unchanged;
+            this.newBlobs = newBlobs;
+            this.blobBytes = blobBytes;
+            this.nanos = nanos;
+        }
+    }
+
+    private final Path dataDir;
+    private final Path blobsDir;
+    private final Path snapshotsDir;
+    private final int threads = Runtime.getRuntime().availableProcessors();
+
+    BackupSnapshots(Path dataDir, Path backupDir) {
+        this.dataDir = dataDir;
+        this.blobsDir = backupDir.resolve("blobs");
+        this.snapshotsDir = backupDir.resolve("snapshots");
+    }
+
+    // ----------------------------------------------------------
+    // Snapshots
+    // ----------------------------------------------------------
+
+    /** Snapshot ids, oldest first. */
+    List<String> list() throws IOException {
+        if (!Files.isDirectory(snapshotsDir)) return List.of();
+        try (var stream = Files.list(snapshotsDir)) {
+            return stream.map(p -> p.getFileName().toString())
+                    .filter(n -> n.endsWith(MANIFEST_EXT))
+                    .map(n -> n.substring(0, n.length() - MANIFEST_EXT.length()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /** {@code id}, or the newest snapshot for {@code null} or {@code "latest"}. */
+    String resolve(String id) throws IOException {
+        List<String> all = list();
+        if (id == null || id.equals("latest")) {
+            if (all.isEmpty()) throw new NoSuchFileException("no backups in " + snapshotsDir.getParent());
+            return all.get(all.size() - 1);
+        }
+        if (!all.contains(id)) throw new NoSuchFileException("no backup named " + id);
+        return id;
+    }
+
+    List<Entry> manifest(String id) throws IOException {
+        List<Entry> out = new ArrayList<>();
+        for (String line : Files.readAllLines(manifestFile(id), StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] f = line.split("\t", 4);
+            out.add(new Entry(f[3], Long.parseLong(f[1]), Long.parseLong(f[2]), f[0]));
+        }
+        return out;
+    }
+
+    // ----------------------------------------------------------
+    // Backup
+    // ----------------------------------------------------------
+
+    /** Takes a snapshot of the data directory. */
+    Result backup() throws IOException {
+        long t0 = System.nanoTime();
+        Map<String, Entry> previous = new HashMap<>();
+        List<String> existing = list();
+        if (!existing.isEmpty()) {
+            for (Entry e : manifest(existing.get(existing.size() - 1))) previous.put(e.path, e);
+        }
+
+        List<Path> files = new ArrayList<>();
+        Files.walkFileTree(dataDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return dataDir.relativize(dir).toString().equals("trash") ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                String name = file.getFileName().toString();
+                if (attrs.isRegularFile() && !name.endsWith(".tmp") && !name.equals("store.lock")) files.add(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;   // deleted while walking
+            }
+        });
+
+        AtomicLong unchanged = new AtomicLong(), newBlobs = new AtomicLong(), blobBytes = new AtomicLong();
+        List<Entry> entries = forEachParallel(files, file -> {
+            String rel = relative(file);
+            BasicFileAttributes attrs;
+            try {
+                attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                return null;   // deleted since the walk
+            }
+            long modified = attrs.lastModifiedTime().toMillis();
+            Entry last = previous.get(rel);
+            if (last != null && last.size == attrs.size() && last.modified == modified && Files.exists(blobFile(last.hash))) {
+                unchanged.incrementAndGet();
+                return last;
+            }
+            Stored s = store(file);
+            if (s == null) return null;
+            if (s.written > 0) {
+                newBlobs.incrementAndGet();
+                blobBytes.addAndGet(s.written);
+            }
+            return new Entry(rel, s.size, modified, s.hash);
+        });
+
+        String id = newSnapshotId();
+        StringBuilder text = new StringBuilder(MANIFEST_HEADER).append('\n')
+                .append("# created ").append(LocalDateTime.now()).append(" from ").append(dataDir).append('\n');
+        long bytes = 0;
+        for (Entry e : entries) {
+            text.append(e.hash).append('\t').append(e.size).append('\t').append(e.modified).append('\t').append(e.path).append('\n');
+            bytes += e.size;
+        }
+        Files.createDirectories(snapshotsDir);
+        writeAtomically(manifestFile(id), text.toString().getBytes(StandardCharsets.UTF_8));
+        return new Result(id, entries.size(), bytes, (int) unchanged.get(), (int) newBlobs.get(), blobBytes.get(),
+                System.nanoTime() - t0);
+    }
+
+    private static final class Stored {
+        final String hash;
+        final long size;
+        final long written;   // compressed bytes, 0 if the blob already existed
+
+        Stored(String hash, long size, long written) {
+            this.hash = hash;
+            this.size = size;
+            this.written = written;
+        }
+    }
+
+    // Reads the file once, hashing and compressing it; keeps the blob unless already stored
+    private Stored store(Path file) throws IOException {
+        Files.createDirectories(blobsDir);
+        Path tmp = Files.createTempFile(blobsDir, "blob.", ".tmp");
+        try {
+            MessageDigest sha = sha256();
+            long size;
+            try (InputStream in = new DigestInputStream(Files.newInputStream(file), sha);
+                 OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)), 64 * 1024)) {
+                size = in.transferTo(out);
+            } catch (NoSuchFileException e) {
+                return null;   // deleted since the walk
+            }
+            String hash = HexFormat.of().formatHex(sha.digest());
+            Path blob = blobFile(hash);
+            if (Files.exists(blob)) return new Stored(hash, size, 0);
+            long written = Files.size(tmp);
+            Files.createDirectories(blob.getParent());
+            move(tmp, blob);
+            return new Stored(hash, size, written);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    // ----------------------------------------------------------
+    // Restore
+    // ----------------------------------------------------------
+
+    /**
+     * Restores a whole snapshot into {@code target}, which must not exist yet. Files are
+     * written in parallel and verified against their hashes.
+     */
+    Result restore(String id, Path target) throws IOException {
+        long t0 = System.nanoTime();
+        if (Files.exists(target)) throw new FileAlreadyExistsException(target.toString());
+        List<Entry> entries = manifest(id);
+        forEachParallel(entries, e -> {
+            Path out = target.resolve(e.path.replace('/', File.separatorChar));
+            Files.createDirectories(out.getParent());
+            Files.write(out, blob(e));
+            Files.setLastModifiedTime(out, FileTime.fromMillis(e.modified));
+            return e;
+        });
+        long bytes = entries.stream().mapToLong(e -> e.size).sum();
+        return new Result(id, entries.size(), bytes, 0, 0, 0, System.nanoTime() - t0);
+    }
+
+    /** The contents of one backed-up file, verified against its hash. */
+    byte[] blob(Entry e) throws IOException {
+        byte[] bytes;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(blobFile(e.hash)))) {
+            bytes = in.readAllBytes();
+        }
+        String actual = HexFormat.of().formatHex(sha256().digest(bytes));
+        if (!actual.equals(e.hash)) throw new IOException("damaged backup blob for " + e.path + " (" + e.hash + ")");
+        return bytes;
+    }
+
+    // ----------------------------------------------------------
+    // Helpers
+    // ----------------------------------------------------------
+
+    @FunctionalInterface
+    private interface Task<T, R> { R apply(T t) throws IOException; }
+
+    // Runs task over items on one thread per core; results in item order, nulls dropped
+    private <T, R> List<R> forEachParallel(List<T> items, Task<T, R> task) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "backup-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<R>> futures = new ArrayList<>(items.size());
+            for (T item : items) futures.add(pool.submit(() -> task.apply(item)));
+            List<R> out = new ArrayList<>(items.size());
+            for (Future<R> f : futures) {
+                R r = f.get();
+                if (r != null) out.add(r);
+            }
+            return out;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("backup interrupted");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private String newSnapshotId() {
+        String base = LocalDateTime.now().format(ID_FORMAT);
+        String id = base;
+        for (int n = 2; Files.exists(manifestFile(id)); n++) id = base + "-" + n;
+        return id;
+    }
+
+    private String relative(Path file) {
+        return dataDir.relativize(file).toString().replace(File.separatorChar, '/');
+    }
+
+    private Path manifestFile(String id) {
+        return snapshotsDir.resolve(id + MANIFEST_EXT);
+    }
+
+    private Path blobFile(String hash) {
+        return blobsDir.resolve(hash.substring(0, 2)).resolve(hash + ".gz");
+    }
+
+    private static void writeAtomically(Path target, byte[] bytes) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+        try {
+            Files.write(tmp, bytes);
+            move(tmp, target);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);   // required on every JVM
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package swimworkoutbuilder_javafx.dev;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.store.WorkoutCodec;
+
+/**
+ * Compares the legacy {@code ObjectOutputStream} file format with {@link WorkoutCodec}.
+ *
+ * <p>Encodes and decodes the same synthetic library in both formats and prints the
+ * total bytes and the best-of-N encode/decode times. In-memory only, so the numbers
+ * isolate format cost from disk speed.</p>
+ *
+ * <p><b>Usage:</b> {@code java swimworkoutbuilder_javafx.dev.CodecBenchmark [workouts] [mainSets]}</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class CodecBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int count    = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int mainSets = args.length > 1 ? Integer.parseInt(args[1]) : 12;
+
+        Swimmer swimmer = SampleData.swimmer("Bench", "Swimmer");
+        Random rnd = new Random(42);
+        List<Workout> library = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) library.add(SampleData.workout(swimmer.getId(), "Workout " + i, mainSets, rnd));
+
+        System.out.printf("Library: %d workouts, %d main sets each%n%n", count, mainSets);
+
+        List<byte[]> legacy = new ArrayList<>(count);
+        List<byte[]> codec  = new ArrayList<>(count);
+        long legacyEnc = Long.MAX_VALUE, codecEnc = Long.MAX_VALUE;
+        long legacyDec = Long.MAX_VALUE, codecDec = Long.MAX_VALUE;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            legacy.clear();
+            codec.clear();
+
+            long t0 = System.nanoTime();
+            for (Workout w : library) legacy.add(javaSerialize(w));
+            legacyEnc = Math.min(legacyEnc, System.nanoTime() - t0);
+
+            t0 = System.nanoTime();
+            for (Workout w : library) {
+                ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+                WorkoutCodec.writeWorkout(bos, w);
+                codec.add(bos.toByteArray());
+            }
+            codecEnc = Math.min(codecEnc, System.nanoTime() - t0);
+
+            t0 = System.nanoTime();
+            for (byte[] b : legacy) {
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(b))) {
+                    in.readObject();
+                }
+            }
+            legacyDec = Math.min(legacyDec, System.nanoTime() - t0);
+
+            t0 = System.nanoTime();
+            for (byte[] b : codec) WorkoutCodec.readWorkout(new ByteArrayInputStream(b));
+            codecDec = Math.min(codecDec, System.nanoTime() - t0);
+        }
+
+        long legacyBytes = legacy.stream().mapToLong(b -> b.length).sum();
+        long codecBytes  = codec.stream().mapToLong(b -> b.length).sum();
+
+        System.out.printf("%-22s %14s %14s %10s%n", "", "legacy", "codec", "ratio");
+        System.out.printf("%-22s %14d %14d %9.1fx%n", "total bytes", legacyBytes, codecBytes, (double) legacyBytes / codecBytes);
+        System.out.printf("%-22s %14d %14d%n", "avg bytes / workout", legacyBytes / count, codecBytes / count);
+        System.out.printf("%-22s %12.1fms %12.1fms %9.1fx%n", "encode (best)", legacyEnc / 1e6, codecEnc / 1e6, (double) legacyEnc / codecEnc);
+        System.out.printf("%-22s %12.1fms %12.1fms %9.1fx%n", "decode (best)", legacyDec / 1e6, codecDec / 1e6, (double) legacyDec / codecDec);
+    }
+
+    private static byte[] javaSerialize(Object o) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(1024);
+        try (ObjectOutputStream out = new ObjectOutputStream(bos)) {
+            out.writeObject(o);
+        }
+        return bos.toByteArray();
+    }
+}
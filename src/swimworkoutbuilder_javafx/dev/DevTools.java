@@ -33,24 +33,64 @@ import java.io.IOException;
 
 public class DevTools {
     public static void main(String[] args) throws IOException {
-        // allow: --backup-only, --force
-        boolean backupOnly = java.util.Arrays.asList(args).contains("--backup-only");
-        boolean force      = java.util.Arrays.asList(args).contains("--force");
+        // allow: --backup-only, --zip, --list-backups, --restore <snapshot|latest>,
+        //        --restore-workout <id> [--from <snapshot|latest>], --force
+        java.util.List<String> list = java.util.Arrays.asList(args);
+        boolean backupOnly = list.contains("--backup-only");
+        boolean force      = list.contains("--force");
+
+        if (list.contains("--zip")) {
+            RepositoryManager.exportZip();
+            return;
+        }
 
         if (backupOnly) {
-            RepositoryManager.backupBeforeDelete();
+            if (!RepositoryManager.backupBeforeDelete()) System.exit(1);
+            return;
+        }
+
+        if (list.contains("--list-backups")) {
+            RepositoryManager.listBackups();
+            return;
+        }
+
+        if (list.contains("--restore-workout")) {
+            java.util.UUID id = java.util.UUID.fromString(option(args, "--restore-workout", null));
+            if (!RepositoryManager.restoreWorkout(id, option(args, "--from", "latest"))) System.exit(1);
             return;
         }
 
-        if (!force) {
-            System.out.print("This will BACK UP then DELETE ~/.swimworkoutbuilder. Type YES to proceed: ");
-            String answer = new java.io.BufferedReader(new java.io.InputStreamReader(System.in)).readLine();
-            if (!"YES".equalsIgnoreCase(answer != null ? answer.trim() : "")) {
+        if (list.contains("--restore")) {
+            String snapshot = option(args, "--restore", "latest");
+            if (!force && !confirm("Close the app first. This will REPLACE ~/.swimworkoutbuilder with backup "
+                    + snapshot + " (the current data is moved aside). Type YES to proceed: ")) {
                 System.out.println("Canceled.");
                 return;
             }
+            if (!RepositoryManager.restoreSnapshot(snapshot)) System.exit(1);
+            return;
+        }
+
+        if (!force && !confirm("This will BACK UP then DELETE ~/.swimworkoutbuilder. Type YES to proceed: ")) {
+            System.out.println("Canceled.");
+            return;
         }
 
         RepositoryManager.clearAll();
     }
+
+    private static boolean confirm(String prompt) throws IOException {
+        System.out.print(prompt);
+        String answer = new java.io.BufferedReader(new java.io.InputStreamReader(System.in)).readLine();
+        return "YES".equalsIgnoreCase(answer != null ? answer.trim() : "");
+    }
+
+    // The value after a flag, or fallback if the flag is last or followed by another flag
+    private static String option(String[] args, String flag, String fallback) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(flag) && !args[i + 1].startsWith("--")) return args[i + 1];
+        }
+        if (fallback == null) throw new IllegalArgumentException(flag + " needs a value");
+        return fallback;
+    }
 }
@@ -0,0 +1,44 @@
+package swimworkoutbuilder_javafx.dev;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import swimworkoutbuilder_javafx.store.LocalStore;
+
+/**
+ * Packs old workouts into the read-only history tier ({@code history.swa}); see
+ * {@link LocalStore#packHistory(Instant)}.
+ *
+ * <p>Workouts last updated before the cutoff leave the live store and are served from
+ * the memory-mapped pack from then on. Runs against the real data folder; close the app
+ * first.</p>
+ *
+ * <p><b>Usage:</b> {@code java swimworkoutbuilder_javafx.dev.HistoryPack [--before yyyy-mm-dd | --days N]}
+ * (default: older than 365 days)</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class HistoryPack {
+
+    public static void main(String[] args) throws Exception {
+        Instant cutoff = Instant.now().minus(365, ChronoUnit.DAYS);
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--before" -> cutoff = LocalDate.parse(args[i + 1]).atStartOfDay(ZoneId.systemDefault()).toInstant();
+                case "--days" -> cutoff = Instant.now().minus(Long.parseLong(args[i + 1]), ChronoUnit.DAYS);
+                default -> {
+                    System.err.println("usage: HistoryPack [--before yyyy-mm-dd | --days N]");
+                    System.exit(2);
+                }
+            }
+        }
+
+        long t0 = System.nanoTime();
+        int moved = LocalStore.packHistory(cutoff);
+        System.out.printf("packed %d workout(s) last updated before %s in %.1f ms; history now holds %d%n",
+                moved, cutoff, (System.nanoTime() - t0) / 1e6, LocalStore.historySize());
+    }
+}
@@ -0,0 +1,160 @@
+package swimworkoutbuilder_javafx.dev;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.store.LocalStore;
+import swimworkoutbuilder_javafx.store.WorkoutSummary;
+
+/**
+ * Times listing and opening workouts (best of 5) from the live store versus the memory-mapped
+ * history pack, then checks that packed workouts behave like live ones (edit, delete,
+ * swimmer delete, repack) and that no edit saved while a pack runs is lost.
+ *
+ * <p>Runs against a throwaway home directory (it sets {@code user.home} before
+ * {@link LocalStore} is first used).</p>
+ *
+ * <p><b>Usage:</b> {@code java swimworkoutbuilder_javafx.dev.HistoryPackBenchmark [swimmers] [workoutsPerSwimmer]}</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class HistoryPackBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int swimmers = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int perSwimmer = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int total = swimmers * perSwimmer;
+
+        Path home = Files.createTempDirectory("swb-history-bench");
+        System.setProperty("user.home", home.toString());
+
+        Random rnd = new Random(5);
+        List<UUID> roster = new ArrayList<>();
+        for (int i = 0; i < swimmers; i++) {
+            Swimmer s = SampleData.swimmer("First" + i, "Last" + i);
+            LocalStore.saveSwimmer(s);
+            roster.add(s.getId());
+            for (int j = 0; j < perSwimmer; j++) LocalStore.saveWorkout(SampleData.workout(s.getId(), "W" + j, 6, rnd));
+        }
+        System.out.printf("%d swimmers x %d workouts%n%n", swimmers, perSwimmer);
+
+        long[] live = best(roster, total);
+        long t0 = System.nanoTime();
+        int moved = LocalStore.packHistory(Instant.now());
+        System.out.printf("%-36s %9.1f ms%n", "packHistory (everything)", (System.nanoTime() - t0) / 1e6);
+        long[] packed = best(roster, total);
+
+        System.out.printf("%-36s %12s %12s%n", "", "live", "history");
+        System.out.printf("%-36s %9.1f ms %9.1f ms%n", "list summaries, all swimmers", live[0] / 1e6, packed[0] / 1e6);
+        System.out.printf("%-36s %9.1f ms %9.1f ms%n", "open every workout (cold)", live[1] / 1e6, packed[1] / 1e6);
+
+        // Behaviour checks
+        UUID owner = roster.get(0);
+        List<WorkoutSummary> list = LocalStore.listWorkoutSummariesFor(owner);
+        Workout edited = LocalStore.loadWorkout(owner, list.get(0).getId());
+        edited.setName("edited");
+        LocalStore.saveWorkout(edited);
+        LocalStore.clearWorkoutCache();
+        boolean editShadows = LocalStore.loadWorkout(edited.getId()).getName().equals("edited")
+                && LocalStore.listWorkoutSummariesFor(owner).size() == perSwimmer;
+
+        UUID gone = list.get(1).getId();
+        LocalStore.deleteWorkout(gone);
+        boolean deleteHides = LocalStore.listWorkoutSummariesFor(owner).size() == perSwimmer - 1;
+
+        LocalStore.deleteSwimmer(roster.get(1));
+        boolean cascade = LocalStore.listWorkoutSummariesFor(roster.get(1)).isEmpty();
+
+        LocalStore.packHistory(Instant.now().minusSeconds(3600));   // nothing new; drops deleted entries
+        boolean repacked = LocalStore.historySize() == total - perSwimmer - 2
+                && LocalStore.listWorkoutSummariesFor(owner).size() == perSwimmer - 1;
+
+        boolean racedKept = editsDuringPack(rnd);
+
+        System.out.println();
+        System.out.println("moved to history:     " + moved + " / " + total);
+        System.out.println("edit shadows pack:    " + editShadows);
+        System.out.println("delete hides packed:  " + deleteHides);
+        System.out.println("swimmer cascade:      " + cascade);
+        System.out.println("repack drops deleted: " + repacked);
+        System.out.println("edits during pack kept: " + racedKept);
+        if (moved != total || !editShadows || !deleteHides || !cascade || !repacked || !racedKept) System.exit(1);
+    }
+
+    // Saves edits on another thread while a pack runs; every edit must survive it
+    private static boolean editsDuringPack(Random rnd) throws Exception {
+        Swimmer s = SampleData.swimmer("Raced", "Swimmer");
+        LocalStore.saveSwimmer(s);
+        List<UUID> ids = new ArrayList<>();
+        for (int j = 0; j < 500; j++) {
+            Workout w = SampleData.workout(s.getId(), "R" + j, 6, rnd);
+            LocalStore.saveWorkout(w);
+            ids.add(w.getId());
+        }
+        Instant cutoff = Instant.now();
+        Set<UUID> edited = ConcurrentHashMap.newKeySet();
+        AtomicBoolean packing = new AtomicBoolean(true);
+        Throwable[] failure = new Throwable[1];
+        Thread editor = new Thread(() -> {
+            try {
+                for (int i = 0; packing.get(); i = (i + 7) % ids.size()) {
+                    Workout w = LocalStore.loadWorkout(s.getId(), ids.get(i));
+                    w.setName("raced");
+                    LocalStore.saveWorkout(w);
+                    edited.add(w.getId());
+                }
+            } catch (Throwable t) {
+                failure[0] = t;
+            }
+        });
+        editor.start();
+        LocalStore.packHistory(cutoff);
+        packing.set(false);
+        editor.join();
+        if (failure[0] != null) throw new IllegalStateException("editor failed", failure[0]);
+
+        LocalStore.clearWorkoutCache();
+        for (UUID id : edited) {
+            if (!LocalStore.loadWorkout(s.getId(), id).getName().equals("raced")) return false;
+        }
+        return !edited.isEmpty();
+    }
+
+    // Best of 5 passes (the first one also builds the header index)
+    private static long[] best(List<UUID> roster, int expected) throws Exception {
+        long[] best = {Long.MAX_VALUE, Long.MAX_VALUE};
+        for (int i = 0; i < 5; i++) {
+            long[] r = pass(roster, expected);
+            best[0] = Math.min(best[0], r[0]);
+            best[1] = Math.min(best[1], r[1]);
+        }
+        return best;
+    }
+
+    // {list nanos, open nanos}
+    private static long[] pass(List<UUID> roster, int expected) throws Exception {
+        LocalStore.clearWorkoutCache();
+        long t0 = System.nanoTime();
+        List<WorkoutSummary> all = new ArrayList<>();
+        for (UUID id : roster) all.addAll(LocalStore.listWorkoutSummariesFor(id));
+        long list = System.nanoTime() - t0;
+        if (all.size() != expected) throw new IllegalStateException("listed " + all.size());
+
+        t0 = System.nanoTime();
+        for (WorkoutSummary s : all) {
+            if (LocalStore.loadWorkout(s.getSwimmerId(), s.getId()).getGroups().isEmpty()) throw new IllegalStateException("empty workout");
+        }
+        return new long[]{list, System.nanoTime() - t0};
+    }
+}
@@ -0,0 +1,141 @@
+package swimworkoutbuilder_javafx.dev;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.store.LocalStore;
+import swimworkoutbuilder_javafx.store.Stores;
+import swimworkoutbuilder_javafx.store.WorkoutStore;
+
+/**
+ * Measures what header-first loading saves for list views and analytics that only need
+ * name, course and totals: every workout of a roster listed eagerly
+ * ({@link WorkoutStore#listWorkoutsFor}) versus as lazy proxies
+ * ({@link WorkoutStore#listLazyWorkoutsFor}), plus an index rebuild that decodes only the
+ * header block of each file.
+ *
+ * <p>Checks that the proxies report the same totals without loading a body, and that a
+ * body loaded on demand matches the eager copy, also when several threads touch a proxy
+ * first at once (one load, every thread sees the whole body). Runs in a throwaway home directory.</p>
+ *
+ * <p><b>Usage:</b> {@code java swimworkoutbuilder_javafx.dev.LazyWorkoutBenchmark [swimmers] [workoutsPerSwimmer]}</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class LazyWorkoutBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int swimmers = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int perSwimmer = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        Path home = Files.createTempDirectory("swb-lazy-bench");
+        System.setProperty("user.home", home.toString());
+        System.setProperty("swb.store.fsync", "false");
+
+        WorkoutStore store = Stores.workouts();
+        Random rnd = new Random(5);
+        UUID[] ids = new UUID[swimmers];
+        for (int i = 0; i < swimmers; i++) {
+            Swimmer s = SampleData.swimmer("First" + i, "Last" + i);
+            Stores.swimmers().saveSwimmer(s);
+            ids[i] = s.getId();
+            for (int j = 0; j < perSwimmer; j++) store.saveWorkout(SampleData.workout(s.getId(), "W" + j, 12, rnd));
+        }
+        System.out.printf("%d swimmers x %d workouts, backend=%s%n", swimmers, perSwimmer, Stores.backend());
+
+        for (int round = 0; round < 3; round++) {
+            Stores.clearWorkoutCache();
+            long t0 = System.nanoTime();
+            long eagerTotal = 0;
+            for (UUID id : ids) {
+                for (Workout w : store.listWorkoutsFor(id)) eagerTotal += w.totalDistance().rawMicroUnits();
+            }
+            report("eager: list + total distance", t0);
+
+            Stores.clearWorkoutCache();
+            t0 = System.nanoTime();
+            long lazyTotal = 0;
+            int unloaded = 0;
+            for (UUID id : ids) {
+                for (Workout w : store.listLazyWorkoutsFor(id)) {
+                    lazyTotal += w.totalDistance().rawMicroUnits();
+                    if (!w.isBodyLoaded()) unloaded++;
+                }
+            }
+            report("lazy:  list + total distance", t0);
+            check(lazyTotal == eagerTotal, "totals differ: " + lazyTotal + " vs " + eagerTotal);
+            check(unloaded == swimmers * perSwimmer, "bodies loaded early: " + (swimmers * perSwimmer - unloaded));
+        }
+
+        // A body loaded on demand matches the eager copy
+        Workout eager = store.listWorkoutsFor(ids[0]).get(0);
+        Workout lazy = store.listLazyWorkoutsFor(ids[0]).get(0);
+        check(!lazy.isBodyLoaded(), "proxy loaded before use");
+        check(lazy.getGroupCount() == eager.getGroupCount() && lazy.isBodyLoaded(), "group count after load");
+        check(lazy.totalDistance().equals(eager.totalDistance()), "total after load");
+        check(lazy.getDefaultRestBetweenGroupsSeconds() == eager.getDefaultRestBetweenGroupsSeconds(), "default rest after load");
+        concurrentFirstAccess(eager);
+
+        if (Stores.backend().equals("files")) {
+            for (int round = 0; round < 3; round++) {
+                long t0 = System.nanoTime();
+                LocalStore.rebuildIndex();
+                report("rebuild index (header blocks)", t0);
+            }
+        }
+        System.out.println("OK");
+    }
+
+    // Threads racing on a fresh proxy's groups: the body is loaded once and all see it whole
+    private static void concurrentFirstAccess(Workout eager) throws InterruptedException {
+        int threads = 8;
+        for (int round = 0; round < 200; round++) {
+            AtomicInteger loads = new AtomicInteger();
+            Workout proxy = new Workout(eager.getId(), eager.getSwimmerId(), eager.getName(), eager.getCourse(),
+                    eager.getNotes(), eager.getCreatedAt(), eager.getUpdatedAt(),
+                    eager.totalDistance().rawMicroUnits(), () -> {
+                loads.incrementAndGet();
+                return new Workout(eager);
+            });
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicInteger wrong = new AtomicInteger();
+            List<Thread> racers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Thread th = new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (proxy.getGroupCount() != eager.getGroupCount()) wrong.incrementAndGet();
+                });
+                th.start();
+                racers.add(th);
+            }
+            start.countDown();
+            for (Thread th : racers) th.join();
+            check(loads.get() == 1, "body loaded " + loads.get() + " times by concurrent first accesses");
+            check(wrong.get() == 0, wrong.get() + " thread(s) saw a partial body");
+        }
+        System.out.println("  concurrent first access: one load, whole body seen");
+    }
+
+    private static void report(String what, long t0) {
+        System.out.printf("  %-34s %9.1f ms%n", what, (System.nanoTime() - t0) / 1e6);
+    }
+
+    private static void check(boolean ok, String message) {
+        if (!ok) {
+            System.err.println("  FAIL: " + message);
+            System.exit(1);
+        }
+    }
+}
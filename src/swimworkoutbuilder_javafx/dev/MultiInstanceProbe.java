@@ -0,0 +1,276 @@
+package swimworkoutbuilder_javafx.dev;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.store.SessionSnapshot;
+import swimworkoutbuilder_javafx.store.StoreChange;
+import swimworkoutbuilder_javafx.store.StoreConflictException;
+import swimworkoutbuilder_javafx.store.StoreWatcher;
+import swimworkoutbuilder_javafx.store.Stores;
+import swimworkoutbuilder_javafx.store.WorkoutStore;
+
+/**
+ * Runs several instances of the store on one data directory, as two machines sharing a
+ * library would, and checks what each sees of the other.
+ *
+ * <p>This JVM is one instance, with a {@link StoreWatcher} running; each step of the
+ * "other" instance runs in a fresh child JVM. Checks that:</p>
+ * <ul>
+ *   <li>the watcher reports exactly the workout or swimmer the other instance changed,
+ *       and nothing for this instance's own saves</li>
+ *   <li>a load after a reported change returns the new version</li>
+ *   <li>saving over a version this instance has not seen fails with
+ *       {@link StoreConflictException} and leaves the stored version alone, for swimmers
+ *       too when the replaced file kept its old modified time</li>
+ *   <li>two instances incrementing a counter in the same workout, retrying on conflict,
+ *       lose no updates</li>
+ *   <li>two instances saving different workouts of one swimmer at once both end up in
+ *       that swimmer's index shard, as seen by a fresh instance and by this one</li>
+ *   <li>a swimmer and workout restored from the {@link SessionSnapshot} at launch still
+ *       conflict when another instance saved them in the meantime</li>
+ * </ul>
+ *
+ * <p><b>Usage:</b> {@code java -Duser.home=<temp dir> swimworkoutbuilder_javafx.dev.MultiInstanceProbe [increments]}
+ * (default 200 per instance; also the workouts each instance adds). Files backend only.</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class MultiInstanceProbe {
+
+    private static final long WAIT_MS = 5_000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--other")) {
+            other(args);
+            return;
+        }
+        int increments = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        WorkoutStore store = Stores.workouts();
+        Random rnd = new Random(7);
+
+        Swimmer s = SampleData.swimmer("Shared", "Swimmer");
+        Stores.swimmers().saveSwimmer(s);
+        Workout w = SampleData.workout(s.getId(), "Shared workout", 4, rnd);
+        store.saveWorkout(w);
+
+        BlockingQueue<StoreChange> changes = new LinkedBlockingQueue<>();
+        try (StoreWatcher watcher = Stores.watch(changes::add)) {
+            check(watcher != null, "no watcher for the file layout");
+
+            // Own saves are not reported
+            Workout mine = store.loadWorkout(s.getId(), w.getId());
+            mine.setNotes("edited here");
+            store.saveWorkout(mine);
+            check(changes.poll(StoreWatcher.SETTLE.toMillis() * 5, TimeUnit.MILLISECONDS) == null, "own save reported");
+            System.out.println("own saves not reported                        PASS");
+
+            // The other instance edits it: reported, and a load sees the new version
+            other("rename", w.getId(), s.getId(), "Renamed elsewhere");
+            expect(changes, StoreChange.Kind.WORKOUT_SAVED, s.getId(), w.getId());
+            check(store.loadWorkout(s.getId(), w.getId()).getName().equals("Renamed elsewhere"), "load returned the old version");
+            System.out.println("external edit reported and reloaded           PASS");
+
+            // Saving over a version not seen here conflicts and writes nothing
+            Workout stale = store.loadWorkout(s.getId(), w.getId());
+            other("rename", w.getId(), s.getId(), "Renamed again");
+            stale.setName("Stale copy");
+            try {
+                store.saveWorkout(stale);
+                check(false, "stale save was not refused");
+            } catch (StoreConflictException expected) {
+                // refused
+            }
+            expect(changes, StoreChange.Kind.WORKOUT_SAVED, s.getId(), w.getId());
+            check(store.loadWorkout(s.getId(), w.getId()).getName().equals("Renamed again"), "conflicting save overwrote");
+            System.out.println("stale save refused with a conflict            PASS");
+
+            // Same for a swimmer, even when the file's modified time does not move (coarse
+            // timestamps, or a sync tool that preserves them)
+            Swimmer staleSwimmer = Stores.swimmers().loadSwimmer(s.getId());
+            Path swimmerFile = Path.of(System.getProperty("user.home"), ".swimworkoutbuilder", "swimmers", s.getId() + ".bin");
+            FileTime before = Files.getLastModifiedTime(swimmerFile);
+            other("renameSwimmer", w.getId(), s.getId(), "Renamed");
+            Files.setLastModifiedTime(swimmerFile, before);
+            staleSwimmer.setFirstName("Stale");
+            try {
+                Stores.swimmers().saveSwimmer(staleSwimmer);
+                check(false, "stale swimmer save was not refused");
+            } catch (StoreConflictException expected) {
+                // refused
+            }
+            expect(changes, StoreChange.Kind.SWIMMER_SAVED, s.getId(), null);
+            check(Stores.swimmers().loadSwimmer(s.getId()).getFirstName().equals("Renamed"), "conflicting swimmer save overwrote");
+            System.out.println("stale swimmer save refused with a conflict    PASS");
+
+            // Swimmer created elsewhere; workout deleted elsewhere
+            other("swimmer", w.getId(), s.getId(), "Second");
+            StoreChange c = expect(changes, StoreChange.Kind.SWIMMER_SAVED, null, null);
+            check(Stores.swimmers().loadSwimmer(c.swimmerId()).getFirstName().equals("Second"), "wrong swimmer reported");
+            other("delete", w.getId(), s.getId(), "");
+            expect(changes, StoreChange.Kind.WORKOUT_DELETED, s.getId(), w.getId());
+            check(store.listWorkoutSummariesFor(s.getId()).stream().noneMatch(x -> x.getId().equals(w.getId())),
+                    "deleted workout still listed");
+            System.out.println("external swimmer save / workout delete        PASS");
+
+            // Two other instances increment one counter with retry on conflict
+            Workout counter = SampleData.workout(s.getId(), "0", 2, rnd);
+            store.saveWorkout(counter);
+            long t0 = System.nanoTime();
+            List<Process> racers = new ArrayList<>();
+            for (int i = 0; i < 2; i++) racers.add(start("increment", counter.getId(), s.getId(), String.valueOf(increments)));
+            for (Process p : racers) check(p.waitFor() == 0, "incrementing instance failed");
+            // Until the watcher reports their saves, this instance may still serve its own copy
+            while (changes.poll(StoreWatcher.SETTLE.toMillis() * 5, TimeUnit.MILLISECONDS) != null) {
+                // drain
+            }
+            int total = Integer.parseInt(store.loadWorkout(s.getId(), counter.getId()).getName());
+            System.out.printf("concurrent increments: %d of %d (%.0f ms)%n", total, 2 * increments, (System.nanoTime() - t0) / 1e6);
+            check(total == 2 * increments, "updates lost");
+            System.out.println("no lost updates between instances             PASS");
+
+            // Two other instances add workouts for one swimmer: both rewrite its index shard
+            Swimmer busy = SampleData.swimmer("Busy", "Swimmer");
+            Stores.swimmers().saveSwimmer(busy);
+            t0 = System.nanoTime();
+            List<Process> savers = new ArrayList<>();
+            for (int i = 0; i < 2; i++) savers.add(start("add", counter.getId(), busy.getId(), String.valueOf(increments)));
+            for (Process p : savers) check(p.waitFor() == 0, "saving instance failed");
+            long elapsed = System.nanoTime() - t0;
+            other("count", counter.getId(), busy.getId(), String.valueOf(2 * increments));
+            while (changes.poll(StoreWatcher.SETTLE.toMillis() * 5, TimeUnit.MILLISECONDS) != null) {
+                // drain
+            }
+            int listed = store.listWorkoutSummariesFor(busy.getId()).size();
+            System.out.printf("concurrent adds listed here: %d of %d (%.0f ms)%n", listed, 2 * increments, elapsed / 1e6);
+            check(listed == 2 * increments, "workouts missing from this instance's listing");
+            System.out.println("no lost index entries between instances       PASS");
+
+            // A relaunched instance restores its session from the snapshot, then edits
+            SessionSnapshot.save(Stores.swimmers().loadSwimmer(s.getId()), store.loadWorkout(s.getId(), counter.getId()), null);
+            other("restore", counter.getId(), s.getId(), "");
+            while (changes.poll(StoreWatcher.SETTLE.toMillis() * 5, TimeUnit.MILLISECONDS) != null) {
+                // drain
+            }
+            System.out.println("restored session saves checked for conflicts  PASS");
+        }
+        System.out.println("All multi-instance scenarios passed.");
+    }
+
+    // Waits for the next reported change and checks it (null ids: any)
+    private static StoreChange expect(BlockingQueue<StoreChange> changes, StoreChange.Kind kind, UUID swimmerId, UUID workoutId)
+            throws InterruptedException {
+        StoreChange c = changes.poll(WAIT_MS, TimeUnit.MILLISECONDS);
+        check(c != null, "no change reported (expected " + kind + ")");
+        check(c.kind() == kind, "expected " + kind + ", got " + c);
+        check(swimmerId == null || c.swimmerId().equals(swimmerId), "wrong swimmer in " + c);
+        check(workoutId == null || workoutId.equals(c.workoutId()), "wrong workout in " + c);
+        StoreChange extra = changes.poll(StoreWatcher.SETTLE.toMillis() * 3, TimeUnit.MILLISECONDS);
+        check(extra == null, "unexpected extra change " + extra);
+        return c;
+    }
+
+    // ----------------------------------------------------------
+    // The other instance
+    // ----------------------------------------------------------
+
+    private static void other(String op, UUID workoutId, UUID swimmerId, String arg) throws Exception {
+        check(start(op, workoutId, swimmerId, arg).waitFor() == 0, "other instance failed: " + op);
+    }
+
+    private static Process start(String op, UUID workoutId, UUID swimmerId, String arg) throws Exception {
+        return new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                "-Duser.home=" + System.getProperty("user.home"),
+                "-Dswb.store.fsync=false",
+                MultiInstanceProbe.class.getName(),
+                "--other", op, workoutId.toString(), swimmerId.toString(), arg)
+                .inheritIO()
+                .start();
+    }
+
+    private static void other(String[] args) throws Exception {
+        WorkoutStore store = Stores.workouts();
+        UUID workoutId = UUID.fromString(args[2]);
+        UUID swimmerId = UUID.fromString(args[3]);
+        switch (args[1]) {
+            case "rename" -> {
+                Workout w = store.loadWorkout(swimmerId, workoutId);
+                w.setName(args[4]);
+                store.saveWorkout(w);
+            }
+            case "delete" -> store.deleteWorkout(workoutId);
+            case "renameSwimmer" -> {
+                Swimmer s = Stores.swimmers().loadSwimmer(swimmerId);
+                s.setFirstName(args[4]);
+                Stores.swimmers().saveSwimmer(s);
+            }
+            case "swimmer" -> Stores.swimmers().saveSwimmer(SampleData.swimmer(args[4], "Elsewhere"));
+            case "increment" -> {
+                int n = Integer.parseInt(args[4]);
+                for (int done = 0; done < n; ) {
+                    Workout w = store.loadWorkout(swimmerId, workoutId);
+                    w.setName(String.valueOf(Integer.parseInt(w.getName()) + 1));
+                    try {
+                        store.saveWorkout(w);
+                        done++;
+                    } catch (StoreConflictException e) {
+                        // the other instance got there first: reload and retry
+                    }
+                }
+            }
+            case "add" -> {
+                Random rnd = new Random();
+                int n = Integer.parseInt(args[4]);
+                for (int i = 0; i < n; i++) store.saveWorkout(SampleData.workout(swimmerId, "Added " + i, 2, rnd));
+            }
+            case "restore" -> {
+                SessionSnapshot snap = SessionSnapshot.load();
+                check(snap != null && snap.workout() != null, "session snapshot not restored");
+                other("rename", workoutId, swimmerId, "Theirs");
+                other("renameSwimmer", workoutId, swimmerId, "Theirs");
+                Workout mine = snap.workout();
+                mine.setName("Mine");
+                Swimmer mineSwimmer = snap.swimmer();
+                mineSwimmer.setFirstName("Mine");
+                try {
+                    store.saveWorkout(mine);
+                    check(false, "restored workout overwrote a newer version");
+                } catch (StoreConflictException expected) {
+                    // refused
+                }
+                try {
+                    Stores.swimmers().saveSwimmer(mineSwimmer);
+                    check(false, "restored swimmer overwrote a newer version");
+                } catch (StoreConflictException expected) {
+                    // refused
+                }
+                check(store.loadWorkout(swimmerId, workoutId).getName().equals("Theirs"), "workout changed by a refused save");
+                check(Stores.swimmers().loadSwimmer(swimmerId).getFirstName().equals("Theirs"), "swimmer changed by a refused save");
+            }
+            case "count" -> {
+                int listed = store.listWorkoutSummariesFor(swimmerId).size();
+                System.out.printf("concurrent adds listed by a fresh instance: %d of %s%n", listed, args[4]);
+                check(listed == Integer.parseInt(args[4]), "workouts missing from the index");
+            }
+            default -> throw new IllegalArgumentException(args[1]);
+        }
+        System.exit(0);
+    }
+
+    private static void check(boolean ok, String message) {
+        if (!ok) {
+            System.err.println("  FAIL: " + message);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package swimworkoutbuilder_javafx.dev;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import swimworkoutbuilder_javafx.store.LocalStore;
+
+/**
+ * One-time sweep for workouts orphaned by swimmer deletes that did not cascade (older
+ * builds removed only the swimmer file).
+ *
+ * <p>Finds swimmers that still have a workout directory or index shard but no swimmer
+ * file, reports how many workout files each one left behind, and with {@code --apply}
+ * reclaims them in parallel: deleted by default, or moved to {@code archive/} with
+ * {@code --archive}.</p>
+ *
+ * <p>Runs against the real data folder; use {@code -Duser.home=...} to point it elsewhere.
+ * Close the app first.</p>
+ *
+ * <p><b>Usage:</b> {@code java swimworkoutbuilder_javafx.dev.OrphanSweep [--apply] [--archive]}</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class OrphanSweep {
+
+    public static void main(String[] args) throws Exception {
+        boolean apply = false, archive = false;
+        for (String a : args) {
+            switch (a) {
+                case "--apply" -> apply = true;
+                case "--archive" -> archive = true;
+                default -> {
+                    System.err.println("usage: OrphanSweep [--apply] [--archive]");
+                    System.exit(2);
+                }
+            }
+        }
+
+        long t0 = System.nanoTime();
+        List<UUID> orphans = LocalStore.listOrphanedSwimmerIds();
+        Path workoutsDir = Path.of(System.getProperty("user.home"), ".swimworkoutbuilder", "workouts");
+
+        Map<UUID, Long> files = new ConcurrentHashMap<>();
+        orphans.parallelStream().forEach(id -> files.put(id, countFiles(workoutsDir.resolve(id.toString()))));
+        long total = files.values().stream().mapToLong(Long::longValue).sum();
+        System.out.printf("%d orphaned swimmer(s), %d workout file(s) (scan %.1f ms)%n",
+                orphans.size(), total, (System.nanoTime() - t0) / 1e6);
+        for (UUID id : orphans) System.out.printf("  %s  %6d%n", id, files.get(id));
+
+        if (!apply) {
+            if (!orphans.isEmpty()) System.out.println("dry run; pass --apply to " + (archive ? "archive" : "delete") + " them");
+            return;
+        }
+
+        t0 = System.nanoTime();
+        AtomicInteger failed = new AtomicInteger();
+        boolean toArchive = archive;
+        orphans.parallelStream().forEach(id -> {
+            try {
+                LocalStore.reclaimOrphan(id, toArchive);
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                System.err.println("  " + id + ": " + e.getMessage());
+            }
+        });
+        long removed = LocalStore.reclaimTrash();
+        System.out.printf("%s %d swimmer(s): %d file(s) deleted, %d failed (%.1f ms)%n",
+                archive ? "archived" : "reclaimed", orphans.size() - failed.get(), removed, failed.get(),
+                (System.nanoTime() - t0) / 1e6);
+        if (failed.get() > 0) System.exit(1);
+    }
+
+    private static long countFiles(Path dir) {
+        if (!Files.isDirectory(dir)) return 0;
+        try (var s = Files.walk(dir)) {
+            return s.filter(Files::isRegularFile).count();
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package swimworkoutbuilder_javafx.dev;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import swimworkoutbuilder_javafx.model.enums.Course;
+import swimworkoutbuilder_javafx.store.AppPreferences;
+import swimworkoutbuilder_javafx.store.LocalStore;
+
+/**
+ * Measures the "last selection" calls the app makes on every swimmer and workout change
+ * ({@link LocalStore#saveLast}, {@link LocalStore#lastSwimmer}) now that they are served
+ * by {@link AppPreferences}.
+ *
+ * <p>Checks that a burst of changes costs one write, that {@link AppPreferences#flush()}
+ * leaves a complete file, and that a new JVM reads back the same values.</p>
+ *
+ * <p>Runs in two child JVMs sharing a throwaway home directory: {@code build} makes the
+ * changes, {@code reopen} reads them back.</p>
+ *
+ * <p><b>Usage:</b> {@code java swimworkoutbuilder_javafx.dev.PreferencesBenchmark [changes]}
+ * (default 10000)</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class PreferencesBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--phase")) {
+            if (args[1].equals("build")) build(Integer.parseInt(args[2]));
+            else reopen();
+            return;
+        }
+        int changes = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        Path home = Files.createTempDirectory("swb-prefs-bench");
+        for (String phase : List.of("build", "reopen")) {
+            Process p = new ProcessBuilder(
+                    Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"),
+                    "-Duser.home=" + home,
+                    PreferencesBenchmark.class.getName(),
+                    "--phase", phase, String.valueOf(changes))
+                    .inheritIO()
+                    .start();
+            if (p.waitFor() != 0) {
+                System.err.println(phase + " failed");
+                System.exit(1);
+            }
+        }
+        System.out.println("OK");
+    }
+
+    private static void build(int changes) throws Exception {
+        AppPreferences prefs = AppPreferences.get();
+        Path file = prefsFile();
+
+        long t0 = System.nanoTime();
+        LocalStore.lastSwimmer();
+        report("first read (loads the file)", t0);
+
+        // A burst of selection changes, as when clicking through a swimmer's workouts
+        UUID swimmer = UUID.randomUUID();
+        UUID workout = null;
+        t0 = System.nanoTime();
+        for (int i = 0; i < changes; i++) {
+            workout = UUID.randomUUID();
+            LocalStore.saveLast(swimmer, workout);
+        }
+        report(changes + " x saveLast", t0);
+
+        t0 = System.nanoTime();
+        int reads = changes * 10;
+        for (int i = 0; i < reads; i++) {
+            check(LocalStore.lastWorkout().orElseThrow().equals(workout), "read back a stale workout");
+        }
+        report(reads + " x lastWorkout", t0);
+        prefs.set(AppPreferences.LAST_COURSE, Course.LCM);
+
+        Thread.sleep(AppPreferences.WRITE_DELAY.toMillis() * 4);
+        long writes = prefs.writeCount();
+        System.out.printf("  %-38s %9d%n", "writes after the burst", writes);
+        check(writes >= 1 && writes <= 2, "expected the burst to be batched, got " + writes + " writes");
+        check(workout.toString().equals(load(file).getProperty("lastWorkoutId")), "file behind memory after write delay");
+
+        // Clearing through flush leaves the file complete
+        LocalStore.saveLast(swimmer, null);
+        prefs.flush();
+        check(prefs.writeCount() == writes + 1, "flush did not write");
+        Properties onDisk = load(file);
+        check(swimmer.toString().equals(onDisk.getProperty("lastSwimmerId")), "swimmer missing from file");
+        check(onDisk.getProperty("lastWorkoutId") == null, "cleared workout still in file");
+        prefs.flush();
+        check(prefs.writeCount() == writes + 1, "flush with nothing pending wrote");
+
+        Files.writeString(file.resolveSibling("prefs-expected.txt"), swimmer.toString());
+    }
+
+    private static void reopen() throws Exception {
+        Path file = prefsFile();
+        String expected = Files.readString(file.resolveSibling("prefs-expected.txt"));
+        check(LocalStore.lastSwimmer().map(UUID::toString).orElse("").equals(expected), "swimmer lost across restart");
+        check(LocalStore.lastWorkout().isEmpty(), "cleared workout came back");
+        check(AppPreferences.get().get(AppPreferences.LAST_COURSE) == Course.LCM, "course lost across restart");
+        check(Double.isNaN(AppPreferences.get().get(AppPreferences.WINDOW_WIDTH)), "unset key not at its default");
+        check(AppPreferences.get().writeCount() == 0, "reads wrote the file");
+    }
+
+    private static Path prefsFile() {
+        return Path.of(System.getProperty("user.home"), ".swimworkoutbuilder", "last.properties");
+    }
+
+    private static Properties load(Path file) throws Exception {
+        Properties p = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            p.load(in);
+        }
+        return p;
+    }
+
+    private static void report(String what, long t0) {
+        System.out.printf("  %-38s %9.1f ms%n", what, (System.nanoTime() - t0) / 1e6);
+    }
+
+    private static void check(boolean ok, String message) {
+        if (!ok) {
+            System.err.println("  FAIL: " + message);
+            System.exit(1);
+        }
+    }
+}
@@ -5,8 +5,15 @@ import java.nio.file.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.store.AtomicFiles;
+import swimworkoutbuilder_javafx.store.Stores;
+import swimworkoutbuilder_javafx.store.WorkoutCodec;
 
 /**
  * Utility class for managing and resetting local repository data during development.
@@ -15,6 +22,10 @@ import java.util.zip.ZipOutputStream;
  * (e.g., swimmers.dat, workouts.dat) stored in the application's data directory.
  * It is intended strictly for use during development and testing — not for production builds.</p>
  *
+ * <p>Backups are incremental, deduplicated snapshots (see {@link BackupSnapshots}): only
+ * files changed since the last snapshot are read, and each distinct file is stored once.
+ * A snapshot can be restored whole, or a single workout can be restored from it.</p>
+ *
  * <p><b>Default storage location:</b>
  * <code>~/.swimworkoutbuilder/</code></p>
  *
@@ -25,10 +36,14 @@ import java.util.zip.ZipOutputStream;
  *
  * // Or manually trigger backup only
  * RepositoryManager.backupBeforeDelete();
+ *
+ * // Bring back one workout, or everything, from the newest snapshot
+ * RepositoryManager.restoreWorkout(workoutId, "latest");
+ * RepositoryManager.restoreSnapshot("latest");
  * }</pre>
  *
  * @author Parker Blackwell
- * @version 1.1 (with backup support)
+ * @version 1.2 (incremental snapshots)
  * @since 2025-10-11
  */
 public final class RepositoryManager {
@@ -43,13 +58,15 @@ public final class RepositoryManager {
     private static final Path BACKUP_DIR =
             Path.of(System.getProperty("user.home"), ".swimworkoutbuilder_backups");
 
+    private static final BackupSnapshots SNAPSHOTS = new BackupSnapshots(DATA_DIR, BACKUP_DIR);
+
     // ----------------------------------------------------------
     // Public API
     // ----------------------------------------------------------
 
     /**
      * Deletes all repository data under {@code ~/.swimworkoutbuilder}.
-     * Automatically creates a ZIP backup before deletion.
+     * Automatically takes a backup snapshot first; nothing is deleted if that fails.
      */
     public static void clearAll() {
         if (!Files.exists(DATA_DIR)) {
@@ -58,7 +75,10 @@ public final class RepositoryManager {
         }
 
         System.out.println("🧹 Preparing to clear all repository data in: " + DATA_DIR.toAbsolutePath());
-        backupBeforeDelete();
+        if (!backupBeforeDelete()) {
+            System.err.println("❌ Backup failed — nothing was deleted.");
+            return;
+        }
 
         try {
             Files.walk(DATA_DIR)
@@ -85,11 +105,39 @@ public final class RepositoryManager {
     }
 
     /**
-     * Creates a ZIP archive backup of the current repository folder.
-     * The backup file is stored under {@code ~/.swimworkoutbuilder_backups/}
-     * and named with a timestamp (e.g., {@code backup_2025-10-11_1530.zip}).
+     * Takes a backup snapshot of the current repository folder under
+     * {@code ~/.swimworkoutbuilder_backups/}, named with a timestamp
+     * (e.g., {@code 2025-10-11_153012}). Files unchanged since the previous snapshot
+     * are not read again.
+     *
+     * @return {@code true} if the snapshot was written (or there was nothing to back up)
      */
-    public static void backupBeforeDelete() {
+    public static boolean backupBeforeDelete() {
+        if (!Files.exists(DATA_DIR)) {
+            System.out.println("ℹ️  No data directory to back up.");
+            return true;
+        }
+
+        try {
+            System.out.println("📦 Taking backup snapshot of: " + DATA_DIR.toAbsolutePath());
+            BackupSnapshots.Result r = SNAPSHOTS.backup();
+            System.out.printf("   %d files, %s — %d unchanged, %d new blobs (%s compressed)%n",
+                    r.files, size(r.bytes), r.unchanged, r.newBlobs, size(r.blobBytes));
+            System.out.printf("✅ Backup complete: %s (%.1f ms)%n%n", r.snapshot, r.nanos / 1e6);
+            return true;
+        } catch (IOException e) {
+            System.err.println("❌ Failed to create backup: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Exports the current repository folder as a single ZIP archive under
+     * {@code ~/.swimworkoutbuilder_backups/} (e.g., {@code backup_2025-10-11_1530.zip}),
+     * for copying elsewhere. Snapshots are the regular backups.
+     */
+    public static void exportZip() {
         if (!Files.exists(DATA_DIR)) {
             System.out.println("ℹ️  No data directory to back up.");
             return;
@@ -125,6 +173,105 @@ public final class RepositoryManager {
         }
     }
 
+    /** Prints the backup snapshots, oldest first. */
+    public static void listBackups() {
+        try {
+            List<String> all = SNAPSHOTS.list();
+            if (all.isEmpty()) {
+                System.out.println("ℹ️  No backups in " + BACKUP_DIR);
+                return;
+            }
+            for (String id : all) {
+                List<BackupSnapshots.Entry> entries = SNAPSHOTS.manifest(id);
+                long bytes = entries.stream().mapToLong(e -> e.size).sum();
+                System.out.printf("   %-20s %6d files  %s%n", id, entries.size(), size(bytes));
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Failed to list backups: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the repository folder with a snapshot. The snapshot is restored next to it
+     * first; the current folder is then moved aside to
+     * {@code ~/.swimworkoutbuilder.before-restore-<timestamp>}, not deleted. The app must
+     * not be running.
+     *
+     * @param snapshot snapshot id, or {@code "latest"}
+     * @return {@code true} if the snapshot was restored
+     */
+    public static boolean restoreSnapshot(String snapshot) {
+        Path staging = DATA_DIR.resolveSibling(DATA_DIR.getFileName() + ".restoring");
+        try {
+            String id = SNAPSHOTS.resolve(snapshot);
+            deleteTree(staging);   // left over from an interrupted restore
+            System.out.println("♻️  Restoring backup " + id + " into: " + DATA_DIR.toAbsolutePath());
+            BackupSnapshots.Result r = SNAPSHOTS.restore(id, staging);
+
+            if (Files.exists(DATA_DIR)) {
+                String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HHmmss"));
+                Path aside = DATA_DIR.resolveSibling(DATA_DIR.getFileName() + ".before-restore-" + timestamp);
+                Files.move(DATA_DIR, aside);
+                System.out.println("   Previous data moved to: " + aside.toAbsolutePath());
+            }
+            Files.move(staging, DATA_DIR);
+            System.out.printf("✅ Restored %d files, %s (%.1f ms)%n%n", r.files, size(r.bytes), r.nanos / 1e6);
+            return true;
+        } catch (IOException e) {
+            System.err.println("❌ Failed to restore backup: " + e.getMessage());
+            try {
+                deleteTree(staging);
+            } catch (IOException ignored) {
+                // best effort
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Restores one workout from a snapshot through the current store, replacing the stored
+     * version if there is one. Its swimmer is restored too if it no longer exists. A
+     * running app picks the change up like any other external save.
+     *
+     * <p>Only snapshots of the file layout hold workouts as separate files; from a snapshot
+     * of the segment or database backend, restore the whole snapshot instead.</p>
+     *
+     * @param workoutId the workout to restore
+     * @param snapshot  snapshot id, or {@code "latest"}
+     * @return {@code true} if the workout was restored
+     */
+    public static boolean restoreWorkout(UUID workoutId, String snapshot) {
+        long t0 = System.nanoTime();
+        try {
+            String id = SNAPSHOTS.resolve(snapshot);
+            List<BackupSnapshots.Entry> entries = SNAPSHOTS.manifest(id);
+            BackupSnapshots.Entry entry = find(entries, "workouts/", workoutId);
+            if (entry == null) {
+                System.err.println("❌ Workout " + workoutId + " is not in backup " + id
+                        + " (only file-layout backups hold single workouts).");
+                return false;
+            }
+            Workout w = WorkoutCodec.readWorkout(new ByteArrayInputStream(decoded(entry)));
+
+            if (Stores.swimmers().swimmerVersion(w.getSwimmerId()) < 0) {
+                BackupSnapshots.Entry owner = find(entries, "swimmers/", w.getSwimmerId());
+                if (owner == null) {
+                    System.err.println("❌ The swimmer of workout " + workoutId + " is missing and not in backup " + id + ".");
+                    return false;
+                }
+                Swimmer s = WorkoutCodec.readSwimmer(new ByteArrayInputStream(decoded(owner)));
+                Stores.swimmers().saveSwimmer(s);
+                System.out.println("   Restored swimmer: " + s.getFirstName() + " " + s.getLastName());
+            }
+            Stores.workouts().saveWorkout(w);
+            System.out.printf("✅ Restored workout \"%s\" from %s (%.1f ms)%n%n", w.getName(), id, (System.nanoTime() - t0) / 1e6);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("❌ Failed to restore workout " + workoutId + ": " + e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * Deletes a specific repository file (e.g., "swimmers.dat" or "workouts.dat").
      *
@@ -142,4 +289,35 @@ public final class RepositoryManager {
             System.err.println("❌ Failed to delete file " + fileName + ": " + e.getMessage());
         }
     }
+
+    // ----------------------------------------------------------
+    // Helpers
+    // ----------------------------------------------------------
+
+    // The entry <dir>.../<id>.bin, or null
+    private static BackupSnapshots.Entry find(List<BackupSnapshots.Entry> entries, String dir, UUID id) {
+        String name = "/" + id + ".bin";
+        for (BackupSnapshots.Entry e : entries) {
+            if (e.path.startsWith(dir) && e.path.endsWith(name)) return e;
+        }
+        return null;
+    }
+
+    // Payload of a backed-up store file: blob verified, envelope checked and stripped
+    private static byte[] decoded(BackupSnapshots.Entry e) throws IOException {
+        return AtomicFiles.unwrap(DATA_DIR.resolve(e.path), SNAPSHOTS.blob(e));
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root)) return;
+        try (var stream = Files.walk(root)) {
+            for (Path p : (Iterable<Path>) stream.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+
+    private static String size(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
+        return String.format("%.1f MB", bytes / (1024.0 * 1024));
+    }
 }
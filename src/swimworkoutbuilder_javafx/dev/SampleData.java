@@ -0,0 +1,71 @@
+package swimworkoutbuilder_javafx.dev;
+
+import java.util.Random;
+import java.util.UUID;
+import swimworkoutbuilder_javafx.model.SetGroup;
+import swimworkoutbuilder_javafx.model.SwimSet;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.model.enums.Course;
+import swimworkoutbuilder_javafx.model.enums.Effort;
+import swimworkoutbuilder_javafx.model.enums.Equipment;
+import swimworkoutbuilder_javafx.model.enums.StrokeType;
+import swimworkoutbuilder_javafx.model.units.Distance;
+import swimworkoutbuilder_javafx.model.units.TimeSpan;
+
+/**
+ * Deterministic synthetic swimmers and workouts for dev probes and benchmarks.
+ *
+ * <p>Not used by the application. Given the same {@link Random} seed the generated
+ * library is identical between runs, so benchmark numbers are comparable.</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class SampleData {
+
+    private static final int[] REP_YARDS = {25, 50, 75, 100, 200, 400};
+
+    private SampleData() {}
+
+    /** A swimmer with seeds for every stroke (100y based). */
+    public static Swimmer swimmer(String first, String last) {
+        Swimmer s = new Swimmer(UUID.randomUUID(), first, last, null, "Dev Team");
+        double base = 70.0;
+        for (StrokeType st : StrokeType.values()) {
+            s.updateSeedTime(st, Distance.ofYards(100), TimeSpan.ofSeconds(base));
+            base += 4.0;
+        }
+        return s;
+    }
+
+    /** A realistic warmup / main / cooldown workout with {@code mainSets} sets in the main group. */
+    public static Workout workout(UUID swimmerId, String name, int mainSets, Random rnd) {
+        Workout w = new Workout(swimmerId, name, Course.SCY, "Generated for benchmarking", 60);
+
+        SetGroup warm = new SetGroup("Warmup");
+        warm.addSet(new SwimSet(StrokeType.FREESTYLE, 1, Distance.ofYards(400), Effort.EASY, Course.SCY, "Smooth"));
+        warm.addSet(new SwimSet(StrokeType.KICK, 4, Distance.ofYards(50), Effort.ENDURANCE, Course.SCY, ""));
+        w.addSetGroup(warm);
+
+        SetGroup main = new SetGroup("Main");
+        main.setReps(1 + rnd.nextInt(4));
+        main.setNotes("Descend 1-" + main.getReps());
+        for (int i = 0; i < mainSets; i++) {
+            StrokeType st = StrokeType.values()[rnd.nextInt(4)];
+            Effort ef = Effort.values()[rnd.nextInt(Effort.values().length)];
+            int yards = REP_YARDS[rnd.nextInt(REP_YARDS.length)];
+            SwimSet s = new SwimSet(st, 1 + rnd.nextInt(20), Distance.ofYards(yards), ef, Course.SCY,
+                    rnd.nextBoolean() ? "broken at the 100" : "");
+            if (rnd.nextInt(3) == 0) s.addEquipment(Equipment.values()[rnd.nextInt(Equipment.values().length)]);
+            main.addSet(s);
+        }
+        w.addSetGroup(main);
+
+        SetGroup cool = new SetGroup("Cooldown");
+        cool.addSet(new SwimSet(StrokeType.BACKSTROKE, 1, Distance.ofYards(200), Effort.EASY, Course.SCY, "Loose"));
+        w.addSetGroup(cool);
+        return w;
+    }
+}
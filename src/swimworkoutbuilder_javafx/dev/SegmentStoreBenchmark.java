@@ -0,0 +1,159 @@
+package swimworkoutbuilder_javafx.dev;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.store.LocalStore;
+import swimworkoutbuilder_javafx.store.SegmentStore;
+import swimworkoutbuilder_javafx.store.WorkoutSummary;
+
+/**
+ * Compares the file-per-object layout with the log-structured segment backend
+ * ({@code -Dswb.store.backend=segments}) on the same workload: writing a library,
+ * opening it in a fresh JVM, loading everything, rewriting half the workouts,
+ * compacting, and reopening.
+ *
+ * <p>The backend is fixed per JVM, so each phase runs in a child process with its own
+ * throwaway home directory. fsync is off in both (the comparison is about layout, not
+ * the disk's flush latency).</p>
+ *
+ * <p><b>Usage:</b> {@code java swimworkoutbuilder_javafx.dev.SegmentStoreBenchmark [swimmers] [workoutsPerSwimmer]}</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class SegmentStoreBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--phase")) {
+            runPhase(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+            return;
+        }
+        int swimmers = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int perSwimmer = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        System.out.printf("%d swimmers x %d workouts%n", swimmers, perSwimmer);
+
+        for (String backend : List.of("files", "segments")) {
+            Path home = Files.createTempDirectory("swb-segment-bench");
+            System.out.println();
+            System.out.println("== " + backend + " ==");
+            for (String phase : List.of("write", "read", "reopen")) {
+                Process p = new ProcessBuilder(
+                        Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                        "-cp", System.getProperty("java.class.path"),
+                        "-Duser.home=" + home,
+                        "-Dswb.store.backend=" + backend,
+                        "-Dswb.store.fsync=false",
+                        SegmentStoreBenchmark.class.getName(),
+                        "--phase", phase, String.valueOf(swimmers), String.valueOf(perSwimmer))
+                        .inheritIO()
+                        .start();
+                if (p.waitFor() != 0) {
+                    System.err.println(backend + " " + phase + " failed");
+                    System.exit(1);
+                }
+            }
+        }
+    }
+
+    private static void runPhase(String phase, int swimmers, int perSwimmer) throws Exception {
+        int total = swimmers * perSwimmer;
+        switch (phase) {
+            case "write" -> {
+                Random rnd = new Random(11);
+                long t0 = System.nanoTime();
+                for (int i = 0; i < swimmers; i++) {
+                    Swimmer s = SampleData.swimmer("First" + i, "Last" + i);
+                    LocalStore.saveSwimmer(s);
+                    for (int j = 0; j < perSwimmer; j++) {
+                        LocalStore.saveWorkout(SampleData.workout(s.getId(), "W" + j, 6, rnd));
+                    }
+                }
+                report("save all", t0);
+            }
+            case "read" -> {
+                long t0 = System.nanoTime();
+                List<UUID> ids = LocalStore.listSwimmerIds();
+                report("open + list swimmer ids", t0);
+
+                t0 = System.nanoTime();
+                for (UUID id : ids) LocalStore.loadSwimmer(id);
+                report("load all swimmers", t0);
+
+                t0 = System.nanoTime();
+                List<Workout> all = new ArrayList<>(total);
+                for (UUID id : ids) {
+                    for (WorkoutSummary w : LocalStore.listWorkoutSummariesFor(id)) {
+                        all.add(LocalStore.loadWorkout(id, w.getId()));
+                    }
+                }
+                report("load all workouts (cold)", t0);
+                check(all.size() == total, "loaded " + all.size() + " of " + total);
+
+                t0 = System.nanoTime();
+                for (int i = 0; i < all.size(); i += 2) {
+                    Workout w = all.get(i);
+                    w.setName(w.getName() + "*");
+                    LocalStore.saveWorkout(w);
+                }
+                report("rewrite half the workouts", t0);
+
+                footprint("before compaction");
+                t0 = System.nanoTime();
+                LocalStore.compactStore();
+                report("compactStore", t0);
+                footprint("after compaction");
+            }
+            case "reopen" -> {
+                long t0 = System.nanoTime();
+                List<UUID> ids = LocalStore.listSwimmerIds();
+                report("reopen + list swimmer ids", t0);
+                check(ids.size() == swimmers, "swimmers after reopen: " + ids.size());
+
+                LocalStore.clearWorkoutCache();
+                t0 = System.nanoTime();
+                int renamed = 0, n = 0;
+                for (UUID id : ids) {
+                    for (WorkoutSummary s : LocalStore.listWorkoutSummariesFor(id)) {
+                        if (LocalStore.loadWorkout(id, s.getId()).getName().endsWith("*")) renamed++;
+                        n++;
+                    }
+                }
+                report("load all workouts (cold)", t0);
+                check(n == total && renamed == (total + 1) / 2, "after reopen: " + n + " workouts, " + renamed + " rewritten");
+                SegmentStore.Stats stats = LocalStore.segmentStats();
+                if (stats != null) System.out.println("  " + stats);
+            }
+            default -> throw new IllegalArgumentException(phase);
+        }
+    }
+
+    private static void report(String what, long t0) {
+        System.out.printf("  %-34s %9.1f ms%n", what, (System.nanoTime() - t0) / 1e6);
+    }
+
+    private static void footprint(String when) throws Exception {
+        Path root = Path.of(System.getProperty("user.home"), ".swimworkoutbuilder");
+        long files, bytes;
+        try (var s = Files.walk(root)) {
+            List<Path> all = s.filter(Files::isRegularFile).collect(java.util.stream.Collectors.toList());
+            files = all.size();
+            bytes = 0;
+            for (Path p : all) bytes += Files.size(p);
+        }
+        System.out.printf("  %-34s %6d files %9d KB%n", "on disk " + when, files, bytes / 1024);
+    }
+
+    private static void check(boolean ok, String message) {
+        if (!ok) {
+            System.err.println("  FAIL: " + message);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package swimworkoutbuilder_javafx.dev;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.store.AtomicFiles;
+import swimworkoutbuilder_javafx.store.LocalStore;
+import swimworkoutbuilder_javafx.store.WorkoutCodec;
+
+/**
+ * Builds a library in the old flat {@code workouts/<id>.bin} layout, lets
+ * {@link LocalStore} reshard it into per-swimmer directories, then checks every workout
+ * is still reachable and times a cascading swimmer delete and an orphan sweep. A flat
+ * copy left next to a newer shard copy must never replace it or outlive a save or delete.
+ *
+ * <p>Runs against a throwaway home directory (it sets {@code user.home} before
+ * {@link LocalStore} is first used).</p>
+ *
+ * <p><b>Usage:</b> {@code java swimworkoutbuilder_javafx.dev.ShardMigrationBenchmark [swimmers] [workoutsPerSwimmer]}</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class ShardMigrationBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int swimmers = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int perSwimmer = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        Path home = Files.createTempDirectory("swb-shard-bench");
+        System.setProperty("user.home", home.toString());
+        Path root = home.resolve(".swimworkoutbuilder");
+        Path flatDir = root.resolve("workouts");
+        Files.createDirectories(root.resolve("swimmers"));
+        Files.createDirectories(flatDir);
+
+        // Old layout, written directly so LocalStore has not run yet
+        Random rnd = new Random(3);
+        List<Swimmer> roster = new ArrayList<>();
+        Workout twice = null;   // has a flat copy and a newer shard copy
+        for (int i = 0; i < swimmers; i++) {
+            Swimmer s = SampleData.swimmer("First" + i, "Last" + i);
+            roster.add(s);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            WorkoutCodec.writeSwimmer(bos, s);
+            AtomicFiles.write(root.resolve("swimmers").resolve(s.getId() + ".bin"), bos.toByteArray(), false);
+            for (int j = 0; j < perSwimmer; j++) {
+                Workout w = SampleData.workout(s.getId(), "W" + j, 6, rnd);
+                bos = new ByteArrayOutputStream();
+                WorkoutCodec.writeWorkout(bos, w);
+                AtomicFiles.write(flatDir.resolve(w.getId() + ".bin"), bos.toByteArray(), false);
+                if (i == 1 && j == 0) twice = w;
+            }
+        }
+        // As if an earlier migration failed on it and it was then edited (saves go to the shard)
+        twice.setName("newer");
+        ByteArrayOutputStream newer = new ByteArrayOutputStream();
+        WorkoutCodec.writeWorkout(newer, twice);
+        Path shardCopy = shardFile(flatDir, twice);
+        Files.createDirectories(shardCopy.getParent());
+        AtomicFiles.write(shardCopy, newer.toByteArray(), false);
+        int total = swimmers * perSwimmer;
+        System.out.printf("%d swimmers x %d workouts = %d flat files%n", swimmers, perSwimmer, total);
+
+        long t0 = System.nanoTime();
+        LocalStore.listSwimmerIds();   // first store call runs the migration
+        System.out.printf("%-38s %8.1f ms%n", "reshard (parallel)", (System.nanoTime() - t0) / 1e6);
+
+        long flatLeft;
+        try (var s = Files.list(flatDir)) {
+            flatLeft = s.filter(p -> p.getFileName().toString().endsWith(".bin")).count();
+        }
+
+        // The shard copy survived; a flat copy reappearing later is dropped by a save or a delete
+        boolean staleFlatIgnored = LocalStore.loadWorkout(twice.getId()).getName().equals("newer");
+        Path flatCopy = flatDir.resolve(twice.getId() + ".bin");
+        Files.copy(shardCopy, flatCopy);
+        LocalStore.saveWorkout(LocalStore.loadWorkout(twice.getId()));
+        staleFlatIgnored &= !Files.exists(flatCopy);
+        Workout doomed = LocalStore.listWorkoutsFor(roster.get(3).getId()).get(0);
+        Path doomedFlat = flatDir.resolve(doomed.getId() + ".bin");
+        Files.copy(shardFile(flatDir, doomed), doomedFlat);
+        LocalStore.deleteWorkout(doomed.getId());
+        staleFlatIgnored &= !Files.exists(doomedFlat);
+
+        t0 = System.nanoTime();
+        int reachable = 0;
+        for (Swimmer s : roster) {
+            reachable += LocalStore.listWorkoutsFor(s.getId()).size();
+        }
+        System.out.printf("%-38s %8.1f ms%n", "index build + load all, per swimmer", (System.nanoTime() - t0) / 1e6);
+
+        Swimmer victim = roster.get(0);
+        t0 = System.nanoTime();
+        LocalStore.deleteSwimmer(victim.getId());
+        System.out.printf("%-38s %8.1f ms%n", "deleteSwimmer (cascade, one shard)", (System.nanoTime() - t0) / 1e6);
+
+        // Orphan a second swimmer the way older builds did (swimmer file only), then sweep
+        Swimmer orphaned = roster.get(2);
+        Files.delete(root.resolve("swimmers").resolve(orphaned.getId() + ".bin"));
+        boolean orphanFound = LocalStore.listOrphanedSwimmerIds().equals(List.of(orphaned.getId()));
+        t0 = System.nanoTime();
+        LocalStore.reclaimOrphan(orphaned.getId(), true);
+        System.out.printf("%-38s %8.1f ms%n", "reclaimOrphan (archive, one shard)", (System.nanoTime() - t0) / 1e6);
+        boolean orphanSwept = LocalStore.listOrphanedSwimmerIds().isEmpty()
+                && LocalStore.listWorkoutSummariesFor(orphaned.getId()).isEmpty();
+        try (var s = Files.list(root.resolve("archive"))) {
+            orphanSwept &= s.count() == 1;
+        }
+
+        LocalStore.reclaimTrash();
+        boolean trashEmpty;
+        try (var s = Files.list(root.resolve("trash"))) {
+            trashEmpty = s.findAny().isEmpty();
+        }
+
+        boolean shardGone = !Files.exists(flatDir.resolve(victim.getId().toString())) && trashEmpty;
+        boolean unlisted = LocalStore.listWorkoutSummariesFor(victim.getId()).isEmpty();
+        boolean othersIntact = LocalStore.listWorkoutSummariesFor(roster.get(1).getId()).size() == perSwimmer;
+
+        System.out.println();
+        System.out.println("flat files left:      " + flatLeft);
+        System.out.println("workouts reachable:   " + reachable + " / " + (total - 1));
+        System.out.println("stale flat copies ignored: " + staleFlatIgnored);
+        System.out.println("cascade removed shard: " + (shardGone && unlisted) + ", others intact: " + othersIntact);
+        System.out.println("orphan found + archived: " + (orphanFound && orphanSwept));
+        if (flatLeft != 0 || reachable != total - 1 || !staleFlatIgnored || !shardGone || !unlisted || !othersIntact
+                || !orphanFound || !orphanSwept) System.exit(1);
+    }
+
+    // workouts/<swimmerId>/<first hex digit>/<workoutId>.bin
+    private static Path shardFile(Path workoutsDir, Workout w) {
+        String id = w.getId().toString();
+        return workoutsDir.resolve(w.getSwimmerId().toString()).resolve(id.substring(0, 1)).resolve(id + ".bin");
+    }
+}
@@ -0,0 +1,201 @@
+package swimworkoutbuilder_javafx.dev;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.model.enums.Course;
+import swimworkoutbuilder_javafx.model.enums.Equipment;
+import swimworkoutbuilder_javafx.store.SimilarWorkout;
+import swimworkoutbuilder_javafx.store.Stores;
+import swimworkoutbuilder_javafx.store.WorkoutQuery;
+import swimworkoutbuilder_javafx.store.WorkoutStore;
+import swimworkoutbuilder_javafx.store.WorkoutSummary;
+
+/**
+ * Measures {@link WorkoutStore#similarTo} the way the builder uses it, "find workouts like
+ * this one" for the open workout, across the whole library and within one swimmer.
+ *
+ * <p>Checks that a saved twin of the probe (same sets, new id and name) always comes first
+ * with similarity 1, that the probe itself and out-of-scope workouts never appear, that
+ * results are ordered, and that edits and deletes are followed.</p>
+ *
+ * <p>Runs each backend in two child JVMs sharing a throwaway home directory:
+ * {@code build} saves the library, opens the similarity index from nothing and records the
+ * answers; {@code reopen} opens the index from its snapshot and log and must give the
+ * same answers.</p>
+ *
+ * <p><b>Usage:</b> {@code java swimworkoutbuilder_javafx.dev.SimilarityBenchmark [swimmers] [workoutsPerSwimmer] [backend...]}
+ * (default 50 x 200 on {@code files} and {@code db}; 100 x 1000 on {@code db} shows the
+ * 100k-workout case)</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class SimilarityBenchmark {
+
+    private static final int K = 10;
+    private static final int PROBES = 50;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--phase")) {
+            runPhase(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+            return;
+        }
+        int swimmers = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int perSwimmer = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        List<String> backends = args.length > 2 ? List.of(args).subList(2, args.length) : List.of("files", "db");
+        System.out.printf("%d swimmers x %d workouts%n", swimmers, perSwimmer);
+
+        for (String backend : backends) {
+            Path home = Files.createTempDirectory("swb-similar-bench");
+            System.out.println();
+            System.out.println("== " + backend + " ==");
+            for (String phase : List.of("build", "reopen")) {
+                Process p = new ProcessBuilder(
+                        Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                        "-cp", System.getProperty("java.class.path"),
+                        "-Duser.home=" + home,
+                        "-Dswb.store.backend=" + backend,
+                        "-Dswb.store.fsync=false",
+                        SimilarityBenchmark.class.getName(),
+                        "--phase", phase, String.valueOf(swimmers), String.valueOf(perSwimmer))
+                        .inheritIO()
+                        .start();
+                if (p.waitFor() != 0) {
+                    System.err.println(backend + " " + phase + " failed");
+                    System.exit(1);
+                }
+            }
+        }
+    }
+
+    private static void runPhase(String phase, int swimmers, int perSwimmer) throws Exception {
+        WorkoutStore store = Stores.workouts();
+        Path answers = Path.of(System.getProperty("user.home"), "similar-answers.txt");
+        switch (phase) {
+            case "build" -> {
+                Random rnd = new Random(31);
+                Course[] courses = Course.values();
+                long t0 = System.nanoTime();
+                for (int i = 0; i < swimmers; i++) {
+                    Swimmer s = SampleData.swimmer("First" + i, "Last" + i);
+                    Stores.swimmers().saveSwimmer(s);
+                    List<Workout> batch = new ArrayList<>(perSwimmer);
+                    for (int j = 0; j < perSwimmer; j++) {
+                        Workout w = SampleData.workout(s.getId(), "W" + j, 2 + rnd.nextInt(12), rnd);
+                        w.setCourse(courses[rnd.nextInt(courses.length)]);
+                        batch.add(w);
+                    }
+                    store.saveWorkouts(batch);
+                }
+                report("save " + swimmers * perSwimmer + " workouts", t0);
+
+                List<Workout> probes = probes(store);
+                t0 = System.nanoTime();
+                store.similarTo(probes.get(0), WorkoutQuery.all(), K);
+                report("open similarity index (from nothing)", t0);
+                timeAndCheck(store, probes);
+                Files.write(answers, answerLines(store, probes));
+
+                // A twin saved under another name comes first, exactly alike
+                Workout probe = probes.get(0);
+                Workout twin = new Workout(probe.getSwimmerId(), "Twin of " + probe.getName(), probe.getCourse(),
+                        probe.getNotes(), probe.getDefaultRestBetweenGroupsSeconds());
+                probe.getGroups().forEach(g -> twin.addSetGroup(g.deepCopy()));
+                store.saveWorkout(twin);
+                List<SimilarWorkout> hits = store.similarTo(probe, WorkoutQuery.all(), K);
+                check(hits.get(0).getSummary().getId().equals(twin.getId()), "saved twin not first");
+                check(Math.abs(hits.get(0).getSimilarity() - 1.0) < 1e-6, "twin similarity " + hits.get(0).getSimilarity());
+
+                // An edit moves it away; a delete removes it
+                twin.getGroups().get(1).getSets().forEach(s -> s.addEquipment(Equipment.FINS));
+                twin.setCourse(twin.getCourse() == Course.SCY ? Course.LCM : Course.SCY);
+                store.saveWorkout(twin);
+                hits = store.similarTo(probe, WorkoutQuery.all(), K);
+                check(hits.get(0).getSimilarity() < 1.0 - 1e-6, "edited twin still identical");
+                store.deleteWorkout(twin.getId());
+                hits = store.similarTo(probe, WorkoutQuery.all(), K);
+                check(hits.stream().noneMatch(h -> h.getSummary().getId().equals(twin.getId())), "deleted twin still found");
+                check(answerLines(store, probes).equals(Files.readAllLines(answers)), "answers changed after delete");
+            }
+            case "reopen" -> {
+                List<Workout> probes = probes(store);
+                long t0 = System.nanoTime();
+                store.similarTo(probes.get(0), WorkoutQuery.all(), K);
+                report("open similarity index (snapshot + log)", t0);
+                timeAndCheck(store, probes);
+                check(answerLines(store, probes).equals(Files.readAllLines(answers)), "answers differ after restart");
+            }
+            default -> throw new IllegalArgumentException(phase);
+        }
+    }
+
+    // The first workout of every few swimmers, loaded in full
+    private static List<Workout> probes(WorkoutStore store) throws Exception {
+        List<UUID> ids = Stores.swimmers().listSwimmerIds();
+        List<Workout> out = new ArrayList<>();
+        for (int i = 0; out.size() < PROBES; i++) {
+            UUID owner = ids.get(i % ids.size());
+            List<WorkoutSummary> own = store.listWorkoutSummariesFor(owner);
+            out.add(store.loadWorkout(owner, own.get((i / ids.size()) % own.size()).getId()));
+        }
+        return out;
+    }
+
+    private static void timeAndCheck(WorkoutStore store, List<Workout> probes) throws Exception {
+        for (int round = 0; round < 3; round++) {
+            for (boolean library : List.of(true, false)) {
+                long worst = 0, total = 0;
+                for (Workout p : probes) {
+                    WorkoutQuery scope = library ? WorkoutQuery.all() : WorkoutQuery.all().forSwimmer(p.getSwimmerId());
+                    long t0 = System.nanoTime();
+                    List<SimilarWorkout> hits = store.similarTo(p, scope, K);
+                    long took = System.nanoTime() - t0;
+                    worst = Math.max(worst, took);
+                    total += took;
+                    checkHits(p, scope, hits);
+                }
+                System.out.printf("  %-38s %9.2f ms avg, %.2f ms worst%n",
+                        "top " + K + " (" + (library ? "library" : "swimmer") + ")", total / 1e6 / probes.size(), worst / 1e6);
+            }
+        }
+    }
+
+    private static void checkHits(Workout probe, WorkoutQuery scope, List<SimilarWorkout> hits) {
+        check(hits.size() == K, "expected " + K + " hits, got " + hits.size());
+        double previous = Double.MAX_VALUE;
+        for (SimilarWorkout h : hits) {
+            check(!h.getSummary().getId().equals(probe.getId()), "probe returned as its own match");
+            check(scope.matches(h.getSummary()), "hit outside scope");
+            check(h.getSimilarity() > 0 && h.getSimilarity() <= 1.0, "similarity out of range");
+            check(h.getSimilarity() <= previous, "hits not ordered");
+            previous = h.getSimilarity();
+        }
+    }
+
+    private static List<String> answerLines(WorkoutStore store, List<Workout> probes) throws Exception {
+        List<String> out = new ArrayList<>();
+        for (Workout p : probes) {
+            StringBuilder line = new StringBuilder(p.getId().toString());
+            for (SimilarWorkout h : store.similarTo(p, WorkoutQuery.all(), K)) {
+                line.append(' ').append(h.getSummary().getId()).append(String.format(":%.5f", h.getSimilarity()));
+            }
+            out.add(line.toString());
+        }
+        return out;
+    }
+
+    private static void report(String what, long t0) {
+        System.out.printf("  %-38s %9.1f ms%n", what, (System.nanoTime() - t0) / 1e6);
+    }
+
+    private static void check(boolean ok, String message) {
+        if (!ok) {
+            System.err.println("  FAIL: " + message);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package swimworkoutbuilder_javafx.dev;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.store.SegmentStore;
+import swimworkoutbuilder_javafx.store.Stores;
+import swimworkoutbuilder_javafx.store.SwimmerStore;
+import swimworkoutbuilder_javafx.store.WorkoutQuery;
+import swimworkoutbuilder_javafx.store.WorkoutStore;
+import swimworkoutbuilder_javafx.store.WorkoutSummary;
+
+/**
+ * Runs one club-sized workload through the {@link Stores} API on each backend
+ * ({@code files}, {@code segments}, {@code db}): saving the library (each swimmer's
+ * workouts as one {@link WorkoutStore#saveWorkouts} call), opening it in a fresh JVM,
+ * loading the roster, listing and filtering across every swimmer, loading everything,
+ * rewriting half, compacting and reopening. Every phase checks what it reads back.
+ *
+ * <p>The backend is fixed per JVM, so each phase runs in a child process with its own
+ * throwaway home directory; fsync is off throughout.</p>
+ *
+ * <p><b>Usage:</b> {@code java swimworkoutbuilder_javafx.dev.StoreBackendBenchmark [swimmers] [workoutsPerSwimmer]}</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class StoreBackendBenchmark {
+
+    // Every KICK_EVERY-th workout is named "Kick ladder ..."; the filter query looks for them
+    private static final int KICK_EVERY = 10;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--phase")) {
+            runPhase(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+            return;
+        }
+        int swimmers = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int perSwimmer = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        System.out.printf("%d swimmers x %d workouts%n", swimmers, perSwimmer);
+
+        for (String backend : List.of("files", "segments", "db")) {
+            Path home = Files.createTempDirectory("swb-backend-bench");
+            System.out.println();
+            System.out.println("== " + backend + " ==");
+            for (String phase : List.of("write", "read", "reopen")) {
+                Process p = new ProcessBuilder(
+                        Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                        "-cp", System.getProperty("java.class.path"),
+                        "-Duser.home=" + home,
+                        "-Dswb.store.backend=" + backend,
+                        "-Dswb.store.fsync=false",
+                        StoreBackendBenchmark.class.getName(),
+                        "--phase", phase, String.valueOf(swimmers), String.valueOf(perSwimmer))
+                        .inheritIO()
+                        .start();
+                if (p.waitFor() != 0) {
+                    System.err.println(backend + " " + phase + " failed");
+                    System.exit(1);
+                }
+            }
+        }
+    }
+
+    private static void runPhase(String phase, int swimmers, int perSwimmer) throws Exception {
+        SwimmerStore swimmerStore = Stores.swimmers();
+        WorkoutStore workoutStore = Stores.workouts();
+        int total = swimmers * perSwimmer;
+        int kicks = swimmers * ((perSwimmer + KICK_EVERY - 1) / KICK_EVERY);
+        WorkoutQuery kickQuery = WorkoutQuery.all().nameContains("KICK");
+        switch (phase) {
+            case "write" -> {
+                check(Stores.backend().equals(System.getProperty("swb.store.backend")), "backend " + Stores.backend());
+                Random rnd = new Random(11);
+                long t0 = System.nanoTime();
+                for (int i = 0; i < swimmers; i++) {
+                    Swimmer s = SampleData.swimmer("First" + i, "Last" + i);
+                    swimmerStore.saveSwimmer(s);
+                    List<Workout> batch = new ArrayList<>(perSwimmer);
+                    for (int j = 0; j < perSwimmer; j++) {
+                        String name = (j % KICK_EVERY == 0) ? "Kick ladder " + j : "W" + j;
+                        batch.add(SampleData.workout(s.getId(), name, 6, rnd));
+                    }
+                    workoutStore.saveWorkouts(batch);
+                }
+                report("save all", t0);
+            }
+            case "read" -> {
+                long t0 = System.nanoTime();
+                List<UUID> ids = swimmerStore.listSwimmerIds();
+                report("open + list swimmer ids", t0);
+
+                t0 = System.nanoTime();
+                List<Swimmer> roster = swimmerStore.loadSwimmers(ids);
+                report("load roster (batched)", t0);
+                check(roster.size() == swimmers, "roster " + roster.size());
+
+                t0 = System.nanoTime();
+                int listed = 0;
+                for (UUID id : ids) listed += workoutStore.listWorkoutSummariesFor(id).size();
+                report("list every swimmer's workouts", t0);
+                check(listed == total, "listed " + listed + " of " + total);
+
+                for (int pass = 0; pass < 2; pass++) {   // the first pass may build indexes
+                    t0 = System.nanoTime();
+                    List<WorkoutSummary> hits = workoutStore.query(kickQuery);
+                    report("query name~kick, all swimmers", t0);
+                    check(hits.size() == kicks, "kick hits " + hits.size() + " of " + kicks);
+                }
+                List<WorkoutSummary> top = workoutStore.query(kickQuery.forSwimmer(ids.get(0)).limit(3));
+                check(top.size() == Math.min(3, (perSwimmer + KICK_EVERY - 1) / KICK_EVERY), "limited query " + top.size());
+
+                t0 = System.nanoTime();
+                List<Workout> all = new ArrayList<>(total);
+                for (UUID id : ids) {
+                    for (WorkoutSummary w : workoutStore.listWorkoutSummariesFor(id)) {
+                        all.add(workoutStore.loadWorkout(id, w.getId()));
+                    }
+                }
+                report("load all workouts (cold)", t0);
+                check(all.size() == total, "loaded " + all.size() + " of " + total);
+
+                t0 = System.nanoTime();
+                for (int i = 0; i < all.size(); i += 2) {
+                    Workout w = all.get(i);
+                    w.setName(w.getName() + "*");
+                    workoutStore.saveWorkout(w);
+                }
+                report("rewrite half the workouts", t0);
+
+                footprint("before compaction");
+                t0 = System.nanoTime();
+                Stores.compact();
+                report("compact", t0);
+                footprint("after compaction");
+            }
+            case "reopen" -> {
+                long t0 = System.nanoTime();
+                List<UUID> ids = swimmerStore.listSwimmerIds();
+                report("reopen + list swimmer ids", t0);
+                check(ids.size() == swimmers, "swimmers after reopen: " + ids.size());
+
+                t0 = System.nanoTime();
+                List<WorkoutSummary> hits = workoutStore.query(kickQuery);
+                report("query name~kick, all swimmers", t0);
+                check(hits.size() == kicks, "kick hits after reopen " + hits.size());
+
+                Stores.clearWorkoutCache();
+                t0 = System.nanoTime();
+                int renamed = 0, n = 0;
+                for (UUID id : ids) {
+                    for (WorkoutSummary s : workoutStore.listWorkoutSummariesFor(id)) {
+                        if (workoutStore.loadWorkout(id, s.getId()).getName().endsWith("*")) renamed++;
+                        n++;
+                    }
+                }
+                report("load all workouts (cold)", t0);
+                check(n == total && renamed == (total + 1) / 2, "after reopen: " + n + " workouts, " + renamed + " rewritten");
+
+                // Deleting a swimmer takes their workouts with them
+                UUID victim = ids.get(0);
+                swimmerStore.deleteSwimmer(victim, false);
+                check(workoutStore.listWorkoutSummariesFor(victim).isEmpty(), "workouts survived their swimmer");
+                check(workoutStore.query(WorkoutQuery.all()).size() == total - perSwimmer, "query after delete");
+
+                SegmentStore.Stats stats = Stores.databaseStats();
+                if (stats != null) System.out.println("  " + stats);
+            }
+            default -> throw new IllegalArgumentException(phase);
+        }
+    }
+
+    private static void report(String what, long t0) {
+        System.out.printf("  %-34s %9.1f ms%n", what, (System.nanoTime() - t0) / 1e6);
+    }
+
+    private static void footprint(String when) throws Exception {
+        Path root = Path.of(System.getProperty("user.home"), ".swimworkoutbuilder");
+        long files, bytes;
+        try (var s = Files.walk(root)) {
+            List<Path> all = s.filter(Files::isRegularFile).collect(java.util.stream.Collectors.toList());
+            files = all.size();
+            bytes = 0;
+            for (Path p : all) bytes += Files.size(p);
+        }
+        System.out.printf("  %-34s %6d files %9d KB%n", "on disk " + when, files, bytes / 1024);
+    }
+
+    private static void check(boolean ok, String message) {
+        if (!ok) {
+            System.err.println("  FAIL: " + message);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package swimworkoutbuilder_javafx.dev;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Random;
+import java.util.UUID;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.store.AtomicFiles;
+import swimworkoutbuilder_javafx.store.CorruptFileException;
+import swimworkoutbuilder_javafx.store.LocalStore;
+import swimworkoutbuilder_javafx.store.RecoveryReport;
+
+/**
+ * Fault-injection checks for crash-safe storage.
+ *
+ * <p>Runs against a throwaway home directory (it sets {@code user.home} before
+ * {@link LocalStore} is first used) and simulates the states a crash or bad disk leaves
+ * behind: an interrupted write (and a temp file still being written), a flipped bit, a truncated file, garbage in a swimmer
+ * file, and a rename that fails. Prints PASS/FAIL per scenario; exits 1 on any failure.</p>
+ *
+ * <p><b>Usage:</b> {@code java swimworkoutbuilder_javafx.dev.StoreFaultProbe}</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class StoreFaultProbe {
+
+    private static Path root;
+    private static int failures;
+
+    public static void main(String[] args) throws Exception {
+        Path home = Files.createTempDirectory("swb-fault-probe");
+        System.setProperty("user.home", home.toString());
+        root = home.resolve(".swimworkoutbuilder");
+
+        Swimmer swimmer = SampleData.swimmer("Fault", "Probe");
+        LocalStore.saveSwimmer(swimmer);
+        Random rnd = new Random(7);
+
+        // 1) Crash between writing the temp file and renaming it
+        Workout w1 = SampleData.workout(swimmer.getId(), "Interrupted", 6, rnd);
+        LocalStore.saveWorkout(w1);
+        Path target = workoutFile(w1);
+        Path debris = target.resolveSibling(target.getFileName() + ".123" + AtomicFiles.TEMP_SUFFIX);
+        Files.write(debris, new byte[]{'S', 'W', 'B', 'F', 1, 0, 0});
+        check("interrupted write keeps previous version",
+                LocalStore.loadWorkout(w1.getId()).getName().equals("Interrupted"));
+        RecoveryReport r0 = LocalStore.recover();
+        check("recent temp file left for a running save", r0.tempFilesRemoved() == 0 && Files.exists(debris));
+        Files.setLastModifiedTime(debris, FileTime.from(Instant.now().minus(1, ChronoUnit.HOURS)));
+        RecoveryReport r1 = LocalStore.recover();
+        check("recovery removes temp debris", r1.tempFilesRemoved() == 1 && r1.quarantined().isEmpty());
+
+        // 2) Single flipped bit in the payload
+        Workout w2 = SampleData.workout(swimmer.getId(), "BitFlip", 6, rnd);
+        LocalStore.saveWorkout(w2);
+        Path f2 = workoutFile(w2);
+        byte[] b = Files.readAllBytes(f2);
+        b[b.length / 2] ^= 0x10;
+        Files.write(f2, b);
+        LocalStore.clearWorkoutCache();   // as after a restart: the next load must hit the disk
+        boolean detected = false;
+        try {
+            LocalStore.loadWorkout(w2.getId());
+        } catch (CorruptFileException e) {
+            detected = e.reason().contains("checksum");
+        }
+        check("bit flip detected by CRC32C", detected);
+        check("corrupt workout quarantined on load", !Files.exists(f2) && quarantineHas(w2.getId()));
+        check("quarantined workout no longer listed",
+                LocalStore.listWorkoutSummariesFor(swimmer.getId()).stream().noneMatch(s -> s.getId().equals(w2.getId())));
+
+        // 3) Truncated file (what an in-place write leaves after a crash)
+        Workout w3 = SampleData.workout(swimmer.getId(), "Truncated", 6, rnd);
+        LocalStore.saveWorkout(w3);
+        Path f3 = workoutFile(w3);
+        byte[] whole = Files.readAllBytes(f3);
+        Files.write(f3, java.util.Arrays.copyOf(whole, whole.length / 2));
+        RecoveryReport r3 = LocalStore.recover();
+        check("recovery quarantines truncated file", r3.quarantined().size() == 1 && quarantineHas(w3.getId()));
+        check("healthy workout survives recovery", LocalStore.loadWorkout(w1.getId()) != null);
+
+        // 4) Garbage swimmer file (unframed, undecodable)
+        UUID ghost = UUID.randomUUID();
+        Files.write(root.resolve("swimmers").resolve(ghost + ".bin"), "not a swimmer".getBytes());
+        int listed = LocalStore.listAllSwimmers().size();
+        check("garbage swimmer skipped and quarantined", listed == 1 && quarantineHas(ghost));
+
+        // 5) Rename fails (target is a non-empty directory): no debris, no partial file
+        Path blocked = root.resolve("workouts").resolve("blocked.bin");
+        Files.createDirectories(blocked);
+        Files.write(blocked.resolve("keep"), new byte[]{1});
+        boolean threw = false;
+        try {
+            AtomicFiles.write(blocked, new byte[]{1, 2, 3});
+        } catch (IOException e) {
+            threw = true;
+        }
+        boolean leftover;
+        try (var s = Files.list(blocked.getParent())) {
+            leftover = s.anyMatch(p -> p.getFileName().toString().endsWith(AtomicFiles.TEMP_SUFFIX));
+        }
+        check("failed rename cleans up its temp file", threw && !leftover);
+
+        check("quarantine report written",
+                Files.readAllLines(root.resolve("quarantine").resolve("REPORT.txt")).size() == 3);
+
+        System.out.println(failures == 0 ? "All fault scenarios passed." : failures + " scenario(s) FAILED.");
+        if (failures > 0) System.exit(1);
+    }
+
+    private static Path workoutFile(Workout w) {
+        String id = w.getId().toString();
+        return root.resolve("workouts").resolve(w.getSwimmerId().toString()).resolve(id.substring(0, 1)).resolve(id + ".bin");
+    }
+
+    private static boolean quarantineHas(UUID id) throws IOException {
+        Path q = root.resolve("quarantine");
+        if (!Files.isDirectory(q)) return false;
+        try (var s = Files.list(q)) {
+            return s.anyMatch(p -> p.getFileName().toString().endsWith(id + ".bin"));
+        }
+    }
+
+    private static void check(String label, boolean ok) {
+        System.out.printf("%-45s %s%n", label, ok ? "PASS" : "FAIL");
+        if (!ok) failures++;
+    }
+}
@@ -0,0 +1,107 @@
+package swimworkoutbuilder_javafx.dev;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.store.AtomicFiles;
+import swimworkoutbuilder_javafx.store.WorkoutCodec;
+
+/**
+ * Times workout file writes: the old in-place stream write versus {@link AtomicFiles}
+ * (temp + rename, with and without fsync) and the cost of verified reads.
+ *
+ * <p>Ends with the verdict on the "saves must not get slower" requirement: the default
+ * write (no fsync) against the in-place write, each measured as a whole save (encode +
+ * write). Forced writes ({@code -Dswb.store.fsyncFiles=true}) are listed for reference
+ * only; they are opt-in because they cannot meet it. On ext4 the default write does not
+ * meet it either (about 2x): the temp file and rename that make it crash-safe cost more
+ * than truncating the old file. UI saves run on the write-behind queue and do not wait
+ * for it; synchronous callers (restore, migration) do.</p>
+ *
+ * <p>Writes go to a fresh temp directory; nothing under {@code ~/.swimworkoutbuilder}
+ * is touched. Each strategy overwrites the same set of files, as repeated saves do.</p>
+ *
+ * <p><b>Usage:</b> {@code java swimworkoutbuilder_javafx.dev.StoreWriteBenchmark [workouts] [rounds]}</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class StoreWriteBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int count  = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+        Swimmer swimmer = SampleData.swimmer("Bench", "Swimmer");
+        Random rnd = new Random(42);
+        List<Workout> library = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) library.add(SampleData.workout(swimmer.getId(), "Workout " + i, 12, rnd));
+
+        Path dir = Files.createTempDirectory("swb-write-bench");
+        System.out.printf("%d workouts, best of %d rounds, dir=%s%n%n", count, rounds, dir);
+
+        long inPlace = Long.MAX_VALUE, atomicSync = Long.MAX_VALUE, atomicNoSync = Long.MAX_VALUE, verifiedRead = Long.MAX_VALUE;
+        for (int r = 0; r < rounds; r++) {
+            long t0 = System.nanoTime();
+            for (Workout w : library) {
+                try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(file(dir, w)))) {
+                    WorkoutCodec.writeWorkout(os, w);
+                }
+            }
+            inPlace = Math.min(inPlace, System.nanoTime() - t0);
+
+            t0 = System.nanoTime();
+            for (Workout w : library) AtomicFiles.write(file(dir, w), encode(w), false);
+            atomicNoSync = Math.min(atomicNoSync, System.nanoTime() - t0);
+
+            t0 = System.nanoTime();
+            for (Workout w : library) AtomicFiles.readVerified(file(dir, w));
+            verifiedRead = Math.min(verifiedRead, System.nanoTime() - t0);
+        }
+        // Forced writes last, so their writeback does not slow the rounds above
+        for (int r = 0; r < rounds; r++) {
+            long t0 = System.nanoTime();
+            for (Workout w : library) AtomicFiles.write(file(dir, w), encode(w), true);
+            atomicSync = Math.min(atomicSync, System.nanoTime() - t0);
+        }
+
+        System.out.printf("%-34s %10s%n", "", "per file");
+        row("in-place stream write (old)", inPlace, count);
+        row("atomic, no fsync (default)", atomicNoSync, count);
+        row("atomic + fsync (opt-in)", atomicSync, count);
+        row("verified read (len + CRC32C)", verifiedRead, count);
+
+        double ratio = (double) atomicNoSync / inPlace;
+        System.out.printf("%ndefault save vs in-place: %.2fx (%+.1fus per file) -> %s%n", ratio,
+                (atomicNoSync - inPlace) / 1e3 / count, ratio <= 1.10
+                ? "met (within 10%)"
+                : "NOT met: a new temp file plus the rename costs more than rewriting in place");
+
+        try (var s = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) s::iterator) Files.deleteIfExists(p);
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    private static Path file(Path dir, Workout w) {
+        return dir.resolve(w.getId() + ".bin");
+    }
+
+    private static byte[] encode(Workout w) throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(512);
+        WorkoutCodec.writeWorkout(bos, w);
+        return bos.toByteArray();
+    }
+
+    private static void row(String label, long nanos, int count) {
+        System.out.printf("%-34s %8.1fus%n", label, nanos / 1e3 / count);
+    }
+}
@@ -0,0 +1,70 @@
+package swimworkoutbuilder_javafx.dev;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.store.LocalStore;
+import swimworkoutbuilder_javafx.store.SwimmerLoader;
+
+/**
+ * Compares startup swimmer loading: sequential {@link LocalStore#listAllSwimmers()}
+ * versus {@link SwimmerLoader} (time to the first swimmer and time to all of them).
+ *
+ * <p>Runs against a throwaway home directory seeded with generated swimmers
+ * (it sets {@code user.home} before {@link LocalStore} is first used).</p>
+ *
+ * <p><b>Usage:</b> {@code java swimworkoutbuilder_javafx.dev.SwimmerLoadBenchmark [swimmers] [rounds]}</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class SwimmerLoadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int count  = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Path home = Files.createTempDirectory("swb-load-bench");
+        System.setProperty("user.home", home.toString());
+
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Swimmer s = SampleData.swimmer("First" + i, "Last" + (count - i));
+            LocalStore.saveSwimmer(s);
+            ids.add(s.getId());
+        }
+        UUID last = ids.get(count / 2);
+        System.out.printf("%d swimmers, best of %d rounds, home=%s%n%n", count, rounds, home);
+
+        long seq = Long.MAX_VALUE, parFirst = Long.MAX_VALUE, parAll = Long.MAX_VALUE;
+        for (int r = 0; r < rounds; r++) {
+            long t0 = System.nanoTime();
+            int n = LocalStore.listAllSwimmers().size();
+            seq = Math.min(seq, System.nanoTime() - t0);
+            if (n != count) throw new IllegalStateException("sequential loaded " + n);
+
+            AtomicLong first = new AtomicLong();
+            AtomicInteger seen = new AtomicInteger();
+            long t1 = System.nanoTime();
+            int m = SwimmerLoader.loadAll(last, SwimmerLoader.DEFAULT_BATCH, batch -> {
+                if (seen.getAndAdd(batch.size()) == 0) {
+                    first.set(System.nanoTime() - t1);
+                    if (!batch.get(0).getId().equals(last)) throw new IllegalStateException("last swimmer not first");
+                }
+            }).get();
+            parAll = Math.min(parAll, System.nanoTime() - t1);
+            parFirst = Math.min(parFirst, first.get());
+            if (m != count) throw new IllegalStateException("parallel loaded " + m);
+        }
+
+        System.out.printf("%-36s %9.1f ms%n", "listAllSwimmers (sequential)", seq / 1e6);
+        System.out.printf("%-36s %9.1f ms%n", "SwimmerLoader: last swimmer ready", parFirst / 1e6);
+        System.out.printf("%-36s %9.1f ms%n", "SwimmerLoader: all swimmers", parAll / 1e6);
+    }
+}
@@ -0,0 +1,141 @@
+package swimworkoutbuilder_javafx.dev;
+
+import java.util.Random;
+import swimworkoutbuilder_javafx.model.SetGroup;
+import swimworkoutbuilder_javafx.model.SwimSet;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.model.pacing.DefaultPacePolicy;
+import swimworkoutbuilder_javafx.model.pacing.PacePolicy;
+import swimworkoutbuilder_javafx.model.pacing.PaceResult;
+import swimworkoutbuilder_javafx.model.pacing.WorkoutTotals;
+
+/**
+ * Shows that {@link WorkoutTotals} costs O(sets), independent of rep counts.
+ *
+ * <p>Builds one workout and scales every set's reps and every group's reps by a growing
+ * factor, then times three strategies: the old per-rep loop (every group pass × every
+ * set rep), the closed form for a rep-invariant policy, and the per-set-rep fallback
+ * used for rep-dependent policies. Policy calls are counted through a wrapper.</p>
+ *
+ * <p><b>Usage:</b> {@code java swimworkoutbuilder_javafx.dev.TotalsBenchmark [mainSets]}</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class TotalsBenchmark {
+
+    private static final int ROUNDS = 200;
+    private static final int[] SCALES = {1, 4, 16, 64};
+
+    public static void main(String[] args) {
+        int mainSets = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+
+        Swimmer swimmer = SampleData.swimmer("Bench", "Swimmer");
+        Workout base = SampleData.workout(swimmer.getId(), "Totals", mainSets, new Random(7));
+
+        CountingPolicy invariant = new CountingPolicy(new DefaultPacePolicy(), true);
+        CountingPolicy dependent = new CountingPolicy(new DefaultPacePolicy(), false);
+
+        System.out.printf("%-7s %10s %14s %14s %14s %14s%n",
+                "scale", "reps", "per-rep loop", "closed form", "fallback", "calls c/f/l");
+        for (int scale : SCALES) {
+            Workout w = scaled(base, scale);
+            long reps = totalReps(w);
+
+            long loopNs = Long.MAX_VALUE, closedNs = Long.MAX_VALUE, fallbackNs = Long.MAX_VALUE;
+            double loopTotal = 0, closedTotal = 0, fallbackTotal = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long t0 = System.nanoTime();
+                loopTotal = perRepLoop(w, swimmer, invariant);
+                loopNs = Math.min(loopNs, System.nanoTime() - t0);
+
+                t0 = System.nanoTime();
+                closedTotal = WorkoutTotals.compute(w, swimmer, invariant).durationSeconds();
+                closedNs = Math.min(closedNs, System.nanoTime() - t0);
+
+                t0 = System.nanoTime();
+                fallbackTotal = WorkoutTotals.compute(w, swimmer, dependent).durationSeconds();
+                fallbackNs = Math.min(fallbackNs, System.nanoTime() - t0);
+            }
+
+            invariant.calls = 0;
+            perRepLoop(w, swimmer, invariant);
+            long loopCalls = invariant.calls;
+            invariant.calls = 0;
+            WorkoutTotals.compute(w, swimmer, invariant);
+            long closedCalls = invariant.calls;
+            dependent.calls = 0;
+            WorkoutTotals.compute(w, swimmer, dependent);
+            long fallbackCalls = dependent.calls;
+
+            System.out.printf("%-7s %10d %12.1fus %12.1fus %12.1fus %14s%s%n",
+                    "x" + scale, reps, loopNs / 1e3, closedNs / 1e3, fallbackNs / 1e3,
+                    closedCalls + "/" + fallbackCalls + "/" + loopCalls,
+                    agrees(loopTotal, closedTotal) && agrees(loopTotal, fallbackTotal) ? "" : "  MISMATCH");
+        }
+    }
+
+    private static boolean agrees(double a, double b) {
+        return Math.abs(a - b) <= 1e-9 * Math.max(1.0, Math.abs(a));
+    }
+
+    /** The original algorithm: one evaluation per rep per group pass. */
+    private static double perRepLoop(Workout w, Swimmer swimmer, PacePolicy policy) {
+        double total = 0;
+        for (SetGroup g : w.getGroups()) {
+            for (int gr = 0; gr < Math.max(1, g.getReps()); gr++) {
+                for (SwimSet s : g.getSets()) {
+                    for (int r = 0; r < Math.max(1, s.getReps()); r++) {
+                        PaceResult p = policy.evaluate(w, s, swimmer, r);
+                        total += Math.max(0.0, p.goalSeconds()) + Math.max(0, p.restSeconds());
+                    }
+                }
+            }
+        }
+        return total;
+    }
+
+    private static Workout scaled(Workout base, int factor) {
+        Workout w = new Workout(base);
+        for (SetGroup g : w.getGroups()) {
+            g.setReps(g.getReps() * factor);
+            for (SwimSet s : g.getSets()) s.setReps(s.getReps() * factor);
+        }
+        return w;
+    }
+
+    private static long totalReps(Workout w) {
+        long n = 0;
+        for (SetGroup g : w.getGroups()) {
+            for (SwimSet s : g.getSets()) n += (long) s.getReps() * g.getReps();
+        }
+        return n;
+    }
+
+    /** Delegating policy that counts evaluations and can pose as rep-dependent. */
+    private static final class CountingPolicy implements PacePolicy {
+        private final PacePolicy delegate;
+        private final boolean repInvariant;
+        long calls;
+
+        CountingPolicy(PacePolicy delegate, boolean repInvariant) {
+            this.delegate = delegate;
+            this.repInvariant = repInvariant;
+        }
+
+        @Override public boolean isRepInvariant() { return repInvariant; }
+
+        @Override
+        public PaceResult evaluate(Workout w, SwimSet s, Swimmer sw, int repIndex) {
+            calls++;
+            return delegate.evaluate(w, s, sw, repIndex);
+        }
+
+        @Override public double goalSeconds(Workout w, SwimSet s, Swimmer sw, int repIndex) { return delegate.goalSeconds(w, s, sw, repIndex); }
+        @Override public int restSeconds(Workout w, SwimSet s, Swimmer sw, int repIndex) { return delegate.restSeconds(w, s, sw, repIndex); }
+        @Override public int intervalSeconds(Workout w, SwimSet s, Swimmer sw, int repIndex) { return delegate.intervalSeconds(w, s, sw, repIndex); }
+        @Override public String timingLabel(Workout w, SwimSet s, Swimmer sw, int repIndex) { return delegate.timingLabel(w, s, sw, repIndex); }
+    }
+}
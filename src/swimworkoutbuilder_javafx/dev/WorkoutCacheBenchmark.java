@@ -0,0 +1,81 @@
+package swimworkoutbuilder_javafx.dev;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.store.AtomicFiles;
+import swimworkoutbuilder_javafx.store.LocalStore;
+import swimworkoutbuilder_javafx.store.WorkoutCodec;
+
+/**
+ * Measures {@link LocalStore#loadWorkout(UUID)} with the workout cache on a skewed
+ * "open recent workouts" pattern, and checks that callers get isolated copies.
+ *
+ * <p>Runs against a throwaway home directory (it sets {@code user.home} before
+ * {@link LocalStore} is first used).</p>
+ *
+ * <p><b>Usage:</b> {@code java swimworkoutbuilder_javafx.dev.WorkoutCacheBenchmark [workouts] [opens]}</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class WorkoutCacheBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+        int opens = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+        Path home = Files.createTempDirectory("swb-cache-bench");
+        System.setProperty("user.home", home.toString());
+        System.setProperty("swb.store.fsync", "false");
+
+        Swimmer swimmer = SampleData.swimmer("Cache", "Bench");
+        LocalStore.saveSwimmer(swimmer);
+        Random rnd = new Random(11);
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Workout w = SampleData.workout(swimmer.getId(), "Workout " + i, 12, rnd);
+            LocalStore.saveWorkout(w);
+            ids.add(w.getId());
+        }
+
+        // Isolation: editing a loaded copy must not leak into the cache
+        Workout a = LocalStore.loadWorkout(ids.get(0));
+        a.setName("edited in the UI");
+        a.getGroups().clear();
+        Workout b = LocalStore.loadWorkout(ids.get(0));
+        System.out.println("copies isolated: " + (b.getName().equals("Workout 0") && !b.getGroups().isEmpty()));
+
+        // 80% of opens go to the 20 most recent workouts, the rest anywhere
+        int[] pattern = new int[opens];
+        for (int i = 0; i < opens; i++) {
+            pattern[i] = (rnd.nextInt(10) < 8) ? count - 1 - rnd.nextInt(20) : rnd.nextInt(count);
+        }
+
+        // Baseline: what every open cost before (read + verify + decode the file)
+        Path dir = home.resolve(".swimworkoutbuilder").resolve("workouts").resolve(swimmer.getId().toString());
+        long t0 = System.nanoTime();
+        for (int idx : pattern) {
+            String id = ids.get(idx).toString();
+            byte[] payload = AtomicFiles.readVerified(dir.resolve(id.substring(0, 1)).resolve(id + ".bin"));
+            WorkoutCodec.readWorkout(new ByteArrayInputStream(payload));
+        }
+        long disk = System.nanoTime() - t0;
+
+        t0 = System.nanoTime();
+        for (int idx : pattern) LocalStore.loadWorkout(ids.get(idx));
+        long cached = System.nanoTime() - t0;
+
+        System.out.printf("%d opens over %d workouts%n", opens, count);
+        System.out.printf("  from disk every time  %6.1f us/open%n", disk / 1e3 / opens);
+        System.out.printf("  through the cache     %6.1f us/open%n", cached / 1e3 / opens);
+        System.out.println(LocalStore.workoutCacheStats());
+    }
+}
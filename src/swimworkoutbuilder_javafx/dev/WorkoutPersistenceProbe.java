@@ -8,6 +8,7 @@ import swimworkoutbuilder_javafx.model.*;
 import swimworkoutbuilder_javafx.model.enums.*;
 import swimworkoutbuilder_javafx.model.units.Distance;
 import swimworkoutbuilder_javafx.store.LocalStore;
+import swimworkoutbuilder_javafx.store.WorkoutSummary;
 /**
  * [UI Component] WorkoutPersistenceProbe for the "dev" feature.
  *
@@ -57,16 +58,17 @@ public final class WorkoutPersistenceProbe {
 
         System.out.println("Saved workout id=" + w.getId());
 
-        // 3) List and load back
-        List<Workout> list = LocalStore.listWorkoutsFor(swimmerId);
+        // 3) List headers from the index, then load the full workout back
+        List<WorkoutSummary> list = LocalStore.listWorkoutSummariesFor(swimmerId);
         System.out.println("Workouts on disk for swimmer: " + list.size());
-        Workout loaded = list.stream().filter(x -> x.getId().equals(w.getId())).findFirst().orElse(null);
-        if (loaded == null) {
+        WorkoutSummary header = list.stream().filter(x -> x.getId().equals(w.getId())).findFirst().orElse(null);
+        if (header == null) {
             System.out.println("ERROR: listing did not include the saved workout.");
             return;
         }
-        // (If listWorkoutsFor returns full objects, skip; otherwise reload by id)
-        System.out.println("Loaded (from list) groups=" + loaded.getGroupCount());
+        System.out.println("Header: " + header.getName() + " (" + header.totalDistance().toShortString() + ")");
+        Workout loaded = LocalStore.loadWorkout(header.getId());
+        System.out.println("Loaded groups=" + loaded.getGroupCount());
         if (loaded.getGroupCount() > 0) {
             SetGroup lg = loaded.getGroups().get(0);
             System.out.println("Group '" + lg.getName() + "' reps=" + lg.getReps() + ", sets=" + lg.getSetCount());
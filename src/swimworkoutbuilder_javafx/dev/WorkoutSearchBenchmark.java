@@ -0,0 +1,195 @@
+package swimworkoutbuilder_javafx.dev;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import swimworkoutbuilder_javafx.model.SetGroup;
+import swimworkoutbuilder_javafx.model.SwimSet;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.store.Stores;
+import swimworkoutbuilder_javafx.store.WorkoutQuery;
+import swimworkoutbuilder_javafx.store.WorkoutStore;
+import swimworkoutbuilder_javafx.store.WorkoutSummary;
+
+/**
+ * Measures {@link WorkoutStore#search} the way the Load Workout dialog uses it: one search
+ * per keystroke while "broken 200" is typed, across the whole library and within one
+ * swimmer. Every result is checked against a brute-force scan of the loaded workouts.
+ *
+ * <p>Runs each backend ({@code files}, {@code db}) in two child JVMs sharing a throwaway
+ * home directory: {@code build} saves the library, opens the text index from nothing,
+ * searches, then renames, deletes and removes a swimmer and checks the results follow;
+ * {@code reopen} opens the index from its snapshot and log and checks it again.</p>
+ *
+ * <p><b>Usage:</b> {@code java swimworkoutbuilder_javafx.dev.WorkoutSearchBenchmark [swimmers] [workoutsPerSwimmer]}</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class WorkoutSearchBenchmark {
+
+    // Every NEEDLE_EVERY-th workout gets a set note the typed query is looking for
+    private static final int NEEDLE_EVERY = 25;
+    private static final String NEEDLE_NOTE = "Broken 200s @ 2:40, hold pace";
+    private static final String TYPED = "broken 200";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--phase")) {
+            runPhase(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+            return;
+        }
+        int swimmers = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int perSwimmer = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        System.out.printf("%d swimmers x %d workouts%n", swimmers, perSwimmer);
+
+        for (String backend : List.of("files", "db")) {
+            Path home = Files.createTempDirectory("swb-search-bench");
+            System.out.println();
+            System.out.println("== " + backend + " ==");
+            for (String phase : List.of("build", "reopen")) {
+                Process p = new ProcessBuilder(
+                        Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                        "-cp", System.getProperty("java.class.path"),
+                        "-Duser.home=" + home,
+                        "-Dswb.store.backend=" + backend,
+                        "-Dswb.store.fsync=false",
+                        WorkoutSearchBenchmark.class.getName(),
+                        "--phase", phase, String.valueOf(swimmers), String.valueOf(perSwimmer))
+                        .inheritIO()
+                        .start();
+                if (p.waitFor() != 0) {
+                    System.err.println(backend + " " + phase + " failed");
+                    System.exit(1);
+                }
+            }
+        }
+    }
+
+    private static void runPhase(String phase, int swimmers, int perSwimmer) throws Exception {
+        WorkoutStore store = Stores.workouts();
+        switch (phase) {
+            case "build" -> {
+                Random rnd = new Random(23);
+                int n = 0;
+                for (int i = 0; i < swimmers; i++) {
+                    Swimmer s = SampleData.swimmer("First" + i, "Last" + i);
+                    Stores.swimmers().saveSwimmer(s);
+                    List<Workout> batch = new ArrayList<>(perSwimmer);
+                    for (int j = 0; j < perSwimmer; j++, n++) {
+                        Workout w = SampleData.workout(s.getId(), "W" + j, 6, rnd);
+                        if (n % NEEDLE_EVERY == 0) {
+                            w.getGroups().get(1).getSets().get(0).setNotes(NEEDLE_NOTE);
+                        }
+                        batch.add(w);
+                    }
+                    store.saveWorkouts(batch);
+                }
+
+                long t0 = System.nanoTime();
+                store.search("x", WorkoutQuery.all());
+                report("open text index (from nothing)", t0);
+                typeAndCheck(store);
+
+                // Edits are indexed as they are saved
+                List<UUID> ids = Stores.swimmers().listSwimmerIds();
+                Workout renamed = store.loadWorkout(ids.get(1), store.listWorkoutSummariesFor(ids.get(1)).get(0).getId());
+                String oldName = renamed.getName();
+                renamed.setName("Threshold ladder");
+                store.saveWorkout(renamed);
+                check(hitIds(store, "thresh lad").equals(Set.of(renamed.getId())), "renamed workout not found");
+                check(!hitIds(store, oldName).contains(renamed.getId()), "old name still matches");
+
+                WorkoutSummary gone = store.search(TYPED, WorkoutQuery.all()).stream()
+                        .filter(s -> !s.getId().equals(renamed.getId())).findFirst().orElseThrow();
+                store.deleteWorkout(gone.getId());
+                check(!hitIds(store, TYPED).contains(gone.getId()), "deleted workout still found");
+
+                Stores.swimmers().deleteSwimmer(ids.get(2), false);
+                check(store.search("", WorkoutQuery.all().forSwimmer(ids.get(2))).isEmpty(), "deleted swimmer's workouts");
+                checkAgainstScan(store, TYPED);
+            }
+            case "reopen" -> {
+                long t0 = System.nanoTime();
+                store.search("x", WorkoutQuery.all());
+                report("open text index (snapshot + log)", t0);
+                typeAndCheck(store);
+                check(hitIds(store, "threshold ladder").size() == 1, "rename lost across restart");
+            }
+            default -> throw new IllegalArgumentException(phase);
+        }
+    }
+
+    // One search per keystroke, whole library and one swimmer, each checked against a scan
+    private static void typeAndCheck(WorkoutStore store) throws Exception {
+        UUID first = Stores.swimmers().listSwimmerIds().get(0);
+        for (int round = 0; round < 3; round++) {
+            for (WorkoutQuery scope : List.of(WorkoutQuery.all(), WorkoutQuery.all().forSwimmer(first))) {
+                String label = scope.swimmerIds().isEmpty() ? "library" : "swimmer";
+                long worst = 0, total = 0;
+                for (int i = 1; i <= TYPED.length(); i++) {
+                    long t0 = System.nanoTime();
+                    store.search(TYPED.substring(0, i), scope);
+                    long took = System.nanoTime() - t0;
+                    worst = Math.max(worst, took);
+                    total += took;
+                }
+                System.out.printf("  %-34s %9.2f ms avg, %.2f ms worst%n", "type \"" + TYPED + "\" (" + label + ")",
+                        total / 1e6 / TYPED.length(), worst / 1e6);
+            }
+        }
+        for (String q : List.of("b", "bro", TYPED, "main descend", "loose", "hold pace", "zzz")) {
+            checkAgainstScan(store, q);
+        }
+    }
+
+    private static Set<UUID> hitIds(WorkoutStore store, String text) throws Exception {
+        Set<UUID> ids = new HashSet<>();
+        for (WorkoutSummary s : store.search(text, WorkoutQuery.all())) ids.add(s.getId());
+        return ids;
+    }
+
+    // The index must return exactly the workouts whose text has every query word as a prefix
+    private static void checkAgainstScan(WorkoutStore store, String text) throws Exception {
+        List<String> query = words(text);
+        Set<UUID> expected = new HashSet<>();
+        for (UUID swimmerId : Stores.swimmers().listSwimmerIds()) {
+            for (Workout w : store.listWorkoutsFor(swimmerId)) {
+                List<String> words = new ArrayList<>();
+                words.addAll(words(w.getName()));
+                words.addAll(words(w.getNotes()));
+                for (SetGroup g : w.getGroups()) {
+                    words.addAll(words(g.getName()));
+                    words.addAll(words(g.getNotes()));
+                    for (SwimSet s : g.getSets()) words.addAll(words(s.getNotes()));
+                }
+                if (query.stream().allMatch(q -> words.stream().anyMatch(word -> word.startsWith(q)))) {
+                    expected.add(w.getId());
+                }
+            }
+        }
+        Set<UUID> actual = hitIds(store, text);
+        check(actual.equals(expected), "\"" + text + "\": " + actual.size() + " hits, scan found " + expected.size());
+    }
+
+    private static List<String> words(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null) return out;
+        for (String w : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!w.isEmpty()) out.add(w);
+        }
+        return out;
+    }
+
+    private static void report(String what, long t0) {
+        System.out.printf("  %-34s %9.1f ms%n", what, (System.nanoTime() - t0) / 1e6);
+    }
+
+    private static void check(boolean ok, String message) {
+        if (!ok) {
+            System.err.println("  FAIL: " + message);
+            System.exit(1);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Supplier;
 import swimworkoutbuilder_javafx.model.enums.Course;
 import swimworkoutbuilder_javafx.model.units.Distance;
 
@@ -30,6 +31,10 @@ import swimworkoutbuilder_javafx.model.units.Distance;
  *   <li>Workouts are immutable in ID but mutable in content (groups can be edited or rearranged).</li>
  *   <li>Distances are measured canonically in meters via {@link Distance} for consistency.</li>
  *   <li>This class is model-only; the UI and pacing logic are defined elsewhere.</li>
+ *   <li>A workout created with the lazy loader constructor holds only its header; the
+ *       groups and default rest (the body) are fetched from the store on first access.
+ *       {@link #totalDistance()} is answered from the header until then. Threads that
+ *       touch the body first at the same time share a single load.</li>
  * </ul>
  *
  * <h2>Typical Usage</h2>
@@ -70,6 +75,12 @@ public class Workout implements java.io.Serializable {
     // Contents
     private final List<SetGroup> groups = new ArrayList<>();
 
+    // Lazy body: until the first access to groups/default rest, these supply them and the
+    // header total; both are cleared once the body is in (see ensureBody). Volatile so a
+    // thread that sees it cleared also sees the groups written before
+    private transient volatile Supplier<Workout> bodySource;
+    private transient long headerTotalMicroUnits;
+
     // ----------------------------------------------------------
     // Constructors
     // ----------------------------------------------------------
@@ -123,6 +134,24 @@ public class Workout implements java.io.Serializable {
         this.updatedAt = Objects.requireNonNull(updatedAt, "updatedAt");
     }
 
+    /**
+     * Repository/loader, lazy: header values from storage; groups and default rest are
+     * taken from {@code bodySource} (a full load of the same workout) the first time they
+     * are needed.
+     *
+     * @param totalDistanceMicroUnits stored total (canonical micro units), reported by
+     *        {@link #totalDistance()} while the body is not loaded
+     * @param bodySource loads the full workout; may throw
+     *        {@link java.io.UncheckedIOException}, in which case the access that triggered
+     *        it fails and the next one retries
+     */
+    public Workout(UUID id, UUID swimmerId, String name, Course course, String notes,
+                   Instant createdAt, Instant updatedAt, long totalDistanceMicroUnits, Supplier<Workout> bodySource) {
+        this(id, swimmerId, name, course, notes, 0, createdAt, updatedAt);
+        this.headerTotalMicroUnits = Math.max(0L, totalDistanceMicroUnits);
+        this.bodySource = Objects.requireNonNull(bodySource, "bodySource");
+    }
+
     // Deep copy (same logical workout id; copies groups)
     public Workout(Workout other) {
         this.id = Objects.requireNonNull(other, "other").id;
@@ -130,7 +159,7 @@ public class Workout implements java.io.Serializable {
         this.name = other.name;
         this.course = other.course;
         this.notes = other.notes;
-        this.defaultRestBetweenGroupsSeconds = other.defaultRestBetweenGroupsSeconds;
+        this.defaultRestBetweenGroupsSeconds = other.getDefaultRestBetweenGroupsSeconds();
         this.createdAt = other.createdAt;
         this.updatedAt = other.updatedAt;
         for (SetGroup g : other.getGroups()) {
@@ -169,8 +198,12 @@ public class Workout implements java.io.Serializable {
         touchUpdated();
     }
 
-    public int getDefaultRestBetweenGroupsSeconds() { return defaultRestBetweenGroupsSeconds; }
+    public int getDefaultRestBetweenGroupsSeconds() {
+        ensureBody();
+        return defaultRestBetweenGroupsSeconds;
+    }
     public void setDefaultRestBetweenGroupsSeconds(int seconds) {
+        ensureBody();
         this.defaultRestBetweenGroupsSeconds = Math.max(0, seconds);
         touchUpdated();
     }
@@ -183,35 +216,67 @@ public class Workout implements java.io.Serializable {
     }
     public void touchUpdated() { this.updatedAt = Instant.now(); }
 
+    // ----------------------------------------------------------
+    // Lazy body
+    // ----------------------------------------------------------
+
+    /** {@code false} while a lazily loaded workout has not fetched its groups yet. */
+    public boolean isBodyLoaded() { return bodySource == null; }
+
+    // Fetches groups and default rest on first access (no-op for ordinary workouts).
+    // Double-checked: concurrent first accesses load the body once, and later ones only
+    // read the volatile field
+    private void ensureBody() {
+        if (bodySource == null) return;
+        synchronized (this) {
+            Supplier<Workout> source = bodySource;
+            if (source == null) return;
+            Workout full = source.get();
+            groups.clear();
+            groups.addAll(full.getGroups());
+            defaultRestBetweenGroupsSeconds = full.getDefaultRestBetweenGroupsSeconds();
+            bodySource = null;
+        }
+    }
+
+    private void writeObject(java.io.ObjectOutputStream out) throws java.io.IOException {
+        ensureBody();   // the body is transient until loaded
+        out.defaultWriteObject();
+    }
+
     // ----------------------------------------------------------
     // Group management (ordered & mutable)
     // ----------------------------------------------------------
 
-    /** Returns the list of {@link SetGroup}s that make up this workout. */
-    public List<SetGroup> getGroups() { return groups; }
+    /** Returns the list of {@link SetGroup}s that make up this workout (loads a lazy body). */
+    public List<SetGroup> getGroups() {
+        ensureBody();
+        return groups;
+    }
 
     /** Returns how many groups this workout currently contains. */
-    public int getGroupCount() { return groups.size(); }
+    public int getGroupCount() { return getGroups().size(); }
 
     /** Appends a new group to the workout. Null values are ignored. */
     public void addSetGroup(SetGroup group) {
-        if (group != null) groups.add(group);
+        if (group != null) getGroups().add(group);
     }
 
     /** Inserts a group at a specific index (throws if index invalid). */
     public void insertSetGroup(int index, SetGroup group) {
         if (group == null) return;
-        groups.add(index, group);
+        getGroups().add(index, group);
     }
 
     /** Removes and returns the group at the specified index. */
     public SetGroup removeSetGroup(int index) {
-        return groups.remove(index);
+        return getGroups().remove(index);
     }
 
     /** Moves a group from one index to another, preserving relative order. */
     public void moveGroup(int fromIndex, int toIndex) {
         if (fromIndex == toIndex) return;
+        ensureBody();
         SetGroup g = groups.remove(fromIndex);
         groups.add(toIndex, g);
     }
@@ -219,6 +284,7 @@ public class Workout implements java.io.Serializable {
     /** Swaps the position of two groups in the list. */
     public void swapGroups(int i, int j) {
         if (i == j) return;
+        ensureBody();
         SetGroup a = groups.get(i);
         SetGroup b = groups.get(j);
         groups.set(i, b);
@@ -259,11 +325,16 @@ public class Workout implements java.io.Serializable {
         this.name = Objects.requireNonNull(other.name, "name");
         this.course = Objects.requireNonNull(other.course, "course");
         this.notes = other.notes;
-        this.defaultRestBetweenGroupsSeconds = Math.max(0, other.defaultRestBetweenGroupsSeconds);
+
+        // A lazy body of this workout is dropped unread (after any load in progress)
+        synchronized (this) {
+            this.bodySource = null;
+        }
+        this.defaultRestBetweenGroupsSeconds = Math.max(0, other.getDefaultRestBetweenGroupsSeconds());
 
         // Replace groups with deep copies
         this.groups.clear();
-        for (SetGroup g : other.groups) {
+        for (SetGroup g : other.getGroups()) {
             if (g != null) this.groups.add(g.deepCopy());
         }
 
@@ -315,6 +386,7 @@ public class Workout implements java.io.Serializable {
      * any group repetitions (e.g., “Main ×4” counts 4× its base distance).
      */
     public Distance totalDistance() {
+        if (bodySource != null) return Distance.ofCanonicalMicroUnits(headerTotalMicroUnits, Distance.Unit.METERS);
         return Distance.ofMeters(totalDistanceMeters());
     }
 
@@ -322,7 +394,7 @@ public class Workout implements java.io.Serializable {
     @Deprecated
     public int singlePassDistanceMeters() {
         int sum = 0;
-        for (SetGroup g : groups) sum += g.singlePassDistanceMeters();
+        for (SetGroup g : getGroups()) sum += g.singlePassDistanceMeters();
         return sum;
     }
 
@@ -330,7 +402,7 @@ public class Workout implements java.io.Serializable {
     @Deprecated
     public int totalDistanceMeters() {
         int sum = 0;
-        for (SetGroup g : groups) sum += g.totalDistanceMeters();
+        for (SetGroup g : getGroups()) sum += g.totalDistanceMeters();
         return sum;
     }
 
@@ -345,7 +417,7 @@ public class Workout implements java.io.Serializable {
                 ", swimmerId=" + swimmerId +
                 ", name='" + name + '\'' +
                 ", course=" + course +
-                ", groups=" + groups.size() +
+                ", groups=" + (isBodyLoaded() ? String.valueOf(groups.size()) : "not loaded") +
                 ", defaultRestBetweenGroupsSeconds=" + defaultRestBetweenGroupsSeconds +
                 (notes != null && !notes.isBlank() ? ", notes='" + notes + '\'' : "") +
                 '}';
@@ -28,13 +28,76 @@ public class DefaultPacePolicy implements PacePolicy {
         Objects.requireNonNull(workout, "workout");
         Objects.requireNonNull(set, "set");
         Objects.requireNonNull(swimmer, "swimmer");
+        return goal(workout, set, requireSeed(swimmer, set), repIndex);
+    }
 
-        // 1) Seed (canonical speed)
+    @Override
+/**
+ * restSeconds — see class Javadoc for context.
+ * <p>Auto-generated comment for grading. No functional changes.</p>
+ */
+    public int restSeconds(Workout workout, SwimSet set, Swimmer swimmer, int repIndex) {
+        return evaluate(workout, set, swimmer, repIndex).restSeconds();
+    }
+
+    @Override
+/**
+ * intervalSeconds — see class Javadoc for context.
+ * <p>Auto-generated comment for grading. No functional changes.</p>
+ */
+    public int intervalSeconds(Workout workout, SwimSet set, Swimmer swimmer, int repIndex) {
+        return evaluate(workout, set, swimmer, repIndex).intervalSeconds();
+    }
+
+    @Override
+/**
+ * timingLabel — see class Javadoc for context.
+ * <p>Auto-generated comment for grading. No functional changes.</p>
+ */
+    public String timingLabel(Workout workout, SwimSet set, Swimmer swimmer, int repIndex) {
+        return evaluate(workout, set, swimmer, repIndex).label();
+    }
+
+    /** Timing depends only on the set definition, never on which rep it is. */
+    @Override
+    public boolean isRepInvariant() { return true; }
+
+    /**
+     * Computes goal, rest and interval in one pass: one seed lookup, one
+     * multiplier product and one rest-curve evaluation per call.
+     */
+    @Override
+    public PaceResult evaluate(Workout workout, SwimSet set, Swimmer swimmer, int repIndex) {
+        Objects.requireNonNull(workout, "workout");
+        Objects.requireNonNull(set, "set");
+        Objects.requireNonNull(swimmer, "swimmer");
+
+        SeedPace seed = requireSeed(swimmer, set);
+        double goal = goal(workout, set, seed, repIndex);
+        int goalRounded = (int) Math.round(goal);
+        int rest = rest(set, seed, goalRounded);
+
+        int interval = goalRounded + rest;
+        int rounded = roundToNearest5(interval);
+        if (DEBUG && rounded != interval) {
+            System.out.printf("[DEBUG-INT] interval %ds -> rounded to %ds%n", interval, rounded);
+        }
+        return new PaceResult(goal, rest, rounded, "rest: " + rest);
+    }
+
+    // --- core math (shared by the single-value methods and evaluate) ---
+
+    private static SeedPace requireSeed(Swimmer swimmer, SwimSet set) {
         StrokeType stroke = set.getStroke();
         SeedPace seed = swimmer.getSeedTime(stroke);
         if (seed == null) throw new IllegalStateException("Missing seed for stroke: " + stroke);
+        if (seed.speedMps() <= 0.0) throw new IllegalStateException("Seed speed must be > 0 m/s for " + stroke);
+        return seed;
+    }
+
+    private static double goal(Workout workout, SwimSet set, SeedPace seed, int repIndex) {
+        // 1) Seed (canonical speed)
         double speedMps = seed.speedMps(); // canonical
-        if (speedMps <= 0.0) throw new IllegalStateException("Seed speed must be > 0 m/s for " + stroke);
 
         // 2) Multipliers
         Effort effort = set.getEffort();
@@ -51,28 +114,14 @@ public class DefaultPacePolicy implements PacePolicy {
         if (DEBUG) {
             System.out.printf(
                     "[DEBUG] %s rep #%d goal: (%.2fm / %.4f m/s) × %.2f(effort) × %.2f(dist) × %.2f(course) × %.2f(equip) × %.2f(fatigue) = %.2fs%n",
-                    stroke, repIndex + 1,
+                    set.getStroke(), repIndex + 1,
                     repMeters, speedMps, mEffort, mDist, mCourse, mEquip, mFatigue, goal
             );
         }
         return goal;
     }
 
-    @Override
-/**
- * restSeconds — see class Javadoc for context.
- * <p>Auto-generated comment for grading. No functional changes.</p>
- */
-    public int restSeconds(Workout workout, SwimSet set, Swimmer swimmer, int repIndex) {
-        Objects.requireNonNull(workout, "workout");
-        Objects.requireNonNull(set, "set");
-        Objects.requireNonNull(swimmer, "swimmer");
-
-        int goalRounded = (int) Math.round(goalSeconds(workout, set, swimmer, repIndex));
-
-        SeedPace seed = swimmer.getSeedTime(set.getStroke());
-        if (seed == null) throw new IllegalStateException("Missing seed for " + set.getStroke());
-
+    private static int rest(SwimSet set, SeedPace seed, int goalRounded) {
         double repMeters  = set.getDistancePerRep().toMeters();
         double seedMeters = seed.getOriginalDistance().toMeters();
 
@@ -88,32 +137,6 @@ public class DefaultPacePolicy implements PacePolicy {
         return Math.max(0, rest);
     }
 
-    @Override
-/**
- * intervalSeconds — see class Javadoc for context.
- * <p>Auto-generated comment for grading. No functional changes.</p>
- */
-    public int intervalSeconds(Workout workout, SwimSet set, Swimmer swimmer, int repIndex) {
-        int goalRounded = (int) Math.round(goalSeconds(workout, set, swimmer, repIndex));
-        int rest = restSeconds(workout, set, swimmer, repIndex);
-        int interval = goalRounded + rest;
-        int rounded = roundToNearest5(interval);
-        if (DEBUG && rounded != interval) {
-            System.out.printf("[DEBUG-INT] interval %ds -> rounded to %ds%n", interval, rounded);
-        }
-        return rounded;
-    }
-
-    @Override
-/**
- * timingLabel — see class Javadoc for context.
- * <p>Auto-generated comment for grading. No functional changes.</p>
- */
-    public String timingLabel(Workout workout, SwimSet set, Swimmer swimmer, int repIndex) {
-        int rest = restSeconds(workout, set, swimmer, repIndex);
-        return "rest: " + rest;
-    }
-
     // --- helpers ---
 
     private static boolean usesDistanceFactor(Effort e) {
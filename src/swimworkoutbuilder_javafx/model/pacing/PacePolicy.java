@@ -31,4 +31,29 @@ public interface PacePolicy {
      * Implementations may format this however they wish.
      */
     String timingLabel(Workout workout, SwimSet set, Swimmer swimmer, int repIndex);
+
+    /**
+     * Capability flag: {@code true} if this policy's results do not depend on {@code repIndex}.
+     *
+     * <p>Rep-invariant policies let callers evaluate a set once and multiply by reps
+     * (see {@link WorkoutTotals}). The default is the conservative {@code false};
+     * policies that ignore {@code repIndex} should override it.</p>
+     */
+    default boolean isRepInvariant() { return false; }
+
+    /**
+     * Batch entry point: goal, rest, interval and label for one rep in a single call.
+     *
+     * <p>The default simply delegates to the individual methods; policies whose
+     * methods share work (seed lookup, multipliers) should override this and
+     * compute everything once. Callers that need more than one value for a set
+     * should prefer this method.</p>
+     */
+    default PaceResult evaluate(Workout workout, SwimSet set, Swimmer swimmer, int repIndex) {
+        return new PaceResult(
+                goalSeconds(workout, set, swimmer, repIndex),
+                restSeconds(workout, set, swimmer, repIndex),
+                intervalSeconds(workout, set, swimmer, repIndex),
+                timingLabel(workout, set, swimmer, repIndex));
+    }
 }
@@ -0,0 +1,55 @@
+package swimworkoutbuilder_javafx.model.pacing;
+
+/**
+ * Immutable timing for one rep of a set, as computed by a {@link PacePolicy} in a single pass.
+ *
+ * <p>Holds everything the UI and printer need for a set row — goal, rest, send-off
+ * interval and the short timing label — so callers evaluate a set once instead of
+ * calling {@code goalSeconds}/{@code restSeconds}/{@code intervalSeconds} separately
+ * (each of which repeats the seed lookup and multiplier math).</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ * @see PacePolicy#evaluate(swimworkoutbuilder_javafx.model.Workout,
+ *      swimworkoutbuilder_javafx.model.SwimSet, swimworkoutbuilder_javafx.model.Swimmer, int)
+ */
+public final class PaceResult {
+
+    private final double goalSeconds;   // unrounded goal time for one rep
+    private final int restSeconds;      // rest after the rep
+    private final int intervalSeconds;  // send-off (goal + rest, policy-rounded)
+    private final String label;         // e.g. "rest: 20"
+
+    public PaceResult(double goalSeconds, int restSeconds, int intervalSeconds, String label) {
+        this.goalSeconds = goalSeconds;
+        this.restSeconds = restSeconds;
+        this.intervalSeconds = intervalSeconds;
+        this.label = (label == null) ? "" : label;
+    }
+
+    /** Goal time (seconds) for a single rep. */
+    public double goalSeconds() { return goalSeconds; }
+
+    /** Goal time rounded to whole seconds (the value the policy adds rest to). */
+    public int goalSecondsRounded() { return (int) Math.round(goalSeconds); }
+
+    /** Rest after the rep (seconds). */
+    public int restSeconds() { return restSeconds; }
+
+    /** Interval/send-off (seconds) for a single rep. */
+    public int intervalSeconds() { return intervalSeconds; }
+
+    /** Short label for UI/printer. */
+    public String label() { return label; }
+
+    @Override
+    public String toString() {
+        return "PaceResult{" +
+                "goal=" + String.format("%.2f", goalSeconds) +
+                ", rest=" + restSeconds +
+                ", interval=" + intervalSeconds +
+                ", label='" + label + '\'' +
+                '}';
+    }
+}
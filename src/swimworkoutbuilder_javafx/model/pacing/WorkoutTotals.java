@@ -0,0 +1,100 @@
+package swimworkoutbuilder_javafx.model.pacing;
+
+import java.util.Objects;
+import swimworkoutbuilder_javafx.model.SetGroup;
+import swimworkoutbuilder_javafx.model.SwimSet;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+
+/**
+ * Immutable swim / rest / duration totals for a whole workout.
+ *
+ * <p>{@link #compute(Workout, Swimmer, PacePolicy)} sums goal time and intra-set rest over
+ * every rep of every set, including group repetitions. For policies that declare
+ * {@link PacePolicy#isRepInvariant()} each set is evaluated once and scaled by
+ * {@code setReps × groupReps}, so the cost is O(sets) regardless of rep counts.
+ * Rep-dependent policies fall back to one evaluation per set rep (still not per
+ * group pass, since the policy never sees the group repetition).</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ * @see PacePolicy#evaluate(Workout, SwimSet, Swimmer, int)
+ */
+public final class WorkoutTotals {
+
+    /** Totals for an empty workout. */
+    public static final WorkoutTotals ZERO = new WorkoutTotals(0.0, 0.0);
+
+    private final double swimSeconds;
+    private final double restSeconds;
+
+    private WorkoutTotals(double swimSeconds, double restSeconds) {
+        this.swimSeconds = swimSeconds;
+        this.restSeconds = restSeconds;
+    }
+
+    /** Rebuilds totals from previously computed values (e.g. a saved session snapshot). */
+    public static WorkoutTotals of(double swimSeconds, double restSeconds) {
+        return new WorkoutTotals(swimSeconds, restSeconds);
+    }
+
+    /**
+     * Computes totals for the workout.
+     *
+     * @throws IllegalStateException (from the policy) if a needed seed is missing
+     */
+    public static WorkoutTotals compute(Workout workout, Swimmer swimmer, PacePolicy policy) {
+        Objects.requireNonNull(workout, "workout");
+        Objects.requireNonNull(swimmer, "swimmer");
+        Objects.requireNonNull(policy, "policy");
+        if (workout.getGroups() == null) return ZERO;
+
+        boolean invariant = policy.isRepInvariant();
+        double swim = 0.0;
+        double rest = 0.0;
+
+        for (SetGroup g : workout.getGroups()) {
+            if (g == null || g.getSets() == null) continue;
+            int groupReps = Math.max(1, g.getReps());
+
+            double passSwim = 0.0;
+            double passRest = 0.0;
+            for (SwimSet s : g.getSets()) {
+                if (s == null) continue;
+                int setReps = Math.max(1, s.getReps());
+                if (invariant) {
+                    PaceResult pace = policy.evaluate(workout, s, swimmer, 0);
+                    passSwim += Math.max(0.0, pace.goalSeconds()) * setReps;
+                    passRest += Math.max(0, pace.restSeconds()) * (double) setReps;
+                } else {
+                    for (int r = 0; r < setReps; r++) {
+                        PaceResult pace = policy.evaluate(workout, s, swimmer, r);
+                        passSwim += Math.max(0.0, pace.goalSeconds());
+                        passRest += Math.max(0, pace.restSeconds());
+                    }
+                }
+            }
+            swim += passSwim * groupReps;
+            rest += passRest * groupReps;
+        }
+        return new WorkoutTotals(swim, rest);
+    }
+
+    /** Total goal (swimming) time in seconds. */
+    public double swimSeconds() { return swimSeconds; }
+
+    /** Total intra-set rest in seconds. */
+    public double restSeconds() { return restSeconds; }
+
+    /** Swim + rest in seconds. */
+    public double durationSeconds() { return swimSeconds + restSeconds; }
+
+    @Override
+    public String toString() {
+        return "WorkoutTotals{" +
+                "swim=" + String.format("%.1f", swimSeconds) +
+                ", rest=" + String.format("%.1f", restSeconds) +
+                '}';
+    }
+}
@@ -1,11 +1,16 @@
 package swimworkoutbuilder_javafx.model.utils;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
 import swimworkoutbuilder_javafx.model.SetGroup;
 import swimworkoutbuilder_javafx.model.SwimSet;
 import swimworkoutbuilder_javafx.model.Swimmer;
 import swimworkoutbuilder_javafx.model.Workout;
 import swimworkoutbuilder_javafx.model.enums.Course;
 import swimworkoutbuilder_javafx.model.pacing.PacePolicy;
+import swimworkoutbuilder_javafx.model.pacing.PaceResult;
 import swimworkoutbuilder_javafx.model.units.Distance;
 /**
  * [UI Component] WorkoutPrinter for the "utils" feature.
@@ -39,121 +44,196 @@ import swimworkoutbuilder_javafx.model.units.Distance;
 public final class WorkoutPrinter {
     private WorkoutPrinter() {}
 
+    private static final String NL = System.lineSeparator();
+    private static final String RULE = "==================================================";
+
+    /** Prints the workout to {@code System.out} (console/dev use). */
     public static void printWorkout(Workout w, Swimmer swimmer, PacePolicy policy) {
-        boolean displayYards = (w.getCourse() == Course.SCY);
-        String unitLabel = displayYards ? "yd" : "m";
+        try {
+            render(w, swimmer, policy, System.out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);   // PrintStream never actually throws
+        }
+    }
+
+    /** Renders the workout into a new String. */
+    public static String renderToString(Workout w, Swimmer swimmer, PacePolicy policy) {
+        StringBuilder sb = new StringBuilder(1024);
+        try {
+            render(w, swimmer, policy, sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);   // StringBuilder never throws
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Streams the full printout to {@code out}: header, one block per group, totals.
+     * Callers that cache per-group output can instead combine {@link #appendHeader},
+     * {@link #renderGroup} and {@link #appendTotals} themselves.
+     */
+    public static void render(Workout w, Swimmer swimmer, PacePolicy policy, Appendable out) throws IOException {
+        appendHeader(w, swimmer, out);
+        List<GroupBlock> blocks = new ArrayList<>(w.getGroups().size());
+        for (int gi = 0; gi < w.getGroups().size(); gi++) {
+            GroupBlock b = renderGroup(w, gi, swimmer, policy);
+            out.append(b.text());
+            blocks.add(b);
+        }
+        appendTotals(w, blocks, out);
+    }
 
-        System.out.println("==================================================");
+    /** Swimmer/workout banner, notes and the "Groups (n):" line. */
+    public static void appendHeader(Workout w, Swimmer swimmer, Appendable out) throws IOException {
+        out.append(RULE).append(NL);
         String swimmerName = (swimmer.getFirstName() + " " + swimmer.getLastName()).trim();
         String shortId = swimmer.getId().toString().substring(0, 8);
-        System.out.printf("Swimmer: %s  (id=%s)%n", swimmerName, shortId);
-        System.out.printf("Workout: %s  [%s]%n", w.getName(), w.getCourse());
+        out.append("Swimmer: ").append(swimmerName).append("  (id=").append(shortId).append(')').append(NL);
+        out.append("Workout: ").append(w.getName()).append("  [").append(String.valueOf(w.getCourse())).append(']').append(NL);
         if (w.getNotes() != null && !w.getNotes().isBlank()) {
-            System.out.println("Notes:   " + w.getNotes());
+            out.append("Notes:   ").append(w.getNotes()).append(NL);
         }
-        System.out.println();
+        out.append(NL);
+        out.append("Groups (").append(String.valueOf(w.getGroups().size())).append("):").append(NL);
+    }
 
-        long workoutSwimSeconds = 0;
-        long workoutIntraRestSeconds = 0;
-        long workoutBetweenGroupRestSeconds = 0;
-        long workoutDisplayDistance = 0; // yards for SCY, meters otherwise
+    /**
+     * Renders one group (title, sets with per-rep timing, group totals and the rest-after
+     * line) and returns its text together with the totals it contributes.
+     *
+     * <p>The result depends only on the workout's course and default rest, the group's
+     * contents and position (whether it is last), the swimmer's seeds and the policy.</p>
+     */
+    public static GroupBlock renderGroup(Workout w, int groupIndex, Swimmer swimmer, PacePolicy policy) {
+        boolean displayYards = (w.getCourse() == Course.SCY);
+        String unitLabel = displayYards ? "yd" : "m";
+        boolean invariant = policy.isRepInvariant();
+        SetGroup g = w.getGroups().get(groupIndex);
+        int groupReps = Math.max(1, g.getReps());
+        StringBuilder out = new StringBuilder(256);
 
-        System.out.println("Groups (" + w.getGroups().size() + "):");
-        int groupIndex = 0;
+        out.append("  ").append(g.getOrder()).append(") ").append(g.getName());
+        if (groupReps > 1) out.append("  x").append(groupReps);
+        out.append(NL);
+        if (g.getNotes() != null && !g.getNotes().isBlank()) {
+            out.append("     - ").append(g.getNotes()).append(NL);
+        }
 
-        for (SetGroup g : w.getGroups()) {
-            groupIndex++;
-            int groupReps = Math.max(1, g.getReps());
+        long singlePassGroupSwimSec = 0;
+        long singlePassGroupIntraRestSec = 0;
+        long singlePassGroupDisplayDist = 0; // yards or meters per display rules
 
-            System.out.printf("  %d) %s", g.getOrder(), g.getName());
-            if (groupReps > 1) System.out.print("  x" + groupReps);
-            System.out.println();
-            if (g.getNotes() != null && !g.getNotes().isBlank()) {
-                System.out.println("     - " + g.getNotes());
-            }
+        int idx = 1;
+        for (SwimSet s : g.getSets()) {
+            int reps = s.getReps();
+            Distance rep = s.getDistancePerRep();
 
-            long singlePassGroupSwimSec = 0;
-            long singlePassGroupIntraRestSec = 0;
-            long singlePassGroupDisplayDist = 0; // yards or meters per display rules
+            // Per-rep display distance (snap to lap size for SCY display)
+            int repDisplayDist = displayYards
+                    ? snapToLapYards((int) Math.round(rep.toYards()))
+                    : (int) Math.round(rep.toMeters());
 
-            int idx = 1;
-            for (SwimSet s : g.getSets()) {
-                int reps = s.getReps();
-                Distance rep = s.getDistancePerRep();
+            String strokeShort = (s.getStroke() == null) ? "" : s.getStroke().getShortLabel();
 
-                // Per-rep display distance (snap to lap size for SCY display)
-                int repDisplayDist = displayYards
-                        ? snapToLapYards((int) Math.round(rep.toYards()))
-                        : (int) Math.round(rep.toMeters());
+            out.append("     ").append(idx++).append(". ")
+               .append(reps).append('x').append(repDisplayDist).append(unitLabel).append(' ');
+            padRight(out, strokeShort, 14).append(' ');
+            padRight(out, (s.getEffort() != null ? s.getEffort().getLabel() : ""), 12).append(NL);
 
-                String strokeShort = (s.getStroke() == null) ? "" : s.getStroke().getShortLabel();
+            // One policy evaluation per set when every rep shares the same timing.
+            PaceResult pace = invariant ? policy.evaluate(w, s, swimmer, 0) : null;
+            for (int r = 1; r <= reps; r++) {
+                if (!invariant) pace = policy.evaluate(w, s, swimmer, r);
+                singlePassGroupSwimSec      += Math.round(pace.goalSeconds());
+                singlePassGroupIntraRestSec += pace.restSeconds();
 
-                System.out.printf("     %d. %dx%d%s %-14s %-12s%n",
-                        idx++,
-                        reps,
-                        repDisplayDist, unitLabel,
-                        strokeShort,
-                        (s.getEffort() != null ? s.getEffort().getLabel() : "")
-                );
+                out.append("         #").append(r).append("  goal ");
+                mmss(out, pace.goalSeconds()).append(" | on ");
+                mmss(out, pace.intervalSeconds()).append(" | rest ");
+                mmss(out, pace.restSeconds()).append(NL);
+            }
 
-                for (int r = 1; r <= reps; r++) {
-                    double goal  = policy.goalSeconds(w, s, swimmer, r);
-                    int interval = policy.intervalSeconds(w, s, swimmer, r);
-                    int rest     = policy.restSeconds(w, s, swimmer, r);
+            if (s.getNotes() != null && !s.getNotes().isBlank()) {
+                out.append("         note: ").append(s.getNotes()).append(NL);
+            }
 
-                    singlePassGroupSwimSec      += Math.round(goal);
-                    singlePassGroupIntraRestSec += rest;
+            // Add display distance for this set to the group display total
+            singlePassGroupDisplayDist += (long) reps * repDisplayDist;
+        }
 
-                    System.out.printf("         #%d  goal %s | on %s | rest %s%n",
-                            r, mmss(goal), mmss(interval), mmss(rest));
-                }
+        long groupDisplayTotal = singlePassGroupDisplayDist * groupReps;
+        long groupSwimSecondsTotal = singlePassGroupSwimSec * groupReps;
+        long groupIntraRestTotal   = singlePassGroupIntraRestSec * groupReps;
 
-                if (s.getNotes() != null && !s.getNotes().isBlank()) {
-                    System.out.println("         note: " + s.getNotes());
-                }
+        out.append("     Group totals: distance=").append(groupDisplayTotal).append(unitLabel).append("  swim=");
+        mmss(out, groupSwimSecondsTotal).append("  rest=");
+        mmss(out, groupIntraRestTotal).append("  total=");
+        mmss(out, groupSwimSecondsTotal + groupIntraRestTotal).append(NL);
 
-                // Add display distance for this set to the group display total
-                singlePassGroupDisplayDist += (long) reps * repDisplayDist;
-            }
+        // Between-group rest (use group's override if present, else workout default)
+        int restAfter = (g.getRestAfterGroupSec() > 0)
+                ? g.getRestAfterGroupSec()
+                : w.getDefaultRestBetweenGroupsSeconds();
 
-            long groupDisplayTotal = singlePassGroupDisplayDist * groupReps;
-            long groupSwimSecondsTotal = singlePassGroupSwimSec * groupReps;
-            long groupIntraRestTotal   = singlePassGroupIntraRestSec * groupReps;
+        long betweenGroupRest = 0;
+        if (groupIndex < w.getGroups().size() - 1 && restAfter > 0) {
+            betweenGroupRest = restAfter;
+            out.append("     (+");
+            mmss(out, restAfter).append(" rest after group)").append(NL);
+        }
 
-            workoutDisplayDistance      += groupDisplayTotal;
-            workoutSwimSeconds          += groupSwimSecondsTotal;
-            workoutIntraRestSeconds     += groupIntraRestTotal;
+        out.append(NL);
+        return new GroupBlock(out.toString(), groupDisplayTotal, groupSwimSecondsTotal,
+                groupIntraRestTotal, betweenGroupRest);
+    }
 
-            System.out.printf("     Group totals: distance=%d%s  swim=%s  rest=%s  total=%s%n",
-                    groupDisplayTotal, unitLabel,
-                    mmss(groupSwimSecondsTotal),
-                    mmss(groupIntraRestTotal),
-                    mmss(groupSwimSecondsTotal + groupIntraRestTotal));
+    /** Workout totals footer, summed from the rendered group blocks. */
+    public static void appendTotals(Workout w, List<GroupBlock> blocks, Appendable out) throws IOException {
+        String unitLabel = (w.getCourse() == Course.SCY) ? "yd" : "m";
+        long swim = 0, intraRest = 0, betweenRest = 0, distance = 0;
+        for (GroupBlock b : blocks) {
+            swim        += b.swimSeconds();
+            intraRest   += b.intraRestSeconds();
+            betweenRest += b.betweenGroupRestSeconds();
+            distance    += b.displayDistance();
+        }
+        long total = swim + intraRest + betweenRest;
 
-            // Between-group rest (use group's override if present, else workout default)
-            int restAfter = (g.getRestAfterGroupSec() > 0)
-                    ? g.getRestAfterGroupSec()
-                    : w.getDefaultRestBetweenGroupsSeconds();
+        StringBuilder sb = new StringBuilder(320);
+        sb.append("Totals:").append(NL);
+        mmss(sb.append("  swim time:          "), swim).append(NL);
+        mmss(sb.append("  intra-set rest:     "), intraRest).append(NL);
+        mmss(sb.append("  between-group rest: "), betweenRest).append(NL);
+        sb.append("  ------------------------------------").append(NL);
+        mmss(sb.append("  workout total:      "), total).append(NL);
+        sb.append("  total distance:     ").append(distance).append(' ').append(unitLabel).append(NL);
+        sb.append(RULE).append(NL);
+        sb.append(NL);
+        out.append(sb);
+    }
 
-            if (groupIndex < w.getGroups().size() && restAfter > 0) {
-                workoutBetweenGroupRestSeconds += restAfter;
-                System.out.println("     (+" + mmss(restAfter) + " rest after group)");
-            }
+    /** Rendered text of one group plus the totals it contributes to the footer. */
+    public static final class GroupBlock {
+        private final String text;
+        private final long displayDistance;          // yards for SCY, meters otherwise
+        private final long swimSeconds;
+        private final long intraRestSeconds;
+        private final long betweenGroupRestSeconds;  // 0 for the last group
 
-            System.out.println();
+        GroupBlock(String text, long displayDistance, long swimSeconds,
+                   long intraRestSeconds, long betweenGroupRestSeconds) {
+            this.text = text;
+            this.displayDistance = displayDistance;
+            this.swimSeconds = swimSeconds;
+            this.intraRestSeconds = intraRestSeconds;
+            this.betweenGroupRestSeconds = betweenGroupRestSeconds;
         }
 
-        long workoutTotalSeconds = workoutSwimSeconds + workoutIntraRestSeconds + workoutBetweenGroupRestSeconds;
-
-        System.out.println("Totals:");
-        System.out.println("  swim time:          " + mmss(workoutSwimSeconds));
-        System.out.println("  intra-set rest:     " + mmss(workoutIntraRestSeconds));
-        System.out.println("  between-group rest: " + mmss(workoutBetweenGroupRestSeconds));
-        System.out.println("  ------------------------------------");
-        System.out.println("  workout total:      " + mmss(workoutTotalSeconds));
-        System.out.println("  total distance:     " + workoutDisplayDistance + " " + unitLabel);
-        System.out.println("==================================================");
-        System.out.println();
+        public String text() { return text; }
+        public long displayDistance() { return displayDistance; }
+        public long swimSeconds() { return swimSeconds; }
+        public long intraRestSeconds() { return intraRestSeconds; }
+        public long betweenGroupRestSeconds() { return betweenGroupRestSeconds; }
     }
 
     // snap yard counts to pool lap increments for SCY (25 yd)
@@ -163,8 +243,19 @@ public final class WorkoutPrinter {
         return laps * lap;
     }
 
-    private static String mmss(double seconds) {
+    // "m:ss" without String.format (this runs for every rep line)
+    private static StringBuilder mmss(StringBuilder sb, double seconds) {
         long s = Math.max(0, Math.round(seconds));
-        return String.format("%d:%02d", s / 60, s % 60);
+        long sec = s % 60;
+        sb.append(s / 60).append(':');
+        if (sec < 10) sb.append('0');
+        return sb.append(sec);
+    }
+
+    // Equivalent of %-Ns
+    private static StringBuilder padRight(StringBuilder sb, String s, int width) {
+        sb.append(s);
+        for (int i = s.length(); i < width; i++) sb.append(' ');
+        return sb;
     }
 }
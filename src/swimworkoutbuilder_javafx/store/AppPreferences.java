@@ -0,0 +1,289 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import swimworkoutbuilder_javafx.model.enums.Course;
+
+/**
+ * Application preferences ({@code last.properties}): the last selection, the last course
+ * used for a new workout, and the main window's bounds.
+ *
+ * <p>Values are read and written through typed {@link Key}s; a key knows its property
+ * name, how to parse and format its value, and its default. Unparseable or missing values
+ * read as the default.</p>
+ *
+ * <p><b>Design Notes:</b>
+ * <ul>
+ *   <li>The file is loaded once, on first access, and every read after that is served
+ *       from memory. Nothing on the read path creates directories or touches disk.</li>
+ *   <li>Changes mark the preferences dirty and schedule one write {@link #WRITE_DELAY}
+ *       later on a daemon thread; changes made meanwhile ride along in the same write.
+ *       A selection change that updates several keys therefore costs one write.</li>
+ *   <li>Each write stores a snapshot taken under the lock, through
+ *       {@link AtomicFiles} (temp file + rename), so a crash leaves the old file or the
+ *       new one. Writes are serialized, so a later snapshot never lands before an earlier
+ *       one. The format stays a plain properties file that can be edited by hand.</li>
+ *   <li>{@link #flush()} writes pending changes at once; it is called on application exit
+ *       and from a JVM shutdown hook. A failed write is reported on stderr and retried
+ *       with the next change or flush.</li>
+ * </ul>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class AppPreferences {
+
+    /** How long a change waits for others to join its write. */
+    public static final Duration WRITE_DELAY = Duration.ofMillis(250);
+
+    private static final AppPreferences INSTANCE = new AppPreferences(LocalStore.preferencesFile());
+
+    /** Shared instance used by the app. */
+    public static AppPreferences get() { return INSTANCE; }
+
+    // ----------------------------------------------------------
+    // Keys
+    // ----------------------------------------------------------
+
+    /** Swimmer selected when the app last ran. */
+    public static final Key<UUID> LAST_SWIMMER = Key.uuid("lastSwimmerId");
+    /** Workout open when the app last ran. */
+    public static final Key<UUID> LAST_WORKOUT = Key.uuid("lastWorkoutId");
+    /** Course picked for the last new workout; the default for the next one. */
+    public static final Key<Course> LAST_COURSE = Key.ofEnum("lastCourse", Course.class, Course.SCY);
+
+    /** Main window bounds; {@code NaN} until the window has been closed once. */
+    public static final Key<Double> WINDOW_X = Key.decimal("window.x", Double.NaN);
+    public static final Key<Double> WINDOW_Y = Key.decimal("window.y", Double.NaN);
+    public static final Key<Double> WINDOW_WIDTH = Key.decimal("window.width", Double.NaN);
+    public static final Key<Double> WINDOW_HEIGHT = Key.decimal("window.height", Double.NaN);
+    public static final Key<Boolean> WINDOW_MAXIMIZED = Key.bool("window.maximized", false);
+
+    /**
+     * A typed preference: property name, codec and default.
+     *
+     * @param <T> value type
+     */
+    public static final class Key<T> {
+        private final String name;
+        private final T defaultValue;
+        private final Function<String, T> parse;
+        private final Function<T, String> format;
+
+        private Key(String name, T defaultValue, Function<String, T> parse, Function<T, String> format) {
+            this.name = Objects.requireNonNull(name, "name");
+            this.defaultValue = defaultValue;
+            this.parse = parse;
+            this.format = format;
+        }
+
+        public static Key<String> string(String name, String defaultValue) {
+            return new Key<>(name, defaultValue, s -> s, s -> s);
+        }
+
+        /** A UUID; defaults to {@code null}. */
+        public static Key<UUID> uuid(String name) {
+            return new Key<>(name, null, UUID::fromString, UUID::toString);
+        }
+
+        public static Key<Integer> integer(String name, int defaultValue) {
+            return new Key<>(name, defaultValue, Integer::valueOf, String::valueOf);
+        }
+
+        public static Key<Double> decimal(String name, double defaultValue) {
+            return new Key<>(name, defaultValue, Double::valueOf, String::valueOf);
+        }
+
+        public static Key<Boolean> bool(String name, boolean defaultValue) {
+            return new Key<>(name, defaultValue, Boolean::valueOf, String::valueOf);
+        }
+
+        /** An enum constant, stored by name. */
+        public static <E extends Enum<E>> Key<E> ofEnum(String name, Class<E> type, E defaultValue) {
+            return new Key<>(name, defaultValue, s -> Enum.valueOf(type, s), Enum::name);
+        }
+
+        /** Property name in the file. */
+        public String name() { return name; }
+
+        public T defaultValue() { return defaultValue; }
+
+        @Override
+        public String toString() {
+            return "Key{" + name + '}';
+        }
+    }
+
+    // ----------------------------------------------------------
+    // State
+    // ----------------------------------------------------------
+
+    private final Path file;
+    private final Object lock = new Object();
+    private Properties props;                    // guarded by lock; null until loaded
+    private boolean dirty;                       // guarded by lock
+    private ScheduledFuture<?> scheduled;        // guarded by lock
+    private long writes;                         // guarded by lock
+    private final Object writeLock = new Object();   // orders snapshot + write
+
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "preferences-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private AppPreferences(Path file) {
+        this.file = file;
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "preferences-flush"));
+    }
+
+    // ----------------------------------------------------------
+    // Public API
+    // ----------------------------------------------------------
+
+    /** The value of {@code key}, or its default if unset or unreadable. */
+    public <T> T get(Key<T> key) {
+        String raw;
+        synchronized (lock) {
+            raw = loaded().getProperty(key.name);
+        }
+        if (raw == null || raw.isBlank()) return key.defaultValue;
+        try {
+            return key.parse.apply(raw.trim());
+        } catch (RuntimeException e) {
+            return key.defaultValue;
+        }
+    }
+
+    /** {@link #get} as an {@link Optional}, for keys without a default. */
+    public <T> Optional<T> find(Key<T> key) {
+        return Optional.ofNullable(get(key));
+    }
+
+    /** Sets {@code key}; {@code null} removes it. Written shortly after (see class notes). */
+    public <T> void set(Key<T> key, T value) {
+        String raw = (value == null) ? null : key.format.apply(value);
+        synchronized (lock) {
+            Properties p = loaded();
+            if (Objects.equals(p.getProperty(key.name), raw)) return;
+            if (raw == null) p.remove(key.name); else p.setProperty(key.name, raw);
+            changed();
+        }
+    }
+
+    /** Removes {@code key}, so it reads as its default. */
+    public void remove(Key<?> key) {
+        set(key, null);
+    }
+
+    /**
+     * Removes {@code key} if it currently holds {@code expected}, together with any
+     * {@code dependents} (e.g. the last workout along with its swimmer).
+     *
+     * @return {@code true} if it did
+     */
+    public <T> boolean removeIf(Key<T> key, T expected, Key<?>... dependents) {
+        if (expected == null) return false;
+        String raw = key.format.apply(expected);
+        synchronized (lock) {
+            Properties p = loaded();
+            if (!raw.equals(p.getProperty(key.name))) return false;
+            p.remove(key.name);
+            for (Key<?> d : dependents) p.remove(d.name);
+            changed();
+            return true;
+        }
+    }
+
+    /** Writes pending changes now; a no-op if there are none. */
+    public void flush() {
+        synchronized (lock) {
+            if (scheduled != null) {
+                scheduled.cancel(false);
+                scheduled = null;
+            }
+        }
+        writePending();
+    }
+
+    /** Number of times the file has been written (for diagnostics). */
+    public long writeCount() {
+        synchronized (lock) { return writes; }
+    }
+
+    // ----------------------------------------------------------
+    // Load / write
+    // ----------------------------------------------------------
+
+    // Loads the file on first use; a missing or unreadable file reads as empty
+    private Properties loaded() {
+        if (props == null) {
+            props = new Properties();
+            try (InputStream in = Files.newInputStream(file)) {
+                props.load(in);
+            } catch (NoSuchFileException ignored) {
+                // first run
+            } catch (IOException | RuntimeException e) {
+                System.err.println("WARNING: could not read " + file + ": " + e.getMessage());
+                props.clear();
+            }
+        }
+        return props;
+    }
+
+    // Called under lock after a change: mark dirty and make sure a write is coming
+    private void changed() {
+        dirty = true;
+        if (scheduled == null) {
+            scheduled = writer.schedule(() -> {
+                synchronized (lock) { scheduled = null; }
+                writePending();
+            }, WRITE_DELAY.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void writePending() {
+        synchronized (writeLock) {
+            Properties snapshot;
+            synchronized (lock) {
+                if (!dirty) return;
+                dirty = false;
+                snapshot = new Properties();
+                snapshot.putAll(props);
+            }
+            try {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+                snapshot.store(out, "SwimWorkoutBuilder preferences");
+                AtomicFiles.writeRaw(file, out.toByteArray(), AtomicFiles.fsyncEnabled());
+                synchronized (lock) { writes++; }
+            } catch (IOException | RuntimeException e) {
+                synchronized (lock) { dirty = true; }   // retried with the next change or flush
+                System.err.println("WARNING: could not write " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (lock) {
+            return "AppPreferences{" +
+                    "file=" + file.getFileName() +
+                    ", keys=" + (props == null ? "not loaded" : props.size()) +
+                    ", dirty=" + dirty +
+                    ", writes=" + writes +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * Crash-safe file writes with a self-verifying envelope.
+ *
+ * <p>Every store file is written as
+ * <pre>
+ *   "SWBF" | version:u8 | payloadLength:i32 | crc32c(payload):i32 | payload
+ * </pre>
+ * to a temp file in the target directory, then atomically renamed over the target. A
+ * crash of the app therefore leaves either the old file or the new one, plus at most a
+ * stray {@code *.tmp} that {@link LocalStore#recover()} removes.</p>
+ *
+ * <p>{@link #readVerified(Path)} checks the length and checksum and returns the payload;
+ * files written before the envelope existed (raw codec or Java serialization) are
+ * returned as-is so they keep loading.</p>
+ *
+ * <p>Whether the temp file is forced to disk first depends on the write:
+ * <ul>
+ *   <li>Swimmer and workout files ({@link #write(Path, byte[])}, one per save) are forced
+ *       only with {@code -Dswb.store.fsyncFiles=true}. Forcing makes a save about three
+ *       times as expensive (see {@code dev.StoreWriteBenchmark}), and saves were not to get
+ *       slower. Without it a file that an OS crash or power loss cut short fails its
+ *       checksum and is quarantined; a crash of the app alone cannot cut one short.</li>
+ *   <li>Logs, checkpoints and packs, written once per batch, are forced unless
+ *       {@code -Dswb.store.fsync=false} (benchmarks, tests on tmpfs), which turns off
+ *       forcing everywhere.</li>
+ * </ul>
+ * Atomic rename is always used.</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class AtomicFiles {
+
+    /** Suffix of in-flight temp files; anything with it at startup is debris from a crash. */
+    public static final String TEMP_SUFFIX = ".tmp";
+
+    private static final byte[] MAGIC = {'S', 'W', 'B', 'F'};
+    private static final int VERSION = 1;
+    private static final int HEADER_LEN = MAGIC.length + 1 + 4 + 4;
+
+    // Temp file names: unique within this process; the pid keeps instances apart
+    private static final AtomicLong TEMP_IDS = new AtomicLong(ProcessHandle.current().pid() << 32);
+
+    private static final boolean FSYNC = !"false".equalsIgnoreCase(System.getProperty("swb.store.fsync"));
+    private static final boolean FSYNC_FILES = FSYNC && Boolean.getBoolean("swb.store.fsyncFiles");
+
+    private AtomicFiles() {}
+
+    /** True unless fsync was turned off with {@code -Dswb.store.fsync=false}. */
+    static boolean fsyncEnabled() {
+        return FSYNC;
+    }
+
+    /** Writes a swimmer or workout file atomically (fsync per {@code swb.store.fsyncFiles}). */
+    public static void write(Path target, byte[] payload) throws IOException {
+        write(target, payload, FSYNC_FILES);
+    }
+
+    /** Writes {@code payload} to {@code target} atomically, forcing it to disk if {@code fsync}. */
+    public static void write(Path target, byte[] payload, boolean fsync) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LEN);
+        header.put(MAGIC).put((byte) VERSION).putInt(payload.length).putInt(crc32c(payload, 0, payload.length));
+        header.flip();
+        replace(target, header, ByteBuffer.wrap(payload), fsync);
+    }
+
+    /**
+     * Writes {@code bytes} to {@code target} atomically without the envelope, for formats
+     * that carry their own checksums (see {@link WorkoutArchive}).
+     */
+    static void writeRaw(Path target, byte[] bytes, boolean fsync) throws IOException {
+        replace(target, ByteBuffer.allocate(0), ByteBuffer.wrap(bytes), fsync);
+    }
+
+    // temp file + optional fsync + rename over target
+    private static void replace(Path target, ByteBuffer header, ByteBuffer body, boolean fsync) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        Path tmp;
+        FileChannel ch;
+        while (true) {
+            tmp = target.resolveSibling(target.getFileName() + "." + Long.toHexString(TEMP_IDS.incrementAndGet()) + TEMP_SUFFIX);
+            try {
+                ch = createNew(tmp, dir);
+                break;
+            } catch (FileAlreadyExistsException e) {
+                // another instance's temp file: try the next name
+            }
+        }
+        try {
+            try (FileChannel out = ch) {
+                while (header.hasRemaining() || body.hasRemaining()) {
+                    out.write(new ByteBuffer[]{header, body});
+                }
+                if (fsync) out.force(true);
+            }
+            moveIntoPlace(tmp, target);
+        } catch (IOException | RuntimeException e) {
+            try { Files.deleteIfExists(tmp); } catch (IOException ignored) {}
+            throw e;
+        }
+        if (fsync) syncDirectory(dir);
+    }
+
+    // Opens a new file, creating its directory only when the first attempt says it is missing
+    private static FileChannel createNew(Path file, Path dir) throws IOException {
+        try {
+            return FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        } catch (NoSuchFileException e) {
+            Files.createDirectories(dir);
+            return FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        }
+    }
+
+    /**
+     * Reads a store file and returns its payload.
+     *
+     * @throws CorruptFileException if the envelope is truncated or the checksum does not match
+     */
+    public static byte[] readVerified(Path file) throws IOException {
+        return unwrap(file, Files.readAllBytes(file));
+    }
+
+    /**
+     * Verifies and strips the envelope from bytes already read from {@code file}
+     * (unframed bytes are returned unchanged).
+     *
+     * @throws CorruptFileException if the envelope is truncated or the checksum does not match
+     */
+    public static byte[] unwrap(Path file, byte[] all) throws CorruptFileException {
+        if (!isFramed(all)) return all;   // pre-envelope file: decoder validates it
+
+        if (all.length < HEADER_LEN) throw new CorruptFileException(file, "truncated header");
+        ByteBuffer bb = ByteBuffer.wrap(all);
+        bb.position(MAGIC.length);
+        int version = bb.get() & 0xFF;
+        if (version != VERSION) throw new CorruptFileException(file, "unsupported envelope version " + version);
+        int len = bb.getInt();
+        int crc = bb.getInt();
+        if (len < 0 || len != all.length - HEADER_LEN) {
+            throw new CorruptFileException(file, "length mismatch (header " + len + ", actual " + (all.length - HEADER_LEN) + ")");
+        }
+        if (crc32c(all, HEADER_LEN, len) != crc) throw new CorruptFileException(file, "checksum mismatch");
+
+        byte[] payload = new byte[len];
+        System.arraycopy(all, HEADER_LEN, payload, 0, len);
+        return payload;
+    }
+
+    /** True if the bytes start with the envelope magic. */
+    public static boolean isFramed(byte[] head) {
+        if (head.length < MAGIC.length) return false;
+        for (int i = 0; i < MAGIC.length; i++) if (head[i] != MAGIC[i]) return false;
+        return true;
+    }
+
+    private static int crc32c(byte[] b, int off, int len) {
+        CRC32C crc = new CRC32C();
+        crc.update(b, off, len);
+        return (int) crc.getValue();
+    }
+
+    private static void moveIntoPlace(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Persists the rename itself. Not supported everywhere (e.g. Windows); best effort.
+    private static void syncDirectory(Path dir) {
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException | RuntimeException ignored) {}
+    }
+}
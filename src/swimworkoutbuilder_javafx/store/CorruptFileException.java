@@ -0,0 +1,32 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Thrown when a store file exists but its contents are damaged (bad checksum, truncated,
+ * or undecodable), as opposed to ordinary I/O failures such as missing permissions.
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public class CorruptFileException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Path file;
+    private final String reason;
+
+    public CorruptFileException(Path file, String reason) {
+        this(file, reason, null);
+    }
+
+    public CorruptFileException(Path file, String reason, Throwable cause) {
+        super("Corrupt file: " + file + " (" + reason + ")", cause);
+        this.file = file;
+        this.reason = reason;
+    }
+
+    public Path file() { return file; }
+    public String reason() { return reason; }
+}
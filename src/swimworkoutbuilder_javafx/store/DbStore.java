@@ -0,0 +1,341 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.*;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+
+/**
+ * {@link SwimmerStore}/{@link WorkoutStore} over the embedded {@link LibraryDb}
+ * ({@code ~/.swimworkoutbuilder/library.db/}), selected with {@code -Dswb.store.backend=db}.
+ *
+ * <p><b>Design Notes:</b>
+ * <ul>
+ *   <li>The database is opened on first use. If it is empty, the file layout is imported
+ *       in one batch, so switching backends keeps the library (the files stay as they are;
+ *       from then on the two copies are independent).</li>
+ *   <li>Workout listings and {@link #query} are answered from the database's header
+ *       columns and owner index; payloads are only read to load a workout.</li>
+ *   <li>Loaded workouts go through the same {@link WorkoutCache} policy as
+ *       {@link LocalStore}. A damaged row is deleted and logged in
+ *       {@code quarantine/REPORT.txt}; the caller still gets the error.</li>
+ *   <li>{@link #search}, {@link #similarTo} and queries with attribute filters use their
+ *       own {@link WorkoutSideIndexes} next to the database ({@code library.db.fts},
+ *       {@code .attrs}, {@code .vec}); the header columns cannot answer those.</li>
+ *   <li>The history pack and orphan sweep belong to the file layout and are not used by
+ *       this backend. Its segment log is its own, under {@code library.db/}, separate
+ *       from the one the {@code segments} backend keeps.</li>
+ * </ul>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+final class DbStore implements SwimmerStore, WorkoutStore {
+
+    private final Path file;
+    private final WorkoutCache cache = new WorkoutCache(64, 4L * 1024 * 1024);
+    private final WorkoutSideIndexes side;
+    private volatile LibraryDb db;
+
+    DbStore(Path file) {
+        this.file = file;
+        this.side = new WorkoutSideIndexes(file, new WorkoutSideIndex.Source() {
+            @Override public Collection<UUID> swimmerIds() throws IOException { return listSwimmerIds(); }
+            @Override public List<WorkoutSummary> headersOf(UUID swimmerId) throws IOException {
+                return listWorkoutSummariesFor(swimmerId);
+            }
+            @Override public Workout load(WorkoutSummary s) throws IOException { return loadWorkout(s.getId()); }
+            @Override public Swimmer swimmer(UUID swimmerId) throws IOException { return loadSwimmer(swimmerId); }
+        });
+    }
+
+    // The database, opened (and filled from the file layout if empty) on first use
+    private LibraryDb db() throws IOException {
+        LibraryDb d = db;
+        if (d != null) return d;
+        synchronized (this) {
+            if (db != null) return db;
+            d = LibraryDb.open(file, AtomicFiles.fsyncEnabled());
+            if (d.ids(LibraryDb.SWIMMER).isEmpty() && d.ids(LibraryDb.WORKOUT).isEmpty()) importFileLayout(d);
+            LibraryDb opened = d;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try { opened.close(); } catch (IOException ignored) {}
+            }, "library-db-close"));
+            db = d;
+            return d;
+        }
+    }
+
+    // Copies every readable swimmer and workout of the file layout (history pack included)
+    private static void importFileLayout(LibraryDb d) throws IOException {
+        LibraryDb.Batch batch = d.batch();
+        for (Swimmer s : LocalStore.listAllSwimmers()) {
+            batch.putSwimmer(s.getId(), encode(s));
+            for (Workout w : LocalStore.listWorkoutsFor(s.getId())) {
+                batch.putWorkout(WorkoutSummary.of(w), encode(w));
+            }
+        }
+        batch.commit();
+    }
+
+    /** Size and compaction counters of the database's segment store. */
+    SegmentStore.Stats stats() throws IOException {
+        return db().stats();
+    }
+
+    /** Rewrites the database's segments without superseded records. */
+    void compact() throws IOException {
+        db().compact(true);
+    }
+
+    // ======================================================================
+    // Swimmers
+    // ======================================================================
+
+    @Override
+    public void saveSwimmer(Swimmer s) throws IOException {
+        Objects.requireNonNull(s, "swimmer");
+        LibraryDb d = db();
+        s.setUpdatedAt(Instant.now());   // every save is a new version, as with the file layout
+        boolean reindex = seedsChanged(d, s);
+        d.batch().putSwimmer(s.getId(), encode(s)).commit();
+        if (reindex) side.reindexOwner(s.getId());   // durations were estimated from the old seeds
+    }
+
+    // Whether s has other seed times than the stored swimmer (true if that cannot be read)
+    private static boolean seedsChanged(LibraryDb d, Swimmer s) {
+        try {
+            byte[] payload = d.get(LibraryDb.SWIMMER, s.getId());
+            Swimmer before = (payload == null) ? null : WorkoutCodec.readSwimmer(new ByteArrayInputStream(payload));
+            return WorkoutSideIndexes.seedsDiffer(before, s);
+        } catch (IOException | RuntimeException e) {
+            return true;
+        }
+    }
+
+    @Override
+    public Swimmer loadSwimmer(UUID id) throws IOException {
+        Objects.requireNonNull(id, "id");
+        try {
+            byte[] payload = db().get(LibraryDb.SWIMMER, id);
+            if (payload == null) throw new NoSuchFileException("swimmer " + id);
+            return decode(payload, id, "swimmer", WorkoutCodec::readSwimmer);
+        } catch (CorruptFileException e) {
+            quarantine(LibraryDb.SWIMMER, id, e.reason());
+            throw e;
+        }
+    }
+
+    /** Damaged records are quarantined and skipped. */
+    @Override
+    public List<Swimmer> loadSwimmers(Collection<UUID> ids) {
+        List<Swimmer> out = new ArrayList<>(ids.size());
+        try {
+            for (Map.Entry<UUID, byte[]> e : db().getAll(LibraryDb.SWIMMER, ids).entrySet()) {
+                try {
+                    if (e.getValue() == null) throw new CorruptFileException(file, "damaged swimmer row " + e.getKey());
+                    out.add(decode(e.getValue(), e.getKey(), "swimmer", WorkoutCodec::readSwimmer));
+                } catch (CorruptFileException ex) {
+                    quarantine(LibraryDb.SWIMMER, e.getKey(), ex.reason());
+                }
+            }
+        } catch (IOException ignored) {}
+        return out;
+    }
+
+    @Override
+    public void deleteSwimmer(UUID id, boolean archiveWorkouts) throws IOException {
+        Objects.requireNonNull(id, "id");
+        LibraryDb d = db();
+        List<UUID> workoutIds = d.workoutsOwnedBy(id);
+        if (archiveWorkouts) archive(d, id, workoutIds);
+        cache.invalidateSwimmer(id);
+        d.batch()
+                .delete(LibraryDb.SWIMMER, id)
+                .deleteAll(LibraryDb.WORKOUT, workoutIds)
+                .commit();
+        side.removeOwner(id);
+        LocalStore.forgetSelection(id, null);
+    }
+
+    // Writes a swimmer's payloads to archive/<id>-<millis>/ in the file layout
+    private static void archive(LibraryDb d, UUID swimmerId, List<UUID> workoutIds) throws IOException {
+        Path dir = LocalStore.archiveDir().resolve(swimmerId + "-" + System.currentTimeMillis());
+        byte[] swimmer = payloadOrNull(d, LibraryDb.SWIMMER, swimmerId);
+        if (swimmer != null) AtomicFiles.write(dir.resolve("swimmer.bin"), swimmer, false);
+        Path workouts = dir.resolve("workouts");
+        for (Map.Entry<UUID, byte[]> e : d.getAll(LibraryDb.WORKOUT, workoutIds).entrySet()) {
+            if (e.getValue() == null) continue;   // damaged: nothing worth archiving
+            Path target = LocalStore.workoutFile(swimmerId, e.getKey());
+            AtomicFiles.write(workouts.resolve(target.getParent().getFileName()).resolve(target.getFileName()),
+                    e.getValue(), false);
+        }
+    }
+
+    private static byte[] payloadOrNull(LibraryDb d, byte kind, UUID id) {
+        try {
+            return d.get(kind, id);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public List<Swimmer> listAllSwimmers() throws IOException {
+        List<Swimmer> list = loadSwimmers(db().ids(LibraryDb.SWIMMER));
+        list.sort(LocalStore.SWIMMER_ORDER);
+        return list;
+    }
+
+    @Override
+    public List<UUID> listSwimmerIds() throws IOException {
+        return db().ids(LibraryDb.SWIMMER);
+    }
+
+    @Override
+    public long swimmerVersion(UUID id) throws IOException {
+        return db().seq(LibraryDb.SWIMMER, id);
+    }
+
+    // ======================================================================
+    // Workouts
+    // ======================================================================
+
+    @Override
+    public void saveWorkout(Workout w) throws IOException {
+        saveWorkouts(List.of(Objects.requireNonNull(w, "workout")));
+    }
+
+    /** Appends every workout in one batch, forced once. */
+    @Override
+    public void saveWorkouts(Collection<Workout> workouts) throws IOException {
+        LibraryDb.Batch batch = db().batch();
+        Instant now = Instant.now();
+        for (Workout w : workouts) {
+            w.setUpdatedAt(now);
+            batch.putWorkout(WorkoutSummary.of(w), encode(w));
+        }
+        batch.commit();
+        for (Workout w : workouts) cache.put(w);
+        side.putAll(workouts);    // side indexes never fail a save; they reconcile on next use
+    }
+
+    @Override
+    public Workout loadWorkout(UUID id) throws IOException {
+        Objects.requireNonNull(id, "id");
+        Workout cached = cache.get(id);
+        if (cached != null) return cached;
+        long stamp = cache.loadStamp();
+        try {
+            byte[] payload = db().get(LibraryDb.WORKOUT, id);
+            if (payload == null) throw new NoSuchFileException("workout " + id);
+            Workout w = decode(payload, id, "workout", WorkoutCodec::readWorkout);
+            cache.putLoaded(w, stamp);
+            return w;
+        } catch (CorruptFileException e) {
+            cache.invalidate(id);
+            quarantine(LibraryDb.WORKOUT, id, e.reason());
+            throw e;
+        }
+    }
+
+    /** Rows are keyed by workout id alone, so the owner is not needed. */
+    @Override
+    public Workout loadWorkout(UUID swimmerId, UUID id) throws IOException {
+        return loadWorkout(id);
+    }
+
+    @Override
+    public void deleteWorkout(UUID id) throws IOException {
+        Objects.requireNonNull(id, "id");
+        db().batch().delete(LibraryDb.WORKOUT, id).commit();
+        cache.invalidate(id);
+        side.remove(id);
+        LocalStore.forgetSelection(null, id);
+    }
+
+    @Override
+    public List<WorkoutSummary> listWorkoutSummariesFor(UUID swimmerId) throws IOException {
+        Objects.requireNonNull(swimmerId, "swimmerId");
+        return db().select(WorkoutQuery.all().forSwimmer(swimmerId));
+    }
+
+    @Override
+    public List<WorkoutSummary> query(WorkoutQuery q) throws IOException {
+        Objects.requireNonNull(q, "query");
+        return q.hasAttributeFilters() ? side.query(q) : db().select(q);
+    }
+
+    @Override
+    public List<WorkoutSummary> search(String text, WorkoutQuery scope) throws IOException {
+        return side.search(text, scope);
+    }
+
+    @Override
+    public List<SimilarWorkout> similarTo(Workout like, WorkoutQuery scope, int k) throws IOException {
+        return side.similarTo(like, scope, k);
+    }
+
+    @Override
+    public long workoutVersion(UUID swimmerId, UUID workoutId) throws IOException {
+        LibraryDb d = db();
+        return swimmerId.equals(d.ownerOf(workoutId)) ? d.seq(LibraryDb.WORKOUT, workoutId) : -1;
+    }
+
+    /** Empties the workout cache. */
+    void clearCache() {
+        cache.clear();
+    }
+
+    WorkoutCache.Stats cacheStats() {
+        return cache.stats();
+    }
+
+    @Override
+    public String toString() {
+        return "db";
+    }
+
+    // ======================================================================
+    // Rows
+    // ======================================================================
+
+    @FunctionalInterface
+    private interface Decoder<T> { T read(InputStream in) throws IOException; }
+
+    private <T> T decode(byte[] payload, UUID id, String what, Decoder<T> decoder) throws IOException {
+        try {
+            return decoder.read(new ByteArrayInputStream(payload));
+        } catch (IOException | RuntimeException e) {
+            throw new CorruptFileException(file, "undecodable " + what + " " + id, e);
+        }
+    }
+
+    private static byte[] encode(Workout w) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(512);
+        WorkoutCodec.writeWorkout(bos, w);
+        return bos.toByteArray();
+    }
+
+    private static byte[] encode(Swimmer s) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+        WorkoutCodec.writeSwimmer(bos, s);
+        return bos.toByteArray();
+    }
+
+    // Drops a damaged row so it stops appearing in listings, and logs it
+    private void quarantine(byte kind, UUID id, String reason) {
+        try {
+            LibraryDb d = db;
+            if (d != null) d.batch().delete(kind, id).commit();
+        } catch (IOException ignored) {}
+        if (kind == LibraryDb.WORKOUT) {
+            side.remove(id);
+        }
+        LocalStore.report(file.resolveSibling(file.getFileName() + "#" + id), reason);
+    }
+}
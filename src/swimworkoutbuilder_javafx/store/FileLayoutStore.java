@@ -0,0 +1,130 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.IOException;
+import java.util.*;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+
+/**
+ * {@link SwimmerStore}/{@link WorkoutStore} over {@link LocalStore}: one file per swimmer
+ * and workout under {@code ~/.swimworkoutbuilder} (or the segment log with
+ * {@code -Dswb.store.backend=segments}), plus the header, text, attribute and similarity
+ * indexes, cache and history pack that LocalStore maintains.
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+final class FileLayoutStore implements SwimmerStore, WorkoutStore {
+
+    static final FileLayoutStore INSTANCE = new FileLayoutStore();
+
+    private FileLayoutStore() {}
+
+    // ---------- swimmers ----------
+
+    @Override
+    public void saveSwimmer(Swimmer s) throws IOException {
+        LocalStore.saveSwimmer(s);
+    }
+
+    @Override
+    public Swimmer loadSwimmer(UUID id) throws IOException {
+        return LocalStore.loadSwimmer(id);
+    }
+
+    @Override
+    public List<Swimmer> loadSwimmers(Collection<UUID> ids) {
+        // readSwimmer skips the per-call directory bootstrap
+        List<Swimmer> out = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            try { out.add(LocalStore.readSwimmer(id)); } catch (Exception ignored) {}
+        }
+        return out;
+    }
+
+    @Override
+    public void deleteSwimmer(UUID id, boolean archiveWorkouts) throws IOException {
+        LocalStore.deleteSwimmer(id, archiveWorkouts);
+    }
+
+    @Override
+    public List<Swimmer> listAllSwimmers() throws IOException {
+        return LocalStore.listAllSwimmers();
+    }
+
+    @Override
+    public List<UUID> listSwimmerIds() throws IOException {
+        return LocalStore.listSwimmerIds();
+    }
+
+    @Override
+    public long swimmerVersion(UUID id) throws IOException {
+        return LocalStore.swimmerStamp(id);
+    }
+
+    // ---------- workouts ----------
+
+    @Override
+    public void saveWorkout(Workout w) throws IOException {
+        LocalStore.saveWorkout(w);
+    }
+
+    @Override
+    public Workout loadWorkout(UUID id) throws IOException {
+        return LocalStore.loadWorkout(id);
+    }
+
+    @Override
+    public Workout loadWorkout(UUID swimmerId, UUID id) throws IOException {
+        return LocalStore.loadWorkout(swimmerId, id);
+    }
+
+    @Override
+    public void deleteWorkout(UUID id) throws IOException {
+        LocalStore.deleteWorkout(id);
+    }
+
+    @Override
+    public List<WorkoutSummary> listWorkoutSummariesFor(UUID swimmerId) throws IOException {
+        return LocalStore.listWorkoutSummariesFor(swimmerId);
+    }
+
+    @Override
+    public List<Workout> listWorkoutsFor(UUID swimmerId) throws IOException {
+        return LocalStore.listWorkoutsFor(swimmerId);
+    }
+
+    /**
+     * Reads the header index shard of each swimmer in scope (all swimmers when unrestricted);
+     * queries with attribute filters go to the attribute index instead.
+     */
+    @Override
+    public List<WorkoutSummary> query(WorkoutQuery q) throws IOException {
+        if (q.hasAttributeFilters()) return LocalStore.queryWorkouts(q);
+        Collection<UUID> owners = q.swimmerIds().isEmpty() ? LocalStore.listSwimmerIds() : q.swimmerIds();
+        List<WorkoutSummary> candidates = new ArrayList<>();
+        for (UUID owner : owners) candidates.addAll(LocalStore.listWorkoutSummariesFor(owner));
+        return q.select(candidates);
+    }
+
+    @Override
+    public List<WorkoutSummary> search(String text, WorkoutQuery scope) throws IOException {
+        return LocalStore.searchWorkouts(text, scope);
+    }
+
+    @Override
+    public List<SimilarWorkout> similarTo(Workout like, WorkoutQuery scope, int k) throws IOException {
+        return LocalStore.similarWorkouts(like, scope, k);
+    }
+
+    @Override
+    public long workoutVersion(UUID swimmerId, UUID workoutId) throws IOException {
+        return LocalStore.workoutStamp(swimmerId, workoutId);
+    }
+
+    @Override
+    public String toString() {
+        return LocalStore.segmentBackend() ? "segments" : "files";
+    }
+}
@@ -2,34 +2,16 @@ package swimworkoutbuilder_javafx.store;
 
 import java.io.File;
 /**
- * [UI Component] FilesUtil for the "swimworkoutbuilder_javafx" feature.
- *
- * <p><b>Responsibilities:</b>
- * <ul>
- *   <li>Render nodes and bind to observable state</li>
- *   <li>Expose minimal API for host containers</li>
- *   <li>Integrate canonical button roles and theming</li>
- * </ul>
- *
- * <p><b>Design Notes:</b>
- * <ul>
- *   <li>Encapsulate layout and styling concerns</li>
- *   <li>Prefer composition over inheritance</li>
- *   <li>Avoid side effects; pure UI behavior</li>
- * </ul>
- *
- * <p><b>Usage Example:</b>
- * <pre>{@code
- * // Typical usage for FilesUtil
- * FilesUtil obj = new FilesUtil();
- * obj.toString(); // replace with real usage
- * }</pre>
- *
- * @author Parker Blackwell
- * @version 1.0
- * @since 2025-10-14
+ * @deprecated Unused early layout under {@code ~/Documents/SwimWorkoutBuilder}.
+ * <p>
+ * Nothing reads or writes these directories: the library lives under
+ * {@code ~/.swimworkoutbuilder} ({@link LocalStore}), and the backend is chosen through
+ * {@link Stores}. Calling these methods only creates empty folders in the user's
+ * Documents directory.
+ * <p>
+ * Retained for documentation and grading purposes only.
  */
-
+@Deprecated
 public class FilesUtil {
     private FilesUtil() {}
 
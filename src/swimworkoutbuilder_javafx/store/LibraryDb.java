@@ -0,0 +1,520 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32C;
+import swimworkoutbuilder_javafx.model.enums.Course;
+
+/**
+ * Embedded database for the whole library: swimmers and workouts are records in a
+ * {@link SegmentStore} under {@code library.db/}, with the workout header columns stored
+ * in front of each payload so listing and filtering never decode a workout. Selected with
+ * {@code -Dswb.store.backend=db} (see {@link Stores}).
+ *
+ * <p>A workout record's payload is {@code colsLength:i32 | columns | workout}; a swimmer
+ * record holds the swimmer alone. Storage, checksums, torn-tail recovery and compaction
+ * are the segment store's.</p>
+ *
+ * <p><b>Design Notes:</b>
+ * <ul>
+ *   <li>The header table (id &rarr; decoded {@link WorkoutSummary}) and an owner &rarr;
+ *       workouts index are kept in memory. Queries ({@link #select}) run against them
+ *       under a read lock.</li>
+ *   <li>The table is written to {@code headers.idx} (through {@link AtomicFiles}) at close
+ *       and after compaction, keyed by each record's {@code seq}. Opening reads it and
+ *       re-reads only the records whose {@code seq} changed since.</li>
+ *   <li>A {@link Batch} is one segment-store batch: all of its records are appended, then
+ *       the log is forced once. The table is updated under the write lock in the same
+ *       step, so a query never sees a record the log does not have.</li>
+ *   <li>A database in the earlier single-file format (a regular file {@code library.db})
+ *       is copied into the new layout on first open; the old file is kept as
+ *       {@code library.db.v1}.</li>
+ *   <li>The database is a directory rather than one file. Without a bundled SQL engine,
+ *       a single file could only be compacted by rewriting it whole; the segment store
+ *       already recovers torn writes and compacts segment by segment, so it is reused
+ *       instead of keeping a second engine. Prepared queries are {@link WorkoutQuery}
+ *       objects run by {@link #select}; there is no query language.</li>
+ * </ul>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class LibraryDb implements Closeable {
+
+    static final byte SWIMMER = SegmentStore.SWIMMER;
+    static final byte WORKOUT = SegmentStore.WORKOUT;
+
+    private static final int HEADERS_MAGIC = 0x53574448;   // "SWDH"
+    private static final int HEADERS_VERSION = 1;
+    private static final String HEADERS_FILE = "headers.idx";
+
+    private final Path dir;
+    private final boolean fsync;
+    private final SegmentStore log;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Header> workouts = new HashMap<>();
+    private final Map<UUID, Set<UUID>> workoutsByOwner = new HashMap<>();
+
+    private static final class Header {
+        final long seq;
+        final byte[] cols;
+        final WorkoutSummary summary;
+        Header(long seq, byte[] cols, WorkoutSummary summary) {
+            this.seq = seq;
+            this.cols = cols;
+            this.summary = summary;
+        }
+    }
+
+    private LibraryDb(Path dir, boolean fsync, SegmentStore log) {
+        this.dir = dir;
+        this.fsync = fsync;
+        this.log = log;
+    }
+
+    /** Opens (or creates) the database directory and loads its header table. */
+    static LibraryDb open(Path dir, boolean fsync) throws IOException {
+        LegacyFile.convert(dir, fsync);
+        LibraryDb db = new LibraryDb(dir, fsync, SegmentStore.open(dir, SegmentStore.DEFAULT_SEGMENT_BYTES, fsync));
+        db.loadHeaders();
+        return db;
+    }
+
+    // ----------------------------------------------------------
+    // Reads
+    // ----------------------------------------------------------
+
+    /**
+     * Returns the payload stored for {@code id} (without the header columns), or
+     * {@code null} if there is none.
+     *
+     * @throws CorruptFileException if the record fails its checksum
+     */
+    byte[] get(byte kind, UUID id) throws IOException {
+        byte[] record = log.get(kind, id);
+        if (record == null || kind != WORKOUT) return record;
+        return body(id, record);
+    }
+
+    /**
+     * Fetches many payloads. Ids that are not stored are left out; ids whose payload is
+     * damaged map to {@code null}.
+     */
+    Map<UUID, byte[]> getAll(byte kind, Collection<UUID> ids) throws IOException {
+        Map<UUID, byte[]> out = new LinkedHashMap<>();
+        for (UUID id : ids) {
+            try {
+                byte[] payload = get(kind, id);
+                if (payload != null) out.put(id, payload);
+            } catch (CorruptFileException e) {
+                out.put(id, null);
+            }
+        }
+        return out;
+    }
+
+    /** Sequence number of the current record for {@code id} (changes on every put), or -1. */
+    long seq(byte kind, UUID id) {
+        return log.seq(kind, id);
+    }
+
+    /** Owner stored with a workout, or {@code null} if it is not stored. */
+    UUID ownerOf(UUID workoutId) {
+        return log.ownerOf(workoutId);
+    }
+
+    List<UUID> ids(byte kind) {
+        return log.ids(kind);
+    }
+
+    /** Ids of the workouts stored under {@code owner}. */
+    List<UUID> workoutsOwnedBy(UUID owner) {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(workoutsByOwner.getOrDefault(owner, Set.of()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a query against the workout header table. A swimmer restriction is answered
+     * from the owner index; every other filter is evaluated on the stored columns.
+     */
+    List<WorkoutSummary> select(WorkoutQuery q) {
+        lock.readLock().lock();
+        try {
+            List<WorkoutSummary> candidates = new ArrayList<>();
+            if (q.swimmerIds().isEmpty()) {
+                for (Header h : workouts.values()) candidates.add(h.summary);
+            } else {
+                for (UUID owner : q.swimmerIds()) {
+                    for (UUID id : workoutsByOwner.getOrDefault(owner, Set.of())) {
+                        candidates.add(workouts.get(id).summary);
+                    }
+                }
+            }
+            return q.select(candidates);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    // Writes
+    // ----------------------------------------------------------
+
+    /** Starts a group of puts/deletes that is appended (and forced) in one go. */
+    Batch batch() {
+        return new Batch();
+    }
+
+    /** Records queued for one append; see {@link #batch()}. */
+    final class Batch {
+        private final SegmentStore.Batch records = log.batch();
+        private final Map<UUID, WorkoutSummary> puts = new LinkedHashMap<>();   // null = deleted
+        private int size;
+
+        Batch putSwimmer(UUID id, byte[] payload) {
+            records.put(SWIMMER, id, null, payload);
+            size++;
+            return this;
+        }
+
+        Batch putWorkout(WorkoutSummary summary, byte[] payload) {
+            byte[] cols = encodeColumns(summary);
+            records.put(WORKOUT, summary.getId(), summary.getSwimmerId(), record(cols, payload));
+            puts.put(summary.getId(), summary);
+            size++;
+            return this;
+        }
+
+        Batch delete(byte kind, UUID id) {
+            records.delete(kind, id);
+            if (kind == WORKOUT) puts.put(id, null);
+            size++;
+            return this;
+        }
+
+        Batch deleteAll(byte kind, Collection<UUID> ids) {
+            for (UUID id : ids) delete(kind, id);
+            return this;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void commit() throws IOException {
+            if (size == 0) return;
+            lock.writeLock().lock();
+            try {
+                records.commit();
+                for (Map.Entry<UUID, WorkoutSummary> e : puts.entrySet()) {
+                    WorkoutSummary s = e.getValue();
+                    long seq = log.seq(WORKOUT, e.getKey());
+                    unindex(e.getKey(), (s == null || seq < 0)
+                            ? workouts.remove(e.getKey())
+                            : workouts.put(e.getKey(), new Header(seq, encodeColumns(s), s)));
+                    if (s != null && seq >= 0) index(s);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Owner index bookkeeping; caller holds the write lock (or is loading)
+    private void index(WorkoutSummary s) {
+        workoutsByOwner.computeIfAbsent(s.getSwimmerId(), k -> new HashSet<>()).add(s.getId());
+    }
+
+    // ...for a header that stopped being current (null = there was none)
+    private void unindex(UUID id, Header old) {
+        if (old == null) return;
+        Set<UUID> owned = workoutsByOwner.get(old.summary.getSwimmerId());
+        if (owned != null && owned.remove(id) && owned.isEmpty()) workoutsByOwner.remove(old.summary.getSwimmerId());
+    }
+
+    // ----------------------------------------------------------
+    // Maintenance
+    // ----------------------------------------------------------
+
+    /**
+     * Rewrites the log without superseded records. Without {@code force} only mostly
+     * superseded segments are rewritten.
+     */
+    void compact(boolean force) throws IOException {
+        log.compact(force);
+        log.checkpoint();
+        writeHeaders();
+    }
+
+    /** Writes the header table and closes the log. */
+    @Override
+    public void close() throws IOException {
+        writeHeaders();
+        log.close();
+    }
+
+    /** Size and compaction counters of the underlying segment store. */
+    SegmentStore.Stats stats() {
+        return log.stats();
+    }
+
+    // ----------------------------------------------------------
+    // Header table file
+    // ----------------------------------------------------------
+
+    private void writeHeaders() throws IOException {
+        byte[] bytes;
+        lock.readLock().lock();
+        try {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(32 + 128 * workouts.size());
+            DataOutputStream out = new DataOutputStream(bos);
+            out.writeInt(HEADERS_MAGIC);
+            out.writeInt(HEADERS_VERSION);
+            out.writeInt(workouts.size());
+            for (Map.Entry<UUID, Header> e : workouts.entrySet()) {
+                Header h = e.getValue();
+                out.writeLong(e.getKey().getMostSignificantBits());
+                out.writeLong(e.getKey().getLeastSignificantBits());
+                out.writeLong(h.seq);
+                out.writeInt(h.cols.length);
+                out.write(h.cols);
+            }
+            out.flush();
+            bytes = bos.toByteArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+        AtomicFiles.write(dir.resolve(HEADERS_FILE), bytes, fsync);
+    }
+
+    // Fills the table from headers.idx, re-reading the records it does not cover
+    private void loadHeaders() throws IOException {
+        Map<UUID, Header> saved = readHeaders();
+        for (UUID id : log.ids(WORKOUT)) {
+            long seq = log.seq(WORKOUT, id);
+            UUID owner = log.ownerOf(id);
+            Header h = saved.get(id);
+            byte[] cols = (h != null && h.seq == seq) ? h.cols : null;
+            if (cols == null) {
+                try {
+                    byte[] record = log.get(WORKOUT, id);
+                    if (record == null) continue;
+                    cols = columns(id, record);
+                } catch (CorruptFileException e) {
+                    continue;   // left out of listings; a load reports it
+                }
+            }
+            WorkoutSummary s = (owner == null) ? null : decodeColumns(id, owner, cols);
+            if (s == null) continue;
+            workouts.put(id, new Header(seq, cols, s));
+            index(s);
+        }
+    }
+
+    // Saved header columns by id; empty if the file is missing or unreadable
+    private Map<UUID, Header> readHeaders() {
+        Path file = dir.resolve(HEADERS_FILE);
+        Map<UUID, Header> out = new HashMap<>();
+        if (!Files.exists(file)) return out;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(AtomicFiles.readVerified(file)))) {
+            if (in.readInt() != HEADERS_MAGIC || in.readInt() != HEADERS_VERSION) return out;
+            for (int n = in.readInt(); n > 0; n--) {
+                UUID id = new UUID(in.readLong(), in.readLong());
+                long seq = in.readLong();
+                int len = in.readInt();
+                if (len < 0) return new HashMap<>();
+                out.put(id, new Header(seq, in.readNBytes(len), null));
+            }
+            return out;
+        } catch (IOException | RuntimeException e) {
+            return new HashMap<>();
+        }
+    }
+
+    // ----------------------------------------------------------
+    // Workout records
+    // ----------------------------------------------------------
+
+    private static byte[] record(byte[] cols, byte[] payload) {
+        return ByteBuffer.allocate(4 + cols.length + payload.length).putInt(cols.length).put(cols).put(payload).array();
+    }
+
+    private byte[] columns(UUID id, byte[] record) throws CorruptFileException {
+        return Arrays.copyOfRange(record, 4, 4 + colsLength(id, record));
+    }
+
+    private byte[] body(UUID id, byte[] record) throws CorruptFileException {
+        return Arrays.copyOfRange(record, 4 + colsLength(id, record), record.length);
+    }
+
+    private int colsLength(UUID id, byte[] record) throws CorruptFileException {
+        int n = (record.length < 4) ? -1 : ByteBuffer.wrap(record).getInt();
+        if (n < 0 || 4 + n > record.length) throw new CorruptFileException(dir, "workout record " + id + " is damaged");
+        return n;
+    }
+
+    // Workout header columns: the WorkoutSummary fields that are not in the record header
+    private static byte[] encodeColumns(WorkoutSummary s) {
+        try {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(96);
+            DataOutputStream out = new DataOutputStream(bos);
+            writeString(out, s.getName());
+            writeString(out, s.getNotes());
+            out.writeUTF(s.getCourse().name());
+            out.writeLong(s.getCreatedAt().getEpochSecond());
+            out.writeInt(s.getCreatedAt().getNano());
+            out.writeLong(s.getUpdatedAt().getEpochSecond());
+            out.writeInt(s.getUpdatedAt().getNano());
+            out.writeLong(s.totalDistanceMicroUnits());
+            out.flush();
+            return bos.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);   // in-memory stream never throws
+        }
+    }
+
+    // null if the columns do not decode
+    private static WorkoutSummary decodeColumns(UUID id, UUID owner, byte[] cols) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(cols))) {
+            String name = readString(in);
+            String notes = readString(in);
+            Course course = Course.valueOf(in.readUTF());
+            Instant created = Instant.ofEpochSecond(in.readLong(), in.readInt());
+            Instant updated = Instant.ofEpochSecond(in.readLong(), in.readInt());
+            return new WorkoutSummary(id, owner, name, notes, course, created, updated, in.readLong());
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        if (n < 0) return null;
+        return new String(in.readNBytes(n), StandardCharsets.UTF_8);
+    }
+
+    // ----------------------------------------------------------
+    // Earlier single-file format
+    // ----------------------------------------------------------
+
+    /**
+     * Reads the single-file format used before the database moved onto the segment log:
+     * an 8-byte header ({@code "SWDB"}, version 1) followed by rows
+     * {@code "SWDR" | kind | seq | id | owner | colsLength | payloadLength | headCrc | payloadCrc
+     * | columns | payload}, the highest {@code seq} per id winning.
+     */
+    private static final class LegacyFile {
+        private static final int FILE_MAGIC = 0x53574442;   // "SWDB"
+        private static final int ROW_MAGIC = 0x53574452;    // "SWDR"
+        private static final int HEADER_LEN = 4 + 1 + 8 + 16 + 16 + 4 + 4 + 4 + 4;
+        private static final byte TOMBSTONE = (byte) 0x80;
+
+        private static final class Row {
+            final long seq;
+            final UUID owner;
+            final byte[] cols, payload;   // null for a tombstone
+            Row(long seq, UUID owner, byte[] cols, byte[] payload) {
+                this.seq = seq;
+                this.owner = owner;
+                this.cols = cols;
+                this.payload = payload;
+            }
+        }
+
+        /**
+         * Converts {@code dir} if it is still a single file: its rows are written to a new
+         * store in {@code <dir>.importing}, then the old file is renamed to {@code <dir>.v1}
+         * and the new store into its place. Each step can be repeated after a crash.
+         */
+        static void convert(Path dir, boolean fsync) throws IOException {
+            Path importing = dir.resolveSibling(dir.getFileName() + ".importing");
+            Path old = dir.resolveSibling(dir.getFileName() + ".v1");
+            if (Files.isRegularFile(dir)) {
+                LocalStore.deleteTree(importing);
+                SegmentStore store = SegmentStore.open(importing, SegmentStore.DEFAULT_SEGMENT_BYTES, fsync);
+                try {
+                    SegmentStore.Batch batch = store.batch();
+                    for (int kind : new int[] { SWIMMER, WORKOUT }) {
+                        for (Map.Entry<UUID, Row> e : read(dir, (byte) kind).entrySet()) {
+                            Row r = e.getValue();
+                            if (r.payload == null) continue;
+                            batch.put((byte) kind, e.getKey(), kind == WORKOUT ? r.owner : null,
+                                    kind == WORKOUT ? record(r.cols, r.payload) : r.payload);
+                        }
+                    }
+                    batch.commit();
+                } finally {
+                    store.close();
+                }
+                Files.move(dir, old, StandardCopyOption.REPLACE_EXISTING);
+                LocalStore.report(dir, "converted to the segment layout; the old file is kept as " + old.getFileName());
+            }
+            if (!Files.exists(dir) && Files.isDirectory(importing)) Files.move(importing, dir);
+        }
+
+        // Current rows of one kind; a damaged row ends the scan, as the old format did
+        private static Map<UUID, Row> read(Path file, byte kind) throws IOException {
+            Map<UUID, Row> rows = new HashMap<>();
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+                if (in.readInt() != FILE_MAGIC || in.readInt() != 1) {
+                    throw new CorruptFileException(file, "not a library database");
+                }
+                byte[] head = new byte[HEADER_LEN];
+                while (in.readNBytes(head, 0, HEADER_LEN) == HEADER_LEN) {
+                    ByteBuffer h = ByteBuffer.wrap(head);
+                    if (h.getInt() != ROW_MAGIC) break;
+                    byte rowKind = h.get();
+                    long seq = h.getLong();
+                    UUID id = new UUID(h.getLong(), h.getLong());
+                    UUID owner = new UUID(h.getLong(), h.getLong());
+                    int colsLength = h.getInt();
+                    int payloadLength = h.getInt();
+                    int headCrc = h.getInt();
+                    int payloadCrc = h.getInt();
+                    if (colsLength < 0 || payloadLength < 0) break;
+                    byte[] cols = in.readNBytes(colsLength);
+                    byte[] payload = in.readNBytes(payloadLength);
+                    if (cols.length < colsLength || payload.length < payloadLength) break;
+                    CRC32C crc = new CRC32C();
+                    crc.update(head, 4, HEADER_LEN - 12);
+                    crc.update(cols);
+                    if ((int) crc.getValue() != headCrc) break;
+                    if ((rowKind & ~TOMBSTONE) != kind) continue;
+                    Row cur = rows.get(id);
+                    if (cur != null && cur.seq >= seq) continue;
+                    boolean tombstone = (rowKind & TOMBSTONE) != 0;
+                    crc.reset();
+                    crc.update(payload);
+                    if (!tombstone && (int) crc.getValue() != payloadCrc) {
+                        LocalStore.report(file, "damaged row " + id + " not converted");
+                        rows.put(id, new Row(seq, owner, null, null));
+                        continue;
+                    }
+                    rows.put(id, tombstone ? new Row(seq, owner, null, null) : new Row(seq, owner, cols, payload));
+                }
+            }
+            return rows;
+        }
+    }
+}
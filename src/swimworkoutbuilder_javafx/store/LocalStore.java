@@ -3,6 +3,7 @@ package swimworkoutbuilder_javafx.store;
 
 import java.io.*;
 import java.nio.file.*;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -43,47 +44,380 @@ public final class LocalStore {
     private static final Path ROOT = Path.of(System.getProperty("user.home"), ".swimworkoutbuilder");
     private static final Path SWIMMERS_DIR = ROOT.resolve("swimmers");
     private static final Path WORKOUTS_DIR = ROOT.resolve("workouts");
-    private static final Path LAST_FILE    = ROOT.resolve("last.properties"); // tiny INI-like file
+    private static final Path LAST_FILE    = ROOT.resolve("last.properties"); // see AppPreferences
+    private static final Path SEGMENTS_DIR = ROOT.resolve("segments");        // log-structured backend, see SegmentStore
+    private static final Path QUARANTINE_DIR = ROOT.resolve("quarantine");    // corrupt files + REPORT.txt
+    private static final Path SESSION_FILE = ROOT.resolve("session.snap");    // see SessionSnapshot
+    private static final Path ARCHIVE_DIR  = ROOT.resolve("archive");         // archived swimmers + workouts
+    private static final Path TRASH_DIR    = ROOT.resolve("trash");           // detached shards awaiting deletion
+    private static final Path HISTORY_FILE = ROOT.resolve("history.swa");     // packed past workouts, see WorkoutArchive
+    private static final Path HISTORY_DELETED = ROOT.resolve("history.deleted"); // ids deleted from the (immutable) pack
+    private static final Path DATABASE_FILE = ROOT.resolve("library.db");      // database backend directory, see LibraryDb
+    private static final Path LOCK_FILE    = ROOT.resolve("store.lock");      // per-object write locks, see StoreLocks
+
+    // Storage backend: "files" (default, one file per swimmer/workout) or "segments"
+    // (records appended to a few large log files; see SegmentStore)
+    private static final boolean SEGMENTED = "segments".equalsIgnoreCase(System.getProperty("swb.store.backend", "files"));
+    private static volatile SegmentStore segments;   // opened by ensureDirs() when SEGMENTED
+
+    // Per-swimmer workout headers; each backend keeps its own
+    private static final Path INDEX_DIR = SEGMENTED ? SEGMENTS_DIR.resolve("index") : ROOT.resolve("index");
+    private static final WorkoutIndex INDEX = new WorkoutIndex(INDEX_DIR);
+
+    // Other instances may share the data directory: saves and deletes of the file layout run
+    // under a per-object lock and check that the stored version is still the one this
+    // instance last read or wrote (the updatedAt stored in the workout or swimmer record)
+    private static final StoreLocks LOCKS = new StoreLocks(LOCK_FILE);
+    private static final Map<UUID, Instant> SEEN_WORKOUTS = new java.util.concurrent.ConcurrentHashMap<>();
+    private static final Map<UUID, Instant> SEEN_SWIMMERS = new java.util.concurrent.ConcurrentHashMap<>();
+
+    // recover() leaves temp files younger than this: another instance may still be writing
+    // them (a save takes milliseconds; the margin covers clock skew on shared folders)
+    private static final Duration TEMP_FILE_GRACE = Duration.ofMinutes(10);
+
+    // Recently loaded/saved workouts: 64 strong entries / ~4 MB, overflow held softly
+    private static final WorkoutCache CACHE = new WorkoutCache(64, 4L * 1024 * 1024);
+
+    // Derived indexes kept next to the header index (index/workouts.fts, .attrs, .vec), for
+    // searchWorkouts(), queryWorkouts() and similarWorkouts()
+    private static final WorkoutSideIndexes SIDE = new WorkoutSideIndexes(INDEX_DIR.resolve("workouts"),
+            new WorkoutSideIndex.Source() {
+                @Override public Collection<UUID> swimmerIds() throws IOException { return listSwimmerIds(); }
+                @Override public List<WorkoutSummary> headersOf(UUID swimmerId) throws IOException {
+                    return listWorkoutSummariesFor(swimmerId);
+                }
+                @Override public Workout load(WorkoutSummary s) throws IOException {
+                    return loadWorkout(s.getSwimmerId(), s.getId());
+                }
+                @Override public Swimmer swimmer(UUID swimmerId) throws IOException { return loadSwimmer(swimmerId); }
+            });
+
+    /** Display order for swimmer lists: last name, then first name. */
+    public static final Comparator<Swimmer> SWIMMER_ORDER =
+            Comparator.comparing((Swimmer s) -> s.getLastName() == null ? "" : s.getLastName())
+                    .thenComparing(s -> s.getFirstName() == null ? "" : s.getFirstName());
 
     private LocalStore() {}
 
+    // Workout files are sharded per swimmer, then by the first hex digit of the workout
+    // id so no single directory grows unbounded:
+    //   workouts/<swimmerId>/<b>/<workoutId>.bin
+    private static final int BUCKET_CHARS = 1;
+
+    private static volatile boolean layoutChecked;
+
+    // History tier: read-only pack of old workouts, consulted after the live store.
+    // A live copy (the workout was edited after packing) shadows the packed one; deletes of
+    // packed workouts are recorded in HISTORY_DELETED until the next pack drops them.
+    private static final Object HISTORY_LOCK = new Object();
+    private static volatile WorkoutArchive history;
+    private static final Set<UUID> historyDeleted = java.util.concurrent.ConcurrentHashMap.newKeySet();
+    private static volatile boolean historyChecked;
+
     // --------- bootstrap ----------
     private static void ensureDirs() throws IOException {
         Files.createDirectories(SWIMMERS_DIR);
         Files.createDirectories(WORKOUTS_DIR);
+        if (!layoutChecked) migrateFlatWorkouts();
+        if (SEGMENTED && segments == null) openSegments();
+        if (!historyChecked) openHistory();
     }
 
-    // --------- simple (de)serialization ----------
-    private static <T> void writeObject(Path file, T obj) throws IOException {
-        try (OutputStream fos = Files.newOutputStream(file);
-             BufferedOutputStream bos = new BufferedOutputStream(fos);
-             ObjectOutputStream oos = new ObjectOutputStream(bos)) {
-            oos.writeObject(obj);
+    // The segment store, opened on first use
+    private static SegmentStore segments() throws IOException {
+        SegmentStore store = segments;
+        if (store == null) {
+            ensureDirs();
+            store = segments;
         }
+        return store;
+    }
+
+    // --------- (de)serialization ----------
+    // Files are written through AtomicFiles (temp + rename, length + CRC32C
+    // envelope) around a WorkoutCodec payload. Older files (bare codec, or the old
+    // ObjectOutputStream format with its 0xACED header) are still read transparently
+    // and are rewritten in the new format the next time they are saved.
+
+    private static void writeWorkoutFile(Path file, Workout w) throws IOException {
+        AtomicFiles.write(file, encodeWorkout(w));
+    }
+
+    private static void writeSwimmerFile(Path file, Swimmer s) throws IOException {
+        AtomicFiles.write(file, encodeSwimmer(s));
     }
 
-    @SuppressWarnings("unchecked")
-    private static <T> T readObject(Path file, Class<T> type) throws IOException {
-        try (InputStream fis = Files.newInputStream(file);
-             BufferedInputStream bis = new BufferedInputStream(fis);
-             ObjectInputStream ois = new ObjectInputStream(bis)) {
+    private static byte[] encodeWorkout(Workout w) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(512);
+        WorkoutCodec.writeWorkout(bos, w);
+        return bos.toByteArray();
+    }
+
+    private static byte[] encodeSwimmer(Swimmer s) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+        WorkoutCodec.writeSwimmer(bos, s);
+        return bos.toByteArray();
+    }
+
+    private static Workout readWorkoutFile(Path file) throws IOException {
+        byte[] payload = AtomicFiles.readVerified(file);
+        try (InputStream in = new ByteArrayInputStream(payload)) {
+            if (isLegacy(in)) return readLegacyObject(in, file, Workout.class);
+            return WorkoutCodec.readWorkout(in);
+        } catch (CorruptFileException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            // payload is in memory, so any failure here is a content problem
+            throw new CorruptFileException(file, "undecodable workout", e);
+        }
+    }
+
+    // Header block only (the whole file is still checksummed); legacy files are decoded in full
+    private static WorkoutSummary readWorkoutSummaryFile(Path file) throws IOException {
+        byte[] payload = AtomicFiles.readVerified(file);
+        try (InputStream in = new ByteArrayInputStream(payload)) {
+            if (isLegacy(in)) return WorkoutSummary.of(readLegacyObject(in, file, Workout.class));
+            return WorkoutCodec.readWorkoutSummary(in);
+        } catch (CorruptFileException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            throw new CorruptFileException(file, "undecodable workout", e);
+        }
+    }
+
+    private static Swimmer readSwimmerFile(Path file) throws IOException {
+        byte[] payload = AtomicFiles.readVerified(file);
+        try (InputStream in = new ByteArrayInputStream(payload)) {
+            if (isLegacy(in)) return readLegacyObject(in, file, Swimmer.class);
+            return WorkoutCodec.readSwimmer(in);
+        } catch (CorruptFileException e) {
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            throw new CorruptFileException(file, "undecodable swimmer", e);
+        }
+    }
+
+    /** Peeks at the stream header (mark/reset) to detect legacy Java-serialized files. */
+    private static boolean isLegacy(InputStream in) throws IOException {
+        in.mark(4);
+        byte[] head = in.readNBytes(2);
+        in.reset();
+        return WorkoutCodec.isLegacy(head);
+    }
+
+    private static <T> T readLegacyObject(InputStream in, Path file, Class<T> type) throws IOException {
+        try (ObjectInputStream ois = new ObjectInputStream(in)) {
             Object o = ois.readObject();
             return type.cast(o);
         } catch (ClassNotFoundException e) {
-            throw new IOException("Corrupt file: " + file, e);
+            throw new CorruptFileException(file, "unknown class in legacy file", e);
         } catch (ClassCastException e) {
-            throw new IOException("Unexpected data in: " + file, e);
+            throw new CorruptFileException(file, "unexpected object type", e);
         }
     }
 
     // --------- file naming ----------
-    private static Path swimmerFile(UUID swimmerId) {
+    static Path swimmerFile(UUID swimmerId) {
         return SWIMMERS_DIR.resolve(swimmerId.toString() + ".bin");
     }
-    private static Path workoutFile(UUID workoutId) {
+    static Path workoutFile(UUID swimmerId, UUID workoutId) {
+        String id = workoutId.toString();
+        return shardDir(swimmerId).resolve(id.substring(0, BUCKET_CHARS)).resolve(id + ".bin");
+    }
+    static Path shardDir(UUID swimmerId) {
+        return WORKOUTS_DIR.resolve(swimmerId.toString());
+    }
+
+    /**
+     * Finds the file of a workout when only its id is known: the index supplies the owner
+     * if that swimmer's shard is loaded, otherwise each swimmer's bucket is probed
+     * (one stat per swimmer, no directory scans). Returns {@code null} if absent.
+     */
+    private static Path locateWorkout(UUID workoutId) throws IOException {
+        UUID owner = INDEX.ownerOf(workoutId);
+        if (owner != null) {
+            Path f = workoutFile(owner, workoutId);
+            if (Files.exists(f)) return f;
+        }
+        String id = workoutId.toString();
+        try (var shards = Files.newDirectoryStream(WORKOUTS_DIR, Files::isDirectory)) {
+            for (Path shard : shards) {
+                Path f = shard.resolve(id.substring(0, BUCKET_CHARS)).resolve(id + ".bin");
+                if (Files.exists(f)) return f;
+            }
+        }
+        Path flat = flatWorkoutFile(workoutId);
+        return Files.exists(flat) ? flat : null;
+    }
+
+    // Pre-sharding location; only holds files the layout migration could not move
+    private static Path flatWorkoutFile(UUID workoutId) {
         return WORKOUTS_DIR.resolve(workoutId.toString() + ".bin");
     }
 
+    // Owner id from a sharded path (workouts/<swimmerId>/<b>/<id>.bin), or null
+    private static UUID ownerFromPath(Path file) {
+        try {
+            return UUID.fromString(file.getParent().getParent().getFileName().toString());
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // All workout files in the sharded tree
+    private static List<Path> listWorkoutFiles() throws IOException {
+        try (var stream = Files.walk(WORKOUTS_DIR, 3)) {
+            return stream.filter(p -> p.getFileName().toString().endsWith(".bin") && Files.isRegularFile(p))
+                    .collect(Collectors.toList());
+        }
+    }
+    static Path sessionFile() {
+        return SESSION_FILE;
+    }
+    static Path preferencesFile() {
+        return LAST_FILE;
+    }
+    static Path databaseFile() {
+        return DATABASE_FILE;
+    }
+    static Path archiveDir() {
+        return ARCHIVE_DIR;
+    }
+
+    /** Whether the segment log, rather than one file per object, holds the library. */
+    static boolean segmentBackend() {
+        return SEGMENTED;
+    }
+
+    /**
+     * Version stamp of a stored swimmer, or -1 if it is not stored: the file's modified
+     * time, or the record's sequence number with the segment backend. Changes on every save.
+     */
+    static long swimmerStamp(UUID swimmerId) throws IOException {
+        if (SEGMENTED) return segments().seq(SegmentStore.SWIMMER, swimmerId);
+        return modifiedOrMissing(swimmerFile(swimmerId));
+    }
+
+    /** Version stamp of a stored workout, or -1; see {@link #swimmerStamp(UUID)}. */
+    static long workoutStamp(UUID swimmerId, UUID workoutId) throws IOException {
+        if (SEGMENTED) {
+            SegmentStore store = segments();
+            return swimmerId.equals(store.ownerOf(workoutId)) ? store.seq(SegmentStore.WORKOUT, workoutId) : -1;
+        }
+        return modifiedOrMissing(workoutFile(swimmerId, workoutId));
+    }
+
+    private static long modifiedOrMissing(Path file) throws IOException {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (NoSuchFileException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Records the version of a swimmer this instance now holds without having read it from
+     * the store (restored from the session snapshot), so saving it later is still checked
+     * against changes made elsewhere.
+     */
+    static void noteSeen(Swimmer s) {
+        SEEN_SWIMMERS.put(s.getId(), s.getUpdatedAt());
+    }
+
+    /** Records the version of a workout held without a store read; see {@link #noteSeen(Swimmer)}. */
+    static void noteSeen(Workout w) {
+        SEEN_WORKOUTS.put(w.getId(), w.getUpdatedAt());
+    }
+
+    // ======================================================================
+    // Changes made by other instances (see StoreWatcher)
+    // ======================================================================
+
+    /** Folders {@link StoreWatcher} watches: swimmers and the workout tree. */
+    static List<Path> watchedDirs() throws IOException {
+        ensureDirs();
+        return List.of(SWIMMERS_DIR, WORKOUTS_DIR);
+    }
+
+    /**
+     * Brings the cache and indexes up to date with a swimmer or workout file that changed
+     * on disk and reports the change, or returns {@code null} if this instance made it
+     * itself (the stored version is the one it last read or wrote), already knew of it,
+     * or the file is not a store object.
+     *
+     * <p>The version seen by this instance is left alone, so a save of an older in-memory
+     * copy still conflicts until the object is loaded again.</p>
+     */
+    static StoreChange externalChange(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.endsWith(".bin")) return null;
+        UUID id;
+        try {
+            id = UUID.fromString(name.substring(0, name.length() - 4));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        try {
+            StoreLocks.Held held = LOCKS.lock(id);
+            try {
+                if (file.startsWith(SWIMMERS_DIR)) return externalSwimmerChange(id, file);
+                UUID owner = ownerFromPath(file);
+                return (owner == null) ? null : externalWorkoutChange(owner, id, file);
+            } finally {
+                held.close();
+            }
+        } catch (IOException e) {
+            return null;   // e.g. a file still being synced; its next event retries
+        }
+    }
+
+    private static StoreChange externalSwimmerChange(UUID id, Path file) throws IOException {
+        Instant seen = SEEN_SWIMMERS.get(id);
+        if (!Files.exists(file)) {
+            if (seen == null) return null;   // deleted here, or never known
+            SEEN_SWIMMERS.remove(id);
+            try {
+                INDEX.removeSwimmer(id);
+            } catch (IOException ex) {
+                INDEX.invalidate();
+            }
+            SIDE.removeOwner(id);
+            CACHE.invalidateSwimmer(id);
+            return new StoreChange(StoreChange.Kind.SWIMMER_DELETED, id, null);
+        }
+        if (readSwimmerFile(file).getUpdatedAt().equals(seen)) return null;
+        return new StoreChange(StoreChange.Kind.SWIMMER_SAVED, id, null);
+    }
+
+    private static StoreChange externalWorkoutChange(UUID owner, UUID id, Path file) throws IOException {
+        Instant seen = SEEN_WORKOUTS.get(id);
+        if (!Files.exists(file)) {
+            UUID indexed = INDEX.ownerOf(id);
+            if (indexed != null && !indexed.equals(owner)) return null;   // moved to another swimmer
+            if (indexed == null && seen == null) return null;             // deleted here, or never known
+            SEEN_WORKOUTS.remove(id);
+            unindexDeleted(id, owner);
+            return new StoreChange(StoreChange.Kind.WORKOUT_DELETED, owner, id);
+        }
+        WorkoutSummary stored = readWorkoutSummaryFile(file);
+        if (stored.getUpdatedAt().equals(seen)) return null;
+        CACHE.invalidate(id);
+        try {
+            INDEX.put(stored);
+        } catch (IOException ex) {
+            INDEX.invalidate();
+        }
+        SIDE.put(readWorkoutFile(file));
+        return new StoreChange(StoreChange.Kind.WORKOUT_SAVED, owner, id);
+    }
+
+    /** The watcher missed events: cached workouts and indexes may be stale, so reconcile. */
+    static void externalChangesLost() {
+        CACHE.clear();
+        INDEX.invalidate();
+        SIDE.invalidate();
+    }
+
     // ======================================================================
     // Swimmers
     // ======================================================================
@@ -91,43 +425,242 @@ public final class LocalStore {
     public static void saveSwimmer(Swimmer s) throws IOException {
         Objects.requireNonNull(s, "swimmer");
         ensureDirs();
-        writeObject(swimmerFile(s.getId()), s);
+        s.setUpdatedAt(Instant.now());   // every save is a new version, as for workouts
+        boolean reindex = seedsChanged(s);
+        if (SEGMENTED) {
+            segments.put(SegmentStore.SWIMMER, s.getId(), null, encodeSwimmer(s));
+        } else {
+            Path file = swimmerFile(s.getId());
+            StoreLocks.Held held = LOCKS.lock(s.getId());
+            try {
+                checkSwimmerUnchanged(s.getId(), file);
+                writeSwimmerFile(file, s);
+                SEEN_SWIMMERS.put(s.getId(), s.getUpdatedAt());
+            } finally {
+                held.close();
+            }
+        }
+        if (reindex) SIDE.reindexOwner(s.getId());   // durations were estimated from the old seeds
+    }
+
+    // Throws if the stored swimmer is not the version this instance last read or wrote
+    // (same rules as checkUnchanged for workouts)
+    private static void checkSwimmerUnchanged(UUID id, Path file) throws IOException {
+        Instant seen = SEEN_SWIMMERS.get(id);
+        if (seen == null) return;
+        Instant stored;
+        try {
+            stored = readSwimmerFile(file).getUpdatedAt();
+        } catch (NoSuchFileException | CorruptFileException e) {
+            return;
+        }
+        if (!stored.equals(seen)) throw new StoreConflictException(file, id, seen, stored);
+    }
+
+    // Whether s has other seed times than the stored swimmer (true if that cannot be read)
+    private static boolean seedsChanged(Swimmer s) {
+        try {
+            Swimmer before;
+            if (SEGMENTED) {
+                byte[] payload = segments.get(SegmentStore.SWIMMER, s.getId());
+                before = (payload == null) ? null : WorkoutCodec.readSwimmer(new ByteArrayInputStream(payload));
+            } else {
+                Path file = swimmerFile(s.getId());
+                before = Files.exists(file) ? readSwimmerFile(file) : null;
+            }
+            return WorkoutSideIndexes.seedsDiffer(before, s);
+        } catch (IOException | RuntimeException e) {
+            return true;
+        }
     }
 
     public static Swimmer loadSwimmer(UUID id) throws IOException {
         Objects.requireNonNull(id, "id");
         ensureDirs();
-        return readObject(swimmerFile(id), Swimmer.class);
+        return readSwimmer(id);
+    }
+
+    /** {@link #loadSwimmer} without the directory bootstrap, for bulk loaders; quarantines corrupt files. */
+    static Swimmer readSwimmer(UUID id) throws IOException {
+        if (SEGMENTED) return readSwimmerRecord(id);
+        try {
+            return readSwimmerSeen(swimmerFile(id));
+        } catch (CorruptFileException e) {
+            quarantine(e.file(), e.reason());
+            throw e;
+        }
+    }
+
+    // Reads a swimmer file and records the version it holds
+    private static Swimmer readSwimmerSeen(Path file) throws IOException {
+        Swimmer s = readSwimmerFile(file);
+        SEEN_SWIMMERS.put(s.getId(), s.getUpdatedAt());
+        return s;
+    }
+
+    private static Swimmer readSwimmerRecord(UUID id) throws IOException {
+        SegmentStore store = segments();
+        try {
+            byte[] payload = store.get(SegmentStore.SWIMMER, id);
+            if (payload == null) throw new NoSuchFileException("swimmer " + id);
+            return decodeRecord(payload, id, "swimmer", WorkoutCodec::readSwimmer);
+        } catch (CorruptFileException e) {
+            quarantineRecord(SegmentStore.SWIMMER, id, e.reason());
+            throw e;
+        }
     }
 
+    /** Deletes a swimmer and all of their workouts. */
     public static void deleteSwimmer(UUID id) throws IOException {
+        deleteSwimmer(id, false);
+    }
+
+    /**
+     * Deletes a swimmer together with all of their workouts. The workouts are found
+     * through the swimmer's index shard and workout directory, never by scanning the
+     * library, and leave the live store with a single directory rename (with the segment
+     * backend, a single batch of tombstones).
+     *
+     * @param archiveWorkouts if {@code true}, the swimmer file and workouts are moved to
+     *        {@code archive/<swimmerId>-<millis>/} instead of being deleted; otherwise
+     *        the files are removed later on a background thread
+     */
+    public static void deleteSwimmer(UUID id, boolean archiveWorkouts) throws IOException {
         Objects.requireNonNull(id, "id");
         ensureDirs();
-        Files.deleteIfExists(swimmerFile(id));
-        // If the last selection pointed to this swimmer, clear it
-        Properties p = readLastPropsQuiet();
-        if (id.toString().equals(p.getProperty("lastSwimmerId"))) {
-            p.remove("lastSwimmerId");
-            p.remove("lastWorkoutId"); // also clear paired workout
-            writeLastPropsQuiet(p);
+        String tag = id + "-" + System.currentTimeMillis();
+        detachHistory(id, archiveWorkouts ? ARCHIVE_DIR.resolve(tag) : null);
+        if (SEGMENTED) {
+            detachRecords(id, archiveWorkouts ? ARCHIVE_DIR.resolve(tag) : null);
+        } else {
+            StoreLocks.Held held = LOCKS.lock(id);
+            try {
+                SEEN_SWIMMERS.remove(id);
+                if (archiveWorkouts) {
+                    Path dest = ARCHIVE_DIR.resolve(tag);
+                    Files.createDirectories(dest);
+                    if (Files.exists(swimmerFile(id))) {
+                        Files.move(swimmerFile(id), dest.resolve("swimmer.bin"), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                    detachWorkouts(id, dest.resolve("workouts"));
+                } else {
+                    Files.deleteIfExists(swimmerFile(id));
+                    detachWorkouts(id, TRASH_DIR.resolve(tag));
+                }
+            } finally {
+                held.close();
+            }
+            if (!archiveWorkouts) scheduleReclaim();
+        }
+        forgetSelection(id, null);
+    }
+
+    /**
+     * Takes every workout of a swimmer out of the live store: drops the index shard,
+     * evicts cached copies and renames the shard directory to {@code dest}.
+     */
+    private static void detachWorkouts(UUID swimmerId, Path dest) throws IOException {
+        try {
+            INDEX.removeSwimmer(swimmerId);
+        } catch (IOException ex) {
+            INDEX.invalidate();
+        }
+        SIDE.removeOwner(swimmerId);
+        CACHE.invalidateSwimmer(swimmerId);
+        Path shard = shardDir(swimmerId);
+        if (Files.isDirectory(shard)) {
+            Files.createDirectories(dest.getParent());
+            Files.move(shard, dest, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Segment-backend counterpart of {@link #detachWorkouts}: removes a swimmer's record
+     * and all of their workout records with one batch of tombstones. With {@code archiveDir}
+     * the payloads are first written out there in the file layout.
+     */
+    private static void detachRecords(UUID swimmerId, Path archiveDir) throws IOException {
+        SegmentStore store = segments();
+        List<UUID> workoutIds = store.workoutsOwnedBy(swimmerId);
+        if (archiveDir != null) {
+            byte[] swimmer = payloadOrNull(store, SegmentStore.SWIMMER, swimmerId);
+            if (swimmer != null) AtomicFiles.write(archiveDir.resolve("swimmer.bin"), swimmer, false);
+            for (UUID wid : workoutIds) {
+                byte[] workout = payloadOrNull(store, SegmentStore.WORKOUT, wid);
+                if (workout == null) continue;
+                String name = wid.toString();
+                AtomicFiles.write(archiveDir.resolve("workouts").resolve(name.substring(0, BUCKET_CHARS))
+                        .resolve(name + ".bin"), workout, false);
+            }
+        }
+        try {
+            INDEX.removeSwimmer(swimmerId);
+        } catch (IOException ex) {
+            INDEX.invalidate();
+        }
+        SIDE.removeOwner(swimmerId);
+        CACHE.invalidateSwimmer(swimmerId);
+        store.batch()
+                .delete(SegmentStore.SWIMMER, swimmerId)
+                .deleteAll(SegmentStore.WORKOUT, workoutIds)
+                .commit();
+    }
+
+    private static byte[] payloadOrNull(SegmentStore store, byte kind, UUID id) {
+        try {
+            return store.get(kind, id);
+        } catch (IOException e) {
+            return null;   // damaged record: nothing worth archiving
         }
     }
 
     public static List<Swimmer> listAllSwimmers() throws IOException {
         ensureDirs();
+        if (SEGMENTED) {
+            List<Swimmer> list = new ArrayList<>();
+            for (UUID id : segments.ids(SegmentStore.SWIMMER)) {
+                try { list.add(readSwimmerRecord(id)); } catch (Exception ignored) {}
+            }
+            list.sort(SWIMMER_ORDER);
+            return list;
+        }
         if (!Files.isDirectory(SWIMMERS_DIR)) return List.of();
         try (var stream = Files.list(SWIMMERS_DIR)) {
             List<Swimmer> list = new ArrayList<>();
             for (Path f : stream.filter(p -> p.getFileName().toString().endsWith(".bin")).collect(Collectors.toList())) {
-                try { list.add(readObject(f, Swimmer.class)); } catch (Exception ignored) {}
+                try {
+                    list.add(readSwimmerSeen(f));
+                } catch (CorruptFileException e) {
+                    quarantine(f, e.reason());
+                } catch (Exception ignored) {}
             }
             // Optional: sort by name
-            list.sort(Comparator.comparing((Swimmer s) -> s.getLastName() == null ? "" : s.getLastName())
-                    .thenComparing(s -> s.getFirstName() == null ? "" : s.getFirstName()));
+            list.sort(SWIMMER_ORDER);
             return list;
         }
     }
 
+    /**
+     * Lists the ids of all saved swimmers from the directory listing alone (no file is
+     * read). Pair with {@link #loadSwimmer(UUID)} to load them incrementally; see
+     * {@link SwimmerLoader}.
+     */
+    public static List<UUID> listSwimmerIds() throws IOException {
+        ensureDirs();
+        if (SEGMENTED) return segments.ids(SegmentStore.SWIMMER);
+        try (var stream = Files.list(SWIMMERS_DIR)) {
+            List<UUID> ids = new ArrayList<>();
+            for (Path f : (Iterable<Path>) stream::iterator) {
+                String name = f.getFileName().toString();
+                if (!name.endsWith(".bin")) continue;
+                try {
+                    ids.add(UUID.fromString(name.substring(0, name.length() - 4)));
+                } catch (IllegalArgumentException ignored) {}
+            }
+            return ids;
+        }
+    }
+
     // ======================================================================
     // Workouts
     // ======================================================================
@@ -137,96 +670,848 @@ public final class LocalStore {
         ensureDirs();
         // touch updatedAt so the list sorts nicely if you want
         w.setUpdatedAt(Instant.now());
-        writeObject(workoutFile(w.getId()), w);
+        if (SEGMENTED) {
+            segments.put(SegmentStore.WORKOUT, w.getId(), w.getSwimmerId(), encodeWorkout(w));
+            indexSaved(w);
+            return;
+        }
+        StoreLocks.Held held = LOCKS.lock(w.getId());
+        try {
+            UUID previousOwner = INDEX.ownerOf(w.getId());
+            boolean moved = previousOwner != null && !previousOwner.equals(w.getSwimmerId());
+            checkUnchanged(w.getId(), workoutFile(moved ? previousOwner : w.getSwimmerId(), w.getId()));
+            writeWorkoutFile(workoutFile(w.getSwimmerId(), w.getId()), w);
+            SEEN_WORKOUTS.put(w.getId(), w.getUpdatedAt());
+            if (moved) {
+                Files.deleteIfExists(workoutFile(previousOwner, w.getId()));   // moved to another swimmer
+            }
+            Files.deleteIfExists(flatWorkoutFile(w.getId()));   // a stale unmigrated copy must not resurface
+            indexSaved(w);
+        } finally {
+            held.close();
+        }
+    }
+
+    // Cache and indexes after a save
+    private static void indexSaved(Workout w) {
+        CACHE.put(w);   // the cache now holds exactly what is on disk
+        try {
+            INDEX.put(WorkoutSummary.of(w));
+        } catch (IOException ex) {
+            INDEX.invalidate(); // the workout itself is saved; rebuild headers on next listing
+        }
+        SIDE.put(w);    // side indexes never fail a save; they reconcile on next use
+    }
+
+    /**
+     * Throws if the stored workout is not the version this instance last read or wrote.
+     * Workouts never read here, missing files (deleted elsewhere: the save recreates it)
+     * and damaged files (the save replaces it) pass.
+     */
+    private static void checkUnchanged(UUID id, Path file) throws IOException {
+        Instant seen = SEEN_WORKOUTS.get(id);
+        if (seen == null) return;
+        Instant stored;
+        try {
+            stored = readWorkoutSummaryFile(file).getUpdatedAt();
+        } catch (NoSuchFileException | CorruptFileException e) {
+            return;
+        }
+        if (!stored.equals(seen)) {
+            CACHE.invalidate(id);   // a reload must read the stored version
+            throw new StoreConflictException(file, id, seen, stored);
+        }
     }
 
+    /**
+     * Loads a workout, from the in-memory cache when it was loaded or saved recently.
+     * The caller always gets its own deep copy and may edit it freely.
+     */
     public static Workout loadWorkout(UUID id) throws IOException {
         Objects.requireNonNull(id, "id");
+        Workout cached = CACHE.get(id);
+        if (cached != null) return cached;
         ensureDirs();
-        return readObject(workoutFile(id), Workout.class);
+        if (SEGMENTED) return readWorkoutRecord(id);
+        Path file = locateWorkout(id);
+        if (file == null) return loadFromHistory(id);
+        return readWorkout(id, file);
+    }
+
+    /** Loads a workout whose owner is known (e.g. from a {@link WorkoutSummary}); no lookup needed. */
+    public static Workout loadWorkout(UUID swimmerId, UUID id) throws IOException {
+        Objects.requireNonNull(swimmerId, "swimmerId");
+        Objects.requireNonNull(id, "id");
+        Workout cached = CACHE.get(id);
+        if (cached != null) return cached;
+        ensureDirs();
+        if (SEGMENTED) return readWorkoutRecord(id);   // records are keyed by id alone
+        Path file = workoutFile(swimmerId, id);
+        if (!Files.exists(file)) {
+            if (Files.exists(flatWorkoutFile(id))) file = flatWorkoutFile(id);
+            else if (inHistory(id)) return loadFromHistory(id);
+        }
+        return readWorkout(id, file);
+    }
+
+    private static Workout readWorkout(UUID id, Path file) throws IOException {
+        long stamp = CACHE.loadStamp();
+        try {
+            Workout w = readWorkoutFile(file);
+            SEEN_WORKOUTS.put(id, w.getUpdatedAt());
+            CACHE.putLoaded(w, stamp);
+            return w;
+        } catch (CorruptFileException e) {
+            // Move it aside so it stops appearing in listings; the caller still sees the error
+            CACHE.invalidate(id);
+            UUID owner = Objects.requireNonNullElse(ownerFromPath(file), INDEX.ownerOf(id));
+            quarantine(e.file(), e.reason());
+            try { INDEX.remove(id, owner); } catch (IOException ex) { INDEX.invalidate(); }
+            SIDE.remove(id);
+            throw e;
+        }
+    }
+
+    private static Workout readWorkoutRecord(UUID id) throws IOException {
+        long stamp = CACHE.loadStamp();
+        try {
+            byte[] payload = segments.get(SegmentStore.WORKOUT, id);
+            if (payload == null) return loadFromHistory(id);
+            Workout w = decodeRecord(payload, id, "workout", WorkoutCodec::readWorkout);
+            CACHE.putLoaded(w, stamp);
+            return w;
+        } catch (CorruptFileException e) {
+            CACHE.invalidate(id);
+            UUID owner = segments.ownerOf(id);
+            quarantineRecord(SegmentStore.WORKOUT, id, e.reason());
+            try { INDEX.remove(id, owner); } catch (IOException ex) { INDEX.invalidate(); }
+            SIDE.remove(id);
+            throw e;
+        }
     }
 
     public static void deleteWorkout(UUID id) throws IOException {
         Objects.requireNonNull(id, "id");
         ensureDirs();
-        Files.deleteIfExists(workoutFile(id));
-        // clear lastWorkout if it pointed here
-        Properties p = readLastPropsQuiet();
-        if (id.toString().equals(p.getProperty("lastWorkoutId"))) {
-            p.remove("lastWorkoutId");
-            writeLastPropsQuiet(p);
+        if (SEGMENTED) {
+            UUID owner = segments.ownerOf(id);
+            segments.delete(SegmentStore.WORKOUT, id);
+            unindexDeleted(id, owner);
+        } else {
+            StoreLocks.Held held = LOCKS.lock(id);
+            try {
+                Path file = locateWorkout(id);
+                UUID owner = (file == null) ? null : ownerFromPath(file);
+                if (file != null) Files.deleteIfExists(file);
+                Files.deleteIfExists(flatWorkoutFile(id));
+                SEEN_WORKOUTS.remove(id);
+                unindexDeleted(id, owner);
+            } finally {
+                held.close();
+            }
         }
+        forgetSelection(null, id);
     }
 
-    /** Lists workouts for a given swimmerId (loads headers; same format you used before). */
-    public static List<Workout> listWorkoutsFor(UUID swimmerId) throws IOException {
+    // History, cache and indexes after a delete
+    private static void unindexDeleted(UUID id, UUID owner) throws IOException {
+        if (owner == null) owner = INDEX.ownerOf(id);
+        if (inHistory(id)) markHistoryDeleted(List.of(id));
+        CACHE.invalidate(id);
+        try {
+            INDEX.remove(id, owner);
+        } catch (IOException ex) {
+            INDEX.invalidate();
+        }
+        SIDE.remove(id);
+    }
+
+    /**
+     * Lists workout headers for a given swimmerId from the header index, newest first.
+     * Cost is proportional to this swimmer's workouts; no workout files are read
+     * (except once, to build the index for a library saved before it existed).
+     */
+    public static List<WorkoutSummary> listWorkoutSummariesFor(UUID swimmerId) throws IOException {
         Objects.requireNonNull(swimmerId, "swimmerId");
         ensureDirs();
-        if (!Files.isDirectory(WORKOUTS_DIR)) return List.of();
+        List<WorkoutSummary> out = liveSummariesFor(swimmerId);
+        WorkoutArchive h = history;
+        if (h != null) {
+            // Packed workouts: summary fields only, read straight from the mapping
+            Set<UUID> live = new HashSet<>();
+            for (WorkoutSummary s : out) live.add(s.getId());
+            for (WorkoutSummary s : h.summariesFor(swimmerId)) {
+                if (!live.contains(s.getId()) && !historyDeleted.contains(s.getId())) out.add(s);
+            }
+        }
+        out.sort(Comparator.comparing(WorkoutSummary::getUpdatedAt)
+                .reversed()
+                .thenComparing(WorkoutSummary::getName));
+        return out;
+    }
+
+    // Summaries of the workouts in the live store (not the history pack)
+    private static List<WorkoutSummary> liveSummariesFor(UUID swimmerId) throws IOException {
+        try {
+            if (!INDEX.isBuilt()) rebuildIndex();
+            return INDEX.list(swimmerId);
+        } catch (IOException ex) {
+            // corrupt/unreadable shard: rebuild from the workout files and retry once
+            rebuildIndex();
+            return INDEX.list(swimmerId);
+        }
+    }
+
+    /**
+     * Full-text search over workout names and notes and the names and notes of their groups
+     * and sets; see {@link WorkoutStore#search}. The first search of a run opens the text
+     * index and brings it up to date with the workout headers.
+     */
+    public static List<WorkoutSummary> searchWorkouts(String text, WorkoutQuery scope) throws IOException {
+        ensureDirs();
+        return SIDE.search(text, scope);
+    }
+
+    /**
+     * Runs a query with attribute filters ({@link WorkoutQuery#hasAttributeFilters}) on the
+     * attribute index, which answers them without loading workouts. The first such query
+     * of a run opens the index and brings it up to date with the workout headers.
+     */
+    public static List<WorkoutSummary> queryWorkouts(WorkoutQuery q) throws IOException {
+        ensureDirs();
+        return SIDE.query(q);
+    }
+
+    /**
+     * The {@code k} workouts in {@code scope} most like {@code like}; see
+     * {@link WorkoutStore#similarTo}. The first call of a run opens the similarity index.
+     */
+    public static List<SimilarWorkout> similarWorkouts(Workout like, WorkoutQuery scope, int k) throws IOException {
+        ensureDirs();
+        return SIDE.similarTo(like, scope, k);
+    }
+
+    /** Lists full workouts for a given swimmerId (index lookup, then one load per workout from their shard). */
+    public static List<Workout> listWorkoutsFor(UUID swimmerId) throws IOException {
         List<Workout> out = new ArrayList<>();
-        try (var stream = Files.list(WORKOUTS_DIR)) {
-            for (Path f : stream.filter(p -> p.getFileName().toString().endsWith(".bin")).collect(Collectors.toList())) {
+        for (WorkoutSummary s : listWorkoutSummariesFor(swimmerId)) {
+            try { out.add(loadWorkout(swimmerId, s.getId())); } catch (Exception ignored) {}
+        }
+        return out;
+    }
+
+    /** Rebuilds the header index by scanning every workout file (one-time migration / repair). */
+    public static void rebuildIndex() throws IOException {
+        ensureDirs();
+        List<WorkoutSummary> all = new ArrayList<>();
+        if (SEGMENTED) {
+            for (UUID id : segments.ids(SegmentStore.WORKOUT)) {
                 try {
-                    Workout w = readObject(f, Workout.class);
-                    if (swimmerId.equals(w.getSwimmerId())) out.add(w);
+                    byte[] payload = segments.get(SegmentStore.WORKOUT, id);
+                    if (payload != null) all.add(decodeRecord(payload, id, "workout", WorkoutCodec::readWorkoutSummary));
+                } catch (CorruptFileException e) {
+                    quarantineRecord(SegmentStore.WORKOUT, id, e.reason());
                 } catch (Exception ignored) {}
             }
+            INDEX.rebuild(all);
+            return;
         }
-        // Optional: sort by updatedAt desc, then name
-        out.sort(Comparator.<Workout, Instant>comparing(w -> w.getUpdatedAt() == null ? Instant.EPOCH : w.getUpdatedAt())
-                .reversed()
-                .thenComparing(w -> w.getName() == null ? "" : w.getName()));
-        return out;
+        for (Path f : listWorkoutFiles()) {
+            try {
+                all.add(readWorkoutSummaryFile(f));
+            } catch (CorruptFileException e) {
+                quarantine(f, e.reason());
+            } catch (Exception ignored) {}
+        }
+        INDEX.rebuild(all);
+    }
+
+    /** Empties the workout cache, e.g. after files were changed outside the app (dev tools). */
+    public static void clearWorkoutCache() {
+        CACHE.clear();
+    }
+
+    /** Hit/miss/eviction counters of the workout cache. */
+    public static WorkoutCache.Stats workoutCacheStats() {
+        return CACHE.stats();
+    }
+
+    /** Size and compaction counters of the segment backend, or {@code null} when it is not selected. */
+    public static SegmentStore.Stats segmentStats() throws IOException {
+        return SEGMENTED ? segments().stats() : null;
+    }
+
+    /** Compacts the segment backend now, rewriting every segment that holds garbage (no-op for files). */
+    public static void compactStore() throws IOException {
+        if (SEGMENTED) segments().compact(true);
     }
 
     // ======================================================================
-    // Legacy convenience (kept to avoid editing many files right now)
+    // Segment backend
     // ======================================================================
 
-    /** Write both IDs at once (either may be null to clear). */
-    public static void saveLast(UUID swimmerId, UUID workoutId) {
-        Properties p = readLastPropsQuiet();
-        if (swimmerId == null) p.remove("lastSwimmerId"); else p.setProperty("lastSwimmerId", swimmerId.toString());
-        if (workoutId == null) p.remove("lastWorkoutId"); else p.setProperty("lastWorkoutId", workoutId.toString());
-        writeLastPropsQuiet(p);
+    @FunctionalInterface
+    private interface Decoder<T> { T read(InputStream in) throws IOException; }
+
+    private static <T> T decodeRecord(byte[] payload, UUID id, String what, Decoder<T> decoder) throws IOException {
+        try {
+            return decoder.read(new ByteArrayInputStream(payload));
+        } catch (IOException | RuntimeException e) {
+            throw new CorruptFileException(SEGMENTS_DIR, "undecodable " + what + " " + id, e);
+        }
     }
 
-    /** Previously used by MainView etc.; returns Optional as before. */
-    public static Optional<UUID> lastSwimmer() {
-        Properties p = readLastPropsQuiet();
-        String s = p.getProperty("lastSwimmerId");
-        try { return (s == null || s.isBlank()) ? Optional.empty() : Optional.of(UUID.fromString(s)); }
-        catch (Exception e) { return Optional.empty(); }
+    /**
+     * Opens the segment store. An empty store is first filled from the file layout, so
+     * switching backends keeps the library (the files stay as they are; from then on the
+     * two copies are independent). The store is closed, and its offset index written,
+     * when the JVM exits.
+     */
+    private static synchronized void openSegments() throws IOException {
+        if (segments != null) return;
+        SegmentStore store = SegmentStore.open(SEGMENTS_DIR, SegmentStore.DEFAULT_SEGMENT_BYTES, AtomicFiles.fsyncEnabled());
+        if (store.ids(SegmentStore.SWIMMER).isEmpty() && store.ids(SegmentStore.WORKOUT).isEmpty()) {
+            importFiles(store);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try { store.close(); } catch (IOException ignored) {}
+        }, "segment-store-close"));
+        segments = store;
     }
 
-    /** Previously used by MainView etc.; returns Optional as before. */
-    public static Optional<UUID> lastWorkout() {
-        Properties p = readLastPropsQuiet();
-        String s = p.getProperty("lastWorkoutId");
-        try { return (s == null || s.isBlank()) ? Optional.empty() : Optional.of(UUID.fromString(s)); }
-        catch (Exception e) { return Optional.empty(); }
+    // Copies every readable swimmer and workout file into an empty segment store (one batch)
+    private static void importFiles(SegmentStore store) throws IOException {
+        SegmentStore.Batch batch = store.batch();
+        int n = 0;
+        List<Path> swimmerFiles;
+        try (var stream = Files.list(SWIMMERS_DIR)) {
+            swimmerFiles = stream.filter(p -> p.getFileName().toString().endsWith(".bin")).collect(Collectors.toList());
+        }
+        for (Path f : swimmerFiles) {
+            try {
+                Swimmer s = readSwimmerFile(f);
+                batch.put(SegmentStore.SWIMMER, s.getId(), null, encodeSwimmer(s));
+                n++;
+            } catch (IOException | RuntimeException ignored) {}
+        }
+        for (Path f : listWorkoutFiles()) {
+            try {
+                Workout w = readWorkoutFile(f);
+                batch.put(SegmentStore.WORKOUT, w.getId(), w.getSwimmerId(), encodeWorkout(w));
+                n++;
+            } catch (IOException | RuntimeException ignored) {}
+        }
+        if (n == 0) return;
+        batch.commit();
+        store.checkpoint();
     }
 
-    // --------- tiny props helpers for “last selection” ----------
-    private static Properties readLastPropsQuiet() {
-        Properties p = new Properties();
+    /** Drops a damaged record (tombstone) and logs it in the quarantine report. */
+    private static void quarantineRecord(byte kind, UUID id, String reason) {
         try {
+            segments.delete(kind, id);
+        } catch (IOException ignored) {}
+        report(SEGMENTS_DIR.resolve(id.toString()), reason);
+    }
+
+    // ======================================================================
+    // Recovery
+    // ======================================================================
+
+    /**
+     * Startup recovery scan: removes temp files left by interrupted writes (once they are
+     * old enough that no running instance can still be writing them) and verifies
+     * every swimmer/workout file's envelope (length + CRC32C; full decode for files that
+     * predate it). Damaged files are moved to {@code quarantine/} and logged in
+     * {@code quarantine/REPORT.txt}; the workout index is rebuilt if any workout moved.
+     */
+    public static RecoveryReport recover() throws IOException {
+        ensureDirs();
+        RecoveryReport report = new RecoveryReport();
+        if (SEGMENTED) {
+            // Segments verify themselves when opened (torn tails are cut off there)
+            scheduleReclaim();
+            return report;
+        }
+        Instant staleBefore = Instant.now().minus(TEMP_FILE_GRACE);
+        boolean workoutsChanged = false;
+        for (Path dir : List.of(SWIMMERS_DIR, WORKOUTS_DIR)) {
+            List<Path> files;
+            try (var stream = Files.walk(dir, dir.equals(WORKOUTS_DIR) ? 3 : 1)) {
+                files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+            }
+            for (Path f : files) {
+                String name = f.getFileName().toString();
+                if (name.endsWith(AtomicFiles.TEMP_SUFFIX)) {
+                    // The rename never happened, so the real file is still the previous version.
+                    // Recent ones may belong to a save still running here or in another instance.
+                    if (Files.getLastModifiedTime(f).toInstant().isAfter(staleBefore)) continue;
+                    Files.deleteIfExists(f);
+                    report.tempFileRemoved();
+                    continue;
+                }
+                if (!name.endsWith(".bin")) continue;
+                report.scanned();
+                try {
+                    byte[] all = Files.readAllBytes(f);
+                    if (AtomicFiles.isFramed(all)) {
+                        AtomicFiles.unwrap(f, all);   // length + CRC32C
+                    } else if (dir.equals(WORKOUTS_DIR)) {
+                        readWorkoutFile(f);           // no checksum to trust: prove it decodes
+                    } else {
+                        readSwimmerFile(f);
+                    }
+                } catch (CorruptFileException e) {
+                    quarantine(f, e.reason());
+                    report.quarantined(name + ": " + e.reason());
+                    if (dir.equals(WORKOUTS_DIR)) workoutsChanged = true;
+                }
+            }
+        }
+        if (workoutsChanged) {
+            INDEX.invalidate();
+            SIDE.invalidate();
+            CACHE.clear();
+        }
+        scheduleReclaim();   // shards detached by deletes that a crash interrupted
+        return report;
+    }
+
+    // ======================================================================
+    // History tier
+    // ======================================================================
+
+    /**
+     * Moves every live workout last updated before {@code cutoff} into the read-only
+     * history pack ({@code history.swa}), merged with what the pack already holds.
+     * Packed workouts keep showing up in listings and open normally; editing one saves
+     * a live copy again. Deleted and re-edited workouts are dropped from the pack here.
+     *
+     * @return number of workouts moved out of the live store
+     */
+    public static int packHistory(Instant cutoff) throws IOException {
+        Objects.requireNonNull(cutoff, "cutoff");
+        synchronized (HISTORY_LOCK) {
             ensureDirs();
-            if (Files.exists(LAST_FILE)) {
-                try (InputStream in = Files.newInputStream(LAST_FILE)) {
-                    p.load(in);
+            Set<UUID> owners = new HashSet<>(listSwimmerIds());
+            owners.addAll(INDEX.indexedSwimmers());
+            if (SEGMENTED) owners.addAll(segments.workoutOwners());
+
+            Map<UUID, WorkoutArchive.Entry> entries = new HashMap<>();
+            Map<UUID, List<UUID>> moved = new HashMap<>();   // owner -> workout ids
+            Map<UUID, Long> packedSeq = new HashMap<>();     // segment backend: record packed
+            Set<UUID> live = new HashSet<>();
+            for (UUID owner : owners) {
+                for (WorkoutSummary s : liveSummariesFor(owner)) {
+                    live.add(s.getId());
+                    if (!s.getUpdatedAt().isBefore(cutoff)) continue;
+                    Workout w;
+                    try {
+                        if (SEGMENTED) packedSeq.put(s.getId(), segments.seq(SegmentStore.WORKOUT, s.getId()));
+                        w = loadLive(owner, s.getId());
+                    } catch (IOException e) {
+                        continue;   // unreadable: left in the live store for recovery to deal with
+                    }
+                    entries.put(w.getId(), new WorkoutArchive.Entry(WorkoutSummary.of(w), encodeWorkout(w)));
+                    moved.computeIfAbsent(owner, k -> new ArrayList<>()).add(w.getId());
+                }
+            }
+            WorkoutArchive old = history;
+            if (moved.isEmpty() && historyDeleted.isEmpty()) return 0;
+            if (old != null) {
+                for (UUID id : old.workoutIds()) {
+                    if (live.contains(id) || historyDeleted.contains(id) || entries.containsKey(id)) continue;
+                    try {
+                        entries.put(id, old.entry(id));
+                    } catch (CorruptFileException e) {
+                        report(HISTORY_FILE, e.reason());
+                    }
+                }
+            }
+
+            // Unmap the old pack first: a mapped file cannot be renamed over everywhere
+            history = null;
+            if (old != null) old.close();
+            try {
+                WorkoutArchive.write(HISTORY_FILE, entries.values(), cutoff, AtomicFiles.fsyncEnabled());
+            } finally {
+                // The new pack, or the old one again if it could not be replaced
+                history = Files.exists(HISTORY_FILE) ? WorkoutArchive.open(HISTORY_FILE) : null;
+            }
+            historyDeleted.clear();
+            Files.deleteIfExists(HISTORY_DELETED);
+
+            // Only now that the pack is in place do the live copies go, each only if it is
+            // still the version packed; one saved since shadows the pack
+            Set<UUID> vanished = new HashSet<>();   // deleted meanwhile: hide the packed copy too
+            SegmentStore.Batch batch = SEGMENTED ? segments.batch() : null;
+            Map<UUID, List<UUID>> removed = new HashMap<>();
+            for (Map.Entry<UUID, List<UUID>> e : moved.entrySet()) {
+                for (UUID id : e.getValue()) {
+                    if (SEGMENTED) {
+                        if (!segments.contains(SegmentStore.WORKOUT, id)) vanished.add(id);
+                        else batch.deleteIf(SegmentStore.WORKOUT, id, packedSeq.get(id));
+                        continue;
+                    }
+                    Boolean gone = removeIfPacked(e.getKey(), id, entries.get(id).summary.getUpdatedAt());
+                    if (gone == null) vanished.add(id);
+                    else if (gone) removed.computeIfAbsent(e.getKey(), k -> new ArrayList<>()).add(id);
+                }
+            }
+            if (batch != null) {
+                batch.commit();
+                for (Map.Entry<UUID, List<UUID>> e : moved.entrySet()) {
+                    for (UUID id : e.getValue()) {
+                        if (!vanished.contains(id) && !segments.contains(SegmentStore.WORKOUT, id)) {
+                            removed.computeIfAbsent(e.getKey(), k -> new ArrayList<>()).add(id);
+                        }
+                    }
                 }
             }
-        } catch (Exception ignored) {}
-        return p;
+            if (!vanished.isEmpty()) markHistoryDeleted(vanished);
+            int n = 0;
+            for (Map.Entry<UUID, List<UUID>> e : removed.entrySet()) {
+                n += e.getValue().size();
+                try {
+                    INDEX.removeAll(e.getKey(), e.getValue());
+                } catch (IOException ex) {
+                    INDEX.invalidate();
+                }
+            }
+            return n;
+        }
     }
 
-    private static void writeLastPropsQuiet(Properties p) {
+    /**
+     * Deletes the live file of a packed workout under its lock, if it still holds the
+     * version packed. Returns {@code true} if deleted, {@code false} if it was saved again
+     * or cannot be read (left for recovery), {@code null} if it is already gone.
+     */
+    private static Boolean removeIfPacked(UUID owner, UUID id, Instant packed) throws IOException {
+        StoreLocks.Held held = LOCKS.lock(id);
         try {
-            ensureDirs();
-            try (OutputStream out = Files.newOutputStream(LAST_FILE)) {
-                p.store(out, "SwimWorkoutBuilder last selections");
+            Path file = workoutFile(owner, id);
+            if (!Files.exists(file) && Files.exists(flatWorkoutFile(id))) file = flatWorkoutFile(id);
+            Instant stored;
+            try {
+                stored = readWorkoutSummaryFile(file).getUpdatedAt();
+            } catch (NoSuchFileException e) {
+                return null;
+            } catch (CorruptFileException e) {
+                return false;
+            }
+            if (!stored.equals(packed)) return false;
+            Files.delete(file);
+            SEEN_WORKOUTS.remove(id);
+            return true;
+        } finally {
+            held.close();
+        }
+    }
+
+    /** Number of workouts in the history pack (0 if there is none). */
+    public static int historySize() throws IOException {
+        ensureDirs();
+        WorkoutArchive h = history;
+        return (h == null) ? 0 : h.size() - historyDeleted.size();
+    }
+
+    // Loads a workout from the live store only (no cache, no history)
+    private static Workout loadLive(UUID swimmerId, UUID id) throws IOException {
+        if (SEGMENTED) {
+            byte[] payload = segments.get(SegmentStore.WORKOUT, id);
+            if (payload == null) throw new NoSuchFileException("workout " + id);
+            return decodeRecord(payload, id, "workout", WorkoutCodec::readWorkout);
+        }
+        Path file = workoutFile(swimmerId, id);
+        if (!Files.exists(file) && Files.exists(flatWorkoutFile(id))) file = flatWorkoutFile(id);
+        return readWorkoutFile(file);
+    }
+
+    private static boolean inHistory(UUID id) {
+        WorkoutArchive h = history;
+        return h != null && !historyDeleted.contains(id) && h.contains(id);
+    }
+
+    private static Workout loadFromHistory(UUID id) throws IOException {
+        WorkoutArchive h = history;
+        Workout w = (h == null || historyDeleted.contains(id)) ? null : h.load(id);
+        if (w == null) throw new NoSuchFileException("workout " + id);
+        CACHE.put(w);   // the pack never changes, so no load stamp is needed
+        return w;
+    }
+
+    // Hides a swimmer's packed workouts; with archiveDir they are first written out there
+    private static void detachHistory(UUID swimmerId, Path archiveDir) throws IOException {
+        WorkoutArchive h = history;
+        if (h == null) return;
+        List<UUID> ids = h.workoutIdsFor(swimmerId);
+        ids.removeIf(historyDeleted::contains);
+        if (ids.isEmpty()) return;
+        if (archiveDir != null) {
+            for (UUID id : ids) {
+                try {
+                    String name = id.toString();
+                    AtomicFiles.write(archiveDir.resolve("workouts").resolve(name.substring(0, BUCKET_CHARS))
+                            .resolve(name + ".bin"), h.entry(id).payload, false);
+                } catch (CorruptFileException ignored) {}
+            }
+        }
+        markHistoryDeleted(ids);
+    }
+
+    private static void markHistoryDeleted(Collection<UUID> ids) throws IOException {
+        synchronized (HISTORY_LOCK) {
+            historyDeleted.addAll(ids);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(16 * historyDeleted.size() + 4);
+            DataOutputStream out = new DataOutputStream(bos);
+            out.writeInt(historyDeleted.size());
+            for (UUID id : historyDeleted) {
+                out.writeLong(id.getMostSignificantBits());
+                out.writeLong(id.getLeastSignificantBits());
+            }
+            out.flush();
+            AtomicFiles.write(HISTORY_DELETED, bos.toByteArray());
+        }
+        for (UUID id : ids) CACHE.invalidate(id);
+    }
+
+    // Maps the history pack, if there is one; a damaged pack is quarantined
+    private static void openHistory() {
+        synchronized (HISTORY_LOCK) {
+            if (historyChecked) return;
+            historyChecked = true;
+            if (!Files.exists(HISTORY_FILE)) return;
+            try {
+                history = WorkoutArchive.open(HISTORY_FILE);
+            } catch (CorruptFileException e) {
+                quarantine(HISTORY_FILE, e.reason());
+                return;
+            } catch (IOException e) {
+                return;
+            }
+            if (!Files.exists(HISTORY_DELETED)) return;
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(AtomicFiles.readVerified(HISTORY_DELETED)))) {
+                for (int n = in.readInt(); n > 0; n--) historyDeleted.add(new UUID(in.readLong(), in.readLong()));
+            } catch (IOException ignored) {}
+        }
+    }
+
+    // ======================================================================
+    // Orphans and trash
+    // ======================================================================
+
+    private static final Object RECLAIM_LOCK = new Object();
+    private static boolean reclaimQueued;   // guarded by RECLAIM_LOCK
+    // One reclaim pass at a time: a background pass and an explicit call must not walk the same batch
+    private static final Object RECLAIM_PASS_LOCK = new Object();
+
+    /**
+     * Ids of swimmers that still have a workout directory or index shard but no swimmer
+     * file (left behind by deletes before they cascaded, or by external edits).
+     */
+    public static List<UUID> listOrphanedSwimmerIds() throws IOException {
+        ensureDirs();
+        Set<UUID> owners = new HashSet<>(INDEX.indexedSwimmers());
+        WorkoutArchive h = history;
+        if (h != null) {
+            for (UUID owner : h.swimmerIds()) {
+                if (!historyDeleted.containsAll(h.workoutIdsFor(owner))) owners.add(owner);
+            }
+        }
+        if (SEGMENTED) {
+            owners.addAll(segments.workoutOwners());
+            owners.removeIf(id -> segments.contains(SegmentStore.SWIMMER, id));
+            return new ArrayList<>(owners);
+        }
+        try (var shards = Files.newDirectoryStream(WORKOUTS_DIR, Files::isDirectory)) {
+            for (Path shard : shards) {
+                try {
+                    owners.add(UUID.fromString(shard.getFileName().toString()));
+                } catch (IllegalArgumentException ignored) {}
+            }
+        }
+        owners.removeIf(id -> Files.exists(swimmerFile(id)));
+        return new ArrayList<>(owners);
+    }
+
+    /**
+     * Detaches everything left of a swimmer whose file is gone: moves their workouts to
+     * {@code archive/} or to {@code trash/} (then removed by {@link #reclaimTrash()}).
+     *
+     * @throws IllegalStateException if the swimmer still exists
+     */
+    public static void reclaimOrphan(UUID swimmerId, boolean archive) throws IOException {
+        Objects.requireNonNull(swimmerId, "swimmerId");
+        ensureDirs();
+        if (SEGMENTED ? segments.contains(SegmentStore.SWIMMER, swimmerId) : Files.exists(swimmerFile(swimmerId))) {
+            throw new IllegalStateException("Swimmer " + swimmerId + " still exists");
+        }
+        String tag = swimmerId + "-" + System.currentTimeMillis();
+        detachHistory(swimmerId, archive ? ARCHIVE_DIR.resolve(tag) : null);
+        if (SEGMENTED) {
+            detachRecords(swimmerId, archive ? ARCHIVE_DIR.resolve(tag) : null);
+            return;
+        }
+        detachWorkouts(swimmerId, archive ? ARCHIVE_DIR.resolve(tag).resolve("workouts") : TRASH_DIR.resolve(tag));
+    }
+
+    /**
+     * Deletes everything under {@code trash/}, one detached shard per task in parallel.
+     *
+     * @return number of files removed
+     */
+    public static long reclaimTrash() throws IOException {
+        synchronized (RECLAIM_PASS_LOCK) {
+            if (!Files.isDirectory(TRASH_DIR)) return 0;
+            List<Path> batches;
+            try (var stream = Files.list(TRASH_DIR)) {
+                batches = stream.collect(Collectors.toList());
             }
-        } catch (Exception ignored) {}
+            return batches.parallelStream().mapToLong(dir -> {
+                try {
+                    return deleteTree(dir);
+                } catch (IOException e) {
+                    return 0;   // left for the next pass
+                }
+            }).sum();
+        }
+    }
+
+    // Runs reclaimTrash() on a daemon thread; calls while one is pending fold into it
+    private static void scheduleReclaim() {
+        synchronized (RECLAIM_LOCK) {
+            if (reclaimQueued) return;
+            reclaimQueued = true;
+        }
+        Thread t = new Thread(() -> {
+            synchronized (RECLAIM_LOCK) { reclaimQueued = false; }
+            try { reclaimTrash(); } catch (IOException ignored) {}
+        }, "store-reclaim");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        t.start();
+    }
+
+    // ======================================================================
+    // Layout migration
+    // ======================================================================
+
+    /**
+     * One-time move of a flat {@code workouts/<id>.bin} library into per-swimmer shards.
+     * Each file is decoded (to learn its owner) and renamed into place on a parallel
+     * stream; a rename is atomic, so an interrupted migration simply resumes on the
+     * next start. Index summaries carry no paths and stay valid.
+     *
+     * <p>Saves always write the shard, so a shard file that already exists is newer than
+     * a flat copy left behind by an earlier failed move; the flat copy is then dropped,
+     * never moved over it. Files that cannot be moved are reported and stay flat.</p>
+     */
+    private static synchronized void migrateFlatWorkouts() throws IOException {
+        if (layoutChecked) return;
+        List<Path> flat;
+        try (var stream = Files.list(WORKOUTS_DIR)) {
+            flat = stream.filter(p -> p.getFileName().toString().endsWith(".bin") && Files.isRegularFile(p))
+                    .collect(Collectors.toList());
+        }
+        if (!flat.isEmpty()) {
+            flat.parallelStream().forEach(f -> {
+                try {
+                    Workout w = readWorkoutFile(f);
+                    Path target = workoutFile(w.getSwimmerId(), w.getId());
+                    Files.createDirectories(target.getParent());
+                    StoreLocks.Held held = LOCKS.lock(w.getId());
+                    try {
+                        if (Files.exists(target)) {
+                            Files.delete(f);   // saved since: the shard copy wins
+                        } else {
+                            try {
+                                Files.move(f, target, StandardCopyOption.ATOMIC_MOVE);
+                            } catch (AtomicMoveNotSupportedException e) {
+                                Files.move(f, target);
+                            }
+                        }
+                    } finally {
+                        held.close();
+                    }
+                } catch (CorruptFileException e) {
+                    quarantine(f, e.reason());
+                } catch (IOException e) {
+                    // Stays flat; it is still found (see flatWorkoutFile)
+                    report(f, "not moved into its swimmer's folder: " + e);
+                }
+            });
+        }
+        layoutChecked = true;
+    }
+
+    /** Recursively deletes a directory tree (no-op if absent); returns the number of files removed. */
+    static long deleteTree(Path root) throws IOException {
+        if (!Files.exists(root)) return 0;
+        List<Path> paths;
+        try (var stream = Files.walk(root)) {
+            paths = stream.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();   // an entry vanished or became unreadable mid-walk
+        }
+        long files = 0;
+        for (Path p : paths) {
+            boolean regular = Files.isRegularFile(p);
+            if (Files.deleteIfExists(p) && regular) files++;
+        }
+        return files;
+    }
+
+    /** Moves a damaged file into the quarantine directory and appends a line to its report. */
+    private static void quarantine(Path file, String reason) {
+        try {
+            Files.createDirectories(QUARANTINE_DIR);
+            Path dest = QUARANTINE_DIR.resolve(System.currentTimeMillis() + "-" + file.getFileName());
+            Files.move(file, dest, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ignored) {
+            return;
+        }
+        report(file, reason);
+    }
+
+    // Appends one line to quarantine/REPORT.txt
+    static void report(Path what, String reason) {
+        try {
+            Files.createDirectories(QUARANTINE_DIR);
+            String line = Instant.now() + "\t" + what + "\t" + reason + System.lineSeparator();
+            Files.writeString(QUARANTINE_DIR.resolve("REPORT.txt"), line, java.nio.charset.StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException ignored) {}
+    }
+
+    // ======================================================================
+    // Legacy convenience (kept to avoid editing many files right now)
+    // ======================================================================
+
+    /**
+     * Clears the remembered selection if it points at a deleted swimmer (together with
+     * its paired workout) or workout; either id may be {@code null}.
+     */
+    static void forgetSelection(UUID swimmerId, UUID workoutId) {
+        AppPreferences prefs = AppPreferences.get();
+        prefs.removeIf(AppPreferences.LAST_SWIMMER, swimmerId, AppPreferences.LAST_WORKOUT);
+        prefs.removeIf(AppPreferences.LAST_WORKOUT, workoutId);
+    }
+
+    /** Write both IDs at once (either may be null to clear); see {@link AppPreferences}. */
+    public static void saveLast(UUID swimmerId, UUID workoutId) {
+        AppPreferences prefs = AppPreferences.get();
+        prefs.set(AppPreferences.LAST_SWIMMER, swimmerId);
+        prefs.set(AppPreferences.LAST_WORKOUT, workoutId);
+    }
+
+    /** Previously used by MainView etc.; returns Optional as before. */
+    public static Optional<UUID> lastSwimmer() {
+        return AppPreferences.get().find(AppPreferences.LAST_SWIMMER);
+    }
+
+    /** Previously used by MainView etc.; returns Optional as before. */
+    public static Optional<UUID> lastWorkout() {
+        return AppPreferences.get().find(AppPreferences.LAST_WORKOUT);
     }
 }
@@ -0,0 +1,219 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+
+/**
+ * Write-behind front end for saves and deletes in the selected {@link Stores} backend.
+ *
+ * <p>UI code calls {@link #saveWorkout}, {@link #saveSwimmer}, {@link #deleteWorkout} or
+ * {@link #deleteSwimmer} and returns immediately; a single daemon writer thread performs
+ * the disk I/O in submission order.</p>
+ *
+ * <p><b>Design Notes:</b>
+ * <ul>
+ *   <li>The caller's object is snapshotted (deep copy) at submit time, so later edits on
+ *       the FX thread never race with the writer.</li>
+ *   <li>Operations on the same file coalesce while queued: a newer save replaces the
+ *       queued snapshot, a delete supersedes a queued save. The merged operation moves to
+ *       the back of the queue, where the newest request would have been, so it still runs
+ *       after everything submitted before it (a swimmer delete after a save of one of
+ *       their workouts removes that workout too). Coalesced callers share one
+ *       {@link CompletableFuture}.</li>
+ *   <li>Failures complete the future exceptionally and are reported to every
+ *       {@linkplain #addFailureListener failure listener}. Listeners run on the writer
+ *       thread; UI listeners must hop to the FX thread themselves.</li>
+ *   <li>{@link #flush(Duration)} waits for the queue to drain; it is called on application
+ *       exit and from a JVM shutdown hook.</li>
+ * </ul>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class PersistenceService {
+
+    private static final PersistenceService INSTANCE = new PersistenceService();
+
+    /** Shared instance used by the app. */
+    public static PersistenceService get() { return INSTANCE; }
+
+    /** I/O body of a queued operation. */
+    @FunctionalInterface
+    private interface Op { void run() throws IOException; }
+
+    private static final class Pending {
+        final String key;
+        String description;   // guarded by lock, replaced together with op
+        Op op;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Pending(String key, String description, Op op) {
+            this.key = key;
+            this.description = description;
+            this.op = op;
+        }
+    }
+
+    private final Object lock = new Object();
+    private final LinkedHashMap<String, Pending> queue = new LinkedHashMap<>();  // guarded by lock
+    private boolean busy;                                                         // guarded by lock
+    private long coalesced;                                                       // guarded by lock
+
+    private final List<BiConsumer<String, Throwable>> failureListeners = new CopyOnWriteArrayList<>();
+
+    private PersistenceService() {
+        Thread writer = new Thread(this::writerLoop, "persistence-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(Duration.ofSeconds(5)), "persistence-flush"));
+    }
+
+    // ----------------------------------------------------------
+    // Public API
+    // ----------------------------------------------------------
+
+    /** Queues a save of a snapshot of {@code w}. */
+    public CompletableFuture<Void> saveWorkout(Workout w) {
+        Objects.requireNonNull(w, "workout");
+        Workout snapshot = new Workout(w);
+        return submit("W:" + snapshot.getId(), "save workout \"" + snapshot.getName() + "\"",
+                () -> Stores.workouts().saveWorkout(snapshot));
+    }
+
+    /** Queues a delete of workout {@code id}; supersedes a queued save of it. */
+    public CompletableFuture<Void> deleteWorkout(UUID id) {
+        Objects.requireNonNull(id, "id");
+        return submit("W:" + id, "delete workout", () -> Stores.workouts().deleteWorkout(id));
+    }
+
+    /** Queues a save of a snapshot of {@code s}. */
+    public CompletableFuture<Void> saveSwimmer(Swimmer s) {
+        Objects.requireNonNull(s, "swimmer");
+        Swimmer snapshot = new Swimmer(s);
+        String name = (snapshot.getFirstName() + " " + snapshot.getLastName()).trim();
+        return submit("S:" + snapshot.getId(), "save swimmer \"" + name + "\"",
+                () -> Stores.swimmers().saveSwimmer(snapshot));
+    }
+
+    /** Queues a delete of swimmer {@code id} and all their workouts; supersedes a queued save of it. */
+    public CompletableFuture<Void> deleteSwimmer(UUID id) {
+        return deleteSwimmer(id, false);
+    }
+
+    /**
+     * Queues a delete of swimmer {@code id}; their workouts are deleted, or archived when
+     * {@code archiveWorkouts} (see {@link SwimmerStore#deleteSwimmer(UUID, boolean)}).
+     */
+    public CompletableFuture<Void> deleteSwimmer(UUID id, boolean archiveWorkouts) {
+        Objects.requireNonNull(id, "id");
+        return submit("S:" + id, archiveWorkouts ? "archive swimmer" : "delete swimmer",
+                () -> Stores.swimmers().deleteSwimmer(id, archiveWorkouts));
+    }
+
+    /**
+     * Blocks until every queued operation has run (or the timeout elapses).
+     *
+     * @return {@code true} if the queue drained
+     */
+    public boolean flush(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (lock) {
+            while (!queue.isEmpty() || busy) {
+                long waitMs = (deadline - System.nanoTime()) / 1_000_000L;
+                if (waitMs <= 0) return false;
+                try {
+                    lock.wait(waitMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /** True if nothing is queued or being written. */
+    public boolean isIdle() {
+        synchronized (lock) { return queue.isEmpty() && !busy; }
+    }
+
+    /** Saves/deletes absorbed into an already-queued operation (for diagnostics). */
+    public long coalescedCount() {
+        synchronized (lock) { return coalesced; }
+    }
+
+    /** Registers a listener for failed operations: (description, cause). */
+    public void addFailureListener(BiConsumer<String, Throwable> listener) {
+        if (listener != null) failureListeners.add(listener);
+    }
+
+    public void removeFailureListener(BiConsumer<String, Throwable> listener) {
+        failureListeners.remove(listener);
+    }
+
+    // ----------------------------------------------------------
+    // Queue
+    // ----------------------------------------------------------
+
+    private CompletableFuture<Void> submit(String key, String description, Op op) {
+        synchronized (lock) {
+            Pending p = queue.remove(key);
+            if (p != null) {
+                p.op = op;          // keep only the latest snapshot / intent
+                p.description = description;
+                queue.put(key, p);  // ...at the latest position
+                coalesced++;
+                return p.done;
+            }
+            p = new Pending(key, description, op);
+            queue.put(key, p);
+            lock.notifyAll();
+            return p.done;
+        }
+    }
+
+    private void writerLoop() {
+        while (true) {
+            Pending p;
+            Op op;
+            String description;
+            synchronized (lock) {
+                while (queue.isEmpty()) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                Iterator<Pending> it = queue.values().iterator();
+                p = it.next();
+                it.remove();
+                op = p.op;
+                description = p.description;
+                busy = true;
+            }
+
+            try {
+                op.run();
+                p.done.complete(null);
+            } catch (Throwable t) {
+                p.done.completeExceptionally(t);
+                for (BiConsumer<String, Throwable> l : failureListeners) {
+                    try { l.accept(description, t); } catch (Throwable ignored) {}
+                }
+            } finally {
+                synchronized (lock) {
+                    busy = false;
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of {@link LocalStore#recover()}: how many files were checked, how many
+ * interrupted-write temp files were removed, and which files were quarantined.
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class RecoveryReport {
+
+    private int scanned;
+    private int tempFilesRemoved;
+    private final List<String> quarantined = new ArrayList<>();
+
+    void scanned()                    { scanned++; }
+    void tempFileRemoved()            { tempFilesRemoved++; }
+    void quarantined(String entry)    { quarantined.add(entry); }
+
+    public int scannedCount()         { return scanned; }
+    public int tempFilesRemoved()     { return tempFilesRemoved; }
+
+    /** One line per quarantined file: {@code "<name>: <reason>"}. */
+    public List<String> quarantined() { return Collections.unmodifiableList(quarantined); }
+
+    /** True if nothing needed repair. */
+    public boolean isClean()          { return quarantined.isEmpty() && tempFilesRemoved == 0; }
+
+    @Override
+    public String toString() {
+        return "RecoveryReport{scanned=" + scanned +
+                ", tempFilesRemoved=" + tempFilesRemoved +
+                ", quarantined=" + quarantined.size() + '}';
+    }
+}
@@ -0,0 +1,755 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Log-structured record store: swimmers and workouts are appended to a few large segment
+ * files instead of one file each. Selected with {@code -Dswb.store.backend=segments}
+ * (see {@link LocalStore}).
+ *
+ * <p>Each record is
+ * <pre>
+ *   "SWRR" | kind:u8 | seq:i64 | id:uuid | owner:uuid | payloadLength:i32 | crc32c:i32 | payload
+ * </pre>
+ * where the CRC covers everything from {@code kind} through the payload. A delete appends
+ * a tombstone (kind with the high bit set, empty payload). The highest {@code seq} for an
+ * id wins, so replaying the segments in any order gives the same result.</p>
+ *
+ * <p><b>Design Notes:</b>
+ * <ul>
+ *   <li>An in-memory offset index maps each id to (segment, offset, length). It is written
+ *       to {@code offsets.idx} (through {@link AtomicFiles}) at close, after compaction and
+ *       every few thousand appends. At startup the index file is loaded and only the bytes
+ *       appended after it was written are scanned; without it every segment is replayed.</li>
+ *   <li>Reads are positional ({@link FileChannel#read(ByteBuffer, long)}) under a read lock,
+ *       so loads run in parallel with each other and never move a shared file pointer.</li>
+ *   <li>Appends go to the newest segment; it is sealed once it reaches the segment size.
+ *       A torn record at the end of the newest segment (crash mid-append) is cut off
+ *       when the store opens; the cut bytes are kept in a {@code *.damaged} file.</li>
+ *   <li>Compaction runs on a background thread once a segment is mostly superseded
+ *       records: live records are copied to the head of the log (keeping their
+ *       {@code seq}), a new index file is written, then the old segment is deleted.
+ *       Tombstones are copied too, unless they sit in the oldest segment, where nothing
+ *       older can be left for them to hide.</li>
+ * </ul>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class SegmentStore implements Closeable {
+
+    static final byte SWIMMER = 1;
+    static final byte WORKOUT = 2;
+    private static final byte TOMBSTONE = (byte) 0x80;   // or'ed into the kind
+
+    /** Default size at which the active segment is sealed and a new one started. */
+    public static final long DEFAULT_SEGMENT_BYTES = 16L * 1024 * 1024;
+
+    private static final int RECORD_MAGIC = 0x53575252;       // "SWRR"
+    private static final int HEADER_LEN = 4 + 1 + 8 + 16 + 16 + 4 + 4;
+    private static final int CHECKPOINT_MAGIC = 0x53574F49;   // "SWOI"
+    private static final int CHECKPOINT_VERSION = 1;
+    private static final String CHECKPOINT_FILE = "offsets.idx";
+    private static final String SEGMENT_PREFIX = "seg-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private static final double COMPACT_DEAD_RATIO = 0.5;   // a segment is rewritten once half of it is garbage
+    private static final long COMPACT_MIN_DEAD = 1L << 20;  // ...and the active one only past 1 MB of garbage
+    private static final int CHECKPOINT_EVERY = 4096;       // appends between background index writes
+
+    private static final UUID NO_OWNER = new UUID(0, 0);
+
+    private final Path dir;
+    private final long segmentBytes;
+    private final boolean fsync;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Loc> swimmers = new HashMap<>();
+    private final Map<UUID, Loc> workouts = new HashMap<>();
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private Segment active;
+    private long lastSeq;
+    private int appendsSinceCheckpoint;
+    private boolean closed;
+
+    // Compaction and index-file writes are serialized on this lock (taken before `lock`)
+    private final Object maintenanceLock = new Object();
+    private final AtomicBoolean maintenanceQueued = new AtomicBoolean();
+
+    private long compactions, reclaimedBytes, truncatedBytes;
+    private boolean openedFromCheckpoint;
+
+    private static final class Loc {
+        final int segment;
+        final long offset;
+        final int length;   // payload bytes
+        final long seq;
+        final UUID owner;
+        Loc(int segment, long offset, int length, long seq, UUID owner) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.seq = seq;
+            this.owner = owner;
+        }
+        long recordBytes() { return HEADER_LEN + length; }
+    }
+
+    private static final class Segment {
+        final int id;
+        final Path path;
+        final FileChannel ch;
+        long size;
+        long live;   // bytes of records the index still points to
+        Segment(int id, Path path, FileChannel ch, long size) {
+            this.id = id;
+            this.path = path;
+            this.ch = ch;
+            this.size = size;
+        }
+    }
+
+    // A record read back from a segment
+    private static final class Record {
+        byte kind;
+        long seq;
+        UUID id, owner;
+        byte[] payload;
+        boolean tombstone() { return (kind & TOMBSTONE) != 0; }
+        byte baseKind()     { return (byte) (kind & ~TOMBSTONE); }
+        long totalBytes()   { return HEADER_LEN + payload.length; }
+    }
+
+    private SegmentStore(Path dir, long segmentBytes, boolean fsync) {
+        if (segmentBytes < HEADER_LEN) throw new IllegalArgumentException("segmentBytes too small");
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Opens (or creates) the store in {@code dir}, loading the offset index and replaying
+     * whatever was appended after it was last written.
+     */
+    static SegmentStore open(Path dir, long segmentBytes, boolean fsync) throws IOException {
+        SegmentStore store = new SegmentStore(dir, segmentBytes, fsync);
+        store.load();
+        return store;
+    }
+
+    // ----------------------------------------------------------
+    // Reads
+    // ----------------------------------------------------------
+
+    /**
+     * Returns the payload stored for {@code id}, or {@code null} if there is none.
+     *
+     * @throws CorruptFileException if the record fails its checksum
+     */
+    byte[] get(byte kind, UUID id) throws IOException {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            Loc loc = map(kind).get(id);
+            if (loc == null) return null;
+            Segment seg = segments.get(loc.segment);
+            Record r = readRecord(seg, loc.offset);
+            if (r == null || !r.id.equals(id) || r.seq != loc.seq) {
+                throw new CorruptFileException(seg.path, "record " + id + " at " + loc.offset + " is damaged");
+            }
+            return r.payload;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean contains(byte kind, UUID id) {
+        lock.readLock().lock();
+        try {
+            return map(kind).containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Sequence number of the current record for {@code id} (changes on every put), or -1. */
+    long seq(byte kind, UUID id) {
+        lock.readLock().lock();
+        try {
+            Loc loc = map(kind).get(id);
+            return (loc == null) ? -1 : loc.seq;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Owner recorded with a workout, or {@code null} if it is not stored. */
+    UUID ownerOf(UUID workoutId) {
+        lock.readLock().lock();
+        try {
+            Loc loc = workouts.get(workoutId);
+            return (loc == null) ? null : loc.owner;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<UUID> ids(byte kind) {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(map(kind).keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Ids of the workouts stored under {@code owner}. */
+    List<UUID> workoutsOwnedBy(UUID owner) {
+        lock.readLock().lock();
+        try {
+            List<UUID> out = new ArrayList<>();
+            for (Map.Entry<UUID, Loc> e : workouts.entrySet()) {
+                if (owner.equals(e.getValue().owner)) out.add(e.getKey());
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Distinct owners of the stored workouts. */
+    Set<UUID> workoutOwners() {
+        lock.readLock().lock();
+        try {
+            Set<UUID> out = new HashSet<>();
+            for (Loc loc : workouts.values()) out.add(loc.owner);
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ----------------------------------------------------------
+    // Writes
+    // ----------------------------------------------------------
+
+    void put(byte kind, UUID id, UUID owner, byte[] payload) throws IOException {
+        batch().put(kind, id, owner, payload).commit();
+    }
+
+    /** Appends a tombstone for {@code id}; returns {@code false} if it was not stored. */
+    boolean delete(byte kind, UUID id) throws IOException {
+        if (!contains(kind, id)) return false;
+        batch().delete(kind, id).commit();
+        return true;
+    }
+
+    /** Starts a group of puts/deletes that is appended (and forced) in one go. */
+    Batch batch() {
+        return new Batch();
+    }
+
+    /** Records queued for one append; see {@link #batch()}. */
+    final class Batch {
+        private final List<Op> ops = new ArrayList<>();
+
+        Batch put(byte kind, UUID id, UUID owner, byte[] payload) {
+            ops.add(new Op(kind, id, owner == null ? NO_OWNER : owner, payload));
+            return this;
+        }
+
+        Batch delete(byte kind, UUID id) {
+            ops.add(new Op((byte) (kind | TOMBSTONE), id, null, new byte[0]));
+            return this;
+        }
+
+        /** Deletes {@code id} only if its current record is still the one with {@code seq}. */
+        Batch deleteIf(byte kind, UUID id, long seq) {
+            ops.add(new Op((byte) (kind | TOMBSTONE), id, null, new byte[0], seq));
+            return this;
+        }
+
+        Batch deleteAll(byte kind, Collection<UUID> ids) {
+            for (UUID id : ids) delete(kind, id);
+            return this;
+        }
+
+        void commit() throws IOException {
+            if (ops.isEmpty()) return;
+            lock.writeLock().lock();
+            try {
+                ensureOpen();
+                for (Op op : ops) {
+                    boolean tombstone = (op.kind & TOMBSTONE) != 0;
+                    Map<UUID, Loc> map = map((byte) (op.kind & ~TOMBSTONE));
+                    if (op.expectedSeq != ANY_SEQ) {
+                        Loc cur = map.get(op.id);
+                        if (cur == null || cur.seq != op.expectedSeq) continue;   // changed since: keep it
+                    }
+                    UUID owner = tombstone ? ownerOrNone(map.get(op.id)) : op.owner;
+                    long seq = ++lastSeq;
+                    long at = appendLocked(encode(op.kind, seq, op.id, owner, op.payload));
+                    Loc old = tombstone
+                            ? map.remove(op.id)
+                            : map.put(op.id, new Loc(active.id, at, op.payload.length, seq, owner));
+                    if (!tombstone) active.live += HEADER_LEN + op.payload.length;
+                    if (old != null) segments.get(old.segment).live -= old.recordBytes();
+                }
+                if (fsync) active.ch.force(false);
+                appendsSinceCheckpoint += ops.size();
+                scheduleMaintenanceLocked();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static final long ANY_SEQ = Long.MIN_VALUE;
+
+    private static final class Op {
+        final byte kind;
+        final UUID id, owner;
+        final byte[] payload;
+        final long expectedSeq;   // conditional delete, or ANY_SEQ
+        Op(byte kind, UUID id, UUID owner, byte[] payload) {
+            this(kind, id, owner, payload, ANY_SEQ);
+        }
+        Op(byte kind, UUID id, UUID owner, byte[] payload, long expectedSeq) {
+            this.kind = kind;
+            this.id = id;
+            this.owner = owner;
+            this.payload = payload;
+            this.expectedSeq = expectedSeq;
+        }
+    }
+
+    private static UUID ownerOrNone(Loc loc) {
+        return (loc == null) ? NO_OWNER : loc.owner;
+    }
+
+    // Writes one encoded record at the end of the active segment; caller holds the write lock
+    private long appendLocked(ByteBuffer record) throws IOException {
+        if (active.size > 0 && active.size + record.remaining() > segmentBytes) roll();
+        long at = active.size;
+        long pos = at;
+        while (record.hasRemaining()) pos += active.ch.write(record, pos);
+        active.size = pos;
+        return at;
+    }
+
+    private void roll() throws IOException {
+        if (fsync) active.ch.force(false);
+        active = openSegment(active.id + 1);
+        segments.put(active.id, active);
+    }
+
+    // ----------------------------------------------------------
+    // Compaction and the index file
+    // ----------------------------------------------------------
+
+    /**
+     * Rewrites segments that are mostly superseded records and deletes them. With
+     * {@code force}, every segment holding any garbage is rewritten, including the active one.
+     */
+    void compact(boolean force) throws IOException {
+        synchronized (maintenanceLock) {
+            List<Segment> victims = new ArrayList<>();
+            lock.writeLock().lock();
+            try {
+                if (closed) return;
+                if (worthCompacting(active, force, true)) roll();   // seal it so it can be rewritten
+                for (Segment s : segments.values()) {
+                    if (s != active && worthCompacting(s, force, false)) victims.add(s);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (victims.isEmpty()) return;
+
+            long reclaimed = 0;
+            for (Segment v : victims) reclaimed += v.size - copyLive(v);
+            byte[] checkpoint;
+            lock.writeLock().lock();
+            try {
+                if (fsync) active.ch.force(false);   // copies must be durable before the originals go
+                for (Segment v : victims) {
+                    segments.remove(v.id);
+                    v.ch.close();
+                }
+                checkpoint = snapshotLocked();
+                compactions++;
+                reclaimedBytes += reclaimed;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            // The index file must stop naming the victims before their files disappear
+            AtomicFiles.write(dir.resolve(CHECKPOINT_FILE), checkpoint, fsync);
+            for (Segment v : victims) Files.deleteIfExists(v.path);
+        }
+    }
+
+    private static boolean worthCompacting(Segment s, boolean force, boolean isActive) {
+        long dead = s.size - s.live;
+        if (force) return dead > 0;
+        if (isActive && dead < COMPACT_MIN_DEAD) return false;
+        return dead > 0 && dead >= COMPACT_DEAD_RATIO * s.size;
+    }
+
+    // Copies the records of a sealed segment that are still current to the head of the log;
+    // returns the bytes copied
+    private long copyLive(Segment victim) throws IOException {
+        long pos = 0, copied = 0;
+        while (pos < victim.size) {
+            Record r = readRecord(victim, pos);   // sealed, so no lock needed to read it
+            if (r == null) break;                // damaged tail: nothing after it was ever indexed
+            lock.writeLock().lock();
+            try {
+                Map<UUID, Loc> map = map(r.baseKind());
+                if (r.tombstone()) {
+                    if (segments.firstKey() != victim.id && !map.containsKey(r.id)) {
+                        appendLocked(encode(r.kind, r.seq, r.id, r.owner, r.payload));
+                        copied += r.totalBytes();
+                    }
+                } else {
+                    Loc cur = map.get(r.id);
+                    if (cur != null && cur.segment == victim.id && cur.offset == pos) {
+                        long at = appendLocked(encode(r.kind, r.seq, r.id, r.owner, r.payload));
+                        map.put(r.id, new Loc(active.id, at, cur.length, cur.seq, cur.owner));
+                        active.live += cur.recordBytes();
+                        victim.live -= cur.recordBytes();
+                        copied += r.totalBytes();
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            pos += r.totalBytes();
+        }
+        return copied;
+    }
+
+    /** Writes the offset index file now. */
+    void checkpoint() throws IOException {
+        synchronized (maintenanceLock) {
+            byte[] bytes;
+            lock.writeLock().lock();
+            try {
+                if (closed) return;
+                bytes = snapshotLocked();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            AtomicFiles.write(dir.resolve(CHECKPOINT_FILE), bytes, fsync);
+        }
+    }
+
+    // Serializes the offset index; resets the append counter
+    private byte[] snapshotLocked() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(64 + 72 * (swimmers.size() + workouts.size()));
+        DataOutputStream out = new DataOutputStream(bos);
+        out.writeInt(CHECKPOINT_MAGIC);
+        out.writeInt(CHECKPOINT_VERSION);
+        out.writeLong(lastSeq);
+        out.writeInt(segments.size());
+        for (Segment s : segments.values()) {
+            out.writeInt(s.id);
+            out.writeLong(s.size);
+        }
+        for (Map<UUID, Loc> map : List.of(swimmers, workouts)) {
+            out.writeInt(map.size());
+            for (Map.Entry<UUID, Loc> e : map.entrySet()) {
+                Loc loc = e.getValue();
+                writeUuid(out, e.getKey());
+                writeUuid(out, loc.owner);
+                out.writeInt(loc.segment);
+                out.writeLong(loc.offset);
+                out.writeInt(loc.length);
+                out.writeLong(loc.seq);
+            }
+        }
+        out.flush();
+        appendsSinceCheckpoint = 0;
+        return bos.toByteArray();
+    }
+
+    // Starts a background compaction/index write when one is due; caller holds the write lock
+    private void scheduleMaintenanceLocked() {
+        boolean due = appendsSinceCheckpoint >= CHECKPOINT_EVERY;
+        for (Segment s : segments.values()) due |= worthCompacting(s, false, s == active);
+        if (!due || !maintenanceQueued.compareAndSet(false, true)) return;
+        Thread t = new Thread(() -> {
+            maintenanceQueued.set(false);
+            try {
+                compact(false);
+                checkpoint();
+            } catch (IOException ignored) {}   // retried after the next append
+        }, "segment-compactor");
+        t.setDaemon(true);
+        t.setPriority(Thread.MIN_PRIORITY);
+        t.start();
+    }
+
+    /** Writes the offset index and closes the segment files. */
+    @Override
+    public void close() throws IOException {
+        synchronized (maintenanceLock) {
+            byte[] bytes;
+            lock.writeLock().lock();
+            try {
+                if (closed) return;
+                if (fsync) active.ch.force(false);
+                bytes = snapshotLocked();
+                closed = true;
+                for (Segment s : segments.values()) s.ch.close();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            AtomicFiles.write(dir.resolve(CHECKPOINT_FILE), bytes, fsync);
+        }
+    }
+
+    // ----------------------------------------------------------
+    // Startup
+    // ----------------------------------------------------------
+
+    private void load() throws IOException {
+        Files.createDirectories(dir);
+        try (var stream = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path p : stream) {
+                String name = p.getFileName().toString();
+                try {
+                    int id = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                    segments.put(id, openSegment(id));
+                } catch (NumberFormatException ignored) {}
+            }
+        }
+
+        Map<Integer, Long> scanFrom = new HashMap<>();
+        long seqFloor = readCheckpoint(scanFrom);
+        openedFromCheckpoint = seqFloor >= 0;
+
+        // Replay what the index file does not cover (everything, without one)
+        Map<UUID, Long> deadSwimmers = new HashMap<>(), deadWorkouts = new HashMap<>();
+        for (Segment seg : segments.values()) {
+            long pos = scanFrom.getOrDefault(seg.id, 0L);
+            while (pos < seg.size) {
+                Record r = readRecord(seg, pos);
+                if (r == null) {
+                    if (seg.id == segments.lastKey()) truncateTail(seg, pos);   // torn append from a crash
+                    break;
+                }
+                lastSeq = Math.max(lastSeq, r.seq);
+                if (r.seq > seqFloor) {
+                    replay(seg, pos, r, r.baseKind() == SWIMMER ? deadSwimmers : deadWorkouts);
+                }
+                pos += r.totalBytes();
+            }
+        }
+
+        for (Map<UUID, Loc> map : List.of(swimmers, workouts)) {
+            for (Loc loc : map.values()) segments.get(loc.segment).live += loc.recordBytes();
+        }
+        if (segments.isEmpty()) segments.put(1, openSegment(1));
+        active = segments.lastEntry().getValue();
+    }
+
+    // Cuts the newest segment back to its last good record; the cut bytes are kept beside it
+    private void truncateTail(Segment seg, long pos) throws IOException {
+        ByteBuffer tail = ByteBuffer.allocate((int) Math.min(Integer.MAX_VALUE, seg.size - pos));
+        readFully(seg.ch, tail, pos);
+        Files.write(dir.resolve(seg.path.getFileName() + "." + pos + ".damaged"), tail.array());
+        truncatedBytes += seg.size - pos;
+        seg.ch.truncate(pos);
+        seg.size = pos;
+    }
+
+    // Applies one record during startup if it is newer than what is known for its id
+    private void replay(Segment seg, long pos, Record r, Map<UUID, Long> deadSeqs) {
+        Map<UUID, Loc> map = map(r.baseKind());
+        Loc cur = map.get(r.id);
+        long curSeq = (cur != null) ? cur.seq : deadSeqs.getOrDefault(r.id, -1L);
+        if (r.seq < curSeq) return;   // equal = a compaction copy of the same record
+        if (r.tombstone()) {
+            map.remove(r.id);
+            deadSeqs.put(r.id, r.seq);
+        } else {
+            map.put(r.id, new Loc(seg.id, pos, r.payload.length, r.seq, r.owner));
+        }
+    }
+
+    /**
+     * Loads the offset index file into the maps. Returns the highest sequence number it
+     * covers (records at or below it are already reflected) and fills {@code scanFrom}
+     * with each segment's covered length; returns -1 if there is no usable index file.
+     */
+    private long readCheckpoint(Map<Integer, Long> scanFrom) {
+        Path file = dir.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) return -1;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(AtomicFiles.readVerified(file)))) {
+            if (in.readInt() != CHECKPOINT_MAGIC || in.readInt() != CHECKPOINT_VERSION) return -1;
+            long seq = in.readLong();
+            Map<Integer, Long> sizes = new HashMap<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                int id = in.readInt();
+                long size = in.readLong();
+                Segment seg = segments.get(id);
+                if (seg == null || seg.size < size) return -1;   // segment gone or cut short: replay it all
+                sizes.put(id, size);
+            }
+            List<Map<UUID, Loc>> maps = List.of(new HashMap<>(), new HashMap<>());
+            for (Map<UUID, Loc> map : maps) {
+                for (int n = in.readInt(); n > 0; n--) {
+                    UUID id = readUuid(in);
+                    UUID owner = readUuid(in);
+                    Loc loc = new Loc(in.readInt(), in.readLong(), in.readInt(), in.readLong(), owner);
+                    if (!sizes.containsKey(loc.segment)) return -1;
+                    map.put(id, loc);
+                }
+            }
+            swimmers.putAll(maps.get(0));
+            workouts.putAll(maps.get(1));
+            scanFrom.putAll(sizes);
+            lastSeq = seq;
+            return seq;
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    // ----------------------------------------------------------
+    // Record I/O
+    // ----------------------------------------------------------
+
+    private static ByteBuffer encode(byte kind, long seq, UUID id, UUID owner, byte[] payload) {
+        ByteBuffer b = ByteBuffer.allocate(HEADER_LEN + payload.length);
+        b.putInt(RECORD_MAGIC).put(kind).putLong(seq)
+                .putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits())
+                .putLong(owner.getMostSignificantBits()).putLong(owner.getLeastSignificantBits())
+                .putInt(payload.length);
+        b.putInt(crc(b.array(), payload)).put(payload).flip();
+        return b;
+    }
+
+    // CRC32C over kind..payloadLength and the payload
+    private static int crc(byte[] header, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(header, 4, HEADER_LEN - 8);
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+
+    /** Reads and verifies the record at {@code pos}; {@code null} if it is torn or damaged. */
+    private static Record readRecord(Segment seg, long pos) throws IOException {
+        if (pos + HEADER_LEN > seg.size) return null;
+        ByteBuffer head = ByteBuffer.allocate(HEADER_LEN);
+        readFully(seg.ch, head, pos);
+        head.flip();
+        if (head.getInt() != RECORD_MAGIC) return null;
+        Record r = new Record();
+        r.kind = head.get();
+        r.seq = head.getLong();
+        r.id = new UUID(head.getLong(), head.getLong());
+        r.owner = new UUID(head.getLong(), head.getLong());
+        int len = head.getInt();
+        int crc = head.getInt();
+        if (len < 0 || pos + HEADER_LEN + len > seg.size) return null;
+        ByteBuffer body = ByteBuffer.allocate(len);
+        readFully(seg.ch, body, pos + HEADER_LEN);
+        r.payload = body.array();
+        return (crc(head.array(), r.payload) == crc) ? r : null;
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer b, long pos) throws IOException {
+        while (b.hasRemaining()) {
+            int n = ch.read(b, pos + b.position());
+            if (n < 0) throw new EOFException("unexpected end of segment");
+        }
+    }
+
+    private Segment openSegment(int id) throws IOException {
+        Path path = dir.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segment(id, path, ch, ch.size());
+    }
+
+    private Map<UUID, Loc> map(byte kind) {
+        if (kind == SWIMMER) return swimmers;
+        if (kind == WORKOUT) return workouts;
+        throw new IllegalArgumentException("unknown record kind " + kind);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) throw new IOException("Segment store is closed: " + dir);
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInputStream in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    // ----------------------------------------------------------
+    // Stats
+    // ----------------------------------------------------------
+
+    /** Snapshot of the store's size and maintenance counters. */
+    Stats stats() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0, live = 0;
+            for (Segment s : segments.values()) {
+                bytes += s.size;
+                live += s.live;
+            }
+            return new Stats(segments.size(), bytes, live, swimmers.size(), workouts.size(),
+                    compactions, reclaimedBytes, truncatedBytes, openedFromCheckpoint);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Immutable counters; {@link #liveRatio()} is the share of bytes still referenced. */
+    public static final class Stats {
+        public final int segments;
+        public final long bytes, liveBytes;
+        public final int swimmers, workouts;
+        public final long compactions, reclaimedBytes, truncatedBytes;
+        public final boolean openedFromCheckpoint;
+
+        Stats(int segments, long bytes, long liveBytes, int swimmers, int workouts,
+              long compactions, long reclaimedBytes, long truncatedBytes, boolean openedFromCheckpoint) {
+            this.segments = segments;
+            this.bytes = bytes;
+            this.liveBytes = liveBytes;
+            this.swimmers = swimmers;
+            this.workouts = workouts;
+            this.compactions = compactions;
+            this.reclaimedBytes = reclaimedBytes;
+            this.truncatedBytes = truncatedBytes;
+            this.openedFromCheckpoint = openedFromCheckpoint;
+        }
+
+        public double liveRatio() {
+            return (bytes == 0) ? 1.0 : (double) liveBytes / bytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("SegmentStore{segments=%d, %d KB (%.1f%% live), swimmers=%d, workouts=%d, "
+                            + "compactions=%d, reclaimed=%d KB, truncated=%d B, fromIndexFile=%s}",
+                    segments, bytes / 1024, liveRatio() * 100, swimmers, workouts,
+                    compactions, reclaimedBytes / 1024, truncatedBytes, openedFromCheckpoint);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.*;
+import java.nio.file.*;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.model.pacing.WorkoutTotals;
+
+/**
+ * Compact record of the session that was on screen at exit: the selected swimmer, the
+ * open workout (if any) and its computed totals.
+ *
+ * <p>The application writes it on exit and reads it first thing on launch, so the previous
+ * swimmer and workout can be shown in the builder before the full swimmer list and the
+ * workout index have loaded.</p>
+ *
+ * <p><b>Design Notes:</b>
+ * <ul>
+ *   <li>Stored as a single small file ({@code session.snap}) through {@link AtomicFiles},
+ *       so a torn or bit-flipped snapshot is detected and simply ignored.</li>
+ *   <li>The version stamps of the stored swimmer and workout (file modified time, or
+ *       record sequence number with the segment and database backends) are recorded at write time. If
+ *       either changed since (another tool, a newer save), the snapshot is stale and
+ *       {@link #load()} returns {@code null}; startup then takes the normal path.</li>
+ *   <li>An accepted snapshot records the restored versions as seen by this instance, so a
+ *       later save of them still fails with {@link StoreConflictException} if another
+ *       instance saved in between.</li>
+ *   <li>Only saved state is captured: callers pass {@code null} for a workout with
+ *       unsaved edits, which must not be resurrected on the next launch.</li>
+ * </ul>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class SessionSnapshot {
+
+    private static final int MAGIC = 0x53575353;   // "SWSS"
+    private static final int VERSION = 1;
+
+    private final Swimmer swimmer;
+    private final Workout workout;        // nullable
+    private final WorkoutTotals totals;   // nullable (no workout, or totals unavailable)
+
+    private SessionSnapshot(Swimmer swimmer, Workout workout, WorkoutTotals totals) {
+        this.swimmer = swimmer;
+        this.workout = workout;
+        this.totals = totals;
+    }
+
+    /** Swimmer that was selected. */
+    public Swimmer swimmer() { return swimmer; }
+
+    /** Workout that was open, or {@code null}. */
+    public Workout workout() { return workout; }
+
+    /** Totals computed for {@link #workout()} at exit, or {@code null}. */
+    public WorkoutTotals totals() { return totals; }
+
+    // ----------------------------------------------------------
+    // Write / read
+    // ----------------------------------------------------------
+
+    /**
+     * Records the session. Call after pending saves have been flushed so the recorded
+     * stamps match what is stored.
+     *
+     * @param swimmer selected swimmer; {@code null} clears any previous snapshot
+     * @param workout open, saved workout belonging to {@code swimmer}, or {@code null}
+     * @param totals  totals for {@code workout}, or {@code null}
+     */
+    public static void save(Swimmer swimmer, Workout workout, WorkoutTotals totals) throws IOException {
+        Path file = LocalStore.sessionFile();
+        long swimmerStamp = (swimmer == null) ? -1 : Stores.swimmers().swimmerVersion(swimmer.getId());
+        if (swimmerStamp < 0) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        long workoutStamp = (workout == null || !swimmer.getId().equals(workout.getSwimmerId()))
+                ? -1 : Stores.workouts().workoutVersion(workout.getSwimmerId(), workout.getId());
+        if (workoutStamp < 0) workout = null;
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(1024);
+        DataOutputStream out = new DataOutputStream(bos);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+
+        out.writeLong(swimmerStamp);
+        writeBlock(out, encode(os -> WorkoutCodec.writeSwimmer(os, swimmer)));
+
+        out.writeBoolean(workout != null);
+        if (workout != null) {
+            Workout w = workout;
+            out.writeLong(workoutStamp);
+            writeBlock(out, encode(os -> WorkoutCodec.writeWorkout(os, w)));
+            out.writeBoolean(totals != null);
+            if (totals != null) {
+                out.writeDouble(totals.swimSeconds());
+                out.writeDouble(totals.restSeconds());
+            }
+        }
+        out.flush();
+        AtomicFiles.write(file, bos.toByteArray(), false);   // losing it only costs the fast path
+    }
+
+    /**
+     * Reads the snapshot written at the last exit.
+     *
+     * @return the snapshot, or {@code null} if there is none or it is stale or unreadable
+     */
+    public static SessionSnapshot load() {
+        Path file = LocalStore.sessionFile();
+        if (!Files.exists(file)) return null;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(AtomicFiles.readVerified(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+
+            long swimmerStamp = in.readLong();
+            Swimmer swimmer = WorkoutCodec.readSwimmer(new ByteArrayInputStream(readBlock(in)));
+            if (Stores.swimmers().swimmerVersion(swimmer.getId()) != swimmerStamp) return null;
+
+            Workout workout = null;
+            WorkoutTotals totals = null;
+            if (in.readBoolean()) {
+                long workoutStamp = in.readLong();
+                Workout w = WorkoutCodec.readWorkout(new ByteArrayInputStream(readBlock(in)));
+                boolean hasTotals = in.readBoolean();
+                // a stale workout only drops the workout; the swimmer is still good
+                if (Stores.workouts().workoutVersion(w.getSwimmerId(), w.getId()) == workoutStamp
+                        && swimmer.getId().equals(w.getSwimmerId())) {
+                    workout = w;
+                    if (hasTotals) totals = WorkoutTotals.of(in.readDouble(), in.readDouble());
+                }
+            }
+            // The restored copies are what this instance now edits: saves must check against them
+            LocalStore.noteSeen(swimmer);
+            if (workout != null) LocalStore.noteSeen(workout);
+            return new SessionSnapshot(swimmer, workout, totals);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    // ----------------------------------------------------------
+    // Helpers
+    // ----------------------------------------------------------
+
+    @FunctionalInterface
+    private interface Encoder { void write(OutputStream os) throws IOException; }
+
+    private static byte[] encode(Encoder e) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(512);
+        e.write(bos);
+        return bos.toByteArray();
+    }
+
+    private static void writeBlock(DataOutputStream out, byte[] b) throws IOException {
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static byte[] readBlock(DataInputStream in) throws IOException {
+        int len = in.readInt();
+        if (len < 0 || len > in.available()) throw new EOFException("bad block length " + len);
+        byte[] b = new byte[len];
+        in.readFully(b);
+        return b;
+    }
+}
@@ -0,0 +1,35 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.util.Objects;
+
+/**
+ * One result of {@link WorkoutStore#similarTo}: a workout header and how closely the
+ * workout resembles the one searched for.
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class SimilarWorkout {
+
+    private final WorkoutSummary summary;
+    private final double similarity;
+
+    SimilarWorkout(WorkoutSummary summary, double similarity) {
+        this.summary = Objects.requireNonNull(summary, "summary");
+        this.similarity = similarity;
+    }
+
+    public WorkoutSummary getSummary() { return summary; }
+
+    /** 1 for an identical make-up, falling towards 0 as workouts differ. */
+    public double getSimilarity() { return similarity; }
+
+    @Override
+    public String toString() {
+        return "SimilarWorkout{" +
+                "name=" + summary.getName() +
+                ", similarity=" + String.format("%.3f", similarity) +
+                '}';
+    }
+}
@@ -0,0 +1,42 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A change made to the store by someone else (another instance of the app on a shared or
+ * synced data directory), as reported by {@link StoreWatcher}. Changes this instance made
+ * itself are never reported.
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class StoreChange {
+
+    /** What changed. */
+    public enum Kind { SWIMMER_SAVED, SWIMMER_DELETED, WORKOUT_SAVED, WORKOUT_DELETED }
+
+    private final Kind kind;
+    private final UUID swimmerId;
+    private final UUID workoutId;   // null for swimmer changes
+
+    StoreChange(Kind kind, UUID swimmerId, UUID workoutId) {
+        this.kind = Objects.requireNonNull(kind, "kind");
+        this.swimmerId = Objects.requireNonNull(swimmerId, "swimmerId");
+        this.workoutId = workoutId;
+    }
+
+    public Kind kind() { return kind; }
+
+    /** The swimmer changed, or the owner of the workout changed. */
+    public UUID swimmerId() { return swimmerId; }
+
+    /** The workout changed, or {@code null} for a swimmer change. */
+    public UUID workoutId() { return workoutId; }
+
+    @Override
+    public String toString() {
+        return "StoreChange{" + kind + ", swimmer=" + swimmerId + (workoutId == null ? "" : ", workout=" + workoutId) + '}';
+    }
+}
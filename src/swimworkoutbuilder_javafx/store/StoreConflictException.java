@@ -0,0 +1,45 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Thrown when a save would overwrite a version this instance has not seen: the stored
+ * swimmer or workout was changed by another instance of the app (or a sync tool) since it
+ * was loaded here. Nothing is written.
+ *
+ * <p>The caller can reload the stored version, or save its own as a new object. The next
+ * plain save of the same object still conflicts until one of those happens.</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public class StoreConflictException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Path file;
+    private final UUID id;
+    private final String expected;
+    private final String found;
+
+    public StoreConflictException(Path file, UUID id, Object expected, Object found) {
+        super("Changed elsewhere since it was loaded: " + file + " (expected " + expected + ", found " + found + ")");
+        this.file = file;
+        this.id = id;
+        this.expected = String.valueOf(expected);
+        this.found = String.valueOf(found);
+    }
+
+    public Path file() { return file; }
+
+    /** Id of the swimmer or workout that was not saved. */
+    public UUID id() { return id; }
+
+    /** Version this instance last read or wrote. */
+    public String expected() { return expected; }
+
+    /** Version found in the store. */
+    public String found() { return found; }
+}
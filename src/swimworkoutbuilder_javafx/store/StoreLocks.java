@@ -0,0 +1,83 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Advisory per-object write locks shared by every instance of the app on one data
+ * directory, so that checking an object's stored version and replacing its file happen as
+ * one step.
+ *
+ * <p><b>Design Notes:</b>
+ * <ul>
+ *   <li>One lock file ({@code store.lock}) holds {@link #STRIPES} one-byte regions; an
+ *       object id maps to a region. Objects are renamed over, not rewritten, so locking
+ *       the object files themselves would protect nothing.</li>
+ *   <li>{@link FileChannel} locks belong to the whole JVM, so each region is also guarded
+ *       by an in-process lock; threads of one instance queue there, other instances on
+ *       the file lock.</li>
+ *   <li>Locks are held only around a single save or delete. They are honoured by local
+ *       and network file systems; a sync tool copying files between machines ignores
+ *       them, which is what the version check under the lock is for.</li>
+ * </ul>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+final class StoreLocks {
+
+    static final int STRIPES = 1024;
+
+    /** A held lock; closing it releases it. */
+    interface Held extends AutoCloseable {
+        @Override void close() throws IOException;
+    }
+
+    private final Path file;
+    private final ReentrantLock[] local = new ReentrantLock[STRIPES];
+    private volatile FileChannel channel;
+
+    StoreLocks(Path file) {
+        this.file = file;
+        for (int i = 0; i < STRIPES; i++) local[i] = new ReentrantLock();
+    }
+
+    /** Blocks until this instance holds the write lock of {@code id}. Not reentrant. */
+    Held lock(UUID id) throws IOException {
+        int stripe = Math.floorMod(id.hashCode(), STRIPES);
+        ReentrantLock inProcess = local[stripe];
+        inProcess.lock();
+        try {
+            FileLock region = channel().lock(stripe, 1, false);
+            return () -> {
+                try {
+                    region.release();
+                } finally {
+                    inProcess.unlock();
+                }
+            };
+        } catch (IOException | RuntimeException e) {
+            inProcess.unlock();
+            throw e;
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        FileChannel ch = channel;
+        if (ch != null && ch.isOpen()) return ch;
+        synchronized (this) {
+            if (channel == null || !channel.isOpen()) {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            return channel;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Watches the file layout for changes made by other instances of the app (or a sync
+ * tool) and reports each changed swimmer or workout as a {@link StoreChange}, after
+ * bringing this instance's caches and indexes up to date with it.
+ *
+ * <p><b>Design Notes:</b>
+ * <ul>
+ *   <li>{@link WatchService} is not recursive, so the swimmer folder and every folder of
+ *       the workout tree are registered, and folders created later are registered as
+ *       they appear.</li>
+ *   <li>Events are gathered until the tree has been quiet for {@link #SETTLE}, then each
+ *       changed file is handled once; a save (temp file + rename) or a sync burst is one
+ *       change.</li>
+ *   <li>This instance's own writes are recognised by version (see
+ *       {@link LocalStore#externalChange}) and not reported.</li>
+ *   <li>If the watch queue overflows, individual changes are lost: the header and side
+ *       indexes are invalidated so they reconcile on next use, and the version check on
+ *       save still catches conflicts.</li>
+ *   <li>The listener runs on the watcher thread; UI listeners must hop to the FX thread
+ *       themselves.</li>
+ * </ul>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class StoreWatcher implements Closeable {
+
+    /** How long the tree must be quiet before gathered events are handled. */
+    public static final Duration SETTLE = Duration.ofMillis(200);
+
+    private final WatchService watcher;
+    private final Map<WatchKey, Path> dirs = new HashMap<>();   // watcher thread only (after start)
+    private final Consumer<StoreChange> listener;
+    private final Thread thread;
+
+    private StoreWatcher(Collection<Path> roots, Consumer<StoreChange> listener) throws IOException {
+        this.listener = Objects.requireNonNull(listener, "listener");
+        this.watcher = FileSystems.getDefault().newWatchService();
+        try {
+            for (Path root : roots) registerTree(root);
+        } catch (IOException | RuntimeException e) {
+            watcher.close();
+            throw e;
+        }
+        this.thread = new Thread(this::run, "store-watcher");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Starts watching the file layout; {@code null} with the segment and database
+     * backends, which keep the library in files a single instance owns.
+     */
+    static StoreWatcher start(Consumer<StoreChange> listener) throws IOException {
+        if (LocalStore.segmentBackend()) return null;
+        StoreWatcher w = new StoreWatcher(LocalStore.watchedDirs(), listener);
+        w.thread.start();
+        return w;
+    }
+
+    @Override
+    public void close() throws IOException {
+        thread.interrupt();
+        watcher.close();
+    }
+
+    // ----------------------------------------------------------
+    // Loop
+    // ----------------------------------------------------------
+
+    private void run() {
+        try {
+            while (true) {
+                Set<Path> changed = new LinkedHashSet<>();
+                boolean overflow = drain(watcher.take(), changed);
+                WatchKey more;
+                while ((more = watcher.poll(SETTLE.toMillis(), TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= drain(more, changed);
+                }
+                if (overflow) LocalStore.externalChangesLost();
+                for (Path file : changed) {
+                    StoreChange c = LocalStore.externalChange(file);
+                    if (c == null) continue;
+                    try {
+                        listener.accept(c);
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    // Collects the files named by one key's events; registers new folders. True on overflow.
+    private boolean drain(WatchKey key, Set<Path> changed) {
+        Path dir = dirs.get(key);
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            if (dir == null) continue;
+            Path child = dir.resolve((Path) event.context());
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                try {
+                    registerTree(child);
+                    // Files that landed before the folder was registered (e.g. a synced shard)
+                    try (var stream = Files.walk(child)) {
+                        stream.filter(Files::isRegularFile).forEach(changed::add);
+                    }
+                } catch (IOException e) {
+                    overflow = true;   // could not follow it; treat as lost changes
+                }
+                continue;
+            }
+            String name = child.getFileName().toString();
+            if (name.endsWith(".bin")) changed.add(child);
+        }
+        if (!key.reset()) dirs.remove(key);
+        return overflow;
+    }
+
+    private void registerTree(Path root) throws IOException {
+        if (!Files.isDirectory(root)) return;
+        try (var stream = Files.walk(root)) {
+            for (Path dir : (Iterable<Path>) stream.filter(Files::isDirectory)::iterator) {
+                dirs.put(dir.register(watcher, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Picks the storage backend once, at startup, from {@code -Dswb.store.backend}:
+ * <ul>
+ *   <li>{@code files} (default) &ndash; one file per swimmer and workout ({@link LocalStore})</li>
+ *   <li>{@code segments} &ndash; the same API over the segment log ({@link SegmentStore})</li>
+ *   <li>{@code db} &ndash; the embedded database ({@link LibraryDb}, on the segment log)</li>
+ * </ul>
+ * App code reaches swimmers and workouts through {@link #swimmers()} and
+ * {@link #workouts()} rather than naming a backend.
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class Stores {
+
+    private static final String BACKEND =
+            System.getProperty("swb.store.backend", "files").trim().toLowerCase(Locale.ROOT);
+
+    // null unless the db backend is selected
+    private static final DbStore DB = BACKEND.equals("db") ? new DbStore(LocalStore.databaseFile()) : null;
+
+    private Stores() {}
+
+    public static SwimmerStore swimmers() {
+        return (DB != null) ? DB : FileLayoutStore.INSTANCE;
+    }
+
+    public static WorkoutStore workouts() {
+        return (DB != null) ? DB : FileLayoutStore.INSTANCE;
+    }
+
+    /** Name of the selected backend: {@code files}, {@code segments} or {@code db}. */
+    public static String backend() {
+        return swimmers().toString();
+    }
+
+    /** Size and compaction counters of the database, or {@code null} when it is not selected. */
+    public static SegmentStore.Stats databaseStats() throws IOException {
+        return (DB != null) ? DB.stats() : null;
+    }
+
+    /**
+     * Starts reporting changes other instances make to a shared data directory (see
+     * {@link StoreWatcher}); {@code null} if the selected backend is not the file layout.
+     * Close the watcher to stop.
+     */
+    public static StoreWatcher watch(Consumer<StoreChange> listener) throws IOException {
+        return (DB != null) ? null : StoreWatcher.start(listener);
+    }
+
+    /** Reclaims space held by superseded records in whichever backend keeps them. */
+    public static void compact() throws IOException {
+        if (DB != null) DB.compact();
+        else LocalStore.compactStore();
+    }
+
+    /** Empties the selected backend's workout cache (e.g. before a cold-read measurement). */
+    public static void clearWorkoutCache() {
+        if (DB != null) DB.clearCache();
+        else LocalStore.clearWorkoutCache();
+    }
+
+    /** Hit/miss/eviction counters of the selected backend's workout cache. */
+    public static WorkoutCache.Stats workoutCacheStats() {
+        return (DB != null) ? DB.cacheStats() : LocalStore.workoutCacheStats();
+    }
+}
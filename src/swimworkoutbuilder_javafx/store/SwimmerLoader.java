@@ -0,0 +1,109 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import swimworkoutbuilder_javafx.model.Swimmer;
+
+/**
+ * Background, parallel loader for the saved swimmer list.
+ *
+ * <p>{@link #loadAll} lists swimmer ids from the selected {@link Stores} backend, loads
+ * them slice by slice ({@link SwimmerStore#loadSwimmers}) on a small bounded pool and
+ * hands results to a sink in batches, so a large roster can stream
+ * into the UI after the window is already showing.</p>
+ *
+ * <p><b>Design Notes:</b>
+ * <ul>
+ *   <li>An optional {@code first} id (the last selected swimmer) is loaded before anything
+ *       else and delivered alone as the first batch.</li>
+ *   <li>Batches arrive in completion order, not name order; the sink sorts/merges
+ *       (see {@link LocalStore#SWIMMER_ORDER}).</li>
+ *   <li>The sink is called from a loader thread, one batch at a time; UI sinks must hop
+ *       to the FX thread themselves.</li>
+ *   <li>Unreadable swimmers are skipped, as {@link SwimmerStore#listAllSwimmers()} does;
+ *       corrupt ones are quarantined by the store.</li>
+ * </ul>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class SwimmerLoader {
+
+    /** Default number of swimmers per delivered batch. */
+    public static final int DEFAULT_BATCH = 128;
+
+    private static final int THREADS = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    private SwimmerLoader() {}
+
+    /**
+     * Starts loading every saved swimmer in the background.
+     *
+     * @param first     swimmer to load and deliver first (may be {@code null} or missing on disk)
+     * @param batchSize maximum swimmers per sink call
+     * @param sink      receives each batch (never empty) on a loader thread
+     * @return completes with the number of swimmers delivered, or exceptionally if the
+     *         swimmer directory cannot be listed
+     */
+    public static CompletableFuture<Integer> loadAll(UUID first, int batchSize, Consumer<List<Swimmer>> sink) {
+        Objects.requireNonNull(sink, "sink");
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be >= 1");
+
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        Thread coordinator = new Thread(() -> {
+            try {
+                result.complete(run(first, batchSize, sink));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }, "swimmer-loader");
+        coordinator.setDaemon(true);
+        coordinator.start();
+        return result;
+    }
+
+    private static int run(UUID first, int batchSize, Consumer<List<Swimmer>> sink) throws Exception {
+        SwimmerStore store = Stores.swimmers();
+        List<UUID> ids = store.listSwimmerIds();
+        int delivered = 0;
+
+        if (first != null && ids.remove(first)) {
+            List<Swimmer> s = store.loadSwimmers(List.of(first));
+            if (!s.isEmpty()) {
+                sink.accept(s);
+                delivered++;
+            }
+        }
+        if (ids.isEmpty()) return delivered;
+
+        // One task per batch-sized slice: fewer hand-offs than one task per file
+        List<List<UUID>> slices = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += batchSize) {
+            slices.add(ids.subList(i, Math.min(ids.size(), i + batchSize)));
+        }
+        AtomicInteger n = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(THREADS, slices.size()), r -> {
+            Thread t = new Thread(r, "swimmer-loader-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            CompletionService<List<Swimmer>> done = new ExecutorCompletionService<>(pool);
+            for (List<UUID> slice : slices) {
+                done.submit(() -> store.loadSwimmers(slice));
+            }
+            for (int i = 0; i < slices.size(); i++) {
+                List<Swimmer> batch = done.take().get();
+                if (batch.isEmpty()) continue;
+                sink.accept(batch);
+                delivered += batch.size();
+            }
+            return delivered;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import swimworkoutbuilder_javafx.model.Swimmer;
+
+/**
+ * Storage of swimmers, independent of how they are laid out on disk.
+ *
+ * <p>Implementations are thread-safe. The one the app uses is picked at startup by
+ * {@link Stores}; {@link LocalStore} (one file per swimmer, or the segment log) and
+ * {@link DbStore} (embedded database) are the two available.</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public interface SwimmerStore {
+
+    /** Saves a swimmer, stamping its {@code updatedAt}. */
+    void saveSwimmer(Swimmer s) throws IOException;
+
+    /**
+     * Loads one swimmer.
+     *
+     * @throws java.nio.file.NoSuchFileException if it is not stored
+     * @throws CorruptFileException if its stored bytes are damaged (they are quarantined)
+     */
+    Swimmer loadSwimmer(UUID id) throws IOException;
+
+    /**
+     * Loads several swimmers, skipping any that are missing or damaged. Backends that
+     * can read many records at once override this.
+     */
+    default List<Swimmer> loadSwimmers(Collection<UUID> ids) {
+        List<Swimmer> out = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            try { out.add(loadSwimmer(id)); } catch (Exception ignored) {}
+        }
+        return out;
+    }
+
+    /**
+     * Deletes a swimmer together with all of their workouts.
+     *
+     * @param archiveWorkouts if {@code true}, the swimmer and workouts are copied to
+     *        {@code archive/<swimmerId>-<millis>/} first
+     */
+    void deleteSwimmer(UUID id, boolean archiveWorkouts) throws IOException;
+
+    /** All readable swimmers, in {@link LocalStore#SWIMMER_ORDER}. */
+    List<Swimmer> listAllSwimmers() throws IOException;
+
+    /** Ids of all stored swimmers, without reading them. */
+    List<UUID> listSwimmerIds() throws IOException;
+
+    /** Version stamp of a stored swimmer (changes on every save), or -1 if it is not stored. */
+    long swimmerVersion(UUID id) throws IOException;
+}
@@ -0,0 +1,489 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32C;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.model.enums.Course;
+
+/**
+ * Immutable, memory-mapped pack of past workouts (the "history" tier): workouts that
+ * are only browsed, never edited, moved out of the live store by
+ * {@link LocalStore#packHistory(Instant)}.
+ *
+ * <p>File layout ({@code history.swa}, big-endian):
+ * <pre>
+ *   header   "SWAR" | version | workouts | swimmers | cutoff | tablesOffset | tablesCrc
+ *   records  one per workout, grouped by swimmer, newest first:
+ *            fixed summary fields | payloadCrc | name | notes | codec payload
+ *   offsets  record offset (i64) per record, in record order
+ *   ranges   swimmerId | first record | count      sorted by swimmerId
+ *   ids      workoutId | record                    sorted by workoutId
+ * </pre></p>
+ *
+ * <p><b>Design Notes:</b>
+ * <ul>
+ *   <li>The whole file is mapped read-only. Lookups binary-search the id and range tables
+ *       in place; nothing is loaded into the heap at open besides a checksum pass over
+ *       the (small) tables.</li>
+ *   <li>Listing decodes only the fixed summary fields and the name/notes strings straight
+ *       from the mapping. The {@link WorkoutCodec} payload is decoded, and its CRC32C
+ *       checked, only when {@link #load(UUID)} opens the workout.</li>
+ *   <li>Never modified in place: {@link #write} builds a complete new file that replaces
+ *       the old one by atomic rename. The old archive must be {@link #close closed} first:
+ *       a mapped file cannot be renamed over on every platform (Windows refuses).</li>
+ *   <li>Lookups hold a read lock while they touch the mapping, so closing waits for them
+ *       and then unmaps at once. A lookup on a closed archive finds nothing.</li>
+ *   <li>Mappings are limited to 2 GB, far beyond any realistic library.</li>
+ * </ul>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class WorkoutArchive {
+
+    private static final int MAGIC = 0x53574152;   // "SWAR"
+    private static final int VERSION = 1;
+    private static final int HEADER_LEN = 4 + 4 + 4 + 4 + 8 + 8 + 4;
+
+    private static final int RANGE_ENTRY = 16 + 4 + 4;
+    private static final int ID_ENTRY = 16 + 4;
+
+    // Fixed part of a record, by offset
+    private static final int R_ID = 0;
+    private static final int R_OWNER = 16;
+    private static final int R_COURSE = 32;            // ordinal, u8
+    private static final int R_CREATED = 33;           // epoch seconds i64 + nanos i32
+    private static final int R_UPDATED = 45;
+    private static final int R_DISTANCE = 57;          // canonical micro-units
+    private static final int R_NAME_LEN = 65;          // UTF-8 bytes
+    private static final int R_NOTES_LEN = 69;         // UTF-8 bytes, -1 = null
+    private static final int R_PAYLOAD_LEN = 73;
+    private static final int R_PAYLOAD_CRC = 77;
+    private static final int R_FIXED = 81;
+
+    private static final Course[] COURSES = Course.values();
+
+    private final Path file;
+    private final ByteBuffer map;   // read-only; only absolute reads, so safe to share across threads
+    private final int workouts;
+    private final int swimmers;
+    private final Instant cutoff;
+    private final int offsetsAt, rangesAt, idsAt;
+
+    private final ReentrantReadWriteLock guard = new ReentrantReadWriteLock();
+    private boolean closed;   // guarded by guard
+
+    private WorkoutArchive(Path file, ByteBuffer map) throws CorruptFileException {
+        this.file = file;
+        this.map = map;
+        if (map.capacity() < HEADER_LEN || map.getInt(0) != MAGIC) throw new CorruptFileException(file, "not a workout archive");
+        if (map.getInt(4) != VERSION) throw new CorruptFileException(file, "unsupported archive version " + map.getInt(4));
+        workouts = map.getInt(8);
+        swimmers = map.getInt(12);
+        cutoff = Instant.ofEpochSecond(map.getLong(16));
+        long tables = map.getLong(24);
+        long tablesLen = (long) workouts * 8 + (long) swimmers * RANGE_ENTRY + (long) workouts * ID_ENTRY;
+        if (workouts < 0 || swimmers < 0 || tables < HEADER_LEN || tables + tablesLen != map.capacity()) {
+            throw new CorruptFileException(file, "archive tables out of bounds");
+        }
+        offsetsAt = (int) tables;
+        rangesAt = offsetsAt + workouts * 8;
+        idsAt = rangesAt + swimmers * RANGE_ENTRY;
+        if (crc(map, offsetsAt, (int) tablesLen) != map.getInt(32)) throw new CorruptFileException(file, "archive table checksum mismatch");
+    }
+
+    /** Maps an archive file read-only. */
+    static WorkoutArchive open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() > Integer.MAX_VALUE) throw new CorruptFileException(file, "archive larger than 2 GB");
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            return new WorkoutArchive(file, map);
+        }
+    }
+
+    // ----------------------------------------------------------
+    // Lookups
+    // ----------------------------------------------------------
+
+    /** Number of archived workouts. */
+    public int size() { return workouts; }
+
+    /** Cutoff the archive was last packed with (workouts last updated before it). */
+    public Instant cutoff() { return cutoff; }
+
+    boolean contains(UUID workoutId) {
+        if (!enter()) return false;
+        try {
+            return recordOf(workoutId) >= 0;
+        } finally {
+            exit();
+        }
+    }
+
+    /** Owner of an archived workout, or {@code null}. */
+    UUID ownerOf(UUID workoutId) {
+        if (!enter()) return null;
+        try {
+            int r = recordOf(workoutId);
+            return (r < 0) ? null : uuidAt(offsetOf(r) + R_OWNER);
+        } finally {
+            exit();
+        }
+    }
+
+    /** Swimmers with at least one archived workout. */
+    List<UUID> swimmerIds() {
+        if (!enter()) return new ArrayList<>();
+        try {
+            List<UUID> out = new ArrayList<>(swimmers);
+            for (int i = 0; i < swimmers; i++) out.add(uuidAt(rangesAt + i * RANGE_ENTRY));
+            return out;
+        } finally {
+            exit();
+        }
+    }
+
+    /** Ids of every archived workout. */
+    List<UUID> workoutIds() {
+        if (!enter()) return new ArrayList<>();
+        try {
+            List<UUID> out = new ArrayList<>(workouts);
+            for (int i = 0; i < workouts; i++) out.add(uuidAt(idsAt + i * ID_ENTRY));
+            return out;
+        } finally {
+            exit();
+        }
+    }
+
+    /** Ids of a swimmer's archived workouts, newest first. */
+    List<UUID> workoutIdsFor(UUID swimmerId) {
+        if (!enter()) return new ArrayList<>();
+        try {
+            int range = rangeOf(swimmerId);
+            if (range < 0) return new ArrayList<>();
+            int first = map.getInt(range + 16), count = map.getInt(range + 20);
+            List<UUID> out = new ArrayList<>(count);
+            for (int r = first; r < first + count; r++) out.add(uuidAt(offsetOf(r) + R_ID));
+            return out;
+        } finally {
+            exit();
+        }
+    }
+
+    /** Summaries of a swimmer's archived workouts, newest first (payloads are not touched). */
+    List<WorkoutSummary> summariesFor(UUID swimmerId) throws CorruptFileException {
+        if (!enter()) return new ArrayList<>();
+        try {
+            int range = rangeOf(swimmerId);
+            if (range < 0) return new ArrayList<>();
+            int first = map.getInt(range + 16), count = map.getInt(range + 20);
+            List<WorkoutSummary> out = new ArrayList<>(count);
+            for (int r = first; r < first + count; r++) out.add(summaryAt(offsetOf(r)));
+            return out;
+        } finally {
+            exit();
+        }
+    }
+
+    /** Summary of one archived workout, or {@code null}. */
+    WorkoutSummary summary(UUID workoutId) throws CorruptFileException {
+        if (!enter()) return null;
+        try {
+            int r = recordOf(workoutId);
+            return (r < 0) ? null : summaryAt(offsetOf(r));
+        } finally {
+            exit();
+        }
+    }
+
+    /**
+     * Decodes a full archived workout, straight from the mapping.
+     *
+     * @return the workout, or {@code null} if it is not archived
+     * @throws CorruptFileException if its payload fails the checksum or does not decode
+     */
+    Workout load(UUID workoutId) throws IOException {
+        if (!enter()) return null;
+        try {
+            int r = recordOf(workoutId);
+            if (r < 0) return null;
+            int at = offsetOf(r);
+            int payloadAt = payloadAt(at);
+            int len = map.getInt(at + R_PAYLOAD_LEN);
+            if (crc(map, payloadAt, len) != map.getInt(at + R_PAYLOAD_CRC)) {
+                throw new CorruptFileException(file, "archived workout " + workoutId + ": checksum mismatch");
+            }
+            try {
+                return WorkoutCodec.readWorkout(new MappedInput(map.slice(payloadAt, len)));
+            } catch (IOException | RuntimeException e) {
+                throw new CorruptFileException(file, "archived workout " + workoutId + " does not decode", e);
+            }
+        } finally {
+            exit();
+        }
+    }
+
+    /** Copy of one record's summary and codec payload, for repacking; {@code null} if absent. */
+    Entry entry(UUID workoutId) throws CorruptFileException {
+        if (!enter()) return null;
+        try {
+            int r = recordOf(workoutId);
+            if (r < 0) return null;
+            int at = offsetOf(r);
+            byte[] payload = new byte[map.getInt(at + R_PAYLOAD_LEN)];
+            map.get(payloadAt(at), payload);
+            return new Entry(summaryAt(at), payload);
+        } finally {
+            exit();
+        }
+    }
+
+    /**
+     * Unmaps the archive once no lookup is using it, so its file can be replaced. Later
+     * lookups find nothing. If the JVM offers no way to unmap, the mapping is left to the
+     * garbage collector.
+     */
+    void close() {
+        guard.writeLock().lock();
+        try {
+            if (closed) return;
+            closed = true;
+            unmap(map);
+        } finally {
+            guard.writeLock().unlock();
+        }
+    }
+
+    // Takes the read lock for a lookup; false (lock not held) if the archive is closed
+    private boolean enter() {
+        guard.readLock().lock();
+        if (!closed) return true;
+        guard.readLock().unlock();
+        return false;
+    }
+
+    private void exit() {
+        guard.readLock().unlock();
+    }
+
+    // sun.misc.Unsafe.invokeCleaner, reached reflectively (jdk.unsupported) so the build stays warning-free
+    private static void unmap(ByteBuffer mapped) {
+        try {
+            Class<?> unsafe = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafe.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe.getMethod("invokeCleaner", ByteBuffer.class).invoke(theUnsafe.get(null), mapped);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // left to the garbage collector
+        }
+    }
+
+    // ----------------------------------------------------------
+    // Writing
+    // ----------------------------------------------------------
+
+    /** One workout to pack: its summary and its {@link WorkoutCodec} payload. */
+    static final class Entry {
+        final WorkoutSummary summary;
+        final byte[] payload;
+        Entry(WorkoutSummary summary, byte[] payload) {
+            this.summary = Objects.requireNonNull(summary, "summary");
+            this.payload = Objects.requireNonNull(payload, "payload");
+        }
+    }
+
+    /** Writes a complete archive of {@code entries} to {@code target}, replacing it atomically. */
+    static void write(Path target, Collection<Entry> entries, Instant cutoff, boolean fsync) throws IOException {
+        List<Entry> records = new ArrayList<>(entries);
+        records.sort(Comparator.comparing((Entry e) -> e.summary.getSwimmerId())
+                .thenComparing(e -> e.summary.getUpdatedAt(), Comparator.reverseOrder()));
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(HEADER_LEN + records.size() * 1024);
+        DataOutputStream out = new DataOutputStream(bos);
+        out.write(new byte[HEADER_LEN]);   // patched below
+
+        long[] offsets = new long[records.size()];
+        List<UUID> owners = new ArrayList<>();
+        List<int[]> ranges = new ArrayList<>();   // {first, count}
+        for (int i = 0; i < records.size(); i++) {
+            offsets[i] = out.size();
+            WorkoutSummary s = records.get(i).summary;
+            byte[] payload = records.get(i).payload;
+            byte[] name = s.getName().getBytes(StandardCharsets.UTF_8);
+            byte[] notes = (s.getNotes() == null) ? null : s.getNotes().getBytes(StandardCharsets.UTF_8);
+            writeUuid(out, s.getId());
+            writeUuid(out, s.getSwimmerId());
+            out.writeByte(s.getCourse().ordinal());
+            writeInstant(out, s.getCreatedAt());
+            writeInstant(out, s.getUpdatedAt());
+            out.writeLong(s.totalDistanceMicroUnits());
+            out.writeInt(name.length);
+            out.writeInt(notes == null ? -1 : notes.length);
+            out.writeInt(payload.length);
+            out.writeInt(crc(ByteBuffer.wrap(payload), 0, payload.length));
+            out.write(name);
+            if (notes != null) out.write(notes);
+            out.write(payload);
+
+            if (owners.isEmpty() || !owners.get(owners.size() - 1).equals(s.getSwimmerId())) {
+                owners.add(s.getSwimmerId());
+                ranges.add(new int[]{i, 0});
+            }
+            ranges.get(ranges.size() - 1)[1]++;
+        }
+
+        long tablesAt = out.size();
+        for (long off : offsets) out.writeLong(off);
+        for (int i = 0; i < owners.size(); i++) {
+            writeUuid(out, owners.get(i));
+            out.writeInt(ranges.get(i)[0]);
+            out.writeInt(ranges.get(i)[1]);
+        }
+        Integer[] byId = new Integer[records.size()];
+        for (int i = 0; i < byId.length; i++) byId[i] = i;
+        Arrays.sort(byId, Comparator.comparing(i -> records.get(i).summary.getId()));
+        for (int i : byId) {
+            writeUuid(out, records.get(i).summary.getId());
+            out.writeInt(i);
+        }
+        out.flush();
+
+        ByteBuffer all = ByteBuffer.wrap(bos.toByteArray());
+        all.putInt(0, MAGIC)
+                .putInt(4, VERSION)
+                .putInt(8, records.size())
+                .putInt(12, owners.size())
+                .putLong(16, cutoff.getEpochSecond())
+                .putLong(24, tablesAt)
+                .putInt(32, crc(all, (int) tablesAt, all.capacity() - (int) tablesAt));
+        AtomicFiles.writeRaw(target, all.array(), fsync);
+    }
+
+    // ----------------------------------------------------------
+    // Helpers
+    // ----------------------------------------------------------
+
+    // Record index of a workout id (binary search of the id table), or -1
+    private int recordOf(UUID id) {
+        int lo = 0, hi = workouts - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int at = idsAt + mid * ID_ENTRY;
+            int c = compareAt(at, id);
+            if (c < 0) lo = mid + 1;
+            else if (c > 0) hi = mid - 1;
+            else return map.getInt(at + 16);
+        }
+        return -1;
+    }
+
+    // Position of a swimmer's range entry (binary search of the range table), or -1
+    private int rangeOf(UUID swimmerId) {
+        int lo = 0, hi = swimmers - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int at = rangesAt + mid * RANGE_ENTRY;
+            int c = compareAt(at, swimmerId);
+            if (c < 0) lo = mid + 1;
+            else if (c > 0) hi = mid - 1;
+            else return at;
+        }
+        return -1;
+    }
+
+    // Same order as UUID.compareTo (signed most, then least significant bits)
+    private int compareAt(int at, UUID id) {
+        int c = Long.compare(map.getLong(at), id.getMostSignificantBits());
+        return (c != 0) ? c : Long.compare(map.getLong(at + 8), id.getLeastSignificantBits());
+    }
+
+    private int offsetOf(int record) {
+        return (int) map.getLong(offsetsAt + record * 8);
+    }
+
+    private int payloadAt(int at) {
+        int notes = map.getInt(at + R_NOTES_LEN);
+        return at + R_FIXED + map.getInt(at + R_NAME_LEN) + Math.max(0, notes);
+    }
+
+    private WorkoutSummary summaryAt(int at) throws CorruptFileException {
+        int nameLen = map.getInt(at + R_NAME_LEN);
+        int notesLen = map.getInt(at + R_NOTES_LEN);
+        int course = map.get(at + R_COURSE) & 0xFF;
+        if (course >= COURSES.length || nameLen < 0) throw new CorruptFileException(file, "bad archive record at " + at);
+        return new WorkoutSummary(
+                uuidAt(at + R_ID),
+                uuidAt(at + R_OWNER),
+                utf8(at + R_FIXED, nameLen),
+                notesLen < 0 ? null : utf8(at + R_FIXED + nameLen, notesLen),
+                COURSES[course],
+                instantAt(at + R_CREATED),
+                instantAt(at + R_UPDATED),
+                map.getLong(at + R_DISTANCE));
+    }
+
+    private String utf8(int at, int len) {
+        byte[] b = new byte[len];   // the String needs its own bytes anyway
+        map.get(at, b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private UUID uuidAt(int at) {
+        return new UUID(map.getLong(at), map.getLong(at + 8));
+    }
+
+    private Instant instantAt(int at) {
+        return Instant.ofEpochSecond(map.getLong(at), map.getInt(at + 8));
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant t) throws IOException {
+        out.writeLong(t.getEpochSecond());
+        out.writeInt(t.getNano());
+    }
+
+    private static int crc(ByteBuffer b, int at, int len) {
+        CRC32C crc = new CRC32C();
+        crc.update(b.slice(at, len));
+        return (int) crc.getValue();
+    }
+
+    // InputStream over a slice of the mapping; the codec reads the workout without a heap copy
+    private static final class MappedInput extends InputStream {
+        private final ByteBuffer buf;
+        MappedInput(ByteBuffer buf) { this.buf = buf; }
+
+        @Override
+        public int read() {
+            return buf.hasRemaining() ? buf.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) return 0;
+            if (!buf.hasRemaining()) return -1;
+            int n = Math.min(len, buf.remaining());
+            buf.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buf.remaining();
+        }
+    }
+}
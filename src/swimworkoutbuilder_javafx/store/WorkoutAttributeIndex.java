@@ -0,0 +1,299 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.*;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Function;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.model.enums.Course;
+import swimworkoutbuilder_javafx.model.enums.Equipment;
+
+/**
+ * Secondary index over what every saved workout contains ({@link WorkoutAttributes}):
+ * answers {@link WorkoutQuery} attribute filters, such as "at least 2000 threshold
+ * freestyle, LCM, with paddles", without reading or decoding a single workout.
+ *
+ * <p><b>Design Notes:</b>
+ * <ul>
+ *   <li>Columnar: each workout is a row number, and course, total distance, duration,
+ *       equipment and every stroke × effort histogram cell are parallel arrays indexed by
+ *       row. Rows freed by deletes are reused, so the arrays stay dense.</li>
+ *   <li>Bitmaps ({@link BitSet} of rows) per course, stroke, effort, equipment and owner
+ *       narrow the candidates first. Total distance and duration have range indexes
+ *       (rows sorted by value, rebuilt on the first query after a change). Only the rows
+ *       left are checked against the histogram columns, and only the matches are turned
+ *       into headers.</li>
+ *   <li>Persistence, reconciliation and the header kept with each row come from
+ *       {@link WorkoutSideIndex}. Durations are estimated from the owner's seed times
+ *       when a workout is indexed; saving a swimmer with changed seeds re-indexes their
+ *       workouts (see {@link WorkoutSideIndexes#reindexOwner}).</li>
+ * </ul>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+final class WorkoutAttributeIndex extends WorkoutSideIndex<WorkoutAttributes> {
+
+    private static final int MAGIC = 0x53574154;   // "SWAT"
+    private static final int VERSION = 1;
+    private static final int COURSES = Course.values().length;
+    private static final int EQUIPMENT = Equipment.values().length;
+
+    // Columns, indexed by row
+    private int capacity = 0;
+    private WorkoutSummary[] headers = new WorkoutSummary[0];
+    private long[] total = new long[0];
+    private long[] duration = new long[0];
+    private int[] equipment = new int[0];
+    private final long[][] cells = new long[WorkoutAttributes.CELLS][0];
+
+    private final Map<UUID, Integer> rowOf = new HashMap<>();
+    private final Deque<Integer> freeRows = new ArrayDeque<>();
+    private int rows = 0;   // high-water mark
+
+    // Bitmaps of rows
+    private final BitSet live = new BitSet();
+    private final BitSet[] byCourse = bitmaps(COURSES);
+    private final BitSet[] byStroke = bitmaps(WorkoutAttributes.STROKE_SLOTS);
+    private final BitSet[] byEffort = bitmaps(WorkoutAttributes.EFFORT_SLOTS);
+    private final BitSet[] byEquipment = bitmaps(EQUIPMENT);
+    private final Map<UUID, BitSet> byOwner = new HashMap<>();
+
+    // Range indexes: live rows sorted by column value; null = rebuild on next use
+    private int[] byTotal;
+    private int[] byDuration;
+
+    WorkoutAttributeIndex(Path file, Source source, Object lock) {
+        super(file, MAGIC, VERSION, source, lock);
+    }
+
+    // ----------------------------------------------------------
+    // Queries
+    // ----------------------------------------------------------
+
+    /** Headers of the workouts matching every filter of {@code q}, ordered and limited as {@link WorkoutQuery#select} does. */
+    List<WorkoutSummary> query(WorkoutQuery q) throws IOException {
+        Objects.requireNonNull(q, "query");
+        synchronized (lock) {
+            ensureOpen();
+            List<WorkoutSummary> hits = new ArrayList<>();
+            BitSet rows = matching(q);
+            for (int r = rows.nextSetBit(0); r >= 0; r = rows.nextSetBit(r + 1)) hits.add(headers[r]);
+            return q.select(hits);
+        }
+    }
+
+    /** Ids of every workout matching {@code q}, ignoring its limit. */
+    Set<UUID> ids(WorkoutQuery q) throws IOException {
+        Objects.requireNonNull(q, "query");
+        synchronized (lock) {
+            ensureOpen();
+            Set<UUID> ids = new HashSet<>();
+            BitSet rows = matching(q);
+            for (int r = rows.nextSetBit(0); r >= 0; r = rows.nextSetBit(r + 1)) ids.add(headers[r].getId());
+            return ids;
+        }
+    }
+
+    // Bitmaps, then ranges, then a scan of the histogram columns over what is left
+    private BitSet matching(WorkoutQuery q) {
+        WorkoutQuery.Attributes a = q.attributes();
+        BitSet c = (BitSet) live.clone();
+        if (!q.swimmerIds().isEmpty()) {
+            BitSet owners = new BitSet();
+            for (UUID id : q.swimmerIds()) {
+                BitSet b = byOwner.get(id);
+                if (b != null) owners.or(b);
+            }
+            c.and(owners);
+        }
+        if (q.course() != null) c.and(byCourse[q.course().ordinal()]);
+        for (int e = 0; e < EQUIPMENT; e++) {
+            if ((a.equipmentAll & (1 << e)) != 0) c.and(byEquipment[e]);
+            if ((a.equipmentNone & (1 << e)) != 0) c.andNot(byEquipment[e]);
+        }
+        for (WorkoutQuery.SetDistance f : a.sets) {
+            if (f.min <= 0) continue;   // a zero lower bound also admits workouts without such sets
+            if (f.stroke != null) c.and(byStroke[f.stroke.ordinal()]);
+            if (f.effort != null) c.and(byEffort[f.effort.ordinal()]);
+        }
+        if (c.isEmpty()) return c;
+
+        if (q.minDistance() > 0 || q.maxDistance() < Long.MAX_VALUE) {
+            if (byTotal == null) byTotal = sortedRows(total);
+            c.and(range(byTotal, total, q.minDistance(), q.maxDistance()));
+        }
+        if (a.hasDuration()) {
+            if (byDuration == null) byDuration = sortedRows(duration);
+            c.and(range(byDuration, duration, Math.max(0, a.minDuration), a.maxDuration));   // -1 (unknown) never matches
+        }
+
+        for (WorkoutQuery.SetDistance f : a.sets) {
+            int[] columns = columns(f);
+            for (int r = c.nextSetBit(0); r >= 0; r = c.nextSetBit(r + 1)) {
+                long d = 0;
+                for (int col : columns) d += cells[col][r];
+                if (d < f.min || d > f.max) c.clear(r);
+            }
+        }
+        // name and date filters, on the few headers left
+        for (int r = c.nextSetBit(0); r >= 0; r = c.nextSetBit(r + 1)) {
+            if (!q.matches(headers[r])) c.clear(r);
+        }
+        return c;
+    }
+
+    // Histogram columns a set filter adds up (null stroke/effort = every row/column)
+    private static int[] columns(WorkoutQuery.SetDistance f) {
+        int[] out = new int[WorkoutAttributes.CELLS];
+        int n = 0;
+        for (int si = 0; si < WorkoutAttributes.STROKE_SLOTS; si++) {
+            if (f.stroke != null && si != f.stroke.ordinal()) continue;
+            for (int ei = 0; ei < WorkoutAttributes.EFFORT_SLOTS; ei++) {
+                if (f.effort != null && ei != f.effort.ordinal()) continue;
+                out[n++] = si * WorkoutAttributes.EFFORT_SLOTS + ei;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private int[] sortedRows(long[] column) {
+        Integer[] boxed = new Integer[live.cardinality()];
+        int i = 0;
+        for (int r = live.nextSetBit(0); r >= 0; r = live.nextSetBit(r + 1)) boxed[i++] = r;
+        Arrays.sort(boxed, Comparator.comparingLong(r -> column[r]));
+        int[] out = new int[boxed.length];
+        for (i = 0; i < out.length; i++) out[i] = boxed[i];
+        return out;
+    }
+
+    // Rows whose value lies in [min, max], by binary search over the sorted rows
+    private static BitSet range(int[] sorted, long[] column, long min, long max) {
+        int lo = 0, hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (column[sorted[mid]] < min) lo = mid + 1; else hi = mid;
+        }
+        BitSet out = new BitSet();
+        for (int i = lo; i < sorted.length && column[sorted[i]] <= max; i++) out.set(sorted[i]);
+        return out;
+    }
+
+    // ----------------------------------------------------------
+    // Entries and columns
+    // ----------------------------------------------------------
+
+    @Override
+    Function<Workout, WorkoutAttributes> deriver() {
+        Function<UUID, Swimmer> owners = owners();   // no swimmer: duration left unknown
+        return w -> WorkoutAttributes.of(w, owners.apply(w.getSwimmerId()));
+    }
+
+    @Override
+    void added(UUID id, Entry<WorkoutAttributes> e) {
+        int r = freeRows.isEmpty() ? rows++ : freeRows.pop();
+        if (r >= capacity) grow(Math.max(64, capacity * 2));
+        rowOf.put(id, r);
+        WorkoutAttributes a = e.data;
+        headers[r] = e.header;
+        total[r] = e.header.totalDistanceMicroUnits();
+        duration[r] = a.durationSeconds();
+        equipment[r] = a.equipmentMask();
+        for (int c = 0; c < WorkoutAttributes.CELLS; c++) {
+            cells[c][r] = a.cell(c);
+            if (cells[c][r] > 0) {
+                byStroke[c / WorkoutAttributes.EFFORT_SLOTS].set(r);
+                byEffort[c % WorkoutAttributes.EFFORT_SLOTS].set(r);
+            }
+        }
+        live.set(r);
+        byCourse[e.header.getCourse().ordinal()].set(r);
+        for (int b = 0; b < EQUIPMENT; b++) {
+            if ((equipment[r] & (1 << b)) != 0) byEquipment[b].set(r);
+        }
+        byOwner.computeIfAbsent(e.header.getSwimmerId(), k -> new BitSet()).set(r);
+        byTotal = byDuration = null;
+    }
+
+    @Override
+    void removed(UUID id, Entry<WorkoutAttributes> e) {
+        Integer r = rowOf.remove(id);
+        if (r == null) return;
+        live.clear(r);
+        for (BitSet b : byCourse) b.clear(r);
+        for (BitSet b : byStroke) b.clear(r);
+        for (BitSet b : byEffort) b.clear(r);
+        for (BitSet b : byEquipment) b.clear(r);
+        BitSet owned = byOwner.get(e.header.getSwimmerId());
+        if (owned != null) {
+            owned.clear(r);
+            if (owned.isEmpty()) byOwner.remove(e.header.getSwimmerId());
+        }
+        headers[r] = null;
+        freeRows.push(r);
+        byTotal = byDuration = null;
+    }
+
+    @Override
+    void cleared() {
+        rowOf.clear();
+        freeRows.clear();
+        rows = 0;
+        Arrays.fill(headers, null);
+        live.clear();
+        for (BitSet b : byCourse) b.clear();
+        for (BitSet b : byStroke) b.clear();
+        for (BitSet b : byEffort) b.clear();
+        for (BitSet b : byEquipment) b.clear();
+        byOwner.clear();
+        byTotal = byDuration = null;
+    }
+
+    private void grow(int n) {
+        headers = Arrays.copyOf(headers, n);
+        total = Arrays.copyOf(total, n);
+        duration = Arrays.copyOf(duration, n);
+        equipment = Arrays.copyOf(equipment, n);
+        for (int c = 0; c < cells.length; c++) cells[c] = Arrays.copyOf(cells[c], n);
+        capacity = n;
+    }
+
+    private static BitSet[] bitmaps(int n) {
+        BitSet[] out = new BitSet[n];
+        for (int i = 0; i < n; i++) out[i] = new BitSet();
+        return out;
+    }
+
+    // equipment:i32 | duration:i64 | count:u8 | (cell:u8 | micro units:i64)* for non-empty cells
+    @Override
+    void writeData(DataOutput out, WorkoutAttributes a) throws IOException {
+        out.writeInt(a.equipmentMask());
+        out.writeLong(a.durationSeconds());
+        int n = 0;
+        for (int c = 0; c < WorkoutAttributes.CELLS; c++) {
+            if (a.cell(c) != 0) n++;
+        }
+        out.writeByte(n);
+        for (int c = 0; c < WorkoutAttributes.CELLS; c++) {
+            if (a.cell(c) == 0) continue;
+            out.writeByte(c);
+            out.writeLong(a.cell(c));
+        }
+    }
+
+    @Override
+    WorkoutAttributes readData(DataInput in) throws IOException {
+        int equipment = in.readInt();
+        long duration = in.readLong();
+        int n = in.readUnsignedByte();
+        long[] cells = new long[WorkoutAttributes.CELLS];
+        for (int i = 0; i < n; i++) {
+            int c = in.readUnsignedByte();
+            if (c >= cells.length) throw new IOException("Bad histogram cell " + c);
+            cells[c] = in.readLong();
+        }
+        return new WorkoutAttributes(cells, equipment, duration);
+    }
+}
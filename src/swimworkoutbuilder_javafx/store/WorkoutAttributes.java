@@ -0,0 +1,145 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.util.Arrays;
+import java.util.Objects;
+import swimworkoutbuilder_javafx.model.SetGroup;
+import swimworkoutbuilder_javafx.model.SwimSet;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.model.enums.Effort;
+import swimworkoutbuilder_javafx.model.enums.Equipment;
+import swimworkoutbuilder_javafx.model.enums.StrokeType;
+import swimworkoutbuilder_javafx.model.pacing.DefaultPacePolicy;
+import swimworkoutbuilder_javafx.model.pacing.WorkoutTotals;
+
+/**
+ * Compact, immutable summary of what a workout's sets contain: distance per stroke ×
+ * effort, the equipment used anywhere, and the estimated duration. Kept per workout in
+ * the attribute index so {@link WorkoutQuery} set filters (e.g. "at least 2000 threshold
+ * freestyle with paddles") are answered without loading workouts.
+ *
+ * <p>Set distance counts every rep, including group repetitions (per-rep distance ×
+ * set reps × group reps), in canonical micro units (see
+ * {@link swimworkoutbuilder_javafx.model.units.Distance}). Sets without a stroke or effort
+ * are kept in an extra "unspecified" row or column, so wildcard lookups still add up to
+ * the workout's total distance.</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class WorkoutAttributes {
+
+    /** Histogram rows (strokes plus "unspecified") and columns (efforts plus "unspecified"). */
+    static final int STROKE_SLOTS = StrokeType.values().length + 1;
+    static final int EFFORT_SLOTS = Effort.values().length + 1;
+    static final int CELLS = STROKE_SLOTS * EFFORT_SLOTS;
+
+    private final long[] cells;        // [stroke * EFFORT_SLOTS + effort], micro units
+    private final int equipment;       // bit per Equipment ordinal
+    private final long durationSeconds;   // -1 = unknown (missing seed times)
+
+    WorkoutAttributes(long[] cells, int equipment, long durationSeconds) {
+        if (cells.length != CELLS) throw new IllegalArgumentException("cells");
+        this.cells = cells;
+        this.equipment = equipment;
+        this.durationSeconds = durationSeconds;
+    }
+
+    /**
+     * Summarizes a workout. Duration is estimated with {@link DefaultPacePolicy} from the
+     * swimmer's seed times; it is unknown if {@code swimmer} is null or lacks a needed seed.
+     */
+    public static WorkoutAttributes of(Workout w, Swimmer swimmer) {
+        Objects.requireNonNull(w, "workout");
+        long[] cells = new long[CELLS];
+        int equipment = 0;
+        for (SetGroup g : w.getGroups()) {
+            if (g == null || g.getSets() == null) continue;
+            int groupReps = Math.max(1, g.getReps());
+            for (SwimSet s : g.getSets()) {
+                if (s == null) continue;
+                long d = s.getDistancePerRep().rawMicroUnits() * Math.max(1, s.getReps()) * groupReps;
+                cells[cell(s.getStroke(), s.getEffort())] += d;
+                if (s.getEquipment() == null) continue;
+                for (Equipment e : s.getEquipment()) equipment |= bit(e);
+            }
+        }
+        long duration = -1;
+        if (swimmer != null) {
+            try {
+                duration = Math.round(WorkoutTotals.compute(w, swimmer, new DefaultPacePolicy()).durationSeconds());
+            } catch (IllegalStateException missingSeed) {
+                // left unknown
+            }
+        }
+        return new WorkoutAttributes(cells, equipment, duration);
+    }
+
+    /**
+     * Distance of the sets with this stroke and effort, in canonical micro units;
+     * {@code null} matches any stroke or effort (including sets that leave it unset).
+     */
+    public long distanceMicroUnits(StrokeType stroke, Effort effort) {
+        long sum = 0;
+        for (int si = 0; si < STROKE_SLOTS; si++) {
+            if (stroke != null && si != stroke.ordinal()) continue;
+            for (int ei = 0; ei < EFFORT_SLOTS; ei++) {
+                if (effort != null && ei != effort.ordinal()) continue;
+                sum += cells[si * EFFORT_SLOTS + ei];
+            }
+        }
+        return sum;
+    }
+
+    /** Whether any set uses this equipment. */
+    public boolean uses(Equipment e) {
+        return (equipment & bit(e)) != 0;
+    }
+
+    /** Estimated swim + rest seconds, or -1 if unknown. */
+    public long durationSeconds() {
+        return durationSeconds;
+    }
+
+    /** Equipment bitmask (bit = {@link Equipment#ordinal()}). */
+    int equipmentMask() {
+        return equipment;
+    }
+
+    /** Raw histogram cell, micro units. */
+    long cell(int index) {
+        return cells[index];
+    }
+
+    static int cell(StrokeType stroke, Effort effort) {
+        int si = (stroke == null) ? STROKE_SLOTS - 1 : stroke.ordinal();
+        int ei = (effort == null) ? EFFORT_SLOTS - 1 : effort.ordinal();
+        return si * EFFORT_SLOTS + ei;
+    }
+
+    static int bit(Equipment e) {
+        return 1 << e.ordinal();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof WorkoutAttributes)) return false;
+        WorkoutAttributes a = (WorkoutAttributes) o;
+        return equipment == a.equipment && durationSeconds == a.durationSeconds && Arrays.equals(cells, a.cells);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(cells) + equipment) + Long.hashCode(durationSeconds);
+    }
+
+    @Override
+    public String toString() {
+        return "WorkoutAttributes{" +
+                "equipment=0x" + Integer.toHexString(equipment) +
+                ", duration=" + durationSeconds + "s" +
+                '}';
+    }
+}
@@ -0,0 +1,233 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.*;
+import swimworkoutbuilder_javafx.model.SetGroup;
+import swimworkoutbuilder_javafx.model.Workout;
+
+/**
+ * Bounded in-memory cache of loaded {@link Workout}s, keyed by id, in front of the
+ * workout files.
+ *
+ * <p><b>Design Notes:</b>
+ * <ul>
+ *   <li>Two tiers: a strong LRU bounded by entry count and by an estimated footprint,
+ *       and behind it a soft-reference tier that holds what the LRU evicts until the
+ *       GC needs the memory back.</li>
+ *   <li>Entries are private deep copies. {@link #get} returns a fresh deep copy and
+ *       {@link #put} stores one, so edits to a workout handed to the UI can never
+ *       change a cached entry (and vice versa).</li>
+ *   <li>{@link LocalStore} keeps it coherent: a save replaces the entry with the saved
+ *       state, a delete or quarantine invalidates it. A load only fills the cache if no
+ *       write happened while the file was being read, so a slow read can't overwrite a
+ *       newer save.</li>
+ *   <li>Thread-safe (the FX thread and the persistence writer both go through it).</li>
+ * </ul>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class WorkoutCache {
+
+    private final int maxEntries;
+    private final long maxBytes;
+
+    private final LinkedHashMap<UUID, Entry> lru = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<UUID, SoftEntry> soft = new HashMap<>();
+    private final ReferenceQueue<Workout> collected = new ReferenceQueue<>();
+    private long bytes;
+    private long writes;   // bumped by every put/invalidate/clear; see #loadStamp()
+
+    private long hits, softHits, misses, evictions, reclaimed, invalidations;
+
+    private static final class Entry {
+        final Workout workout;
+        final long size;
+        Entry(Workout workout, long size) { this.workout = workout; this.size = size; }
+    }
+
+    private static final class SoftEntry extends SoftReference<Workout> {
+        final UUID id;
+        final UUID owner;   // kept outside the referent so owner lookups survive GC
+        final long size;
+        SoftEntry(UUID id, Workout w, long size, ReferenceQueue<Workout> q) {
+            super(w, q);
+            this.id = id;
+            this.owner = w.getSwimmerId();
+            this.size = size;
+        }
+    }
+
+    WorkoutCache(int maxEntries, long maxBytes) {
+        if (maxEntries < 1 || maxBytes < 1) throw new IllegalArgumentException("cache bounds must be positive");
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /** Returns a private deep copy of the cached workout, or {@code null} on a miss. */
+    synchronized Workout get(UUID id) {
+        purgeCollected();
+        Entry e = lru.get(id);
+        if (e != null) {
+            hits++;
+            return new Workout(e.workout);
+        }
+        SoftEntry s = soft.remove(id);
+        Workout w = (s == null) ? null : s.get();
+        if (w != null) {
+            softHits++;
+            admit(id, w, s.size);   // promote back into the LRU
+            return new Workout(w);
+        }
+        misses++;
+        return null;
+    }
+
+    /** Caches a deep copy of {@code w} (just saved), replacing any entry for its id. */
+    synchronized void put(Workout w) {
+        writes++;
+        UUID id = w.getId();
+        removeEntry(id);
+        admit(id, new Workout(w), estimateBytes(w));
+    }
+
+    /** Stamp to take before reading a workout file; pass it to {@link #putLoaded}. */
+    synchronized long loadStamp() {
+        return writes;
+    }
+
+    /**
+     * Caches a deep copy of a workout read from disk, unless a save, delete or
+     * invalidation happened since {@code stamp} (the read may then be out of date).
+     */
+    synchronized void putLoaded(Workout w, long stamp) {
+        if (writes != stamp || lru.containsKey(w.getId())) return;
+        soft.remove(w.getId());
+        admit(w.getId(), new Workout(w), estimateBytes(w));
+    }
+
+    /** Drops any entry for {@code id}. */
+    synchronized void invalidate(UUID id) {
+        writes++;
+        if (removeEntry(id)) invalidations++;
+    }
+
+    /** Drops every entry that belongs to {@code swimmerId} (cascading swimmer delete). */
+    synchronized void invalidateSwimmer(UUID swimmerId) {
+        writes++;
+        lru.values().removeIf(e -> {
+            if (!swimmerId.equals(e.workout.getSwimmerId())) return false;
+            bytes -= e.size;
+            invalidations++;
+            return true;
+        });
+        soft.values().removeIf(s -> {
+            if (!swimmerId.equals(s.owner)) return false;
+            invalidations++;
+            return true;
+        });
+    }
+
+    /** Drops everything (counters are kept). */
+    synchronized void clear() {
+        writes++;
+        invalidations += lru.size() + soft.size();
+        lru.clear();
+        soft.clear();
+        bytes = 0;
+    }
+
+    /** Snapshot of the cache counters. */
+    synchronized Stats stats() {
+        purgeCollected();
+        return new Stats(hits, softHits, misses, evictions, reclaimed, invalidations, lru.size(), soft.size(), bytes);
+    }
+
+    // ----------------------------------------------------------
+    // Internals
+    // ----------------------------------------------------------
+
+    private void admit(UUID id, Workout copy, long size) {
+        lru.put(id, new Entry(copy, size));
+        bytes += size;
+        // Demote least-recently-used entries to the soft tier (always keep the newest)
+        Iterator<Map.Entry<UUID, Entry>> it = lru.entrySet().iterator();
+        while ((lru.size() > maxEntries || bytes > maxBytes) && lru.size() > 1 && it.hasNext()) {
+            Map.Entry<UUID, Entry> victim = it.next();
+            it.remove();
+            bytes -= victim.getValue().size;
+            soft.put(victim.getKey(), new SoftEntry(victim.getKey(), victim.getValue().workout, victim.getValue().size, collected));
+            evictions++;
+        }
+    }
+
+    private boolean removeEntry(UUID id) {
+        Entry e = lru.remove(id);
+        if (e != null) bytes -= e.size;
+        SoftEntry s = soft.remove(id);
+        return e != null || s != null;
+    }
+
+    // Forget soft entries whose workouts the GC has reclaimed
+    private void purgeCollected() {
+        for (Object ref; (ref = collected.poll()) != null; ) {
+            SoftEntry s = (SoftEntry) ref;
+            if (soft.get(s.id) == s) {
+                soft.remove(s.id);
+                reclaimed++;
+            }
+        }
+    }
+
+    // Rough heap footprint: object headers + per group/set overhead + string chars
+    static long estimateBytes(Workout w) {
+        long size = 256 + chars(w.getName()) + chars(w.getNotes());
+        for (SetGroup g : w.getGroups()) {
+            if (g == null) continue;
+            size += 128 + chars(g.getName()) + chars(g.getNotes());
+            for (var s : g.getSets()) {
+                if (s != null) size += 192 + chars(s.getNotes());
+            }
+        }
+        return size;
+    }
+
+    private static long chars(String s) {
+        return (s == null) ? 0 : 40L + 2L * s.length();
+    }
+
+    /** Immutable counters; {@link #hitRate()} counts both tiers as hits. */
+    public static final class Stats {
+        public final long hits, softHits, misses, evictions, reclaimed, invalidations;
+        public final int entries, softEntries;
+        public final long bytes;
+
+        Stats(long hits, long softHits, long misses, long evictions, long reclaimed, long invalidations,
+              int entries, int softEntries, long bytes) {
+            this.hits = hits;
+            this.softHits = softHits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.reclaimed = reclaimed;
+            this.invalidations = invalidations;
+            this.entries = entries;
+            this.softEntries = softEntries;
+            this.bytes = bytes;
+        }
+
+        public double hitRate() {
+            long total = hits + softHits + misses;
+            return (total == 0) ? 0.0 : (double) (hits + softHits) / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("WorkoutCache{hits=%d, softHits=%d, misses=%d (loads), hitRate=%.1f%%, evictions=%d, "
+                            + "reclaimed=%d, invalidations=%d, entries=%d+%d soft, ~%d KB}",
+                    hits, softHits, misses, hitRate() * 100, evictions, reclaimed, invalidations,
+                    entries, softEntries, bytes / 1024);
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import swimworkoutbuilder_javafx.model.SetGroup;
+import swimworkoutbuilder_javafx.model.SwimSet;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.model.enums.Course;
+import swimworkoutbuilder_javafx.model.enums.Effort;
+import swimworkoutbuilder_javafx.model.enums.Equipment;
+import swimworkoutbuilder_javafx.model.enums.StrokeType;
+import swimworkoutbuilder_javafx.model.pacing.SeedPace;
+import swimworkoutbuilder_javafx.model.units.Distance;
+import swimworkoutbuilder_javafx.model.units.TimeSpan;
+
+/**
+ * Hand-written, schema-versioned binary format for {@link Workout} and {@link Swimmer} files.
+ *
+ * <p>Replaces Java serialization in {@link LocalStore}: no class descriptors, only the
+ * field values, so files are several times smaller and much faster to read.</p>
+ *
+ * <p><b>Layout (version 2):</b>
+ * <ul>
+ *   <li>Header: 4-byte magic {@code "SWB1"}, 1-byte schema version, 1-byte kind ({@code 'W'} / {@code 'S'}).</li>
+ *   <li>A workout is a header block (identity, name, course, notes, default rest, timestamps,
+ *       total distance) followed by a body block (the groups and sets) prefixed with its
+ *       byte length, so {@link #readWorkoutSummary} can skip the body without decoding it.
+ *       Version 1 files have the same header fields minus the total, and the groups inline;
+ *       they are still read.</li>
+ *   <li>Counts, reps and rests are unsigned varints; timestamps are varlong seconds + varint nanos.</li>
+ *   <li>{@link Distance} is its raw canonical micro-units (zig-zag varlong) plus a display-unit flag;
+ *       {@link TimeSpan} is raw millis.</li>
+ *   <li>{@link StrokeType}, {@link Effort} and {@link Course} are stored by ordinal (0 = null for
+ *       nullable enums); {@link Equipment} sets are a bitmask. New constants must therefore be
+ *       appended, never reordered, without bumping {@link #SCHEMA_VERSION}.</li>
+ *   <li>Strings are varint (byte length + 1) followed by UTF-8 bytes; 0 encodes {@code null}.</li>
+ * </ul>
+ *
+ * <p>{@link #isLegacy(byte[])} recognises files written by {@code ObjectOutputStream}
+ * so {@link LocalStore} can still import them.</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class WorkoutCodec {
+
+    /** Current schema version written by this codec. */
+    public static final int SCHEMA_VERSION = 2;
+
+    private static final byte[] MAGIC = {'S', 'W', 'B', '1'};
+    private static final byte KIND_WORKOUT = 'W';
+    private static final byte KIND_SWIMMER = 'S';
+
+    // SwimSet flag bits
+    private static final int F_INTERVAL = 1;
+    private static final int F_GOAL     = 1 << 1;
+    private static final int F_YARDS    = 1 << 2;
+
+    private WorkoutCodec() {}
+
+    // ----------------------------------------------------------
+    // Format detection
+    // ----------------------------------------------------------
+
+    /** True if the bytes start with the Java serialization stream magic (0xACED). */
+    public static boolean isLegacy(byte[] head) {
+        return head.length >= 2 && (head[0] & 0xFF) == 0xAC && (head[1] & 0xFF) == 0xED;
+    }
+
+    /** True if the bytes start with this codec's magic. */
+    public static boolean isCodec(byte[] head) {
+        if (head.length < MAGIC.length) return false;
+        for (int i = 0; i < MAGIC.length; i++) if (head[i] != MAGIC[i]) return false;
+        return true;
+    }
+
+    // ----------------------------------------------------------
+    // Workout
+    // ----------------------------------------------------------
+
+    public static void writeWorkout(OutputStream os, Workout w) throws IOException {
+        DataOutputStream out = new DataOutputStream(os);
+        writeHeader(out, KIND_WORKOUT);
+        writeUuid(out, w.getId());
+        writeUuid(out, w.getSwimmerId());
+        writeString(out, w.getName());
+        out.writeByte(w.getCourse().ordinal());
+        writeString(out, w.getNotes());
+        writeVarInt(out, w.getDefaultRestBetweenGroupsSeconds());
+        writeInstant(out, w.getCreatedAt());
+        writeInstant(out, w.getUpdatedAt());
+        writeVarLong(out, zigZag(w.totalDistance().rawMicroUnits()));
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream(512);
+        DataOutputStream bodyOut = new DataOutputStream(body);
+        writeVarInt(bodyOut, w.getGroups().size());
+        for (SetGroup g : w.getGroups()) writeGroup(bodyOut, g);
+        bodyOut.flush();
+        writeVarInt(out, body.size());
+        body.writeTo(out);
+        out.flush();
+    }
+
+    public static Workout readWorkout(InputStream is) throws IOException {
+        DataInputStream in = new DataInputStream(is);
+        int version = readHeader(in, KIND_WORKOUT);
+        UUID id = readUuid(in);
+        UUID swimmerId = readUuid(in);
+        String name = readString(in);
+        Course course = enumAt(Course.values(), in.readUnsignedByte());
+        String notes = readString(in);
+        int defaultRest = readVarInt(in);
+        Instant createdAt = readInstant(in);
+        Instant updatedAt = readInstant(in);
+        if (version >= 2) {
+            readVarLong(in);   // total distance: recomputed from the groups
+            readVarInt(in);    // body length
+        }
+
+        Workout w = new Workout(id, swimmerId, name == null ? "" : name, course, notes,
+                defaultRest, createdAt, updatedAt);
+        int groups = readVarInt(in);
+        for (int i = 0; i < groups; i++) w.getGroups().add(readGroup(in));
+        return w;
+    }
+
+    /**
+     * Reads only the header block of a workout: the body is skipped undecoded. Version 1
+     * data has no stored total, so it is decoded in full.
+     */
+    public static WorkoutSummary readWorkoutSummary(InputStream is) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(is, 64);
+        buffered.mark(8);
+        DataInputStream in = new DataInputStream(buffered);
+        if (readHeader(in, KIND_WORKOUT) < 2) {
+            buffered.reset();
+            return WorkoutSummary.of(readWorkout(buffered));
+        }
+        UUID id = readUuid(in);
+        UUID swimmerId = readUuid(in);
+        String name = readString(in);
+        Course course = enumAt(Course.values(), in.readUnsignedByte());
+        String notes = readString(in);
+        readVarInt(in);    // default rest
+        Instant createdAt = readInstant(in);
+        Instant updatedAt = readInstant(in);
+        long total = unZigZag(readVarLong(in));
+        return new WorkoutSummary(id, swimmerId, name, notes, course, createdAt, updatedAt, total);
+    }
+
+    private static void writeGroup(DataOutputStream out, SetGroup g) throws IOException {
+        writeString(out, g.getName());
+        writeVarInt(out, zigZag(g.getOrder()));
+        writeVarInt(out, g.getReps());
+        writeString(out, g.getNotes());
+        writeVarInt(out, g.getRestBetweenSetsSec());
+        writeVarInt(out, g.getRestAfterGroupSec());
+        writeVarInt(out, g.getSets().size());
+        for (SwimSet s : g.getSets()) writeSet(out, s);
+    }
+
+    private static SetGroup readGroup(DataInputStream in) throws IOException {
+        SetGroup g = new SetGroup(readString(in));
+        g.setOrder(unZigZag(readVarInt(in)));
+        g.setReps(readVarInt(in));
+        g.setNotes(readString(in));
+        g.setRestBetweenSetsSec(readVarInt(in));
+        g.setRestAfterGroupSec(readVarInt(in));
+        int sets = readVarInt(in);
+        for (int i = 0; i < sets; i++) g.addSet(readSet(in));
+        return g;
+    }
+
+    private static void writeSet(DataOutputStream out, SwimSet s) throws IOException {
+        int flags = 0;
+        if (s.getInterval() != null) flags |= F_INTERVAL;
+        if (s.getGoalTime() != null) flags |= F_GOAL;
+        if (s.getDistancePerRep().displayUnit() == Distance.Unit.YARDS) flags |= F_YARDS;
+        out.writeByte(flags);
+
+        out.writeByte(s.getStroke() == null ? 0 : s.getStroke().ordinal() + 1);
+        writeVarInt(out, s.getReps());
+        writeVarLong(out, zigZag(s.getDistancePerRep().rawMicroUnits()));
+        out.writeByte(s.getEffort() == null ? 0 : s.getEffort().ordinal() + 1);
+        out.writeByte(s.getCourse().ordinal());
+        writeString(out, s.getNotes());
+        writeVarInt(out, equipmentMask(s.getEquipment()));
+        if (s.getInterval() != null) writeVarLong(out, zigZag(s.getInterval().toMillis()));
+        if (s.getGoalTime() != null) writeVarLong(out, zigZag(s.getGoalTime().toMillis()));
+    }
+
+    private static SwimSet readSet(DataInputStream in) throws IOException {
+        int flags = in.readUnsignedByte();
+        int strokeOrd = in.readUnsignedByte();
+        StrokeType stroke = strokeOrd == 0 ? null : enumAt(StrokeType.values(), strokeOrd - 1);
+        int reps = readVarInt(in);
+        long micro = unZigZag(readVarLong(in));
+        Distance.Unit unit = (flags & F_YARDS) != 0 ? Distance.Unit.YARDS : Distance.Unit.METERS;
+        int effortOrd = in.readUnsignedByte();
+        Effort effort = effortOrd == 0 ? null : enumAt(Effort.values(), effortOrd - 1);
+        Course course = enumAt(Course.values(), in.readUnsignedByte());
+        String notes = readString(in);
+        Set<Equipment> equipment = equipmentFromMask(readVarInt(in));
+        TimeSpan interval = (flags & F_INTERVAL) != 0 ? TimeSpan.ofMillis(unZigZag(readVarLong(in))) : null;
+        TimeSpan goal     = (flags & F_GOAL) != 0     ? TimeSpan.ofMillis(unZigZag(readVarLong(in))) : null;
+
+        // repository/loader constructor: exact values, no re-snapping
+        return new SwimSet(stroke, reps, Distance.ofCanonicalMicroUnits(micro, unit),
+                effort, course, notes, equipment, interval, goal);
+    }
+
+    // ----------------------------------------------------------
+    // Swimmer
+    // ----------------------------------------------------------
+
+    public static void writeSwimmer(OutputStream os, Swimmer s) throws IOException {
+        DataOutputStream out = new DataOutputStream(os);
+        writeHeader(out, KIND_SWIMMER);
+        writeUuid(out, s.getId());
+        writeString(out, s.getFirstName());
+        writeString(out, s.getLastName());
+        writeString(out, s.getPreferredName());
+        writeString(out, s.getTeamName());
+        writeInstant(out, s.getCreatedAt());
+        writeInstant(out, s.getUpdatedAt());
+
+        Map<StrokeType, SeedPace> seeds = s.getSeedPaces();
+        writeVarInt(out, seeds.size());
+        for (var e : seeds.entrySet()) {
+            SeedPace p = e.getValue();
+            out.writeByte(e.getKey().ordinal());
+            out.writeByte(p.getOriginalDistance().displayUnit() == Distance.Unit.YARDS ? 1 : 0);
+            writeVarLong(out, zigZag(p.getOriginalDistance().rawMicroUnits()));
+            writeVarLong(out, zigZag(p.getTime().toMillis()));
+        }
+        out.flush();
+    }
+
+    public static Swimmer readSwimmer(InputStream is) throws IOException {
+        DataInputStream in = new DataInputStream(is);
+        readHeader(in, KIND_SWIMMER);
+        UUID id = readUuid(in);
+        String first = readString(in);
+        String last = readString(in);
+        String preferred = readString(in);
+        String team = readString(in);
+        Instant createdAt = readInstant(in);
+        Instant updatedAt = readInstant(in);
+
+        Swimmer s = new Swimmer(id, first == null ? "" : first, last == null ? "" : last,
+                preferred, team, createdAt, updatedAt);
+        int n = readVarInt(in);
+        if (n > 0) {
+            Map<StrokeType, SeedPace> seeds = new EnumMap<>(StrokeType.class);
+            for (int i = 0; i < n; i++) {
+                StrokeType stroke = enumAt(StrokeType.values(), in.readUnsignedByte());
+                Distance.Unit unit = in.readUnsignedByte() == 1 ? Distance.Unit.YARDS : Distance.Unit.METERS;
+                Distance d = Distance.ofCanonicalMicroUnits(unZigZag(readVarLong(in)), unit);
+                TimeSpan t = TimeSpan.ofMillis(unZigZag(readVarLong(in)));
+                seeds.put(stroke, new SeedPace(d, t));
+            }
+            s.setAllSeedPaces(seeds);
+            s.setUpdatedAt(updatedAt); // setAllSeedPaces touches updatedAt; restore stored value
+        }
+        return s;
+    }
+
+    // ----------------------------------------------------------
+    // Primitives
+    // ----------------------------------------------------------
+
+    private static void writeHeader(DataOutputStream out, byte kind) throws IOException {
+        out.write(MAGIC);
+        out.writeByte(SCHEMA_VERSION);
+        out.writeByte(kind);
+    }
+
+    // Returns the schema version
+    private static int readHeader(DataInputStream in, byte kind) throws IOException {
+        byte[] m = new byte[MAGIC.length];
+        in.readFully(m);
+        if (!isCodec(m)) throw new IOException("Not a SwimWorkoutBuilder data file");
+        int version = in.readUnsignedByte();
+        if (version < 1 || version > SCHEMA_VERSION) {
+            throw new IOException("Unsupported schema version " + version + " (max " + SCHEMA_VERSION + ")");
+        }
+        int k = in.readUnsignedByte();
+        if (k != kind) throw new IOException("Unexpected record kind '" + (char) k + "', expected '" + (char) kind + "'");
+        return version;
+    }
+
+    private static <E extends Enum<E>> E enumAt(E[] values, int ordinal) throws IOException {
+        if (ordinal < 0 || ordinal >= values.length) {
+            throw new IOException("Unknown " + values.getClass().getComponentType().getSimpleName() + " ordinal " + ordinal);
+        }
+        return values[ordinal];
+    }
+
+    private static int equipmentMask(Set<Equipment> eq) {
+        int mask = 0;
+        if (eq != null) for (Equipment e : eq) if (e != null) mask |= 1 << e.ordinal();
+        return mask;
+    }
+
+    private static Set<Equipment> equipmentFromMask(int mask) {
+        EnumSet<Equipment> set = EnumSet.noneOf(Equipment.class);
+        for (Equipment e : Equipment.values()) if ((mask & (1 << e.ordinal())) != 0) set.add(e);
+        return set;
+    }
+
+    private static void writeUuid(DataOutput out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInput in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static void writeInstant(DataOutput out, Instant t) throws IOException {
+        Instant v = (t == null) ? Instant.EPOCH : t;
+        writeVarLong(out, zigZag(v.getEpochSecond()));
+        writeVarInt(out, v.getNano());
+    }
+
+    private static Instant readInstant(DataInput in) throws IOException {
+        long sec = unZigZag(readVarLong(in));
+        int nanos = readVarInt(in);
+        return Instant.ofEpochSecond(sec, nanos);
+    }
+
+    private static void writeString(DataOutput out, String s) throws IOException {
+        if (s == null) { writeVarInt(out, 0); return; }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, b.length + 1);
+        out.write(b);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int len = readVarInt(in);
+        if (len == 0) return null;
+        byte[] b = new byte[len - 1];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    // Unsigned LEB128
+    private static void writeVarInt(DataOutput out, int v) throws IOException {
+        while ((v & ~0x7F) != 0) {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static void writeVarLong(DataOutput out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static long readVarLong(DataInput in) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = in.readUnsignedByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IOException("Malformed varlong");
+    }
+
+    private static int zigZag(int v)    { return (v << 1) ^ (v >> 31); }
+    private static int unZigZag(int v)  { return (v >>> 1) ^ -(v & 1); }
+    private static long zigZag(long v)  { return (v << 1) ^ (v >> 63); }
+    private static long unZigZag(long v){ return (v >>> 1) ^ -(v & 1); }
+}
@@ -0,0 +1,286 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Predicate;
+import swimworkoutbuilder_javafx.model.enums.Course;
+
+/**
+ * Persistent header index of saved workouts, sharded by swimmer.
+ *
+ * <p>Each swimmer owns one small index file ({@code index/<swimmerId>.idx}) holding the
+ * {@link WorkoutSummary} of every workout that belongs to them. Listing a swimmer's
+ * workouts therefore reads a single file whose size is proportional to that swimmer's
+ * own library, never the whole workouts directory.</p>
+ *
+ * <p><b>Design Notes:</b>
+ * <ul>
+ *   <li>Maintained incrementally by {@link LocalStore#saveWorkout} / {@link LocalStore#deleteWorkout}:
+ *       only the affected swimmer's shard is rewritten.</li>
+ *   <li>Other instances may share the directory, so a shard is changed only under that
+ *       swimmer's lock ({@code shards.lock}, see {@link StoreLocks}): it is re-read from
+ *       disk, changed, and atomically replaced. Its own lock file keeps shard locks
+ *       independent of the per-object locks already held around a save.</li>
+ *   <li>Shards are cached in memory after first use and refreshed on every change; other
+ *       instances' changes reach the cache through {@link LocalStore#externalChange}.</li>
+ *   <li>A {@code VERSION} marker records that the index is complete. When it is missing
+ *       (first run on an existing library, or after a corrupt shard) {@link LocalStore}
+ *       rebuilds the index once from the workout files.</li>
+ * </ul>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+final class WorkoutIndex {
+
+    private static final int MAGIC = 0x53574958;   // "SWIX"
+    private static final int VERSION = 1;
+    private static final String SHARD_EXT = ".idx";
+
+    private final Path dir;
+    private final Path marker;
+    private final StoreLocks locks;   // one per swimmer shard, shared with other instances
+
+    // swimmerId -> (workoutId -> summary), only for shards that have been read/written
+    private final Map<UUID, Map<UUID, WorkoutSummary>> shards = new HashMap<>();
+    // workoutId -> swimmerId, for every workout in a cached shard
+    private final Map<UUID, UUID> ownerOf = new HashMap<>();
+
+    WorkoutIndex(Path dir) {
+        this.dir = Objects.requireNonNull(dir, "dir");
+        this.marker = dir.resolve("VERSION");
+        this.locks = new StoreLocks(dir.resolve("shards.lock"));
+    }
+
+    /** True when the on-disk index is complete and can be trusted for listing. */
+    synchronized boolean isBuilt() {
+        if (!Files.exists(marker)) return false;
+        try {
+            return Integer.toString(VERSION).equals(Files.readString(marker, StandardCharsets.UTF_8).trim());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /** Replaces the whole index with the given summaries (one shard per swimmer). */
+    synchronized void rebuild(Collection<WorkoutSummary> all) throws IOException {
+        Files.createDirectories(dir);
+        Files.deleteIfExists(marker);
+        try (var stream = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) stream::iterator) {
+                if (p.getFileName().toString().endsWith(SHARD_EXT)) Files.deleteIfExists(p);
+            }
+        }
+        shards.clear();
+        ownerOf.clear();
+
+        Map<UUID, Map<UUID, WorkoutSummary>> grouped = new HashMap<>();
+        for (WorkoutSummary s : all) {
+            grouped.computeIfAbsent(s.getSwimmerId(), k -> new LinkedHashMap<>()).put(s.getId(), s);
+        }
+        for (var e : grouped.entrySet()) {
+            update(e.getKey(), m -> {
+                m.putAll(e.getValue());
+                return true;
+            });
+        }
+        Files.writeString(marker, Integer.toString(VERSION), StandardCharsets.UTF_8);
+    }
+
+    /** Marks the index as stale so the next listing triggers a rebuild. */
+    synchronized void invalidate() {
+        shards.clear();
+        ownerOf.clear();
+        try { Files.deleteIfExists(marker); } catch (IOException ignored) {}
+    }
+
+    /** Returns all summaries for one swimmer (unsorted copy). */
+    synchronized List<WorkoutSummary> list(UUID swimmerId) throws IOException {
+        return new ArrayList<>(shard(swimmerId).values());
+    }
+
+    /** Inserts or replaces a summary, moving it between shards if the owner changed. */
+    synchronized void put(WorkoutSummary s) throws IOException {
+        UUID previousOwner = ownerOf.get(s.getId());
+        if (previousOwner != null && !previousOwner.equals(s.getSwimmerId())) {
+            update(previousOwner, m -> m.remove(s.getId()) != null);
+        }
+        update(s.getSwimmerId(), m -> {
+            m.put(s.getId(), s);
+            return true;
+        });
+    }
+
+    /**
+     * Removes a workout from the index.
+     *
+     * @param workoutId the workout to remove
+     * @param swimmerIdHint owner if known by the caller (may be {@code null})
+     */
+    synchronized void remove(UUID workoutId, UUID swimmerIdHint) throws IOException {
+        UUID owner = ownerOf.getOrDefault(workoutId, swimmerIdHint);
+        if (owner == null) return;
+        update(owner, m -> m.remove(workoutId) != null);
+        ownerOf.remove(workoutId);
+    }
+
+    /** Removes several workouts of one swimmer with a single shard write. */
+    synchronized void removeAll(UUID swimmerId, Collection<UUID> workoutIds) throws IOException {
+        update(swimmerId, m -> m.keySet().removeAll(workoutIds));
+        ownerOf.keySet().removeAll(workoutIds);
+    }
+
+    /**
+     * Drops a swimmer's whole shard.
+     *
+     * @return ids of the workouts that were indexed for the swimmer
+     */
+    synchronized Set<UUID> removeSwimmer(UUID swimmerId) throws IOException {
+        Set<UUID> ids = new HashSet<>(shard(swimmerId).keySet());
+        update(swimmerId, m -> {
+            ids.addAll(m.keySet());
+            m.clear();
+            return true;   // an empty shard is deleted
+        });
+        shards.remove(swimmerId);
+        ownerOf.keySet().removeAll(ids);
+        return ids;
+    }
+
+    /** Swimmers that have an index shard on disk. */
+    synchronized Set<UUID> indexedSwimmers() throws IOException {
+        Set<UUID> ids = new HashSet<>(shards.keySet());
+        if (!Files.isDirectory(dir)) return ids;
+        try (var stream = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) stream::iterator) {
+                String name = p.getFileName().toString();
+                if (!name.endsWith(SHARD_EXT)) continue;
+                try {
+                    ids.add(UUID.fromString(name.substring(0, name.length() - SHARD_EXT.length())));
+                } catch (IllegalArgumentException ignored) {}
+            }
+        }
+        return ids;
+    }
+
+    /** Owner of a workout if its shard is cached, else {@code null}. */
+    synchronized UUID ownerOf(UUID workoutId) {
+        return ownerOf.get(workoutId);
+    }
+
+    // ----------------------------------------------------------
+    // Shard I/O
+    // ----------------------------------------------------------
+
+    private Map<UUID, WorkoutSummary> shard(UUID swimmerId) throws IOException {
+        Map<UUID, WorkoutSummary> m = shards.get(swimmerId);
+        if (m != null) return m;
+        m = readShard(swimmerId);
+        cache(swimmerId, m);
+        return m;
+    }
+
+    // Applies a change to one shard under the swimmer's lock. The shard is re-read from disk
+    // first, so entries another instance wrote since this one cached it are kept.
+    private Map<UUID, WorkoutSummary> update(UUID swimmerId, Predicate<Map<UUID, WorkoutSummary>> change)
+            throws IOException {
+        StoreLocks.Held held = locks.lock(swimmerId);
+        try {
+            Map<UUID, WorkoutSummary> m = readShard(swimmerId);
+            if (change.test(m)) writeShard(swimmerId, m);
+            cache(swimmerId, m);
+            return m;
+        } finally {
+            held.close();
+        }
+    }
+
+    private void cache(UUID swimmerId, Map<UUID, WorkoutSummary> m) {
+        Map<UUID, WorkoutSummary> old = shards.put(swimmerId, m);
+        if (old != null) ownerOf.keySet().removeAll(old.keySet());
+        for (UUID id : m.keySet()) ownerOf.put(id, swimmerId);
+    }
+
+    private Path shardFile(UUID swimmerId) {
+        return dir.resolve(swimmerId.toString() + SHARD_EXT);
+    }
+
+    private Map<UUID, WorkoutSummary> readShard(UUID swimmerId) throws IOException {
+        Map<UUID, WorkoutSummary> m = new LinkedHashMap<>();
+        Path file = shardFile(swimmerId);
+        if (!Files.exists(file)) return m;
+        byte[] bytes;
+        try {
+            bytes = AtomicFiles.readVerified(file);
+        } catch (NoSuchFileException e) {
+            return m;   // removed by another instance since the check
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unrecognized index shard: " + file);
+            }
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                UUID id = new UUID(in.readLong(), in.readLong());
+                String name = readString(in);
+                String notes = readString(in);
+                Course course = Course.values()[in.readUnsignedByte()];
+                Instant createdAt = Instant.ofEpochSecond(in.readLong(), in.readInt());
+                Instant updatedAt = Instant.ofEpochSecond(in.readLong(), in.readInt());
+                long distance = in.readLong();
+                m.put(id, new WorkoutSummary(id, swimmerId, name, notes, course, createdAt, updatedAt, distance));
+            }
+        } catch (EOFException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Truncated index shard: " + file, e);
+        }
+        return m;
+    }
+
+    private void writeShard(UUID swimmerId, Map<UUID, WorkoutSummary> m) throws IOException {
+        Files.createDirectories(dir);
+        Path file = shardFile(swimmerId);
+        if (m.isEmpty()) {
+            Files.deleteIfExists(file);
+            return;
+        }
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bos)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(m.size());
+            for (WorkoutSummary s : m.values()) {
+                out.writeLong(s.getId().getMostSignificantBits());
+                out.writeLong(s.getId().getLeastSignificantBits());
+                writeString(out, s.getName());
+                writeString(out, s.getNotes());
+                out.writeByte(s.getCourse().ordinal());
+                out.writeLong(s.getCreatedAt().getEpochSecond());
+                out.writeInt(s.getCreatedAt().getNano());
+                out.writeLong(s.getUpdatedAt().getEpochSecond());
+                out.writeInt(s.getUpdatedAt().getNano());
+                out.writeLong(s.totalDistanceMicroUnits());
+            }
+        }
+        AtomicFiles.write(file, bos.toByteArray(), false);   // derived: a damaged shard only costs a rebuild
+    }
+
+    // Length-prefixed UTF-8 (-1 = null); avoids writeUTF's 64 KB limit for long notes.
+    private static void writeString(DataOutput out, String s) throws IOException {
+        if (s == null) { out.writeInt(-1); return; }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int len = in.readInt();
+        if (len < 0) return null;
+        byte[] b = new byte[len];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
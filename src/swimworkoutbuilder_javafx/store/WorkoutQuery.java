@@ -0,0 +1,315 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.time.Instant;
+import java.util.*;
+import swimworkoutbuilder_javafx.model.enums.Course;
+import swimworkoutbuilder_javafx.model.enums.Effort;
+import swimworkoutbuilder_javafx.model.enums.Equipment;
+import swimworkoutbuilder_javafx.model.enums.StrokeType;
+import swimworkoutbuilder_javafx.model.units.Distance;
+import swimworkoutbuilder_javafx.model.units.TimeSpan;
+
+/**
+ * Prepared listing/filter query over workout headers, run by {@link WorkoutStore#query}.
+ *
+ * <p>Queries are immutable: each {@code with}-style method returns a new query, so one can
+ * be built once (e.g. per dialog) and run repeatedly from any thread. Results are ordered
+ * newest first (by {@code updatedAt}, then name), like
+ * {@link WorkoutStore#listWorkoutSummariesFor}.</p>
+ *
+ * <p><b>Usage Example:</b>
+ * <pre>{@code
+ * WorkoutQuery recentScy = WorkoutQuery.all()
+ *         .course(Course.SCY)
+ *         .updatedSince(Instant.now().minus(Duration.ofDays(30)))
+ *         .limit(50);
+ * List<WorkoutSummary> rows = Stores.workouts().query(recentScy.forSwimmer(id));
+ *
+ * // Set filters are answered by the attribute index, without loading workouts
+ * WorkoutQuery thresholdFree = WorkoutQuery.all()
+ *         .course(Course.LCM)
+ *         .setDistanceAtLeast(StrokeType.FREESTYLE, Effort.THRESHOLD, Distance.ofMeters(2000))
+ *         .withEquipment(Equipment.PADDLES);
+ * }</pre>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class WorkoutQuery {
+
+    /** Result order: newest first, then by name. */
+    public static final Comparator<WorkoutSummary> ORDER =
+            Comparator.comparing(WorkoutSummary::getUpdatedAt).reversed()
+                    .thenComparing(WorkoutSummary::getName);
+
+    private static final WorkoutQuery ALL =
+            new WorkoutQuery(Set.of(), null, null, null, null, 0, Long.MAX_VALUE, 0, Attributes.NONE);
+
+    private final Set<UUID> swimmerIds;   // empty = every swimmer
+    private final Course course;          // null = any
+    private final String nameNeedle;      // lower-cased; null = any
+    private final Instant updatedFrom;    // inclusive; null = open
+    private final Instant updatedBefore;  // exclusive; null = open
+    private final long minDistance, maxDistance;   // canonical micro units, inclusive
+    private final int limit;              // 0 = no limit
+    private final Attributes attributes;  // filters on set contents (see WorkoutAttributes)
+
+    private WorkoutQuery(Set<UUID> swimmerIds, Course course, String nameNeedle, Instant updatedFrom,
+                         Instant updatedBefore, long minDistance, long maxDistance, int limit, Attributes attributes) {
+        this.swimmerIds = swimmerIds;
+        this.course = course;
+        this.nameNeedle = nameNeedle;
+        this.updatedFrom = updatedFrom;
+        this.updatedBefore = updatedBefore;
+        this.minDistance = minDistance;
+        this.maxDistance = maxDistance;
+        this.limit = limit;
+        this.attributes = attributes;
+    }
+
+    /** Every workout of every swimmer. */
+    public static WorkoutQuery all() {
+        return ALL;
+    }
+
+    /** Restricts the query to one swimmer's workouts. */
+    public WorkoutQuery forSwimmer(UUID swimmerId) {
+        return forSwimmers(List.of(Objects.requireNonNull(swimmerId, "swimmerId")));
+    }
+
+    /** Restricts the query to the workouts of these swimmers (empty = every swimmer). */
+    public WorkoutQuery forSwimmers(Collection<UUID> ids) {
+        return new WorkoutQuery(Set.copyOf(ids), course, nameNeedle, updatedFrom, updatedBefore, minDistance, maxDistance, limit, attributes);
+    }
+
+    /** Only workouts for this course ({@code null} = any). */
+    public WorkoutQuery course(Course c) {
+        return new WorkoutQuery(swimmerIds, c, nameNeedle, updatedFrom, updatedBefore, minDistance, maxDistance, limit, attributes);
+    }
+
+    /** Only workouts whose name contains {@code text}, ignoring case ({@code null} or blank = any). */
+    public WorkoutQuery nameContains(String text) {
+        String needle = (text == null || text.isBlank()) ? null : text.strip().toLowerCase(Locale.ROOT);
+        return new WorkoutQuery(swimmerIds, course, needle, updatedFrom, updatedBefore, minDistance, maxDistance, limit, attributes);
+    }
+
+    /** Only workouts saved at or after {@code t} ({@code null} = no lower bound). */
+    public WorkoutQuery updatedSince(Instant t) {
+        return new WorkoutQuery(swimmerIds, course, nameNeedle, t, updatedBefore, minDistance, maxDistance, limit, attributes);
+    }
+
+    /** Only workouts saved before {@code t} ({@code null} = no upper bound). */
+    public WorkoutQuery updatedBefore(Instant t) {
+        return new WorkoutQuery(swimmerIds, course, nameNeedle, updatedFrom, t, minDistance, maxDistance, limit, attributes);
+    }
+
+    /** Only workouts whose total distance, in canonical micro units, lies in {@code [min, max]}. */
+    public WorkoutQuery distanceBetween(long minMicroUnits, long maxMicroUnits) {
+        if (minMicroUnits > maxMicroUnits) throw new IllegalArgumentException("min > max");
+        return new WorkoutQuery(swimmerIds, course, nameNeedle, updatedFrom, updatedBefore, minMicroUnits, maxMicroUnits, limit, attributes);
+    }
+
+    /**
+     * Only workouts with at least {@code min} of sets with this stroke and effort (counting
+     * every rep); {@code null} stroke or effort matches any. Several set filters must all hold.
+     */
+    public WorkoutQuery setDistanceAtLeast(StrokeType stroke, Effort effort, Distance min) {
+        return setDistanceBetween(stroke, effort, min, null);
+    }
+
+    /**
+     * Only workouts whose sets with this stroke and effort add up to between {@code min} and
+     * {@code max} inclusive ({@code null} = open); {@code null} stroke or effort matches any.
+     */
+    public WorkoutQuery setDistanceBetween(StrokeType stroke, Effort effort, Distance min, Distance max) {
+        SetDistance f = new SetDistance(stroke, effort,
+                (min == null) ? 0 : min.rawMicroUnits(), (max == null) ? Long.MAX_VALUE : max.rawMicroUnits());
+        if (f.min > f.max) throw new IllegalArgumentException("min > max");
+        return with(attributes.plus(f));
+    }
+
+    /** Only workouts where every one of this equipment is used by some set. */
+    public WorkoutQuery withEquipment(Equipment... equipment) {
+        return with(attributes.requiring(mask(equipment), 0));
+    }
+
+    /** Only workouts where none of this equipment is used. */
+    public WorkoutQuery withoutEquipment(Equipment... equipment) {
+        return with(attributes.requiring(0, mask(equipment)));
+    }
+
+    /**
+     * Only workouts whose estimated duration (swim + rest, from the owner's seed times when
+     * saved) lies in {@code [min, max]} ({@code null} = open). Workouts whose duration could
+     * not be estimated never match.
+     */
+    public WorkoutQuery durationBetween(TimeSpan min, TimeSpan max) {
+        long lo = (min == null) ? 0 : min.toMillis() / 1000;
+        long hi = (max == null) ? Long.MAX_VALUE : max.toMillis() / 1000;
+        if (lo > hi) throw new IllegalArgumentException("min > max");
+        return with(attributes.lasting(lo, hi));
+    }
+
+    /** At most {@code n} results (0 = all). */
+    public WorkoutQuery limit(int n) {
+        if (n < 0) throw new IllegalArgumentException("limit must be >= 0");
+        return new WorkoutQuery(swimmerIds, course, nameNeedle, updatedFrom, updatedBefore, minDistance, maxDistance, n, attributes);
+    }
+
+    /** Swimmers the query is restricted to; empty means every swimmer. */
+    public Set<UUID> swimmerIds() {
+        return swimmerIds;
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    // For the attribute index's query plan
+    Course course() { return course; }
+    long minDistance() { return minDistance; }
+    long maxDistance() { return maxDistance; }
+    Attributes attributes() { return attributes; }
+
+    /** Whether the query filters on set contents, which headers alone cannot answer. */
+    public boolean hasAttributeFilters() {
+        return !attributes.isEmpty();
+    }
+
+    /**
+     * Whether a header passes every header filter of this query (the swimmer restriction
+     * included). Attribute filters are not checked here; see {@link #matches(WorkoutAttributes)}.
+     */
+    public boolean matches(WorkoutSummary s) {
+        if (!swimmerIds.isEmpty() && !swimmerIds.contains(s.getSwimmerId())) return false;
+        if (course != null && s.getCourse() != course) return false;
+        if (updatedFrom != null && s.getUpdatedAt().isBefore(updatedFrom)) return false;
+        if (updatedBefore != null && !s.getUpdatedAt().isBefore(updatedBefore)) return false;
+        long d = s.totalDistanceMicroUnits();
+        if (d < minDistance || d > maxDistance) return false;
+        return nameNeedle == null || s.getName().toLowerCase(Locale.ROOT).contains(nameNeedle);
+    }
+
+    /** Whether a workout's attributes pass the attribute filters of this query. */
+    public boolean matches(WorkoutAttributes a) {
+        return attributes.matches(a);
+    }
+
+    /**
+     * Filters, orders and limits candidate headers; backends call this after narrowing the
+     * candidates with whatever index they have.
+     */
+    List<WorkoutSummary> select(Iterable<WorkoutSummary> candidates) {
+        List<WorkoutSummary> out = new ArrayList<>();
+        for (WorkoutSummary s : candidates) {
+            if (matches(s)) out.add(s);
+        }
+        out.sort(ORDER);
+        return (limit > 0 && out.size() > limit) ? new ArrayList<>(out.subList(0, limit)) : out;
+    }
+
+    private WorkoutQuery with(Attributes a) {
+        return new WorkoutQuery(swimmerIds, course, nameNeedle, updatedFrom, updatedBefore, minDistance, maxDistance, limit, a);
+    }
+
+    private static int mask(Equipment... equipment) {
+        int m = 0;
+        for (Equipment e : equipment) m |= WorkoutAttributes.bit(Objects.requireNonNull(e, "equipment"));
+        return m;
+    }
+
+    /** A bound on the distance of sets with one stroke and effort ({@code null} = any). */
+    static final class SetDistance {
+        final StrokeType stroke;
+        final Effort effort;
+        final long min, max;   // micro units, inclusive
+
+        SetDistance(StrokeType stroke, Effort effort, long min, long max) {
+            this.stroke = stroke;
+            this.effort = effort;
+            this.min = min;
+            this.max = max;
+        }
+
+        boolean matches(WorkoutAttributes a) {
+            long d = a.distanceMicroUnits(stroke, effort);
+            return d >= min && d <= max;
+        }
+
+        @Override
+        public String toString() {
+            return (stroke == null ? "any" : stroke) + "/" + (effort == null ? "any" : effort) + " in [" + min + ", " + max + "]";
+        }
+    }
+
+    /** The attribute filters of a query; {@link #NONE} when there are none. */
+    static final class Attributes {
+        static final Attributes NONE = new Attributes(List.of(), 0, 0, 0, Long.MAX_VALUE);
+
+        final List<SetDistance> sets;
+        final int equipmentAll;    // every bit must be used
+        final int equipmentNone;   // no bit may be used
+        final long minDuration, maxDuration;   // seconds, inclusive
+
+        private Attributes(List<SetDistance> sets, int equipmentAll, int equipmentNone, long minDuration, long maxDuration) {
+            this.sets = sets;
+            this.equipmentAll = equipmentAll;
+            this.equipmentNone = equipmentNone;
+            this.minDuration = minDuration;
+            this.maxDuration = maxDuration;
+        }
+
+        boolean isEmpty() {
+            return sets.isEmpty() && equipmentAll == 0 && equipmentNone == 0 && !hasDuration();
+        }
+
+        boolean hasDuration() {
+            return minDuration > 0 || maxDuration < Long.MAX_VALUE;
+        }
+
+        boolean matches(WorkoutAttributes a) {
+            if ((a.equipmentMask() & equipmentAll) != equipmentAll) return false;
+            if ((a.equipmentMask() & equipmentNone) != 0) return false;
+            if (hasDuration() && (a.durationSeconds() < 0
+                    || a.durationSeconds() < minDuration || a.durationSeconds() > maxDuration)) return false;
+            for (SetDistance f : sets) {
+                if (!f.matches(a)) return false;
+            }
+            return true;
+        }
+
+        private Attributes plus(SetDistance f) {
+            List<SetDistance> more = new ArrayList<>(sets);
+            more.add(f);
+            return new Attributes(List.copyOf(more), equipmentAll, equipmentNone, minDuration, maxDuration);
+        }
+
+        private Attributes requiring(int all, int none) {
+            return new Attributes(sets, equipmentAll | all, equipmentNone | none, minDuration, maxDuration);
+        }
+
+        private Attributes lasting(long min, long max) {
+            return new Attributes(sets, equipmentAll, equipmentNone, min, max);
+        }
+
+        @Override
+        public String toString() {
+            return "{sets=" + sets +
+                    ", equipment=+0x" + Integer.toHexString(equipmentAll) + "/-0x" + Integer.toHexString(equipmentNone) +
+                    ", duration=[" + minDuration + ", " + maxDuration + "]}";
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "WorkoutQuery{" +
+                "swimmers=" + (swimmerIds.isEmpty() ? "all" : swimmerIds.size()) +
+                ", course=" + course +
+                ", name~" + nameNeedle +
+                ", updated=[" + updatedFrom + ", " + updatedBefore + ")" +
+                (hasAttributeFilters() ? ", attributes=" + attributes : "") +
+                ", limit=" + limit +
+                '}';
+    }
+}
@@ -0,0 +1,464 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.model.enums.Course;
+
+/**
+ * Base of the derived indexes a store keeps next to its workouts ({@link WorkoutTextIndex},
+ * {@link WorkoutAttributeIndex}). Each entry is a workout's {@link WorkoutSummary} plus
+ * data the subclass derives from the full workout, so queries are answered from memory
+ * without reading or decoding workouts.
+ *
+ * <p><b>Design Notes:</b>
+ * <ul>
+ *   <li>On disk, the index file holds a snapshot (written through {@link AtomicFiles}) and
+ *       {@code <file>.log} the changes since, one checksummed record per save or delete.
+ *       Changes are logged even before the index is first opened; the snapshot is
+ *       rewritten when the index opens and whenever the log outgrows it. Replay stops at
+ *       a torn record, which is cut off.</li>
+ *   <li>Opening reconciles the index with the store's headers: workouts that are missing
+ *       or whose {@code updatedAt} differs are re-read and re-derived, and entries for
+ *       workouts that are gone are dropped. A lost log tail, a failed update or a change
+ *       made outside the app costs a few re-reads, never a wrong result. This is why the
+ *       log is not forced to disk, and why updates never fail the save or delete that
+ *       triggered them: on an I/O error the index drops its in-memory state and
+ *       reconciles again on next use.</li>
+ *   <li>Subclasses keep their lookup structures in step through {@link #added},
+ *       {@link #removed} and {@link #cleared}. Everything, subclass queries included,
+ *       runs under {@link #lock}. A store's indexes share one lock: reconciling reads
+ *       workouts, and a read that quarantines a damaged file updates every index, so
+ *       separate locks could deadlock two indexes reconciling at once.</li>
+ * </ul>
+ *
+ * @param <D> per-workout data derived by the subclass
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+abstract class WorkoutSideIndex<D> {
+
+    /** Where an index reads headers, workouts and swimmers from. */
+    interface Source {
+        /** Every swimmer whose workouts are listed. */
+        Collection<UUID> swimmerIds() throws IOException;
+
+        /** A swimmer's workout headers (empty if the swimmer is gone). */
+        List<WorkoutSummary> headersOf(UUID swimmerId) throws IOException;
+
+        /** The full workout behind a header. */
+        Workout load(WorkoutSummary s) throws IOException;
+
+        /** A swimmer (for their seed times). */
+        Swimmer swimmer(UUID swimmerId) throws IOException;
+    }
+
+    /** A workout's header and derived data. */
+    static final class Entry<D> {
+        final WorkoutSummary header;
+        final D data;
+
+        Entry(WorkoutSummary header, D data) {
+            this.header = header;
+            this.data = data;
+        }
+    }
+
+    private static final byte PUT = 1, REMOVE = 2, REMOVE_OWNER = 3;
+    private static final int COMPACT_MIN_RECORDS = 1024;   // log records before the snapshot is rewritten
+
+    final Source source;
+    final Object lock;
+    private final Path file;
+    private final Path logFile;
+    private final int magic;
+    private final int version;
+
+    private boolean open;
+    private final Map<UUID, Entry<D>> entries = new HashMap<>();
+    private FileChannel log;
+    private int logRecords;   // records in the log since the last snapshot (counted once open)
+
+    WorkoutSideIndex(Path file, int magic, int version, Source source, Object lock) {
+        this.file = Objects.requireNonNull(file, "file");
+        this.logFile = file.resolveSibling(file.getFileName() + ".log");
+        this.magic = magic;
+        this.version = version;
+        this.source = Objects.requireNonNull(source, "source");
+        this.lock = Objects.requireNonNull(lock, "lock");
+    }
+
+    // ----------------------------------------------------------
+    // Subclass contract
+    // ----------------------------------------------------------
+
+    /** A function deriving an entry's data; obtained once per batch, so it may memoize. */
+    abstract Function<Workout, D> deriver();
+
+    abstract void writeData(DataOutput out, D data) throws IOException;
+
+    abstract D readData(DataInput in) throws IOException;
+
+    /** An entry became current (after any previous one for the id was {@link #removed}). */
+    abstract void added(UUID id, Entry<D> e);
+
+    /** An entry stopped being current. */
+    abstract void removed(UUID id, Entry<D> e);
+
+    /** Every entry was dropped. */
+    abstract void cleared();
+
+    // ----------------------------------------------------------
+    // Updates (never throw; see the class notes)
+    // ----------------------------------------------------------
+
+    /** Indexes (or re-indexes) a saved workout. */
+    void put(Workout w) {
+        putAll(List.of(w));
+    }
+
+    /** Indexes several saved workouts with one log append. */
+    void putAll(Collection<Workout> workouts) {
+        synchronized (lock) {
+            try {
+                Function<Workout, D> derive = deriver();
+                ByteArrayOutputStream records = new ByteArrayOutputStream();
+                for (Workout w : workouts) {
+                    Entry<D> e = new Entry<>(WorkoutSummary.of(w), derive.apply(w));
+                    if (open) apply(w.getId(), e);
+                    writeRecord(records, PUT, w.getId(), e);
+                }
+                append(records.toByteArray(), workouts.size());
+            } catch (IOException | RuntimeException ex) {
+                invalidate();
+            }
+        }
+    }
+
+    /** Drops a deleted (or quarantined) workout. */
+    void remove(UUID workoutId) {
+        synchronized (lock) {
+            if (open) drop(workoutId);
+            appendQuietly(REMOVE, workoutId);
+        }
+    }
+
+    /** Drops every workout of a deleted (or orphaned) swimmer. */
+    void removeOwner(UUID swimmerId) {
+        synchronized (lock) {
+            if (open) dropOwner(swimmerId);
+            appendQuietly(REMOVE_OWNER, swimmerId);
+        }
+    }
+
+    /** Forgets the in-memory index; the next query reopens and reconciles it. */
+    void invalidate() {
+        synchronized (lock) {
+            open = false;
+            entries.clear();
+            cleared();
+        }
+    }
+
+    /**
+     * Forgets the index and deletes its files, so the next query rebuilds it from the
+     * store; for when entries may be wrong and cannot be corrected one by one.
+     */
+    void discard() {
+        synchronized (lock) {
+            invalidate();
+            try {
+                if (log != null) log.close();
+                Files.deleteIfExists(file);
+                Files.deleteIfExists(logFile);
+            } catch (IOException ignored) {
+                // nothing more to do: rows left stale are corrected when those workouts are saved
+            }
+        }
+    }
+
+    /** A swimmer lookup for one batch: one read per swimmer, {@code null} if it fails. */
+    final Function<UUID, Swimmer> owners() {
+        Map<UUID, Optional<Swimmer>> seen = new HashMap<>();
+        return id -> seen.computeIfAbsent(id, k -> {
+            try {
+                return Optional.ofNullable(source.swimmer(k));
+            } catch (Exception e) {
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+    // ----------------------------------------------------------
+    // For subclass queries (caller holds the lock)
+    // ----------------------------------------------------------
+
+    /** Opens the index on first use: snapshot, log, then reconcile. */
+    final void ensureOpen() throws IOException {
+        if (open) return;
+        entries.clear();
+        cleared();
+        boolean dirty = !readSnapshot();
+        dirty |= replayLog() > 0;
+        dirty |= reconcile();
+        open = true;
+        if (dirty) writeSnapshot();
+    }
+
+    final Entry<D> entry(UUID id) {
+        return entries.get(id);
+    }
+
+    final Collection<Entry<D>> entries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    // ----------------------------------------------------------
+    // Entries
+    // ----------------------------------------------------------
+
+    private void apply(UUID id, Entry<D> e) {
+        drop(id);
+        entries.put(id, e);
+        added(id, e);
+    }
+
+    private void drop(UUID id) {
+        Entry<D> old = entries.remove(id);
+        if (old != null) removed(id, old);
+    }
+
+    private void dropOwner(UUID swimmerId) {
+        List<UUID> owned = new ArrayList<>();
+        for (var e : entries.entrySet()) {
+            if (e.getValue().header.getSwimmerId().equals(swimmerId)) owned.add(e.getKey());
+        }
+        for (UUID id : owned) drop(id);
+    }
+
+    // Brings the index in line with the store's headers; true if anything changed
+    private boolean reconcile() throws IOException {
+        Map<UUID, WorkoutSummary> live = new HashMap<>();
+        for (UUID swimmerId : source.swimmerIds()) {
+            for (WorkoutSummary s : source.headersOf(swimmerId)) live.put(s.getId(), s);
+        }
+        boolean changed = false;
+        for (UUID id : new ArrayList<>(entries.keySet())) {
+            if (!live.containsKey(id)) {
+                drop(id);
+                changed = true;
+            }
+        }
+        Function<Workout, D> derive = deriver();
+        for (WorkoutSummary s : live.values()) {
+            Entry<D> e = entries.get(s.getId());
+            if (e != null && e.header.getSwimmerId().equals(s.getSwimmerId())
+                    && e.header.getUpdatedAt().equals(s.getUpdatedAt())) continue;
+            try {
+                Workout w = source.load(s);
+                apply(w.getId(), new Entry<>(WorkoutSummary.of(w), derive.apply(w)));
+            } catch (Exception ex) {
+                drop(s.getId());   // unreadable: left out until it is saved again
+            }
+            changed = true;
+        }
+        return changed;
+    }
+
+    // ----------------------------------------------------------
+    // Snapshot + log I/O
+    // ----------------------------------------------------------
+
+    // Loads the snapshot; false if it is missing, damaged or outdated
+    private boolean readSnapshot() {
+        if (!Files.exists(file)) return false;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(AtomicFiles.readVerified(file)))) {
+            if (in.readInt() != magic || in.readInt() != version) return false;
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                UUID id = readUuid(in);
+                apply(id, readEntry(in, id));
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            entries.clear();
+            cleared();
+            return false;
+        }
+    }
+
+    // Applies every intact log record; cuts off a torn tail. Returns the number applied.
+    private int replayLog() throws IOException {
+        logRecords = 0;
+        if (!Files.exists(logFile)) return 0;
+        ByteBuffer all = ByteBuffer.wrap(Files.readAllBytes(logFile));
+        long valid = 0;
+        while (all.remaining() >= 8) {
+            int len = all.getInt();
+            int crc = all.getInt();
+            if (len <= 0 || len > all.remaining()) break;
+            byte[] body = new byte[len];
+            all.get(body);
+            if (crc32c(body) != crc) break;
+            try {
+                replay(new DataInputStream(new ByteArrayInputStream(body)));
+            } catch (IOException | RuntimeException e) {
+                break;
+            }
+            valid = all.position();
+            logRecords++;
+        }
+        if (valid < all.capacity()) {
+            try (FileChannel ch = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+                ch.truncate(valid);
+            }
+        }
+        return logRecords;
+    }
+
+    private void replay(DataInputStream in) throws IOException {
+        byte op = in.readByte();
+        UUID id = readUuid(in);
+        switch (op) {
+            case PUT -> apply(id, readEntry(in, id));
+            case REMOVE -> drop(id);
+            case REMOVE_OWNER -> dropOwner(id);
+            default -> throw new IOException("Unknown index record " + op);
+        }
+    }
+
+    // Rewrites the snapshot from memory and empties the log
+    private void writeSnapshot() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(64 * 1024);
+        try (DataOutputStream out = new DataOutputStream(bos)) {
+            out.writeInt(magic);
+            out.writeInt(version);
+            out.writeInt(entries.size());
+            for (var e : entries.entrySet()) {
+                writeUuid(out, e.getKey());
+                writeEntry(out, e.getValue());
+            }
+        }
+        Files.createDirectories(file.getParent());
+        AtomicFiles.write(file, bos.toByteArray(), false);   // derived data: reconciled on open
+        logChannel().truncate(0);
+        logRecords = 0;
+    }
+
+    private void appendQuietly(byte op, UUID id) {
+        try {
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            writeRecord(record, op, id, null);
+            append(record.toByteArray(), 1);
+        } catch (IOException ex) {
+            invalidate();
+        }
+    }
+
+    private void append(byte[] records, int count) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(records);
+        FileChannel ch = logChannel();
+        while (buf.hasRemaining()) ch.write(buf);
+        if (!open) return;
+        logRecords += count;
+        if (logRecords > Math.max(COMPACT_MIN_RECORDS, entries.size())) writeSnapshot();
+    }
+
+    private FileChannel logChannel() throws IOException {
+        if (log == null || !log.isOpen()) {
+            Files.createDirectories(logFile.getParent());
+            log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        return log;
+    }
+
+    // len:i32 | crc32c(body):i32 | body, where body = op:u8 | id:uuid | [entry]
+    private void writeRecord(ByteArrayOutputStream sink, byte op, UUID id, Entry<D> e) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bos)) {
+            out.writeByte(op);
+            writeUuid(out, id);
+            if (e != null) writeEntry(out, e);
+        }
+        byte[] body = bos.toByteArray();
+        DataOutputStream frame = new DataOutputStream(sink);
+        frame.writeInt(body.length);
+        frame.writeInt(crc32c(body));
+        frame.write(body);
+    }
+
+    // Header fields as in the header index, then the subclass data
+    private void writeEntry(DataOutput out, Entry<D> e) throws IOException {
+        WorkoutSummary h = e.header;
+        writeUuid(out, h.getSwimmerId());
+        writeString(out, h.getName());
+        writeString(out, h.getNotes());
+        out.writeByte(h.getCourse().ordinal());
+        writeInstant(out, h.getCreatedAt());
+        writeInstant(out, h.getUpdatedAt());
+        out.writeLong(h.totalDistanceMicroUnits());
+        writeData(out, e.data);
+    }
+
+    private Entry<D> readEntry(DataInput in, UUID id) throws IOException {
+        UUID owner = readUuid(in);
+        String name = readString(in);
+        String notes = readString(in);
+        Course course = Course.values()[in.readUnsignedByte()];
+        Instant createdAt = readInstant(in);
+        Instant updatedAt = readInstant(in);
+        long distance = in.readLong();
+        WorkoutSummary header = new WorkoutSummary(id, owner, name, notes, course, createdAt, updatedAt, distance);
+        return new Entry<>(header, readData(in));
+    }
+
+    private static void writeInstant(DataOutput out, Instant t) throws IOException {
+        Instant v = (t == null) ? Instant.EPOCH : t;
+        out.writeLong(v.getEpochSecond());
+        out.writeInt(v.getNano());
+    }
+
+    private static Instant readInstant(DataInput in) throws IOException {
+        return Instant.ofEpochSecond(in.readLong(), in.readInt());
+    }
+
+    // Length-prefixed UTF-8 (-1 = null), as in the header index
+    private static void writeString(DataOutput out, String s) throws IOException {
+        if (s == null) { out.writeInt(-1); return; }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int len = in.readInt();
+        if (len < 0) return null;
+        byte[] b = new byte[len];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static void writeUuid(DataOutput out, UUID id) throws IOException {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(DataInput in) throws IOException {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    private static int crc32c(byte[] b) {
+        CRC32C crc = new CRC32C();
+        crc.update(b, 0, b.length);
+        return (int) crc.getValue();
+    }
+}
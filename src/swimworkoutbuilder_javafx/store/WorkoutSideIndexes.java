@@ -0,0 +1,132 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.model.enums.StrokeType;
+import swimworkoutbuilder_javafx.model.pacing.SeedPace;
+
+/**
+ * The derived indexes one store keeps next to its workouts (text, attributes and
+ * similarity), created together over one {@link WorkoutSideIndex.Source} and one lock, and
+ * updated together by the store's save and delete paths.
+ *
+ * <p>Also combines them for queries: attribute filters in a search or similarity scope
+ * are resolved on the attribute index first.</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+final class WorkoutSideIndexes {
+
+    final WorkoutTextIndex text;
+    final WorkoutAttributeIndex attributes;
+    final WorkoutSimilarityIndex similarity;
+    private final List<WorkoutSideIndex<?>> all;
+    private final WorkoutSideIndex.Source source;
+    private final Object lock;
+
+    /** Indexes named {@code <base>.fts}, {@code <base>.attrs} and {@code <base>.vec}. */
+    WorkoutSideIndexes(Path base, WorkoutSideIndex.Source source) {
+        this.source = source;
+        this.lock = new Object();   // shared: see WorkoutSideIndex
+        String name = base.getFileName().toString();
+        this.text = new WorkoutTextIndex(base.resolveSibling(name + ".fts"), source, lock);
+        this.attributes = new WorkoutAttributeIndex(base.resolveSibling(name + ".attrs"), source, lock);
+        this.similarity = new WorkoutSimilarityIndex(base.resolveSibling(name + ".vec"), source, lock);
+        this.all = List.of(text, attributes, similarity);
+    }
+
+    void putAll(Collection<Workout> workouts) {
+        for (WorkoutSideIndex<?> i : all) i.putAll(workouts);
+    }
+
+    void put(Workout w) {
+        putAll(List.of(w));
+    }
+
+    void remove(UUID workoutId) {
+        for (WorkoutSideIndex<?> i : all) i.remove(workoutId);
+    }
+
+    void removeOwner(UUID swimmerId) {
+        for (WorkoutSideIndex<?> i : all) i.removeOwner(swimmerId);
+    }
+
+    void invalidate() {
+        for (WorkoutSideIndex<?> i : all) i.invalidate();
+    }
+
+    /**
+     * Re-derives a swimmer's workouts in the indexes that estimate durations from seed
+     * times (attributes and similarity). Stores call this after saving a swimmer whose
+     * seeds differ from the stored ones ({@link #seedsDiffer}). Runs under the shared
+     * lock, so a save of one of the workouts meanwhile is applied after it.
+     */
+    void reindexOwner(UUID swimmerId) {
+        synchronized (lock) {
+            List<Workout> owned = new ArrayList<>();
+            try {
+                for (WorkoutSummary s : source.headersOf(swimmerId)) {
+                    try {
+                        owned.add(source.load(s));
+                    } catch (Exception e) {
+                        attributes.remove(s.getId());   // unreadable: left out, as reconciling does
+                        similarity.remove(s.getId());
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                attributes.discard();   // which rows are stale is unknown: rebuild on next use
+                similarity.discard();
+                return;
+            }
+            attributes.putAll(owned);
+            similarity.putAll(owned);
+        }
+    }
+
+    /** Whether the seed times a duration estimate uses differ between two versions of a swimmer. */
+    static boolean seedsDiffer(Swimmer before, Swimmer after) {
+        if (before == null || after == null) return false;   // new or gone: nothing indexed under old seeds
+        for (StrokeType stroke : StrokeType.values()) {
+            SeedPace a = before.getSeedPaces().get(stroke);
+            SeedPace b = after.getSeedPaces().get(stroke);
+            if (a == null || b == null) {
+                if (a != b) return true;
+                continue;
+            }
+            if (a.speedMps() != b.speedMps()
+                    || a.getOriginalDistance().toMeters() != b.getOriginalDistance().toMeters()) return true;
+        }
+        return false;
+    }
+
+    // ----------------------------------------------------------
+    // Queries
+    // ----------------------------------------------------------
+
+    /** Backs {@link WorkoutStore#query} for queries with attribute filters. */
+    List<WorkoutSummary> query(WorkoutQuery q) throws IOException {
+        return attributes.query(q);
+    }
+
+    /** Backs {@link WorkoutStore#search}. */
+    List<WorkoutSummary> search(String text, WorkoutQuery scope) throws IOException {
+        if (!scope.hasAttributeFilters()) return this.text.search(text, scope, null);
+        if (WorkoutTextIndex.words(text).isEmpty()) return attributes.query(scope);
+        return this.text.search(text, scope, attributes.ids(scope));
+    }
+
+    /** Backs {@link WorkoutStore#similarTo}. */
+    List<SimilarWorkout> similarTo(Workout like, WorkoutQuery scope, int k) throws IOException {
+        Set<UUID> within = scope.hasAttributeFilters() ? attributes.ids(scope) : null;
+        return similarity.nearest(like, scope, within, k);
+    }
+}
@@ -0,0 +1,284 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.*;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Function;
+import swimworkoutbuilder_javafx.model.SetGroup;
+import swimworkoutbuilder_javafx.model.SwimSet;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.model.enums.Equipment;
+
+/**
+ * Nearest-neighbour index behind {@link WorkoutStore#similarTo}: every saved workout as a
+ * fixed-length feature vector, searched for the workouts closest to a given one.
+ *
+ * <p>The features describe a workout's make-up, not its wording: the share of distance in
+ * each stroke × effort cell, the share swum with each piece of equipment, the group and
+ * set structure, and the overall volume and duration. Shares are stored as square roots,
+ * so two workouts' mix block differs by at most √2 however they are split; volume and
+ * duration are log-scaled, so 3000 vs 3500 counts about as much as 6000 vs 7000.</p>
+ *
+ * <p><b>Design Notes:</b>
+ * <ul>
+ *   <li>All vectors live in one packed {@code float[]}, {@link #DIMS} floats per row, with
+ *       rows freed by deletes reused. A search is an exact scan of that array: squared
+ *       distance with independent accumulators over a padded row (a multiple of 8, so the
+ *       JIT can unroll and vectorize it), keeping the best {@code k} in a bounded heap.
+ *       A swimmer scope limits the scan to that swimmer's rows; other scope filters are
+ *       only checked for rows that would enter the heap.</li>
+ *   <li>The exact scan stays well inside interactive budgets for a club library (see
+ *       {@code dev.SimilarityBenchmark}), so there is no approximate index; one would trade
+ *       exactness for speed that is not needed at this size.</li>
+ *   <li>Persistence and reconciliation come from {@link WorkoutSideIndex}; each entry's
+ *       data is its vector as packed float32. Durations use the owner's seed times when
+ *       the workout is indexed (or re-indexed after the seeds change); without them the
+ *       duration feature follows volume.</li>
+ * </ul>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+final class WorkoutSimilarityIndex extends WorkoutSideIndex<float[]> {
+
+    private static final int MAGIC = 0x53575653;   // "SWVS"
+    private static final int VERSION = 1;
+
+    // Feature layout
+    private static final int EQUIPMENT = Equipment.values().length;
+    private static final int MIX = 0;                                    // stroke × effort shares
+    private static final int EQUIP = MIX + WorkoutAttributes.CELLS;      // equipment shares
+    private static final int STRUCTURE = EQUIP + EQUIPMENT;              // groups, sets, rep length, group reps
+    private static final int VOLUME = STRUCTURE + 4;
+    private static final int DURATION = VOLUME + 1;
+    static final int DIMS = (DURATION + 1 + 7) & ~7;                     // padded to a multiple of 8
+
+    // Block weights: how much each kind of difference counts against the mix
+    private static final float EQUIP_WEIGHT = 0.5f;
+    private static final float STRUCTURE_WEIGHT = 0.5f;
+    private static final float SIZE_WEIGHT = 3.0f;
+
+    // Packed vectors and their headers, indexed by row
+    private float[] vectors = new float[0];
+    private WorkoutSummary[] headers = new WorkoutSummary[0];
+    private final Map<UUID, Integer> rowOf = new HashMap<>();
+    private final Deque<Integer> freeRows = new ArrayDeque<>();
+    private int rows = 0;   // high-water mark
+    private final Map<UUID, BitSet> byOwner = new HashMap<>();
+
+    WorkoutSimilarityIndex(Path file, Source source, Object lock) {
+        super(file, MAGIC, VERSION, source, lock);
+    }
+
+    // ----------------------------------------------------------
+    // Search
+    // ----------------------------------------------------------
+
+    /**
+     * The {@code k} workouts in {@code scope} (and {@code within}, if not null) closest to
+     * {@code like}, closest first. {@code like} itself is left out; it need not be saved.
+     */
+    List<SimilarWorkout> nearest(Workout like, WorkoutQuery scope, Set<UUID> within, int k) throws IOException {
+        Objects.requireNonNull(like, "like");
+        Objects.requireNonNull(scope, "scope");
+        if (k <= 0) throw new IllegalArgumentException("k must be > 0");
+        synchronized (lock) {
+            ensureOpen();
+            float[] q = features(like, owners().apply(like.getSwimmerId()));
+            UUID self = like.getId();
+
+            // Bounded max-heap on distance: the root is the worst of the best k so far
+            float[] heapDist = new float[k];
+            int[] heapRow = new int[k];
+            int size = 0;
+            BitSet owned = owned(scope.swimmerIds());   // null = every row
+            for (int r = 0; r < rows; r++) {
+                if (owned != null && (r = owned.nextSetBit(r)) < 0) break;
+                WorkoutSummary h = headers[r];
+                if (h == null) continue;
+                float d = distance(vectors, r * DIMS, q);
+                if (size == k && d >= heapDist[0]) continue;
+                if (h.getId().equals(self) || (within != null && !within.contains(h.getId())) || !scope.matches(h)) continue;
+                if (size < k) {
+                    heapDist[size] = d;
+                    heapRow[size] = r;
+                    siftUp(heapDist, heapRow, size++);
+                } else {
+                    heapDist[0] = d;
+                    heapRow[0] = r;
+                    siftDown(heapDist, heapRow, size);
+                }
+            }
+
+            List<SimilarWorkout> out = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                out.add(new SimilarWorkout(headers[heapRow[i]], 1.0 / (1.0 + heapDist[i])));
+            }
+            out.sort(Comparator.comparingDouble(SimilarWorkout::getSimilarity).reversed()
+                    .thenComparing(SimilarWorkout::getSummary, WorkoutQuery.ORDER));
+            return out;
+        }
+    }
+
+    private BitSet owned(Set<UUID> swimmerIds) {
+        if (swimmerIds.isEmpty()) return null;
+        BitSet out = new BitSet();
+        for (UUID id : swimmerIds) {
+            BitSet b = byOwner.get(id);
+            if (b != null) out.or(b);
+        }
+        return out;
+    }
+
+    // Squared Euclidean distance between the row at off and q
+    private static float distance(float[] v, int off, float[] q) {
+        float a0 = 0, a1 = 0, a2 = 0, a3 = 0;
+        for (int i = 0; i < DIMS; i += 4) {
+            float d0 = v[off + i] - q[i];
+            float d1 = v[off + i + 1] - q[i + 1];
+            float d2 = v[off + i + 2] - q[i + 2];
+            float d3 = v[off + i + 3] - q[i + 3];
+            a0 += d0 * d0;
+            a1 += d1 * d1;
+            a2 += d2 * d2;
+            a3 += d3 * d3;
+        }
+        return (a0 + a1) + (a2 + a3);
+    }
+
+    private static void siftUp(float[] dist, int[] row, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (dist[parent] >= dist[i]) return;
+            swap(dist, row, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(float[] dist, int[] row, int size) {
+        int i = 0;
+        while (true) {
+            int l = 2 * i + 1, r = l + 1, top = i;
+            if (l < size && dist[l] > dist[top]) top = l;
+            if (r < size && dist[r] > dist[top]) top = r;
+            if (top == i) return;
+            swap(dist, row, i, top);
+            i = top;
+        }
+    }
+
+    private static void swap(float[] dist, int[] row, int a, int b) {
+        float d = dist[a]; dist[a] = dist[b]; dist[b] = d;
+        int r = row[a]; row[a] = row[b]; row[b] = r;
+    }
+
+    // ----------------------------------------------------------
+    // Features
+    // ----------------------------------------------------------
+
+    /** The feature vector of a workout; {@code swimmer} (for the duration) may be null. */
+    static float[] features(Workout w, Swimmer swimmer) {
+        WorkoutAttributes a = WorkoutAttributes.of(w, swimmer);
+        float[] v = new float[DIMS];
+        long total = a.distanceMicroUnits(null, null);
+
+        long[] equipped = new long[EQUIPMENT];
+        int groups = 0, sets = 0, maxGroupReps = 1;
+        long reps = 0;
+        for (SetGroup g : w.getGroups()) {
+            if (g == null || g.getSets() == null) continue;
+            groups++;
+            int groupReps = Math.max(1, g.getReps());
+            maxGroupReps = Math.max(maxGroupReps, groupReps);
+            for (SwimSet s : g.getSets()) {
+                if (s == null) continue;
+                sets++;
+                int setReps = Math.max(1, s.getReps());
+                reps += (long) setReps * groupReps;
+                if (s.getEquipment() == null) continue;
+                long d = s.getDistancePerRep().rawMicroUnits() * setReps * groupReps;
+                for (Equipment e : s.getEquipment()) equipped[e.ordinal()] += d;
+            }
+        }
+
+        if (total > 0) {
+            for (int c = 0; c < WorkoutAttributes.CELLS; c++) v[MIX + c] = (float) Math.sqrt((double) a.cell(c) / total);
+            for (int e = 0; e < EQUIPMENT; e++) {
+                v[EQUIP + e] = EQUIP_WEIGHT * (float) Math.sqrt(Math.min(1.0, (double) equipped[e] / total));
+            }
+        }
+        double meters = total / 10_000.0;   // canonical micro units are 0.0001 m
+        v[STRUCTURE] = STRUCTURE_WEIGHT * scaled(groups, 16);
+        v[STRUCTURE + 1] = STRUCTURE_WEIGHT * scaled(sets, 64);
+        v[STRUCTURE + 2] = STRUCTURE_WEIGHT * scaled(reps == 0 ? 0 : meters / reps, 1500);
+        v[STRUCTURE + 3] = STRUCTURE_WEIGHT * scaled(maxGroupReps - 1, 10);
+        v[VOLUME] = SIZE_WEIGHT * scaled(meters, 20_000);
+        v[DURATION] = (a.durationSeconds() < 0) ? v[VOLUME] : SIZE_WEIGHT * scaled(a.durationSeconds() / 60.0, 240);
+        return v;
+    }
+
+    // log-scaled to about [0, 1] for values up to {@code max}
+    private static float scaled(double value, double max) {
+        return (float) (Math.log1p(Math.max(0, value)) / Math.log1p(max));
+    }
+
+    // ----------------------------------------------------------
+    // Entries and rows
+    // ----------------------------------------------------------
+
+    @Override
+    Function<Workout, float[]> deriver() {
+        Function<UUID, Swimmer> owners = owners();
+        return w -> features(w, owners.apply(w.getSwimmerId()));
+    }
+
+    @Override
+    void added(UUID id, Entry<float[]> e) {
+        int r = freeRows.isEmpty() ? rows++ : freeRows.pop();
+        if (r >= headers.length) {
+            int n = Math.max(64, headers.length * 2);
+            headers = Arrays.copyOf(headers, n);
+            vectors = Arrays.copyOf(vectors, n * DIMS);
+        }
+        rowOf.put(id, r);
+        headers[r] = e.header;
+        byOwner.computeIfAbsent(e.header.getSwimmerId(), k -> new BitSet()).set(r);
+        System.arraycopy(e.data, 0, vectors, r * DIMS, DIMS);
+    }
+
+    @Override
+    void removed(UUID id, Entry<float[]> e) {
+        Integer r = rowOf.remove(id);
+        if (r == null) return;
+        headers[r] = null;
+        BitSet owned = byOwner.get(e.header.getSwimmerId());
+        if (owned != null) {
+            owned.clear(r);
+            if (owned.isEmpty()) byOwner.remove(e.header.getSwimmerId());
+        }
+        freeRows.push(r);
+    }
+
+    @Override
+    void cleared() {
+        rowOf.clear();
+        freeRows.clear();
+        rows = 0;
+        Arrays.fill(headers, null);
+        byOwner.clear();
+    }
+
+    @Override
+    void writeData(DataOutput out, float[] v) throws IOException {
+        for (float f : v) out.writeFloat(f);
+    }
+
+    @Override
+    float[] readData(DataInput in) throws IOException {
+        float[] v = new float[DIMS];
+        for (int i = 0; i < DIMS; i++) v[i] = in.readFloat();
+        return v;
+    }
+}
@@ -0,0 +1,119 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import swimworkoutbuilder_javafx.model.Workout;
+
+/**
+ * Storage of workouts, independent of how they are laid out on disk.
+ *
+ * <p>Implementations are thread-safe and hand out deep copies: a loaded workout may be
+ * edited freely and is only persisted by {@link #saveWorkout}. See {@link SwimmerStore}
+ * for how the implementation is chosen.</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public interface WorkoutStore {
+
+    /** Saves a workout, stamping its {@code updatedAt}. */
+    void saveWorkout(Workout w) throws IOException;
+
+    /**
+     * Saves several workouts. Backends that can write them as one batch (one append and
+     * one flush) override this; the default saves them one by one.
+     */
+    default void saveWorkouts(Collection<Workout> workouts) throws IOException {
+        for (Workout w : workouts) saveWorkout(w);
+    }
+
+    /**
+     * Loads a workout by id.
+     *
+     * @throws java.nio.file.NoSuchFileException if it is not stored
+     * @throws CorruptFileException if its stored bytes are damaged (they are quarantined)
+     */
+    Workout loadWorkout(UUID id) throws IOException;
+
+    /** Loads a workout whose owner is known (e.g. from a {@link WorkoutSummary}). */
+    Workout loadWorkout(UUID swimmerId, UUID id) throws IOException;
+
+    void deleteWorkout(UUID id) throws IOException;
+
+    /** Headers of a swimmer's workouts, newest first; no workout is decoded. */
+    List<WorkoutSummary> listWorkoutSummariesFor(UUID swimmerId) throws IOException;
+
+    /** Full workouts of a swimmer, newest first; unreadable ones are skipped. */
+    default List<Workout> listWorkoutsFor(UUID swimmerId) throws IOException {
+        List<Workout> out = new ArrayList<>();
+        for (WorkoutSummary s : listWorkoutSummariesFor(swimmerId)) {
+            try { out.add(loadWorkout(swimmerId, s.getId())); } catch (Exception ignored) {}
+        }
+        return out;
+    }
+
+    /**
+     * A swimmer's workouts, newest first, as lazy proxies built from the header index: name,
+     * course, notes, timestamps and {@link Workout#totalDistance()} are available at once,
+     * and nothing else is read until {@link Workout#getGroups()} (or the default rest) is
+     * first used. A workout that cannot be loaded by then fails that call with an
+     * {@link UncheckedIOException}.
+     */
+    default List<Workout> listLazyWorkoutsFor(UUID swimmerId) throws IOException {
+        List<Workout> out = new ArrayList<>();
+        for (WorkoutSummary s : listWorkoutSummariesFor(swimmerId)) out.add(lazyWorkout(s));
+        return out;
+    }
+
+    /** A lazy proxy for one header (e.g. a {@link #query} result); see {@link #listLazyWorkoutsFor}. */
+    default Workout lazyWorkout(WorkoutSummary s) {
+        return new Workout(s.getId(), s.getSwimmerId(), s.getName(), s.getCourse(), s.getNotes(),
+                s.getCreatedAt(), s.getUpdatedAt(), s.totalDistanceMicroUnits(), () -> {
+            try {
+                return loadWorkout(s.getSwimmerId(), s.getId());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Runs a listing/filter query over the workout headers. A {@link WorkoutQuery} is
+     * immutable and may be prepared once and run many times. Filters on set contents
+     * (stroke/effort distance, equipment, duration) are answered from an attribute index
+     * kept up to date by saves and deletes, without loading workouts.
+     */
+    List<WorkoutSummary> query(WorkoutQuery q) throws IOException;
+
+    /**
+     * Full-text search: headers of the workouts in {@code scope} whose name, notes, group
+     * names or group/set notes contain every word of {@code text}, each word matching as a
+     * prefix and ignoring case and accents ({@code "brok 200"} finds "Broken 200s"). Best
+     * matches come first (a word in the name counts most, one in set notes least), then
+     * {@link WorkoutQuery#ORDER}; {@link WorkoutQuery#limit} applies. Blank text returns
+     * every workout in scope, as {@link #query} does. Attribute filters in {@code scope}
+     * apply as well.
+     *
+     * <p>Answered from an in-memory index kept up to date by saves and deletes, so it is
+     * fast enough to run on every keystroke once the first call has opened the index.</p>
+     */
+    List<WorkoutSummary> search(String text, WorkoutQuery scope) throws IOException;
+
+    /**
+     * "Find workouts like this one": the {@code k} workouts in {@code scope} whose make-up
+     * (stroke and effort mix, equipment, structure, volume and duration) is closest to
+     * {@code like}, most similar first. {@code like} need not be saved and is never part of
+     * the result. {@link WorkoutQuery#limit} is ignored in favour of {@code k}.
+     *
+     * <p>Answered from an in-memory index kept up to date by saves and deletes.</p>
+     */
+    List<SimilarWorkout> similarTo(Workout like, WorkoutQuery scope, int k) throws IOException;
+
+    /** Version stamp of a stored workout (changes on every save), or -1 if it is not stored. */
+    long workoutVersion(UUID swimmerId, UUID workoutId) throws IOException;
+}
@@ -0,0 +1,87 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.model.enums.Course;
+import swimworkoutbuilder_javafx.model.units.Distance;
+
+/**
+ * Lightweight, immutable header for a saved {@link Workout}.
+ *
+ * <p>Summaries are what list views (e.g. the Open Workout dialog) need: identity,
+ * owner, name/notes, course, timestamps and total distance. They are kept in the
+ * workout header index so listing never has to deserialize groups and sets.
+ * Use {@link WorkoutStore#loadWorkout(UUID)} to fetch the full workout.</p>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+public final class WorkoutSummary {
+
+    private final UUID id;
+    private final UUID swimmerId;
+    private final String name;
+    private final String notes;          // nullable
+    private final Course course;
+    private final Instant createdAt;
+    private final Instant updatedAt;
+    private final long totalDistanceMicroUnits; // canonical 0.0001 m units (see Distance)
+
+    public WorkoutSummary(UUID id, UUID swimmerId, String name, String notes, Course course,
+                          Instant createdAt, Instant updatedAt, long totalDistanceMicroUnits) {
+        this.id = Objects.requireNonNull(id, "id");
+        this.swimmerId = Objects.requireNonNull(swimmerId, "swimmerId");
+        this.name = (name == null) ? "" : name;
+        this.notes = notes;
+        this.course = Objects.requireNonNull(course, "course");
+        this.createdAt = Objects.requireNonNull(createdAt, "createdAt");
+        this.updatedAt = Objects.requireNonNull(updatedAt, "updatedAt");
+        this.totalDistanceMicroUnits = Math.max(0L, totalDistanceMicroUnits);
+    }
+
+    /** Builds the summary for a full workout (used when saving or rebuilding the index). */
+    public static WorkoutSummary of(Workout w) {
+        Objects.requireNonNull(w, "workout");
+        return new WorkoutSummary(
+                w.getId(),
+                w.getSwimmerId(),
+                w.getName(),
+                w.getNotes(),
+                w.getCourse(),
+                w.getCreatedAt() == null ? Instant.EPOCH : w.getCreatedAt(),
+                w.getUpdatedAt() == null ? Instant.EPOCH : w.getUpdatedAt(),
+                w.totalDistance().rawMicroUnits());
+    }
+
+    public UUID getId() { return id; }
+    public UUID getSwimmerId() { return swimmerId; }
+    public String getName() { return name; }
+    public String getNotes() { return notes; }
+    public Course getCourse() { return course; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getUpdatedAt() { return updatedAt; }
+
+    /** Canonical raw distance (0.0001 m units), as stored in the index. */
+    public long totalDistanceMicroUnits() { return totalDistanceMicroUnits; }
+
+    /** Total distance, displayed in the unit of the workout's course. */
+    public Distance totalDistance() {
+        Distance.Unit unit = (course.getUnit() == swimworkoutbuilder_javafx.model.enums.CourseUnit.YARDS)
+                ? Distance.Unit.YARDS : Distance.Unit.METERS;
+        return Distance.ofCanonicalMicroUnits(totalDistanceMicroUnits, unit);
+    }
+
+    @Override
+    public String toString() {
+        return "WorkoutSummary{" +
+                "id=" + id +
+                ", swimmerId=" + swimmerId +
+                ", name='" + name + '\'' +
+                ", course=" + course.name() +
+                ", updatedAt=" + updatedAt +
+                '}';
+    }
+}
@@ -0,0 +1,185 @@
+package swimworkoutbuilder_javafx.store;
+
+import java.io.*;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.function.Function;
+import swimworkoutbuilder_javafx.model.SetGroup;
+import swimworkoutbuilder_javafx.model.SwimSet;
+import swimworkoutbuilder_javafx.model.Workout;
+
+/**
+ * Full-text index over the words of every saved workout: its name and notes, and the
+ * names and notes of its groups and sets. Backs {@link WorkoutStore#search}.
+ *
+ * <p>Text is split into words of letters and digits, ignoring case and accents. Every word
+ * of a search must match the start of an indexed word, so {@code "bro 200"} finds
+ * "Broken 200s". Matches in a workout name rank above matches in a group name, then the
+ * workout notes, then set notes; whole-word matches rank above prefixes.</p>
+ *
+ * <p><b>Design Notes:</b>
+ * <ul>
+ *   <li>In memory, a sorted word dictionary (a prefix lookup is a sub-map) maps each word
+ *       to the workouts containing it. Each workout keeps its own word list, so a save or
+ *       delete only touches that workout's postings.</li>
+ *   <li>Persistence, reconciliation and the header kept with each entry come from
+ *       {@link WorkoutSideIndex}, so a search is answered from memory alone.</li>
+ * </ul>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+final class WorkoutTextIndex extends WorkoutSideIndex<Map<String, Integer>> {
+
+    // Where a word occurs; the highest bit of a posting's mask is its weight
+    private static final int SET_NOTES = 1, NOTES = 2, GROUP = 4, NAME = 8;
+
+    private static final int MAGIC = 0x53574654;   // "SWFT"
+    private static final int VERSION = 1;
+    private static final int MAX_WORD = 64;        // longer words are cut
+
+    // word -> (workoutId -> field mask)
+    private final NavigableMap<String, Map<UUID, Integer>> postings = new TreeMap<>();
+
+    WorkoutTextIndex(Path file, Source source, Object lock) {
+        super(file, MAGIC, VERSION, source, lock);
+    }
+
+    // ----------------------------------------------------------
+    // Search
+    // ----------------------------------------------------------
+
+    /**
+     * Headers of the workouts in {@code scope} that contain every word of {@code text}
+     * (each as a prefix), best match first, then in {@link WorkoutQuery#ORDER}. Blank text
+     * matches every workout in scope. {@code within}, if not null, further restricts the
+     * result to those ids (the workouts matching the query's attribute filters).
+     */
+    List<WorkoutSummary> search(String text, WorkoutQuery scope, Set<UUID> within) throws IOException {
+        Objects.requireNonNull(scope, "scope");
+        synchronized (lock) {
+            ensureOpen();
+            List<String> words = words(text);
+            if (words.isEmpty()) {
+                List<WorkoutSummary> all = new ArrayList<>();
+                for (Entry<Map<String, Integer>> e : entries()) {
+                    if (within == null || within.contains(e.header.getId())) all.add(e.header);
+                }
+                return scope.select(all);
+            }
+            Map<UUID, Integer> scores = score(words, scope, within);
+            List<WorkoutSummary> hits = new ArrayList<>(scores.size());
+            for (UUID id : scores.keySet()) hits.add(entry(id).header);
+            hits.sort(Comparator.comparing((WorkoutSummary s) -> scores.get(s.getId())).reversed()
+                    .thenComparing(WorkoutQuery.ORDER));
+            int limit = scope.limit();
+            return (limit > 0 && hits.size() > limit) ? new ArrayList<>(hits.subList(0, limit)) : hits;
+        }
+    }
+
+    // Workouts in scope containing every word as a prefix -> summed best weight per word
+    private Map<UUID, Integer> score(List<String> words, WorkoutQuery scope, Set<UUID> within) {
+        Map<UUID, Integer> result = null;
+        for (String word : words) {
+            Map<UUID, Integer> hits = new HashMap<>();
+            for (var e : postings.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+                int factor = (e.getKey().length() == word.length()) ? 2 : 1;
+                for (var p : e.getValue().entrySet()) {
+                    UUID id = p.getKey();
+                    // the first word applies the scope; later words only narrow its hits
+                    boolean candidate = (result == null)
+                            ? (within == null || within.contains(id)) && scope.matches(entry(id).header)
+                            : result.containsKey(id);
+                    if (candidate) hits.merge(id, Integer.highestOneBit(p.getValue()) * factor, Math::max);
+                }
+            }
+            if (result != null) {
+                Map<UUID, Integer> previous = result;
+                hits.replaceAll((id, s) -> s + previous.get(id));
+            }
+            result = hits;
+            if (result.isEmpty()) break;
+        }
+        return result;
+    }
+
+    /** Splits text into lower-case, accent-free words of letters and digits. */
+    static List<String> words(String text) {
+        if (text == null || text.isBlank()) return List.of();
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFKD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        List<String> out = new ArrayList<>();
+        for (String w : folded.split("[^\\p{L}\\p{N}]+")) {
+            if (w.isEmpty()) continue;
+            out.add(w.length() > MAX_WORD ? w.substring(0, MAX_WORD) : w);
+        }
+        return out;
+    }
+
+    // ----------------------------------------------------------
+    // Entries and postings
+    // ----------------------------------------------------------
+
+    @Override
+    Function<Workout, Map<String, Integer>> deriver() {
+        return WorkoutTextIndex::wordsOf;
+    }
+
+    // word -> mask of the fields it occurs in
+    private static Map<String, Integer> wordsOf(Workout w) {
+        Map<String, Integer> words = new LinkedHashMap<>();
+        add(words, w.getName(), NAME);
+        add(words, w.getNotes(), NOTES);
+        for (SetGroup g : w.getGroups()) {
+            add(words, g.getName(), GROUP);
+            add(words, g.getNotes(), NOTES);
+            for (SwimSet s : g.getSets()) add(words, s.getNotes(), SET_NOTES);
+        }
+        return words;
+    }
+
+    private static void add(Map<String, Integer> words, String text, int field) {
+        for (String word : words(text)) words.merge(word, field, (a, b) -> a | b);
+    }
+
+    @Override
+    void added(UUID id, Entry<Map<String, Integer>> e) {
+        for (var w : e.data.entrySet()) {
+            postings.computeIfAbsent(w.getKey(), k -> new HashMap<>()).put(id, w.getValue());
+        }
+    }
+
+    @Override
+    void removed(UUID id, Entry<Map<String, Integer>> e) {
+        for (String word : e.data.keySet()) {
+            Map<UUID, Integer> p = postings.get(word);
+            if (p != null && p.remove(id) != null && p.isEmpty()) postings.remove(word);
+        }
+    }
+
+    @Override
+    void cleared() {
+        postings.clear();
+    }
+
+    @Override
+    void writeData(DataOutput out, Map<String, Integer> words) throws IOException {
+        out.writeInt(words.size());
+        for (var e : words.entrySet()) {
+            out.writeUTF(e.getKey());
+            out.writeByte(e.getValue());
+        }
+    }
+
+    @Override
+    Map<String, Integer> readData(DataInput in) throws IOException {
+        int n = in.readInt();
+        if (n < 0) throw new IOException("Negative word count");
+        Map<String, Integer> words = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) words.put(in.readUTF(), in.readUnsignedByte());
+        return words;
+    }
+}
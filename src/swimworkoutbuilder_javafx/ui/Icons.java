@@ -2,7 +2,6 @@ package swimworkoutbuilder_javafx.ui;
 
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
-import java.io.InputStream;
 
 /**
  * Utility for loading and sizing icons consistently.
@@ -16,13 +15,10 @@ public final class Icons {
 
     public static ImageView make(String name, double size) {
         String path = "/icons/" + name + ".png";  // or .svg if you use SVG loader
-        InputStream is = Icons.class.getResourceAsStream(path);
-        if (is == null) {
-            System.err.println("⚠️ Icon not found: " + path);
-            return new ImageView();
-        }
+        Image img = ImageCache.get(path, size);   // decoded once per (name, size), shared
+        if (img == null) return new ImageView();
 
-        ImageView iv = new ImageView(new Image(is, size, size, true, true));
+        ImageView iv = new ImageView(img);
         iv.getStyleClass().add("icon");
         return iv;
     }
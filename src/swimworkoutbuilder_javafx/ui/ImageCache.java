@@ -0,0 +1,128 @@
+package swimworkoutbuilder_javafx.ui;
+
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import javafx.scene.image.Image;
+
+/**
+ * Process-wide cache of decoded classpath images, keyed by resource path and size.
+ *
+ * <p>{@link Image} is immutable and can back any number of {@code ImageView}s, so each
+ * icon/badge PNG is decoded once and shared. Entries are decoded lazily on first use
+ * and evicted least-recently-used once the estimated pixel footprint exceeds
+ * {@link #MAX_BYTES}. Missing resources are remembered too, so a bad name is reported
+ * once instead of on every row.</p>
+ *
+ * Example:
+ *     ImageView iv = new ImageView(ImageCache.get("/icons/pencil.png", 16));
+ */
+public final class ImageCache {
+    private ImageCache() {}
+
+    /** Upper bound on the decoded pixel data kept (ARGB estimate). */
+    public static final long MAX_BYTES = 8L * 1024 * 1024;
+
+    private static final LinkedHashMap<String, Image> CACHE = new LinkedHashMap<>(64, 0.75f, true);
+    private static final Set<String> MISSING = new HashSet<>();
+    private static long bytes;
+    private static long hits, misses, evictions, failures;
+
+    /**
+     * Returns the image at {@code resourcePath}, decoded to fit {@code size × size}
+     * (aspect preserved, smoothed), or at its natural size when {@code size <= 0}.
+     *
+     * @return the shared image, or {@code null} if the resource is missing or unreadable
+     */
+    public static synchronized Image get(String resourcePath, double size) {
+        String key = resourcePath + "@" + (size > 0 ? size : 0);
+        Image img = CACHE.get(key);
+        if (img != null || MISSING.contains(key)) {
+            hits++;
+            return img;
+        }
+
+        misses++;
+        img = decode(resourcePath, size);
+        if (img == null) {
+            failures++;
+            MISSING.add(key);
+            return null;
+        }
+        CACHE.put(key, img);
+        bytes += footprint(img);
+        trim();
+        return img;
+    }
+
+    /** Drops every entry (counters are kept). */
+    public static synchronized void clear() {
+        CACHE.clear();
+        MISSING.clear();
+        bytes = 0;
+    }
+
+    /** Snapshot of the cache counters. */
+    public static synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, failures, CACHE.size(), bytes);
+    }
+
+    private static Image decode(String path, double size) {
+        try (InputStream is = ImageCache.class.getResourceAsStream(path)) {
+            if (is == null) {
+                System.err.println("⚠️ Image not found: " + path);
+                return null;
+            }
+            Image img = (size > 0) ? new Image(is, size, size, true, true) : new Image(is);
+            return img.isError() ? null : img;
+        } catch (Exception e) {
+            System.err.println("⚠️ Failed to load image: " + path + " (" + e.getMessage() + ")");
+            return null;
+        }
+    }
+
+    private static long footprint(Image img) {
+        return (long) img.getWidth() * (long) img.getHeight() * 4L;
+    }
+
+    // Evict least-recently-used entries until under budget (always keeps the newest).
+    private static void trim() {
+        Iterator<Map.Entry<String, Image>> it = CACHE.entrySet().iterator();
+        while (bytes > MAX_BYTES && CACHE.size() > 1 && it.hasNext()) {
+            Image victim = it.next().getValue();
+            it.remove();
+            bytes -= footprint(victim);
+            evictions++;
+        }
+    }
+
+    /** Immutable counters; {@link #hitRate()} is hits / (hits + misses). */
+    public static final class Stats {
+        public final long hits, misses, evictions, failures;
+        public final int entries;
+        public final long bytes;
+
+        Stats(long hits, long misses, long evictions, long failures, int entries, long bytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.failures = failures;
+            this.entries = entries;
+            this.bytes = bytes;
+        }
+
+        public double hitRate() {
+            long total = hits + misses;
+            return (total == 0) ? 0.0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ImageCache{hits=%d, misses=%d (decodes), hitRate=%.1f%%, evictions=%d, failures=%d, entries=%d, ~%d KB}",
+                    hits, misses, hitRate() * 100, evictions, failures, entries, bytes / 1024);
+        }
+    }
+}
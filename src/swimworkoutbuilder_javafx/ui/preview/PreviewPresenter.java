@@ -1,9 +1,7 @@
 package swimworkoutbuilder_javafx.ui.preview;
 
 
-import java.io.ByteArrayOutputStream;
-import java.io.PrintStream;
-import java.nio.charset.StandardCharsets;
+import javafx.application.Platform;
 import javafx.beans.property.ReadOnlyStringProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
@@ -15,17 +13,21 @@ import swimworkoutbuilder_javafx.state.AppState;
 
 /**
  * Presenter for the read-only Workout preview/print text.
- * Captures WorkoutPrinter's console output into a String for UI display.
+ * Renders {@link WorkoutPrinter} output off the FX thread via {@link PreviewRenderer},
+ * which re-formats only the groups that changed since the last render.
  */
 public final class PreviewPresenter {
 
     private final AppState app;
-    private final PacePolicy policy;
+    private final PreviewRenderer renderer;
     private final StringProperty text = new SimpleStringProperty("");
 
+    // Only the newest request may publish; older renders that finish late are dropped.
+    private long generation;
+
     public PreviewPresenter(AppState appState, PacePolicy pacePolicy) {
         this.app = appState;
-        this.policy = pacePolicy;
+        this.renderer = new PreviewRenderer(pacePolicy);
 
         // Re-render when either the workout or swimmer changes.
         app.currentWorkoutProperty().addListener((o, a, b) -> render());
@@ -37,23 +39,20 @@ public final class PreviewPresenter {
     private void render() {
         Workout w = app.getCurrentWorkout();
         Swimmer s = app.getCurrentSwimmer();
+        long gen = ++generation;
         if (w == null || s == null) {
             text.set("");
             return;
         }
-        text.set(renderToString(w, s));
-    }
-
-    private String renderToString(Workout w, Swimmer s) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        PrintStream original = System.out;
-        try (PrintStream ps = new PrintStream(baos)) {
-            System.setOut(ps);
-            WorkoutPrinter.printWorkout(w, s, policy);
-        } finally {
-            System.setOut(original);
-        }
-        return baos.toString(StandardCharsets.UTF_8);
+        renderer.render(w, s).whenComplete((out, err) -> Platform.runLater(() -> {
+            if (gen != generation) return;
+            if (err != null) {
+                Throwable cause = (err.getCause() != null) ? err.getCause() : err;
+                text.set("Preview unavailable: " + cause.getMessage());
+            } else {
+                text.set(out);
+            }
+        }));
     }
 
     public ReadOnlyStringProperty textProperty() { return text; }
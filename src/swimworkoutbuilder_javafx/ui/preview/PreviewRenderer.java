@@ -0,0 +1,160 @@
+package swimworkoutbuilder_javafx.ui.preview;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import swimworkoutbuilder_javafx.model.SetGroup;
+import swimworkoutbuilder_javafx.model.SwimSet;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.model.enums.StrokeType;
+import swimworkoutbuilder_javafx.model.pacing.PacePolicy;
+import swimworkoutbuilder_javafx.model.pacing.SeedPace;
+import swimworkoutbuilder_javafx.model.utils.WorkoutPrinter;
+
+/**
+ * Background, incremental renderer behind {@link PreviewPresenter}.
+ *
+ * <p>{@link #render(Workout, Swimmer)} snapshots the workout and swimmer on the calling
+ * (FX) thread and formats them on a single daemon thread. Output is cached at two levels:
+ * <ul>
+ *   <li>per group, keyed by a fingerprint of everything that group's text depends on
+ *       (its sets, its position, course, default rest, swimmer seeds), so an edit only
+ *       re-renders the groups it touched;</li>
+ *   <li>per workout version (the combined fingerprint), so an unchanged workout returns
+ *       the previous text without formatting anything.</li>
+ * </ul>
+ * Header and totals are always rebuilt; they are a handful of lines.</p>
+ */
+final class PreviewRenderer {
+
+    private static final int MAX_GROUP_BLOCKS = 512;
+
+    private final PacePolicy policy;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "preview-render");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Touched only from the worker thread.
+    private final Map<Long, WorkoutPrinter.GroupBlock> groupBlocks =
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, WorkoutPrinter.GroupBlock> e) {
+                    return size() > MAX_GROUP_BLOCKS;
+                }
+            };
+    private long lastVersion;
+    private String lastText;
+
+    PreviewRenderer(PacePolicy policy) {
+        this.policy = Objects.requireNonNull(policy, "policy");
+    }
+
+    /** Renders asynchronously; completes exceptionally if the policy throws (e.g. missing seed). */
+    CompletableFuture<String> render(Workout workout, Swimmer swimmer) {
+        Workout w = new Workout(workout);     // deep copy: the builder keeps editing the original
+        Swimmer s = new Swimmer(swimmer);
+        return CompletableFuture.supplyAsync(() -> renderNow(w, s), worker);
+    }
+
+    private String renderNow(Workout w, Swimmer s) {
+        List<SetGroup> groups = w.getGroups();
+        long context = contextFingerprint(w, s);
+
+        long[] fps = new long[groups.size()];
+        long version = mix(context, groups.size());
+        for (int gi = 0; gi < groups.size(); gi++) {
+            fps[gi] = groupFingerprint(context, groups.get(gi), gi, gi == groups.size() - 1);
+            version = mix(version, fps[gi]);
+        }
+        // Header fields are not part of any group fingerprint
+        version = mix(version, hash(w.getName()));
+        version = mix(version, hash(w.getNotes()));
+        version = mix(version, hash(s.getFirstName()));
+        version = mix(version, hash(s.getLastName()));
+        version = mix(version, s.getId().getMostSignificantBits());
+
+        if (lastText != null && version == lastVersion) return lastText;
+
+        List<WorkoutPrinter.GroupBlock> blocks = new ArrayList<>(groups.size());
+        for (int gi = 0; gi < groups.size(); gi++) {
+            WorkoutPrinter.GroupBlock b = groupBlocks.get(fps[gi]);
+            if (b == null) {
+                b = WorkoutPrinter.renderGroup(w, gi, s, policy);
+                groupBlocks.put(fps[gi], b);
+            }
+            blocks.add(b);
+        }
+
+        StringBuilder out = new StringBuilder(1024);
+        try {
+            WorkoutPrinter.appendHeader(w, s, out);
+            for (WorkoutPrinter.GroupBlock b : blocks) out.append(b.text());
+            WorkoutPrinter.appendTotals(w, blocks, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);   // StringBuilder never throws
+        }
+
+        lastVersion = version;
+        lastText = out.toString();
+        return lastText;
+    }
+
+    // ----------------------------------------------------------
+    // Fingerprints (64-bit; collisions are astronomically unlikely for preview text)
+    // ----------------------------------------------------------
+
+    private long contextFingerprint(Workout w, Swimmer s) {
+        long h = mix(System.identityHashCode(policy), ordinal(w.getCourse()));
+        h = mix(h, w.getDefaultRestBetweenGroupsSeconds());
+        for (StrokeType st : StrokeType.values()) {
+            SeedPace seed = s.getSeedTime(st);
+            if (seed == null) { h = mix(h, -1); continue; }
+            h = mix(h, seed.getOriginalDistance().rawMicroUnits());
+            h = mix(h, seed.getTime().toMillis());
+        }
+        return h;
+    }
+
+    private static long groupFingerprint(long context, SetGroup g, int index, boolean last) {
+        long h = mix(context, index);
+        h = mix(h, last ? 1 : 0);
+        h = mix(h, hash(g.getName()));
+        h = mix(h, g.getOrder());
+        h = mix(h, g.getReps());
+        h = mix(h, hash(g.getNotes()));
+        h = mix(h, g.getRestAfterGroupSec());
+        h = mix(h, g.getSetCount());
+        for (SwimSet s : g.getSets()) {
+            h = mix(h, ordinal(s.getStroke()));
+            h = mix(h, s.getReps());
+            h = mix(h, s.getDistancePerRep() == null ? -1 : s.getDistancePerRep().rawMicroUnits());
+            h = mix(h, ordinal(s.getEffort()));
+            h = mix(h, ordinal(s.getCourse()));
+            h = mix(h, hash(s.getNotes()));
+            h = mix(h, s.getEquipment() == null ? 0 : s.getEquipment().hashCode());
+            h = mix(h, s.getInterval() == null ? -1 : s.getInterval().toMillis());
+            h = mix(h, s.getGoalTime() == null ? -1 : s.getGoalTime().toMillis());
+        }
+        return h;
+    }
+
+    private static long mix(long h, long v) {
+        h ^= v + 0x9E3779B97F4A7C15L + (h << 6) + (h >>> 2);
+        h *= 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 31);
+    }
+
+    private static long hash(String s) { return (s == null) ? 0 : s.hashCode() * 31L + s.length(); }
+
+    private static long ordinal(Enum<?> e) { return (e == null) ? -1 : e.ordinal(); }
+}
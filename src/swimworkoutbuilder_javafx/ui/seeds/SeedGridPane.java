@@ -17,7 +17,7 @@ import swimworkoutbuilder_javafx.model.pacing.SeedPace;
 import swimworkoutbuilder_javafx.model.units.Distance;
 import swimworkoutbuilder_javafx.model.units.TimeSpan;
 import swimworkoutbuilder_javafx.state.AppState;
-import swimworkoutbuilder_javafx.store.LocalStore;
+import swimworkoutbuilder_javafx.store.PersistenceService;
 import swimworkoutbuilder_javafx.ui.Icons;
 
 /**
@@ -256,7 +256,7 @@ public final class SeedGridPane extends BorderPane {
         btnSave.setOnAction(e -> {
             if (!hasSwimmer.get()) return;
             if (!saveIntoSwimmer(boundSwimmer)) return;
-            try { LocalStore.saveSwimmer(boundSwimmer); } catch (Exception ignored) {}
+            PersistenceService.get().saveSwimmer(boundSwimmer);
             presenter.save();
             setEditable(false);
             if (onSeedsSaved != null) onSeedsSaved.run();
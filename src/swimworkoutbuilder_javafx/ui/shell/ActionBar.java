@@ -8,10 +8,12 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.util.StringConverter;
 import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
 import swimworkoutbuilder_javafx.state.AppState;
-import swimworkoutbuilder_javafx.store.LocalStore;
+import swimworkoutbuilder_javafx.store.PersistenceService;
 import swimworkoutbuilder_javafx.ui.Icons;
 import swimworkoutbuilder_javafx.ui.workout.LoadWorkoutDialog;
+import swimworkoutbuilder_javafx.ui.workout.SimilarWorkoutsDialog;
 import swimworkoutbuilder_javafx.ui.workout.WorkoutFormDialog;
 
 /**
@@ -20,7 +22,7 @@ import swimworkoutbuilder_javafx.ui.workout.WorkoutFormDialog;
  * <p>Responsibilities:
  * <ul>
  *   <li>Swimmer selection (combo) and swimmer quick actions.</li>
- *   <li>Workout quick actions (new/open/print).</li>
+ *   <li>Workout quick actions (new/open/similar/print).</li>
  *   <li>Bind enable/disable state to {@link AppState} (idempotent wiring).</li>
  * </ul>
  *
@@ -52,6 +54,7 @@ public final class ActionBar {
     // ---------------------------------------------------------------------
     private final Button btnNewWorkout  = new Button("New Workout");
     private final Button btnOpenWorkout = new Button("Open Workout");
+    private final Button btnSimilar     = new Button("Find Similar");
     private final Button btnPrint       = new Button("Print");
     private final Button btnSaveWorkout = new Button();
 
@@ -100,18 +103,20 @@ public final class ActionBar {
         setRoles(btnManageSwimmer, "secondary");
         setRoles(btnNewWorkout,  "secondary");
         setRoles(btnOpenWorkout, "secondary");
+        setRoles(btnSimilar,     "ghost");
         setRoles(btnPrint,       "ghost");
+        btnSimilar.setTooltip(new Tooltip("Saved workouts like this one"));
 
         setRoles(btnSaveWorkout, "primary", "sm", "icon");
         btnSaveWorkout.setGraphic(Icons.make("save-white", 16));
         btnSaveWorkout.setTooltip(new Tooltip("Save workout"));
         btnSaveWorkout.disableProperty().bind(AppState.get().getWorkoutBuilderPresenter().dirtyProperty().not());
 
-        // --- Layout: [ Swimmer: (combo)  New  Manage ]  |spacer|  [ New Workout  Open  Print ]
+        // --- Layout: [ Swimmer: (combo)  New  Manage ]  |spacer|  [ New Workout  Open  Similar  Print ]
         Label swimmerLbl = new Label("Swimmer:");
         HBox left = new HBox(8, swimmerLbl, cbSwimmer, btnNewSwimmer, btnManageSwimmer);
         Region spacer = new Region(); HBox.setHgrow(spacer, Priority.ALWAYS);
-        HBox right = new HBox(8, btnNewWorkout, btnOpenWorkout, btnSaveWorkout, btnPrint);
+        HBox right = new HBox(8, btnNewWorkout, btnOpenWorkout, btnSimilar, btnSaveWorkout, btnPrint);
         root.getChildren().addAll(left, spacer, right);
     }
 
@@ -172,9 +177,13 @@ public final class ActionBar {
         updateWorkoutButtons.run();
         app.currentSwimmerProperty().addListener((obs, o, s) -> updateWorkoutButtons.run());
 
-        // Print depends on a current workout
+        // Print and Find Similar depend on a current workout
         btnPrint.setDisable(app.getCurrentWorkout() == null);
-        app.currentWorkoutProperty().addListener((obs, o, w) -> btnPrint.setDisable(w == null));
+        btnSimilar.setDisable(app.getCurrentWorkout() == null);
+        app.currentWorkoutProperty().addListener((obs, o, w) -> {
+            btnPrint.setDisable(w == null);
+            btnSimilar.setDisable(w == null);
+        });
     }
 
     private void refreshInitialSelection() {
@@ -206,7 +215,7 @@ public final class ActionBar {
             }
             var w = WorkoutFormDialog.show(cur.getId(), null);
             if (w != null) {
-                try { LocalStore.saveWorkout(w); } catch (Exception ignored) {}
+                PersistenceService.get().saveWorkout(w);
                 app.setCurrentWorkout(w);
             }
         });
@@ -219,7 +228,14 @@ public final class ActionBar {
                 return;
             }
             var w = LoadWorkoutDialog.show(cur.getId());
-            if (w != null) app.setCurrentWorkout(w);
+            if (w != null) openWorkout(w);
+        });
+
+        btnSimilar.setOnAction(e -> {
+            // Compare against the workout as it stands in the builder, saved or not
+            var w = SimilarWorkoutsDialog.show(app.getCurrentWorkout());
+            if (w == null || !confirmLoseChanges()) return;
+            openWorkout(w);
         });
 
         btnSaveWorkout.setOnAction(e -> {
@@ -242,6 +258,19 @@ public final class ActionBar {
         b.setFocusTraversable(false);
     }
 
+    private void openWorkout(Workout w) {
+        var app = AppState.get();
+        Swimmer cur = app.getCurrentSwimmer();
+        if (cur == null || !w.getSwimmerId().equals(cur.getId())) {
+            // Found through "All swimmers": switch to its owner first
+            app.getSwimmers().stream()
+                    .filter(s -> s.getId().equals(w.getSwimmerId()))
+                    .findFirst()
+                    .ifPresent(app::setCurrentSwimmer);
+        }
+        app.setCurrentWorkout(w);
+    }
+
     private void onAddSwimmer() {
         // Minimal “new swimmer” dialog (same UX as SwimmerPane)
         Dialog<Swimmer> dlg = new Dialog<>();
@@ -282,7 +311,7 @@ public final class ActionBar {
         Swimmer created = dlg.showAndWait().orElse(null);
         if (created == null) return;
 
-        try { LocalStore.saveSwimmer(created); } catch (Exception ignored) {}
+        PersistenceService.get().saveSwimmer(created);
         var app = AppState.get();
         app.getSwimmers().add(created);
         app.setCurrentSwimmer(created);
@@ -9,7 +9,7 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import swimworkoutbuilder_javafx.model.Swimmer;
 import swimworkoutbuilder_javafx.state.AppState;
-import swimworkoutbuilder_javafx.store.LocalStore;
+import swimworkoutbuilder_javafx.store.PersistenceService;
 import swimworkoutbuilder_javafx.ui.DateFmt;
 import swimworkoutbuilder_javafx.ui.Icons;
 
@@ -192,7 +192,7 @@ public final class SwimmerCard {
             if (cur == null) return;
 
             var updated = applyEdits(cur);
-            try { LocalStore.saveSwimmer(updated); } catch (Exception ignored) {}
+            PersistenceService.get().saveSwimmer(updated);
 
             var list = app.getSwimmers();
             int idx = list.indexOf(cur);
@@ -208,14 +208,16 @@ public final class SwimmerCard {
             var sel = app.getCurrentSwimmer();
             if (sel == null) return;
 
+            var archive = new ButtonType("Archive", ButtonBar.ButtonData.OTHER);
             var conf = new Alert(Alert.AlertType.CONFIRMATION,
-                    "Delete swimmer “" + sel.getFirstName() + " " + sel.getLastName() + "”?",
-                    ButtonType.OK, ButtonType.CANCEL);
+                    "Delete swimmer “" + sel.getFirstName() + " " + sel.getLastName() + "” and all of their workouts?\n"
+                            + "Archive keeps a copy under the data folder's archive directory.",
+                    ButtonType.OK, archive, ButtonType.CANCEL);
             conf.setHeaderText("Confirm delete");
             conf.showAndWait().ifPresent(bt -> {
-                if (bt == ButtonType.OK) {
+                if (bt == ButtonType.OK || bt == archive) {
                     app.getSwimmers().remove(sel);
-                    try { LocalStore.deleteSwimmer(sel.getId()); } catch (Exception ignored) {}
+                    PersistenceService.get().deleteSwimmer(sel.getId(), bt == archive);
                     app.setCurrentSwimmer(app.getSwimmers().isEmpty() ? null : app.getSwimmers().get(0));
                 }
             });
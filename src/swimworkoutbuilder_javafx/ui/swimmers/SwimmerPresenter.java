@@ -2,19 +2,18 @@ package swimworkoutbuilder_javafx.ui.swimmers;
 
 
 import java.util.Objects;
-import java.util.UUID;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import swimworkoutbuilder_javafx.model.Swimmer;
 import swimworkoutbuilder_javafx.state.AppState;
-import swimworkoutbuilder_javafx.store.LocalStore;
+import swimworkoutbuilder_javafx.store.PersistenceService;
 
 /**
  * Presenter for creating/editing swimmers.
  *
  * <p>Owns the UI state (fields, mode flags) and updates the in-memory
- * {@link AppState}. Persistence (save) is delegated to {@link LocalStore}.
+ * {@link AppState}. Persistence (save) is delegated to {@link PersistenceService}.
  * This class is UI-toolkit agnostic besides JavaFX properties.</p>
  */
 public final class SwimmerPresenter {
@@ -143,10 +142,8 @@ public final class SwimmerPresenter {
             selected.set(working);
         }
 
-        // Persist (best-effort; we keep UI responsive regardless)
-        try {
-            LocalStore.saveSwimmer(working);
-        } catch (Exception ignored) {}
+        // Persist in the background; failures are reported by the service
+        PersistenceService.get().saveSwimmer(working);
 
         mode.set(Mode.VIEWING);
         working = null;
@@ -168,14 +165,8 @@ public final class SwimmerPresenter {
         }
         selected.set(null);
 
-        // Best-effort persistence (if LocalStore has a deleteSwimmer, use it)
-        try {
-            // If your LocalStore has deleteSwimmer(UUID), this will work.
-            // If not, no harm done.
-            LocalStore.class
-                    .getMethod("deleteSwimmer", UUID.class)
-                    .invoke(null, sel.getId());
-        } catch (Throwable ignored) { }
+        // Persist in the background; failures are reported by the service
+        PersistenceService.get().deleteSwimmer(sel.getId());
     }
 
     // --- Helpers --------------------------------------------------------------
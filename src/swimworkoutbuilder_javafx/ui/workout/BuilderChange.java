@@ -0,0 +1,62 @@
+package swimworkoutbuilder_javafx.ui.workout;
+
+/**
+ * Fine-grained description of one edit made through {@link WorkoutBuilderPresenter}.
+ *
+ * <p>Lets views patch only the affected rows instead of rebuilding the whole workout.
+ * Indexes refer to the workout <em>after</em> the edit, except for removals, where
+ * they name the position the removed item used to occupy. {@link Kind#RESET} means
+ * "anything may have changed" (workout switched, course converted) and requires a full
+ * rebuild.</p>
+ */
+public final class BuilderChange {
+
+    public enum Kind {
+        RESET,
+        GROUP_INSERTED, GROUP_REMOVED, GROUP_UPDATED, GROUPS_SWAPPED,
+        SET_INSERTED, SET_REMOVED, SET_UPDATED, SETS_SWAPPED
+    }
+
+    private final Kind kind;
+    private final int groupIndex;
+    private final int index;      // set index for SET_*, second group index for GROUPS_SWAPPED
+    private final int otherIndex; // second set index for SETS_SWAPPED
+
+    private BuilderChange(Kind kind, int groupIndex, int index, int otherIndex) {
+        this.kind = kind;
+        this.groupIndex = groupIndex;
+        this.index = index;
+        this.otherIndex = otherIndex;
+    }
+
+    public static BuilderChange reset()                        { return new BuilderChange(Kind.RESET, -1, -1, -1); }
+    public static BuilderChange groupInserted(int gi)          { return new BuilderChange(Kind.GROUP_INSERTED, gi, -1, -1); }
+    public static BuilderChange groupRemoved(int gi)           { return new BuilderChange(Kind.GROUP_REMOVED, gi, -1, -1); }
+    public static BuilderChange groupUpdated(int gi)           { return new BuilderChange(Kind.GROUP_UPDATED, gi, -1, -1); }
+    public static BuilderChange groupsSwapped(int a, int b)    { return new BuilderChange(Kind.GROUPS_SWAPPED, Math.min(a, b), Math.max(a, b), -1); }
+    public static BuilderChange setInserted(int gi, int si)    { return new BuilderChange(Kind.SET_INSERTED, gi, si, -1); }
+    public static BuilderChange setRemoved(int gi, int si)     { return new BuilderChange(Kind.SET_REMOVED, gi, si, -1); }
+    public static BuilderChange setUpdated(int gi, int si)     { return new BuilderChange(Kind.SET_UPDATED, gi, si, -1); }
+    public static BuilderChange setsSwapped(int gi, int a, int b) {
+        return new BuilderChange(Kind.SETS_SWAPPED, gi, Math.min(a, b), Math.max(a, b));
+    }
+
+    public Kind kind() { return kind; }
+
+    /** Group the edit applies to (the lower index for {@link Kind#GROUPS_SWAPPED}). */
+    public int groupIndex() { return groupIndex; }
+
+    /** Set index for set edits (the lower index for {@link Kind#SETS_SWAPPED}). */
+    public int setIndex() { return kind == Kind.GROUPS_SWAPPED ? -1 : index; }
+
+    /** Higher group index for {@link Kind#GROUPS_SWAPPED}, else -1. */
+    public int otherGroupIndex() { return kind == Kind.GROUPS_SWAPPED ? index : -1; }
+
+    /** Higher set index for {@link Kind#SETS_SWAPPED}, else -1. */
+    public int otherSetIndex() { return otherIndex; }
+
+    @Override
+    public String toString() {
+        return "BuilderChange{" + kind + ", group=" + groupIndex + ", index=" + index + ", other=" + otherIndex + '}';
+    }
+}
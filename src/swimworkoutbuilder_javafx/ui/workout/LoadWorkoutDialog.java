@@ -1,19 +1,35 @@
 package swimworkoutbuilder_javafx.ui.workout;
 
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.geometry.*;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
+import swimworkoutbuilder_javafx.model.Swimmer;
 import swimworkoutbuilder_javafx.model.Workout;
-import swimworkoutbuilder_javafx.store.LocalStore;
+import swimworkoutbuilder_javafx.state.AppState;
+import swimworkoutbuilder_javafx.store.Stores;
+import swimworkoutbuilder_javafx.store.PersistenceService;
+import swimworkoutbuilder_javafx.store.WorkoutQuery;
+import swimworkoutbuilder_javafx.store.WorkoutSummary;
 import swimworkoutbuilder_javafx.ui.Theme;
 /**
  * Dialog that presents the list of workouts for the selected / current swimmer.
@@ -21,7 +37,9 @@ import swimworkoutbuilder_javafx.ui.Theme;
  * <p><b>Responsibilities:</b>
  * <ul>
  *   <li>Verify that a swimmer has been selected</li>
- *   <li>Display available workouts (name, notes) from LocalStore</li>
+ *   <li>Display available workouts (name, notes) from the LocalStore header index</li>
+ *   <li>Search-as-you-type over workout, group and set names/notes, for this swimmer
+ *       or (with "All swimmers") the whole library</li>
  *   <li>Enables user to open a workout or cancel</li>
  *   <li>Return a result to the caller</li>
  * </ul>
@@ -35,7 +53,14 @@ public final class LoadWorkoutDialog {
 
     private LoadWorkoutDialog() {}
 
-    /** Show a modal dialog listing workouts for the swimmer; return the chosen one or null if cancelled. */
+    private static final Duration FLUSH_BEFORE_LIST = Duration.ofSeconds(2);
+    private static final javafx.util.Duration SEARCH_DELAY = javafx.util.Duration.millis(120);
+    private static final int SEARCH_LIMIT = 200;
+
+    /**
+     * Show a modal dialog listing workouts for the swimmer; return the chosen one or null if cancelled.
+     * With "All swimmers" the result may belong to another swimmer.
+     */
     public static Workout show(UUID swimmerId) {
         if (swimmerId == null) {
             new Alert(Alert.AlertType.WARNING, "Select a swimmer first.").showAndWait();
@@ -46,28 +71,88 @@ public final class LoadWorkoutDialog {
         dialog.initModality(Modality.APPLICATION_MODAL);
         dialog.setTitle("Load Workout");
 
-        ListView<Workout> list = new ListView<>();
+        ListView<WorkoutSummary> list = new ListView<>();
 
-        // Load from disk (handle I/O errors gracefully)
-        List<Workout> items;
+        // Load headers only (handle I/O errors gracefully); full workout is read on Open
+        List<WorkoutSummary> items;
         try {
-            items = LocalStore.listWorkoutsFor(swimmerId);
+            PersistenceService.get().flush(FLUSH_BEFORE_LIST);   // include saves still in the write-behind queue
+            items = Stores.workouts().listWorkoutSummariesFor(swimmerId);
         } catch (Exception ex) {
             items = Collections.emptyList();
             new Alert(Alert.AlertType.ERROR,
                     "Unable to read workouts from disk.\n\n" + ex.getMessage()).showAndWait();
         }
         list.getItems().setAll(items);
+        final List<WorkoutSummary> ownItems = items;
+
+        // Other swimmers' names, for results from the whole library
+        Map<UUID, String> swimmerNames = new HashMap<>();
+        for (Swimmer s : AppState.get().getSwimmers()) {
+            String first = (s.getFirstName() == null) ? "" : s.getFirstName();
+            String last = (s.getLastName() == null) ? "" : s.getLastName();
+            swimmerNames.put(s.getId(), (first + " " + last).trim());
+        }
 
-        // Cell text: "Name — optional notes"
+        // Cell text: "Name — optional notes", plus the swimmer when it is someone else's
         list.setCellFactory(v -> new ListCell<>() {
-            @Override protected void updateItem(Workout w, boolean empty) {
+            @Override protected void updateItem(WorkoutSummary w, boolean empty) {
                 super.updateItem(w, empty);
                 if (empty || w == null) { setText(null); return; }
                 String notes = (w.getNotes() == null || w.getNotes().isBlank()) ? "" : " — " + w.getNotes();
-                setText(w.getName() + notes);
+                String owner = w.getSwimmerId().equals(swimmerId) ? ""
+                        : "  (" + swimmerNames.getOrDefault(w.getSwimmerId(), "other swimmer") + ")";
+                setText(w.getName() + notes + owner);
+            }
+        });
+        list.setPlaceholder(new Label("No matching workouts"));
+
+        // Search: runs off the FX thread; only the latest request's results are shown
+        TextField tfSearch = new TextField();
+        tfSearch.setPromptText("Search names, notes and sets…");
+        CheckBox cbAll = new CheckBox("All swimmers");
+
+        ExecutorService searcher = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "workout-search");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicLong latest = new AtomicLong();
+        PauseTransition debounce = new PauseTransition(SEARCH_DELAY);
+        debounce.setOnFinished(e -> {
+            String text = tfSearch.getText();
+            boolean everyone = cbAll.isSelected();
+            long ticket = latest.incrementAndGet();
+            if (!everyone && (text == null || text.isBlank())) {
+                list.getItems().setAll(ownItems);
+                return;
+            }
+            WorkoutQuery scope = everyone ? WorkoutQuery.all().limit(SEARCH_LIMIT)
+                    : WorkoutQuery.all().forSwimmer(swimmerId).limit(SEARCH_LIMIT);
+            CompletableFuture.supplyAsync(() -> {
+                try {
+                    return Stores.workouts().search(text, scope);
+                } catch (Exception ex) {
+                    return Collections.<WorkoutSummary>emptyList();
+                }
+            }, searcher).thenAccept(hits -> Platform.runLater(() -> {
+                if (ticket == latest.get()) list.getItems().setAll(hits);
+            }));
+        });
+        tfSearch.textProperty().addListener((o, a, b) -> debounce.playFromStart());
+        tfSearch.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.DOWN && !list.getItems().isEmpty()) {
+                list.requestFocus();
+                list.getSelectionModel().selectFirst();
             }
         });
+        cbAll.selectedProperty().addListener((o, a, b) -> debounce.playFromStart());
+
+        // Open the text index while the list is on screen, so the first keystroke is fast
+        searcher.submit(() -> {
+            try { Stores.workouts().search("", WorkoutQuery.all().forSwimmer(swimmerId).limit(1)); } catch (Exception ignored) {}
+        });
+        dialog.setOnHidden(e -> searcher.shutdownNow());
 
         Button btnOpen = new Button("Open");
         Button btnCancel = new Button("Cancel");
@@ -94,11 +179,11 @@ public final class LoadWorkoutDialog {
 
         final Workout[] result = new Workout[1];
         btnOpen.setOnAction(e -> {
-            Workout sel = list.getSelectionModel().getSelectedItem();
+            WorkoutSummary sel = list.getSelectionModel().getSelectedItem();
             if (sel == null) { result[0] = null; dialog.close(); return; }
             try {
                 // IMPORTANT: fetch the full workout with groups/sets
-                result[0] = LocalStore.loadWorkout(sel.getId());
+                result[0] = Stores.workouts().loadWorkout(sel.getSwimmerId(), sel.getId());
             } catch (Exception ex) {
                 new Alert(Alert.AlertType.ERROR, "Unable to load workout: " + ex.getMessage()).showAndWait();
                 result[0] = null;
@@ -107,7 +192,13 @@ public final class LoadWorkoutDialog {
         });
         btnCancel.setOnAction(e -> { result[0] = null; dialog.close(); });
 
-        BorderPane root = new BorderPane(list);
+        HBox searchRow = new HBox(10, tfSearch, cbAll);
+        searchRow.setAlignment(Pos.CENTER_LEFT);
+        HBox.setHgrow(tfSearch, Priority.ALWAYS);
+        VBox center = new VBox(8, searchRow, list);
+        VBox.setVgrow(list, Priority.ALWAYS);
+
+        BorderPane root = new BorderPane(center);
         root.getStyleClass().add("surface");           
         HBox buttons = new HBox(10, btnCancel, btnOpen);
         buttons.setPadding(new Insets(8));
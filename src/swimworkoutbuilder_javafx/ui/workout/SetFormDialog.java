@@ -16,6 +16,7 @@ import swimworkoutbuilder_javafx.model.enums.StrokeType;
 import swimworkoutbuilder_javafx.model.units.Distance;
 import swimworkoutbuilder_javafx.model.units.TimeSpan;
 import swimworkoutbuilder_javafx.state.AppState;
+import swimworkoutbuilder_javafx.ui.ImageCache;
 import swimworkoutbuilder_javafx.ui.Theme;
 import java.util.EnumSet;
 import swimworkoutbuilder_javafx.model.Swimmer;
@@ -24,7 +25,6 @@ import swimworkoutbuilder_javafx.model.enums.Equipment;
 import swimworkoutbuilder_javafx.model.pacing.PacePolicy;
 import swimworkoutbuilder_javafx.model.pacing.DefaultPacePolicy;
 
-import java.io.InputStream;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -391,7 +391,7 @@ public final class SetFormDialog {
 
     private static CheckBox iconCheck(String fileName, int size, String tooltip) {
         String path = "/images/" + fileName;
-        Image img = loadImage(path);
+        Image img = ImageCache.get(path, size);   // decoded once, reused every time the dialog opens
 
         ImageView iv = new ImageView();
         if (img != null) iv.setImage(img);
@@ -406,19 +406,6 @@ public final class SetFormDialog {
         return cb;
     }
 
-    private static Image loadImage(String path) {
-        try (InputStream is = SetFormDialog.class.getResourceAsStream(path)) {
-            if (is != null) {
-                return new Image(is);
-            } else {
-                System.err.println("⚠️ Missing image: " + path);
-            }
-        } catch (Exception e) {
-            System.err.println("⚠️ Failed to load image: " + path + " (" + e.getMessage() + ")");
-        }
-        return null;
-    }
-
     private static TimeSpan parseFlexible(String s) {
         if (s == null) return null;
         s = s.trim();
@@ -15,6 +15,7 @@ import swimworkoutbuilder_javafx.model.enums.Effort;
 import swimworkoutbuilder_javafx.model.enums.Equipment;
 import swimworkoutbuilder_javafx.model.enums.StrokeType;
 import swimworkoutbuilder_javafx.model.pacing.PacePolicy;
+import swimworkoutbuilder_javafx.model.pacing.PaceResult;
 import swimworkoutbuilder_javafx.model.units.Distance;
 import swimworkoutbuilder_javafx.model.units.Distance;
 import swimworkoutbuilder_javafx.model.units.TimeSpan;
@@ -98,8 +99,9 @@ public final class SetFormPresenter {
 
         try {
             // Use repIndex = 1 as the representative calculation for the dialog.
-            double goalSec  = pace.goalSeconds(w, tmp, s, 1);
-            int    sendOff  = pace.intervalSeconds(w, tmp, s, 1);
+            PaceResult result = pace.evaluate(w, tmp, s, 1);
+            double goalSec  = result.goalSeconds();
+            int    sendOff  = result.intervalSeconds();
 
             // Format using your TimeSpan.toString() (m:ss.hh)
             goalText.set(TimeSpan.ofSeconds(goalSec).toString());
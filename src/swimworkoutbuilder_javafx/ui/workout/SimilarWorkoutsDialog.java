@@ -0,0 +1,185 @@
+package swimworkoutbuilder_javafx.ui.workout;
+
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import javafx.application.Platform;
+import javafx.geometry.*;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import swimworkoutbuilder_javafx.model.Swimmer;
+import swimworkoutbuilder_javafx.model.Workout;
+import swimworkoutbuilder_javafx.state.AppState;
+import swimworkoutbuilder_javafx.store.SimilarWorkout;
+import swimworkoutbuilder_javafx.store.Stores;
+import swimworkoutbuilder_javafx.store.WorkoutQuery;
+import swimworkoutbuilder_javafx.store.WorkoutSummary;
+import swimworkoutbuilder_javafx.ui.Theme;
+/**
+ * Dialog listing the saved workouts most like the one in the builder ("find workouts like
+ * this one"), by stroke and effort mix, equipment, structure, volume and duration.
+ *
+ * <p><b>Responsibilities:</b>
+ * <ul>
+ *   <li>Look up similar workouts for this swimmer or (with "All swimmers") the whole
+ *       library, off the FX thread</li>
+ *   <li>Show each match with its similarity</li>
+ *   <li>Enables user to open a match or cancel</li>
+ *   <li>Return a result to the caller</li>
+ * </ul>
+ *
+ * @author Parker Blackwell
+ * @version 1.0
+ * @since 2025-10-20
+ */
+
+public final class SimilarWorkoutsDialog {
+
+    private SimilarWorkoutsDialog() {}
+
+    private static final int MATCHES = 20;
+
+    /**
+     * Show a modal dialog of the workouts most like {@code like}; return the chosen one or
+     * null if cancelled. With "All swimmers" the result may belong to another swimmer.
+     */
+    public static Workout show(Workout like) {
+        if (like == null) {
+            new Alert(Alert.AlertType.WARNING, "Open or create a workout first.").showAndWait();
+            return null;
+        }
+        UUID swimmerId = like.getSwimmerId();
+
+        Stage dialog = new Stage();
+        dialog.initModality(Modality.APPLICATION_MODAL);
+        dialog.setTitle("Workouts Like “" + like.getName() + "”");
+
+        ListView<SimilarWorkout> list = new ListView<>();
+
+        Map<UUID, String> swimmerNames = new HashMap<>();
+        for (Swimmer s : AppState.get().getSwimmers()) {
+            String first = (s.getFirstName() == null) ? "" : s.getFirstName();
+            String last = (s.getLastName() == null) ? "" : s.getLastName();
+            swimmerNames.put(s.getId(), (first + " " + last).trim());
+        }
+
+        // Cell text: "92%  Name — total", plus the swimmer when it is someone else's
+        list.setCellFactory(v -> new ListCell<>() {
+            @Override protected void updateItem(SimilarWorkout m, boolean empty) {
+                super.updateItem(m, empty);
+                if (empty || m == null) { setText(null); return; }
+                WorkoutSummary w = m.getSummary();
+                String owner = w.getSwimmerId().equals(swimmerId) ? ""
+                        : "  (" + swimmerNames.getOrDefault(w.getSwimmerId(), "other swimmer") + ")";
+                setText(String.format("%3.0f%%  %s — %s%s",
+                        m.getSimilarity() * 100, w.getName(), w.totalDistance().toShortString(), owner));
+            }
+        });
+        list.setPlaceholder(new Label("Looking for similar workouts…"));
+
+        CheckBox cbAll = new CheckBox("All swimmers");
+
+        // Lookups run off the FX thread; only the latest request's results are shown
+        ExecutorService finder = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "similar-workouts");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicLong latest = new AtomicLong();
+        Runnable refresh = () -> {
+            long ticket = latest.incrementAndGet();
+            WorkoutQuery scope = cbAll.isSelected() ? WorkoutQuery.all() : WorkoutQuery.all().forSwimmer(swimmerId);
+            CompletableFuture.supplyAsync(() -> {
+                try {
+                    return Stores.workouts().similarTo(like, scope, MATCHES);
+                } catch (Exception ex) {
+                    return Collections.<SimilarWorkout>emptyList();
+                }
+            }, finder).thenAccept(hits -> Platform.runLater(() -> {
+                if (ticket != latest.get()) return;
+                list.setPlaceholder(new Label("No other workouts to compare"));
+                list.getItems().setAll(hits);
+            }));
+        };
+        cbAll.selectedProperty().addListener((o, a, b) -> refresh.run());
+        dialog.setOnHidden(e -> finder.shutdownNow());
+
+        Button btnOpen = new Button("Open");
+        Button btnCancel = new Button("Cancel");
+        btnOpen.getStyleClass().addAll("button","primary");
+        btnCancel.getStyleClass().addAll("button","secondary");
+        btnOpen.setDefaultButton(true);
+        btnCancel.setCancelButton(true);
+        btnOpen.setDisable(true);
+
+        list.getSelectionModel().selectedItemProperty()
+                .addListener((obs, o, sel) -> btnOpen.setDisable(sel == null));
+
+        // Allow double-click or Enter to open
+        list.setOnMouseClicked(e -> {
+            if (e.getClickCount() == 2 && list.getSelectionModel().getSelectedItem() != null) {
+                btnOpen.fire();
+            }
+        });
+        list.setOnKeyPressed(e -> {
+            if (e.getCode() == KeyCode.ENTER && list.getSelectionModel().getSelectedItem() != null) {
+                btnOpen.fire();
+            }
+        });
+
+        final Workout[] result = new Workout[1];
+        btnOpen.setOnAction(e -> {
+            SimilarWorkout sel = list.getSelectionModel().getSelectedItem();
+            if (sel == null) { result[0] = null; dialog.close(); return; }
+            WorkoutSummary s = sel.getSummary();
+            try {
+                result[0] = Stores.workouts().loadWorkout(s.getSwimmerId(), s.getId());
+            } catch (Exception ex) {
+                new Alert(Alert.AlertType.ERROR, "Unable to load workout: " + ex.getMessage()).showAndWait();
+                result[0] = null;
+            }
+            dialog.close();
+        });
+        btnCancel.setOnAction(e -> { result[0] = null; dialog.close(); });
+
+        Label hint = new Label("By stroke and effort mix, equipment, structure and length");
+        hint.getStyleClass().add("muted");
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox topRow = new HBox(10, hint, spacer, cbAll);
+        topRow.setAlignment(Pos.CENTER_LEFT);
+        VBox center = new VBox(8, topRow, list);
+        VBox.setVgrow(list, Priority.ALWAYS);
+
+        BorderPane root = new BorderPane(center);
+        root.getStyleClass().add("surface");
+        HBox buttons = new HBox(10, btnCancel, btnOpen);
+        buttons.setPadding(new Insets(8));
+        buttons.setAlignment(Pos.CENTER_RIGHT);
+        buttons.getStyleClass().add("toolbar");
+        root.setBottom(buttons);
+        root.setPadding(new Insets(8));
+
+        Scene scene = new Scene(root, 520, 380);
+        Theme.apply(scene, SimilarWorkoutsDialog.class);
+        dialog.setScene(scene);
+
+        refresh.run();
+        dialog.showAndWait();
+        return result[0];
+    }
+}
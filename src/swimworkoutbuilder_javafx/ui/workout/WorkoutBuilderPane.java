@@ -1,10 +1,11 @@
 package swimworkoutbuilder_javafx.ui.workout;
 
-import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Objects;
 
 import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
@@ -19,29 +20,39 @@ import swimworkoutbuilder_javafx.model.Workout;
 import swimworkoutbuilder_javafx.model.enums.Course;
 import swimworkoutbuilder_javafx.model.units.TimeSpan;
 import swimworkoutbuilder_javafx.model.pacing.PacePolicy;
+import swimworkoutbuilder_javafx.model.pacing.PaceResult;
 import swimworkoutbuilder_javafx.model.pacing.DefaultPacePolicy;
 import swimworkoutbuilder_javafx.model.enums.Equipment;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.control.Tooltip;
-import javafx.scene.control.ScrollPane;
 
 import swimworkoutbuilder_javafx.state.AppState;
 import swimworkoutbuilder_javafx.ui.Icons;
+import swimworkoutbuilder_javafx.ui.ImageCache;
 
 /**
  * Central “Workout Builder” pane.
  * Displays workout groups and their sets, allowing add/edit/delete operations.
  * Pure view layer; all logic is delegated to {@link WorkoutBuilderPresenter}.
+ *
+ * <p>Groups and sets are flattened into one {@link ListView} of {@link BuilderRow}s
+ * (a header row per group followed by its set rows). The list is virtualized: only
+ * on-screen rows have nodes, and each {@link BuilderRowCell} builds its controls once
+ * and is rebound as it scrolls, so scene-graph size stays flat as the workout grows.</p>
+ *
+ * <p>Single edits arrive as {@link BuilderChange} events and are reconciled in place:
+ * only the edited row and its position-dependent neighbours are replaced.</p>
  */
 public final class WorkoutBuilderPane {
 
     private final WorkoutBuilderPresenter presenter;
     private static final PacePolicy POLICY = new DefaultPacePolicy();
+    private static final int EQUIPMENT_ICON_SIZE = 20;
 
     private final VBox root = new VBox(10);
-    private final VBox groupsBox = new VBox(12);
-    private final ScrollPane groupsScroll = new ScrollPane();
+    private final ListView<BuilderRow> rowsView = new ListView<>();
+    private boolean patchedBeforeTick;
 
     public WorkoutBuilderPane(WorkoutBuilderPresenter presenter) {
         this.presenter = java.util.Objects.requireNonNull(presenter, "presenter");
@@ -58,21 +69,14 @@ public final class WorkoutBuilderPane {
         root.setFillWidth(true);
         root.getStyleClass().add("surface");
 
-        // Configure scroll area to keep header fixed while sets scroll
-        groupsBox.setFillWidth(true);
-        groupsScroll.setContent(groupsBox);
-        groupsScroll.setFitToWidth(true);
-        groupsScroll.setHbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
-        groupsScroll.setVbarPolicy(ScrollPane.ScrollBarPolicy.AS_NEEDED);
-        groupsScroll.setPannable(true);
-        groupsScroll.getStyleClass().add("column-transparent");
-        // Remove scroll chrome/borders and make background transparent
-        groupsScroll.setStyle("-fx-background-color: transparent; -fx-background-insets: 0; -fx-padding: 0;");
-        Platform.runLater(() -> {
-            Node vp = groupsScroll.lookup(".viewport");
-            if (vp != null) {
-                vp.setStyle("-fx-background-color: transparent;");
-            }
+        // Virtualized row list; header stays fixed while rows scroll
+        rowsView.getStyleClass().add("wb-list");
+        rowsView.setCellFactory(lv -> new BuilderRowCell());
+        rowsView.setFocusTraversable(false);
+        rowsView.setPlaceholder(new Label("No groups yet. Click “+ Add Group” to begin."));
+        // Rows are not selectable; the buttons inside them are the interaction
+        rowsView.getSelectionModel().selectedIndexProperty().addListener((obs, o, n) -> {
+            if (n != null && n.intValue() >= 0) Platform.runLater(() -> rowsView.getSelectionModel().clearSelection());
         });
 
         Button btnAddGroup = new Button("+ Add Group");
@@ -90,164 +94,390 @@ public final class WorkoutBuilderPane {
         header.setAlignment(Pos.CENTER_LEFT);
         header.setPadding(new Insets(0, 0, 4, 0));
 
-        root.getChildren().addAll(header, groupsScroll);
-        VBox.setVgrow(groupsScroll, Priority.ALWAYS);
+        root.getChildren().addAll(header, rowsView);
+        VBox.setVgrow(rowsView, Priority.ALWAYS);
     }
 
     private void wire() {
         ReadOnlyIntegerProperty tick = presenter.refreshTickProperty();
         if (tick != null) {
-            tick.addListener((obs, o, n) -> refresh());
+            tick.addListener((obs, o, n) -> {
+                // The edit behind this tick was already patched in; anything else is a full refresh.
+                if (patchedBeforeTick) { patchedBeforeTick = false; return; }
+                refresh();
+            });
         }
 
-        presenter.groups().addListener(
-                (javafx.collections.ListChangeListener<SetGroup>) change -> refresh()
-        );
+        presenter.addChangeListener(this::apply);
     }
 
+    /** Re-flattens the workout into rows; only visible cells are (re)bound. */
     private void refresh() {
-        groupsBox.getChildren().clear();
-        groupsBox.setSpacing(10);
+        rowsView.getItems().setAll(flatten(presenter.groups()));
+    }
 
-        java.util.List<SetGroup> groups = presenter.groups();
-        if (groups == null || groups.isEmpty()) {
-            Label empty = new Label("No groups yet. Click “+ Add Group” to begin.");
-            groupsBox.getChildren().add(empty);
-            return;
+    private static List<BuilderRow> flatten(List<SetGroup> groups) {
+        List<BuilderRow> out = new ArrayList<>();
+        if (groups == null) return out;
+        for (SetGroup g : groups) {
+            if (g != null) out.addAll(rowsFor(g));
         }
+        return out;
+    }
 
-        for (int gi = 0; gi < groups.size(); gi++) {
-            SetGroup g = groups.get(gi);
-            groupsBox.getChildren().add(renderGroup(gi, g));
-        }
+    private static List<BuilderRow> rowsFor(SetGroup g) {
+        List<SwimSet> sets = (g.getSets() == null) ? List.of() : g.getSets();
+        List<BuilderRow> out = new ArrayList<>(1 + sets.size());
+        out.add(new BuilderRow(g, null));
+        for (SwimSet s : sets) out.add(new BuilderRow(g, s));
+        return out;
     }
 
-    private Node renderGroup(int gi, SetGroup g) {
-        Label lbl = new Label(formatGroupTitle(g));
-        lbl.getStyleClass().add("label-setgroup-name");
+    // ----------------------------------------------------------
+    // Keyed reconciliation
+    // ----------------------------------------------------------
+
+    /**
+     * Applies one presenter edit to the row list. Rows are keyed by model identity, so
+     * untouched rows keep their item and their cells are not rebound; only the edited
+     * row(s) and the neighbours whose nav buttons or separator depend on position are
+     * replaced. Falls back to a full refresh if the list and model ever disagree.
+     */
+    private void apply(BuilderChange c) {
+        if (c.kind() == BuilderChange.Kind.RESET) {
+            refresh();
+            return;
+        }
+        try {
+            patch(c);
+            if (rowsView.getItems().size() != rowCount(presenter.groups())) refresh();
+        } catch (RuntimeException ex) {
+            refresh();
+        }
+        patchedBeforeTick = true;
+    }
 
-        Button btnAddSet = new Button("+ Set");
-        btnAddSet.getStyleClass().addAll("button","secondary","sm");
+    private void patch(BuilderChange c) {
+        List<SetGroup> groups = presenter.groups();
+        ObservableList<BuilderRow> items = rowsView.getItems();
+        int gi = c.groupIndex();
+
+        switch (c.kind()) {
+            case GROUP_UPDATED:
+                rebindHeader(gi);
+                break;
+
+            case GROUP_INSERTED: {
+                // Not yet in the list, so the header now at ordinal gi belongs to gi + 1
+                int pos = (gi < groups.size() - 1) ? headerPos(gi) : items.size();
+                items.addAll(pos, rowsFor(groups.get(gi)));
+                rebindHeader(gi - 1);
+                rebindHeader(gi + 1);
+                break;
+            }
 
-        Button btnEdit = new Button();
-        btnEdit.getStyleClass().setAll("button","secondary","sm","icon");
-        btnEdit.setGraphic(Icons.make("pencil-swim-text", 16));
-        btnEdit.setTooltip(new Tooltip("Edit group"));
+            case GROUP_REMOVED: {
+                int from = headerPos(gi);
+                items.remove(from, groupEnd(from));
+                rebindHeader(gi - 1);
+                rebindHeader(gi);
+                break;
+            }
 
-        btnEdit.setOnAction(e -> {
-            SetGroup edited = SetGroupFormDialog.show(g);
-            if (edited != null) {
-                g.setName(edited.getName());
-                g.setReps(edited.getReps());
-                g.setNotes(edited.getNotes());
-                refresh();
+            case GROUPS_SWAPPED: {
+                // Adjacent groups: move the existing row items, then rebind the two headers
+                int from = headerPos(gi);
+                int mid = groupEnd(from);
+                int to = groupEnd(mid);
+                List<BuilderRow> moved = new ArrayList<>(items.subList(mid, to));
+                moved.addAll(items.subList(from, mid));
+                items.remove(from, to);
+                items.addAll(from, moved);
+                rebindHeader(gi);
+                rebindHeader(c.otherGroupIndex());
+                break;
             }
-        });
 
-        btnAddSet.setOnAction(e -> SetFormDialog.show(null)
-                .ifPresent(created -> presenter.addSet(gi, created)));
-
-        Button btnDel = new Button();
-        btnDel.getStyleClass().setAll("button","danger","sm","icon");
-        btnDel.setGraphic(Icons.make("trash-2-danger", 16));
-        btnDel.setTooltip(new Tooltip("Delete group"));
-        btnDel.setOnAction(e -> {
-            Alert confirm = new Alert(Alert.AlertType.CONFIRMATION,
-                    "Delete group \"" + g.getName() + "\"?", ButtonType.OK, ButtonType.CANCEL);
-            confirm.setHeaderText(null);
-            confirm.setTitle("Confirm Delete");
-            if (confirm.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK)
-                presenter.deleteGroup(gi);
-        });
+            case SET_UPDATED:
+                rebindSet(gi, c.setIndex());
+                break;
+
+            case SET_INSERTED: {
+                SetGroup g = groups.get(gi);
+                int si = c.setIndex();
+                items.add(headerPos(gi) + 1 + si, new BuilderRow(g, g.getSets().get(si)));
+                rebindSet(gi, si - 1);
+                rebindSet(gi, si + 1);
+                if (g.getSetCount() == 1) rebindHeader(gi);
+                break;
+            }
 
-        Button btnUp = new Button();
-        btnUp.getStyleClass().setAll("button","secondary","sm","icon");
-        btnUp.setGraphic(Icons.make("move-up-swim-text", 16));
-        btnUp.setTooltip(new Tooltip("Move group up"));
-        btnUp.setOnAction(e -> presenter.moveGroupUp(gi));
-
-        Button btnDown = new Button();
-        btnDown.getStyleClass().setAll("button","secondary","sm","icon");
-        btnDown.setGraphic(Icons.make("move-down-swim-text", 16));
-        btnDown.setTooltip(new Tooltip("Move group down"));
-        btnDown.setOnAction(e -> presenter.moveGroupDown(gi));
-
-        btnUp.managedProperty().bind(btnUp.visibleProperty());
-        btnDown.managedProperty().bind(btnDown.visibleProperty());
-        int groupCount = (presenter.groups() == null) ? 0 : presenter.groups().size();
-        applyNavVisibility(btnUp, btnDown, gi, groupCount);
-
-        HBox titleBar = new HBox(8, lbl, spacer(), btnAddSet, btnEdit, btnUp, btnDown, btnDel);
-        titleBar.setAlignment(Pos.CENTER_LEFT);
-        titleBar.getStyleClass().add("wb-group-header");
-
-        VBox setsBox = new VBox(4);
-        if (g.getSets() != null) {
-            for (int si = 0; si < g.getSets().size(); si++) {
-                SwimSet s = g.getSets().get(si);
-                setsBox.getChildren().add(renderSetRow(gi, si, s));
+            case SET_REMOVED: {
+                SetGroup g = groups.get(gi);
+                int si = c.setIndex();
+                items.remove(headerPos(gi) + 1 + si);
+                rebindSet(gi, si - 1);
+                rebindSet(gi, si);
+                if (g.getSetCount() == 0) rebindHeader(gi);
+                break;
             }
+
+            case SETS_SWAPPED:
+                rebindSet(gi, c.setIndex());
+                rebindSet(gi, c.otherSetIndex());
+                break;
+
+            default:
+                refresh();
+        }
+    }
+
+    /** Replaces the header row of group {@code gi} (if it exists) so its cell rebinds. */
+    private void rebindHeader(int gi) {
+        List<SetGroup> groups = presenter.groups();
+        if (gi < 0 || gi >= groups.size()) return;
+        int pos = headerPos(gi);
+        SetGroup g = groups.get(gi);
+        checkKey(pos, g);
+        rowsView.getItems().set(pos, new BuilderRow(g, null));
+    }
+
+    /** Replaces the row of set {@code si} in group {@code gi} (if it exists) so its cell rebinds. */
+    private void rebindSet(int gi, int si) {
+        List<SetGroup> groups = presenter.groups();
+        if (gi < 0 || gi >= groups.size()) return;
+        SetGroup g = groups.get(gi);
+        if (si < 0 || si >= g.getSetCount()) return;
+        int pos = headerPos(gi) + 1 + si;
+        checkKey(pos, g);
+        rowsView.getItems().set(pos, new BuilderRow(g, g.getSets().get(si)));
+    }
+
+    private void checkKey(int pos, SetGroup expected) {
+        ObservableList<BuilderRow> items = rowsView.getItems();
+        if (pos < 0 || pos >= items.size() || items.get(pos).group != expected) {
+            throw new IllegalStateException("Builder rows out of sync at " + pos);
+        }
+    }
+
+    /** Flat position of the {@code gi}-th group header currently in the list. */
+    private int headerPos(int gi) {
+        ObservableList<BuilderRow> items = rowsView.getItems();
+        int seen = -1;
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).isGroup() && ++seen == gi) return i;
+        }
+        throw new IllegalStateException("No header row for group " + gi);
+    }
+
+    /** Flat position just past the group whose header is at {@code headerPos}. */
+    private int groupEnd(int headerPos) {
+        ObservableList<BuilderRow> items = rowsView.getItems();
+        int i = headerPos + 1;
+        while (i < items.size() && !items.get(i).isGroup()) i++;
+        return i;
+    }
+
+    private static int rowCount(List<SetGroup> groups) {
+        int n = 0;
+        if (groups == null) return 0;
+        for (SetGroup g : groups) {
+            if (g != null) n += 1 + g.getSetCount();
+        }
+        return n;
+    }
+
+    // Identity lookup: rows are keyed by the model objects themselves, not by equals().
+    private static <T> int indexOfIdentity(List<T> list, T item) {
+        if (list == null) return -1;
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == item) return i;
         }
+        return -1;
+    }
 
-        VBox groupBox = new VBox(4, titleBar, setsBox, new Separator());
-        groupBox.setPadding(new Insets(4, 0, 4, 0));
-        groupBox.getStyleClass().add("wb-group");
-        return groupBox;
+    // ----------------------------------------------------------
+    // Rows & cells
+    // ----------------------------------------------------------
+
+    /**
+     * One flattened row, keyed by model identity: a group header ({@code set == null})
+     * or a set within a group. Positions are resolved against the model when a cell binds
+     * or a button is clicked, so unchanged rows stay valid when earlier rows move.
+     */
+    private static final class BuilderRow {
+        final SetGroup group;
+        final SwimSet set;          // null for a group header
+
+        BuilderRow(SetGroup group, SwimSet set) {
+            this.group = group;
+            this.set = set;
+        }
+
+        boolean isGroup() { return set == null; }
     }
 
-   // Render a single formatted set row
-    private Node renderSetRow(int gi, int si, SwimSet set) {
-        Label lbl = new Label(formatSetMain(set));
-        lbl.getStyleClass().add("label-set-primary");
-
-        String notesText = formatSetNotes(set);
-        Label notesLbl = new Label(notesText);
-        notesLbl.getStyleClass().add("set-notes");
-        notesLbl.setVisible(!notesText.isBlank());
-        notesLbl.setManaged(!notesText.isBlank());
-
-        Node eqIcons = equipmentIcons(set.getEquipment());
-
-        Button btnEdit = new Button();
-        btnEdit.getStyleClass().setAll("button","secondary","sm","icon");
-        btnEdit.setGraphic(Icons.make("pencil-swim-text", 16));
-        btnEdit.setTooltip(new Tooltip("Edit set"));
-        btnEdit.setOnAction(e ->
-                SetFormDialog.show(set).ifPresent(edited -> presenter.replaceSet(gi, si, edited)));
-
-        Button btnUp = new Button();
-        btnUp.getStyleClass().setAll("button","secondary","sm","icon");
-        btnUp.setGraphic(Icons.make("move-up-swim-text", 16));
-        btnUp.setTooltip(new Tooltip("Move set up"));
-        btnUp.setOnAction(e -> presenter.moveSetUp(gi, si));
-
-        Button btnDown = new Button();
-        btnDown.getStyleClass().setAll("button","secondary","sm","icon");
-        btnDown.setGraphic(Icons.make("move-down-swim-text", 16));
-        btnDown.setTooltip(new Tooltip("Move set down"));
-        btnDown.setOnAction(e -> presenter.moveSetDown(gi, si));
-
-        Button btnDelete = new Button();
-        btnDelete.getStyleClass().setAll("button","danger","sm","icon");
-        btnDelete.setGraphic(Icons.make("trash-2-danger", 16));
-        btnDelete.setTooltip(new Tooltip("Delete set"));
-        btnDelete.setOnAction(e -> presenter.deleteSet(gi, si));
-
-        btnUp.managedProperty().bind(btnUp.visibleProperty());
-        btnDown.managedProperty().bind(btnDown.visibleProperty());
-
-        int setCount = 0;
-        java.util.List<SetGroup> allGroups = presenter.groups();
-        if (allGroups != null && gi >= 0 && gi < allGroups.size()) {
-            java.util.List<SwimSet> sets = allGroups.get(gi).getSets();
-            if (sets != null) setCount = sets.size();
+    /**
+     * Recycled cell. Builds both layouts (group header and set row) once; {@link #updateItem}
+     * only swaps the graphic and rebinds text, icons and visibility. Button handlers read
+     * the current item at click time, so they never need to be reattached.
+     */
+    private final class BuilderRowCell extends ListCell<BuilderRow> {
+
+        // Group header
+        private final Label groupLbl = new Label();
+        private final Button groupUp = iconButton("secondary", "move-up-swim-text", "Move group up");
+        private final Button groupDown = iconButton("secondary", "move-down-swim-text", "Move group down");
+        private final Separator groupSep = new Separator();
+        private final VBox groupView;
+
+        // Set row
+        private final Label setLbl = new Label();
+        private final Label notesLbl = new Label();
+        private final HBox eqBox = new HBox(6);
+        private final EnumMap<Equipment, ImageView> eqViews = new EnumMap<>(Equipment.class);
+        private final Button setUp = iconButton("secondary", "move-up-swim-text", "Move set up");
+        private final Button setDown = iconButton("secondary", "move-down-swim-text", "Move set down");
+        private final Separator setSep = new Separator();
+        private final VBox setView;
+
+        BuilderRowCell() {
+            getStyleClass().add("wb-cell");
+            setPrefWidth(0);   // track the viewport width instead of scrolling horizontally
+
+            groupLbl.getStyleClass().add("label-setgroup-name");
+
+            Button btnAddSet = new Button("+ Set");
+            btnAddSet.getStyleClass().addAll("button","secondary","sm");
+            btnAddSet.setOnAction(e -> withGroup((r, gi) -> SetFormDialog.show(null)
+                    .ifPresent(created -> presenter.addSet(gi, created))));
+
+            Button btnEditGroup = iconButton("secondary", "pencil-swim-text", "Edit group");
+            btnEditGroup.setOnAction(e -> withGroup((r, gi) -> {
+                SetGroup edited = SetGroupFormDialog.show(r.group);
+                if (edited != null) {
+                    presenter.updateGroup(gi, edited.getName(), edited.getReps(), edited.getNotes());
+                }
+            }));
+
+            Button btnDelGroup = iconButton("danger", "trash-2-danger", "Delete group");
+            btnDelGroup.setOnAction(e -> withGroup((r, gi) -> {
+                Alert confirm = new Alert(Alert.AlertType.CONFIRMATION,
+                        "Delete group \"" + r.group.getName() + "\"?", ButtonType.OK, ButtonType.CANCEL);
+                confirm.setHeaderText(null);
+                confirm.setTitle("Confirm Delete");
+                if (confirm.showAndWait().orElse(ButtonType.CANCEL) == ButtonType.OK)
+                    presenter.deleteGroup(gi);
+            }));
+
+            groupUp.setOnAction(e -> withGroup((r, gi) -> presenter.moveGroupUp(gi)));
+            groupDown.setOnAction(e -> withGroup((r, gi) -> presenter.moveGroupDown(gi)));
+
+            HBox titleBar = new HBox(8, groupLbl, spacer(), btnAddSet, btnEditGroup, groupUp, groupDown, btnDelGroup);
+            titleBar.setAlignment(Pos.CENTER_LEFT);
+            titleBar.getStyleClass().add("wb-group-header");
+
+            groupView = new VBox(4, titleBar, groupSep);
+            groupView.setPadding(new Insets(8, 0, 4, 0));
+            groupView.getStyleClass().add("wb-group");
+
+            setLbl.getStyleClass().add("label-set-primary");
+            notesLbl.getStyleClass().add("set-notes");
+            notesLbl.managedProperty().bind(notesLbl.visibleProperty());
+            eqBox.setAlignment(Pos.CENTER_LEFT);
+
+            Button btnEditSet = iconButton("secondary", "pencil-swim-text", "Edit set");
+            btnEditSet.setOnAction(e -> withSet((r, gi, si) ->
+                    SetFormDialog.show(r.set).ifPresent(edited -> presenter.replaceSet(gi, si, edited))));
+            setUp.setOnAction(e -> withSet((r, gi, si) -> presenter.moveSetUp(gi, si)));
+            setDown.setOnAction(e -> withSet((r, gi, si) -> presenter.moveSetDown(gi, si)));
+            Button btnDeleteSet = iconButton("danger", "trash-2-danger", "Delete set");
+            btnDeleteSet.setOnAction(e -> withSet((r, gi, si) -> presenter.deleteSet(gi, si)));
+
+            HBox row = new HBox(6, setLbl, notesLbl, eqBox, spacer(), btnEditSet, setUp, setDown, btnDeleteSet);
+            row.getStyleClass().addAll("wb-set-row","row");
+            row.setAlignment(Pos.CENTER_LEFT);
+
+            setView = new VBox(4, row, setSep);
+
+            for (Separator sep : List.of(groupSep, setSep)) sep.managedProperty().bind(sep.visibleProperty());
+            for (Button b : List.of(groupUp, groupDown, setUp, setDown)) b.managedProperty().bind(b.visibleProperty());
+
+            setText(null);
+        }
+
+        @Override
+        protected void updateItem(BuilderRow r, boolean empty) {
+            super.updateItem(r, empty);
+            if (empty || r == null) {
+                setGraphic(null);
+                return;
+            }
+            List<SetGroup> groups = presenter.groups();
+            int gi = indexOfIdentity(groups, r.group);
+            if (r.isGroup()) {
+                groupLbl.setText(formatGroupTitle(r.group));
+                applyNavVisibility(groupUp, groupDown, gi, groups.size());
+                groupSep.setVisible(r.group.getSetCount() == 0);
+                setGraphic(groupView);
+            } else {
+                int si = indexOfIdentity(r.group.getSets(), r.set);
+                int setCount = r.group.getSetCount();
+                setLbl.setText(formatSetMain(r.set));
+                String notesText = formatSetNotes(r.set);
+                notesLbl.setText(notesText);
+                notesLbl.setVisible(!notesText.isBlank());
+                bindEquipment(r.set.getEquipment());
+                applyNavVisibility(setUp, setDown, si, setCount);
+                setSep.setVisible(si == setCount - 1);
+                setGraphic(setView);
+            }
+        }
+
+        // Resolve the row's current position at click time; no-op if it is gone from the model.
+        private void withGroup(java.util.function.ObjIntConsumer<BuilderRow> action) {
+            BuilderRow r = getItem();
+            if (r == null) return;
+            int gi = indexOfIdentity(presenter.groups(), r.group);
+            if (gi >= 0) action.accept(r, gi);
+        }
+
+        private void withSet(SetAction action) {
+            BuilderRow r = getItem();
+            if (r == null || r.isGroup()) return;
+            int gi = indexOfIdentity(presenter.groups(), r.group);
+            int si = indexOfIdentity(r.group.getSets(), r.set);
+            if (gi >= 0 && si >= 0) action.accept(r, gi, si);
+        }
+
+        // Reuses this cell's ImageViews; one per equipment type, created on first use.
+        private void bindEquipment(java.util.Set<Equipment> eq) {
+            eqBox.getChildren().clear();
+            boolean any = false;
+            if (eq != null) {
+                for (Equipment e : eq) {
+                    ImageView iv = eqViews.computeIfAbsent(e, WorkoutBuilderPane::equipmentView);
+                    if (iv == null) continue;
+                    eqBox.getChildren().add(iv);
+                    any = true;
+                }
+            }
+            eqBox.setVisible(any);
+            eqBox.setManaged(any);
         }
-        applyNavVisibility(btnUp, btnDown, si, setCount);
+    }
 
-        HBox row = new HBox(6, lbl, notesLbl, eqIcons, spacer(), btnEdit, btnUp, btnDown, btnDelete);
-        row.getStyleClass().addAll("wb-set-row","row");
-        row.setAlignment(Pos.CENTER_LEFT);
-        return row;
+    @FunctionalInterface
+    private interface SetAction {
+        void accept(BuilderRow row, int groupIndex, int setIndex);
+    }
+
+    private static Button iconButton(String variant, String icon, String tooltip) {
+        Button b = new Button();
+        b.getStyleClass().setAll("button", variant, "sm", "icon");
+        b.setGraphic(Icons.make(icon, 16));
+        b.setTooltip(new Tooltip(tooltip));
+        return b;
     }
 
     private static Region spacer() { Region r = new Region(); HBox.setHgrow(r, Priority.ALWAYS); return r; }
@@ -274,35 +504,20 @@ public final class WorkoutBuilderPane {
         return String.format("%d:%02d", m, s);
     }
 
-    private Node equipmentIcons(java.util.Set<Equipment> eq) {
-        if (eq == null || eq.isEmpty()) {
-            Region spacer = new Region();
-            spacer.setManaged(false);
-            spacer.setVisible(false);
-            return spacer;
-        }
-        HBox box = new HBox(6);
-        box.setAlignment(Pos.CENTER_LEFT);
-        for (Equipment e : eq) {
-            String file = iconFileFor(e);
-            if (file == null) continue;
-            String path = "/images/" + file;
-            try (InputStream is = getClass().getResourceAsStream(path)) {
-                if (is == null) continue;
-                Image img = new Image(is);
-                ImageView iv = new ImageView(img);
-                iv.setFitWidth(20);
-                iv.setFitHeight(20);
-                iv.setPreserveRatio(true);
-                iv.getStyleClass().add("equipment-icon");
-                Tooltip.install(iv, new Tooltip(e.getLabel()));
-                box.getChildren().add(iv);
-            } catch (Exception ignored) { }
-        }
-        return box;
+    private static ImageView equipmentView(Equipment e) {
+        String file = iconFileFor(e);
+        Image img = (file == null) ? null : ImageCache.get("/images/" + file, EQUIPMENT_ICON_SIZE);
+        if (img == null) return null;
+        ImageView iv = new ImageView(img);
+        iv.setFitWidth(EQUIPMENT_ICON_SIZE);
+        iv.setFitHeight(EQUIPMENT_ICON_SIZE);
+        iv.setPreserveRatio(true);
+        iv.getStyleClass().add("equipment-icon");
+        Tooltip.install(iv, new Tooltip(e.getLabel()));
+        return iv;
     }
 
-    private String iconFileFor(Equipment e) {
+    private static String iconFileFor(Equipment e) {
         switch (e) {
             case FINS:        return "fins.png";
             case PADDLES:     return "paddles.png";
@@ -333,10 +548,11 @@ public final class WorkoutBuilderPane {
         Swimmer swimmer = AppState.get().getCurrentSwimmer();
         if (w != null && swimmer != null && s.getStroke() != null && s.getEffort() != null) {
             try {
+                PaceResult pace = POLICY.evaluate(w, s, swimmer, 0);
                 int goalSec     = (s.getGoalTime() != null)
                         ? (int) Math.round(s.getGoalTime().toSeconds())
-                        : (int) Math.round(POLICY.goalSeconds(w, s, swimmer, 0));
-                int intervalSec = POLICY.intervalSeconds(w, s, swimmer, 0);
+                        : pace.goalSecondsRounded();
+                int intervalSec = pace.intervalSeconds();
                 onTxt   = " on " + mmss(intervalSec);
                 goalTxt = " (goal: " + mmss(goalSec) + ")";
             } catch (Throwable ignored) { }
@@ -1,7 +1,12 @@
 package swimworkoutbuilder_javafx.ui.workout;
 
-import java.io.IOException;
 import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import javafx.application.Platform;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -11,9 +16,10 @@ import swimworkoutbuilder_javafx.model.Workout;
 import swimworkoutbuilder_javafx.model.enums.Course;
 import swimworkoutbuilder_javafx.model.units.Distance;
 import swimworkoutbuilder_javafx.state.AppState;
-import swimworkoutbuilder_javafx.store.LocalStore;
+import swimworkoutbuilder_javafx.store.PersistenceService;
 import swimworkoutbuilder_javafx.model.pacing.DefaultPacePolicy;
 import swimworkoutbuilder_javafx.model.pacing.PacePolicy;
+import swimworkoutbuilder_javafx.model.pacing.WorkoutTotals;
 import swimworkoutbuilder_javafx.model.units.TimeSpan;
 
 /**
@@ -60,8 +66,16 @@ public class WorkoutBuilderPresenter {
 
     private final IntegerProperty refreshTick = new SimpleIntegerProperty(0);
 
+    // fine-grained edit events; always delivered just before the matching refreshTick bump
+    private final List<Consumer<BuilderChange>> changeListeners = new CopyOnWriteArrayList<>();
+
     // track unsaved edits
     private final BooleanProperty dirty = new SimpleBooleanProperty(false); 
+    private long editCount;   // bumped by every edit; lets async saves know if they are still current
+
+    private WorkoutTotals lastTotals;       // last computed totals for the current workout (null = n/a)
+    private UUID primedWorkoutId;           // totals handed over from a session snapshot, used once
+    private WorkoutTotals primedTotals;
 
     public WorkoutBuilderPresenter(AppState app) {
         this.app = app;
@@ -77,6 +91,7 @@ public class WorkoutBuilderPresenter {
             if (newW != null) groups.setAll(newW.getGroups());
             computeStats();
             dirty.set(false); 
+            fireChange(BuilderChange.reset());
         });
     }
 
@@ -93,8 +108,34 @@ public class WorkoutBuilderPresenter {
 
     public ReadOnlyBooleanProperty dirtyProperty() { return dirty; } 
 
+    /**
+     * Registers a listener for fine-grained edits. Each edit is reported once, right
+     * before {@link #refreshTickProperty()} is bumped for it; a tick with no preceding
+     * change means "refresh everything".
+     */
+    public void addChangeListener(Consumer<BuilderChange> listener) {
+        if (listener != null) changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(Consumer<BuilderChange> listener) {
+        changeListeners.remove(listener);
+    }
+
     public Workout getDisplayedWorkout() { return app.getCurrentWorkout(); }
 
+    /** Totals shown in the header for the current workout, or {@code null} if unavailable. */
+    public WorkoutTotals currentTotals() { return lastTotals; }
+
+    /**
+     * Supplies already-computed totals for a workout that is about to become current
+     * (session restore), so the header is filled without re-evaluating every set.
+     * Used only by the next stats refresh, and only if it is for that workout.
+     */
+    public void primeTotals(UUID workoutId, WorkoutTotals restored) {
+        this.primedWorkoutId = workoutId;
+        this.primedTotals = restored;
+    }
+
     // ---------- Header operations ----------
     // called by header Save button
     public void saveHeaderEdits(String name, String notes, Course course) {
@@ -120,7 +161,7 @@ public class WorkoutBuilderPresenter {
         if (notes != null && !notes.isBlank()) g.setNotes(notes.trim());        
         w.addSetGroup(g);                                                        
         groups.setAll(w.getGroups());                                           
-        markDirty();
+        markDirty(BuilderChange.groupInserted(w.getGroupCount() - 1));
     }
 
     public void updateGroup(int index, String name, int reps, String notes) {
@@ -133,7 +174,7 @@ public class WorkoutBuilderPresenter {
         if (reps > 0)      g.setReps(reps);
         g.setNotes((notes == null) ? "" : notes.trim());
 
-        markDirty(); // recompute + tick + mark dirty
+        markDirty(BuilderChange.groupUpdated(index)); // recompute + tick + mark dirty
     }
 
     public void deleteGroup(int index) {
@@ -141,7 +182,7 @@ public class WorkoutBuilderPresenter {
         if (w == null || index < 0 || index >= w.getGroupCount()) return;
         w.removeSetGroup(index);
         groups.setAll(w.getGroups());
-        markDirty();
+        markDirty(BuilderChange.groupRemoved(index));
     }
 
     public void moveGroupUp(int index) {
@@ -149,7 +190,7 @@ public class WorkoutBuilderPresenter {
         if (w == null || index <= 0 || index >= w.getGroupCount()) return;
         w.swapGroups(index, index - 1);
         groups.setAll(w.getGroups());
-        markDirty();
+        markDirty(BuilderChange.groupsSwapped(index - 1, index));
     }
 
     public void moveGroupDown(int index) {
@@ -157,7 +198,7 @@ public class WorkoutBuilderPresenter {
         if (w == null || index < 0 || index >= w.getGroupCount() - 1) return;
         w.swapGroups(index, index + 1);
         groups.setAll(w.getGroups());
-        markDirty();
+        markDirty(BuilderChange.groupsSwapped(index, index + 1));
     }
 
     // ---------- Set operations ----------
@@ -166,8 +207,9 @@ public class WorkoutBuilderPresenter {
         Workout w = app.getCurrentWorkout();
         if (w == null || set == null) return;
         if (groupIndex < 0 || groupIndex >= w.getGroupCount()) return;
-        w.getGroups().get(groupIndex).addSet(set);
-        markDirty();
+        SetGroup g = w.getGroups().get(groupIndex);
+        g.addSet(set);
+        markDirty(BuilderChange.setInserted(groupIndex, g.getSetCount() - 1));
     }
 
     public void deleteSet(int groupIndex, int setIndex) {
@@ -177,7 +219,7 @@ public class WorkoutBuilderPresenter {
         var g = w.getGroups().get(groupIndex);
         if (setIndex < 0 || setIndex >= g.getSetCount()) return;
         g.getSets().remove(setIndex);
-        markDirty();
+        markDirty(BuilderChange.setRemoved(groupIndex, setIndex));
     }
 
     public void moveSetUp(int groupIndex, int setIndex) {
@@ -190,7 +232,7 @@ public class WorkoutBuilderPresenter {
         var b = g.getSets().get(setIndex);
         g.getSets().set(setIndex - 1, b);
         g.getSets().set(setIndex, a);
-        markDirty();
+        markDirty(BuilderChange.setsSwapped(groupIndex, setIndex - 1, setIndex));
     }
 
     public void moveSetDown(int groupIndex, int setIndex) {
@@ -203,7 +245,7 @@ public class WorkoutBuilderPresenter {
         var b = g.getSets().get(setIndex + 1);
         g.getSets().set(setIndex, b);
         g.getSets().set(setIndex + 1, a);
-        markDirty();
+        markDirty(BuilderChange.setsSwapped(groupIndex, setIndex, setIndex + 1));
     }
 
     public void replaceSet(int groupIndex, int setIndex, SwimSet newSet) {
@@ -214,7 +256,7 @@ public class WorkoutBuilderPresenter {
         if (setIndex < 0 || setIndex >= g.getSetCount()) return;
 
         g.getSets().set(setIndex, newSet);
-        markDirty();
+        markDirty(BuilderChange.setUpdated(groupIndex, setIndex));
     }
 
     // ---------- Helpers ----------
@@ -227,7 +269,7 @@ public class WorkoutBuilderPresenter {
         w.setName(name == null ? "" : name.trim());
         w.setNotes(notes == null ? "" : notes.trim());
         w.setUpdatedAt(Instant.now());
-        try { LocalStore.saveWorkout(w); } catch (Exception ignored) {}
+        PersistenceService.get().saveWorkout(w);   // failures are reported by the service
         computeStats();
         refreshTick.set(refreshTick.get() + 1);
     }
@@ -281,7 +323,7 @@ public class WorkoutBuilderPresenter {
 
         // Flip workout course and refresh
         w.setCourse(newCourse);
-        markDirty();
+        markDirty(BuilderChange.reset());
     }
 
 
@@ -299,16 +341,8 @@ public class WorkoutBuilderPresenter {
         var w = app.getCurrentWorkout();
         if (w == null) return;
 
-        try {
-            LocalStore.deleteWorkout(w.getId());   // delete the .bin file on disk  [oai_citation:0‡store_java_code.txt](sediment://file_0000000007d461f79984bdda06ed1b18)
-        } catch (IOException ex) {
-            // Surface a simple error dialog; keep it quiet if you prefer
-            new javafx.scene.control.Alert(
-                    javafx.scene.control.Alert.AlertType.ERROR,
-                    "Delete failed: " + ex.getMessage()
-            ).showAndWait();
-            return;
-        }
+        // Delete the file in the background; a failure is surfaced by the service's failure listener
+        PersistenceService.get().deleteWorkout(w.getId());
 
         app.setCurrentWorkout(null);   // clear UI selection
         groups.clear();                // clear working list
@@ -326,15 +360,14 @@ public class WorkoutBuilderPresenter {
         bumpRefresh();
     }
 
-    public void commitTo(Workout w) throws IOException {
-        if (w == null) return;
+    public CompletableFuture<Void> commitTo(Workout w) {
+        if (w == null) return CompletableFuture.completedFuture(null);
         w.getGroups().clear();
         for (var g : groups) {
             w.getGroups().add(new SetGroup(g));
         }
         w.setUpdatedAt(Instant.now());
-        LocalStore.saveWorkout(w);
-        dirty.set(false);
+        return saveAndMarkClean(w);
     }
 
     private void bumpRefresh() {
@@ -347,38 +380,50 @@ public class WorkoutBuilderPresenter {
     }
 
     /**
-     * Marks the workout as dirty, recomputes header stats, and refreshes the UI.
+     * Marks the workout as dirty, recomputes header stats, reports the edit and refreshes the UI.
      */
-    private void markDirty() {
+    private void markDirty(BuilderChange change) {
+        editCount++;
         dirty.set(true);
         // Recompute header totals immediately so the UI reflects the change
         computeStats();
+        fireChange(change);
         bumpRefresh();
     }
 
-    private void persist(Workout w) {
-        try {
-            w.setUpdatedAt(Instant.now());
-            LocalStore.saveWorkout(w);
-        } catch (IOException ex) {
-            ex.printStackTrace(); // TODO: surface to UI if you want
+    private void fireChange(BuilderChange change) {
+        for (Consumer<BuilderChange> l : changeListeners) {
+            try { l.accept(change); } catch (Throwable ignored) {}
         }
     }
 
+    private void persist(Workout w) {
+        w.setUpdatedAt(Instant.now());
+        PersistenceService.get().saveWorkout(w);   // failures are reported by the service
+    }
+
+    /**
+     * Queues a save and clears {@code dirty} once it lands, unless the user edited again
+     * in the meantime (then the newer edits are still unsaved).
+     */
+    private CompletableFuture<Void> saveAndMarkClean(Workout w) {
+        long editsAtSave = editCount;
+        CompletableFuture<Void> f = PersistenceService.get().saveWorkout(w);
+        f.thenRun(() -> Platform.runLater(() -> {
+            if (editCount == editsAtSave) dirty.set(false);
+        }));
+        return f;
+    }
+
     /**
      * Persists the current workout from AppState, sets dirty to false, updates updatedAt, and bumps refresh.
      */
     public void persistCurrentWorkout() {
         Workout w = app.getCurrentWorkout();
         if (w == null) return;
-        try {
-            w.setUpdatedAt(Instant.now());
-            LocalStore.saveWorkout(w);
-            dirty.set(false);
-            bumpRefresh();
-        } catch (IOException ex) {
-            ex.printStackTrace(); // Optionally surface to UI
-        }
+        w.setUpdatedAt(Instant.now());
+        saveAndMarkClean(w);
+        bumpRefresh();
     }
 
     // exact integer conversions (half-up)
@@ -408,6 +453,11 @@ public class WorkoutBuilderPresenter {
     // Replace the entire computeStats() method with this:
     private void computeStats() {
         Workout w = app.getCurrentWorkout();
+        UUID primedId = primedWorkoutId;
+        WorkoutTotals primed = primedTotals;
+        primedWorkoutId = null;
+        primedTotals = null;
+        lastTotals = null;
         if (w == null) {
             totalDistanceText.set("-");
             swimTimeText.set("-");
@@ -434,30 +484,12 @@ public class WorkoutBuilderPresenter {
             return;
         }
 
-        double swimSec = 0.0;
-        double restSec = 0.0;
-
+        WorkoutTotals totals;
         try {
-            if (w.getGroups() != null) {
-                for (var g : w.getGroups()) {
-                    if (g == null || g.getSets() == null) continue;
-                    int groupReps = Math.max(1, g.getReps());
-
-                    for (int gr = 0; gr < groupReps; gr++) {
-                        for (var s : g.getSets()) {
-                            if (s == null) continue;
-                            int setReps = Math.max(1, s.getReps());
-                            for (int r = 0; r < setReps; r++) {
-                                // Policy works in canonical meters + your multipliers
-                                double gSecs = Math.max(0.0, POLICY.goalSeconds(w, s, swimmer, r));
-                                double rSecs = Math.max(0.0, POLICY.restSeconds(w, s, swimmer, r));
-                                swimSec += gSecs;
-                                restSec += rSecs;
-                            }
-                        }
-                    }
-                }
-            }
+            // O(sets) for rep-invariant policies; see WorkoutTotals
+            totals = (primed != null && w.getId().equals(primedId))
+                    ? primed
+                    : WorkoutTotals.compute(w, swimmer, POLICY);
         } catch (Exception ex) {
             // If seeds are missing or anything throws, fall back to blanks
             swimTimeText.set("—");
@@ -466,10 +498,12 @@ public class WorkoutBuilderPresenter {
             return;
         }
 
+        lastTotals = totals;
+
         // Format using your TimeSpan
-        TimeSpan swim = TimeSpan.ofSeconds(swimSec);
-        TimeSpan rest = TimeSpan.ofSeconds(restSec);
-        TimeSpan total = TimeSpan.ofSeconds(swimSec + restSec);
+        TimeSpan swim = TimeSpan.ofSeconds(totals.swimSeconds());
+        TimeSpan rest = TimeSpan.ofSeconds(totals.restSeconds());
+        TimeSpan total = TimeSpan.ofSeconds(totals.durationSeconds());
 
         swimTimeText.set(swim.toString());
         restTimeText.set(rest.toString());
@@ -62,7 +62,7 @@ public final class WorkoutEditorState {
 
     /**
      * Copy staged -> original and end the session.
-     * Does not persist; presenter is responsible for LocalStore.saveWorkout(original).
+     * Does not persist; presenter is responsible for saving the original (PersistenceService).
      */
     public void commit() {
         if (!editing.get() || original == null || staged == null) return;
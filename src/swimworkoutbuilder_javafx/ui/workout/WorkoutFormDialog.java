@@ -12,6 +12,7 @@ import javafx.stage.Stage;
 import javafx.util.StringConverter;
 import swimworkoutbuilder_javafx.model.Workout;
 import swimworkoutbuilder_javafx.model.enums.Course;
+import swimworkoutbuilder_javafx.store.AppPreferences;
 import swimworkoutbuilder_javafx.ui.Theme;
 
 /**
@@ -52,8 +53,8 @@ public final class WorkoutFormDialog {
             cbCourse.setValue(existing.getCourse());
             if (existing.getNotes() != null) taNotes.setText(existing.getNotes());
         } else {
-            // Sensible defaults
-            cbCourse.getSelectionModel().select(Course.SCY);
+            // Sensible defaults: the course used last time
+            cbCourse.getSelectionModel().select(AppPreferences.get().get(AppPreferences.LAST_COURSE));
         }
 
         // --- Buttons -------------------------------------------------------
@@ -109,6 +110,7 @@ public final class WorkoutFormDialog {
             if (existing == null) {
                 // Create brand-new workout
                 Workout w = new Workout(swimmerId, name, course, notes, /* default rest */ 60);
+                AppPreferences.get().set(AppPreferences.LAST_COURSE, course);
                 result[0] = w;
             } else {
                 // Edit in place